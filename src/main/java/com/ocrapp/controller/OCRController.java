@@ -1,14 +1,43 @@
 package com.ocrapp.controller;
 
 import com.ocrapp.model.OCRResult;
+import com.ocrapp.model.RegionResult;
+import com.ocrapp.service.BufferedImageRegionSource;
+import com.ocrapp.service.FileImageRegionSource;
+import com.ocrapp.service.ImageAdmissionController;
+import com.ocrapp.service.ImageInput;
 import com.ocrapp.service.ImageProcessor;
+import com.ocrapp.service.ImageRegionSource;
+import com.ocrapp.service.JobContext;
 import com.ocrapp.service.OCREngine;
+import com.ocrapp.service.OCREnginePool;
+import com.ocrapp.service.OCRJobScheduler;
+import com.ocrapp.service.OCRJobScheduler.JobHandle;
+import com.ocrapp.service.OCRJobScheduler.Priority;
+import com.ocrapp.service.OCRProfile;
+import com.ocrapp.service.PageRecognizer;
+import com.ocrapp.service.ResultStore;
+import com.ocrapp.service.TessdataLocator;
 import com.ocrapp.service.TextProcessor;
+import com.ocrapp.service.export.ExportFormat;
+import com.ocrapp.service.export.ExportPage;
+import com.ocrapp.service.export.ResultExporter;
 import com.ocrapp.util.FileManager;
 import com.ocrapp.view.OCRView;
 import com.ocrapp.view.ImageDropTarget;
 import com.ocrapp.util.AppPreferences;
+import com.ocrapp.util.LogContext;
+import com.ocrapp.util.PipelineExecutors;
+import com.ocrapp.util.PipelineMetrics;
+import com.ocrapp.view.BatchQueuePanel;
+import com.ocrapp.view.HistoryDialog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.Toolkit;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.StringSelection;
@@ -16,13 +45,17 @@ import java.awt.datatransfer.StringSelection;
 import java.awt.dnd.DropTarget;
 import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
-import javax.imageio.ImageIO;
 import javax.swing.AbstractAction;
 import java.awt.event.ActionEvent;
 
 import javax.swing.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 
 /**
  * Controller class that coordinates between the view and services.
@@ -30,19 +63,40 @@ import java.io.File;
  */
 public class OCRController {
     
+    private static final Logger log = LoggerFactory.getLogger(OCRController.class);
+    
     private OCRView view;
     private FileManager fileManager;
     private ImageProcessor imageProcessor;
     private OCREngine ocrEngine;
     private TextProcessor textProcessor;
+    private SelectionPreview selectionPreview;
+    private OCREnginePool enginePool;
+    private OCRJobScheduler scheduler;
+    private PageRecognizer pageRecognizer;
+    
+    // jobs shown in the progress bar, oldest first (EDT only)
+    private final List<JobHandle<?>> activeJobs = new ArrayList<>();
     
-    private File currentImageFile;
+    private ImageInput currentInput;
     private BufferedImage currentImage;
+    private ImageRegionSource currentSource;
     private OCRResult currentResult;
     
+    // bumped per load so a slow decode can't replace a newer image (EDT only)
+    private int loadGeneration;
+    // a loading preview covers the current image until the load finishes (EDT only)
+    private boolean showingLoadPreview;
+    
     // Track extraction count for appending
     private int extractionCount;
     
+    // dropped-files batch: counts for the queue summary (EDT only)
+    private int batchGeneration;
+    private int batchTotal;
+    private int batchFinished;
+    private long batchStartNanos;
+    
     /**
      * Constructor - initializes all components
      * @param view The GUI view
@@ -55,15 +109,26 @@ public class OCRController {
         this.imageProcessor = new ImageProcessor();
         this.ocrEngine = new OCREngine();
         this.textProcessor = new TextProcessor();
+        this.enginePool = OCREnginePool.getShared();
+        this.scheduler = OCRJobScheduler.getShared();
+        this.pageRecognizer = new PageRecognizer(imageProcessor, textProcessor, enginePool);
+        this.selectionPreview = new SelectionPreview(imageProcessor, textProcessor,
+                enginePool, ocrEngine::getCurrentLanguage, ocrEngine::getProfile,
+                text -> view.getImagePanel().setPreviewText(text));
         
         // state
-        this.currentImageFile = null;
+        this.currentInput = null;
         this.currentImage = null;
+        this.currentSource = null;
         this.currentResult = null;
         this.extractionCount = 0;
         
+        ocrEngine.setProfile((OCRProfile) view.getProfileComboBox().getSelectedItem());
         initializeListeners();
         
+        // open the result store and rebuild its index off the EDT
+        PipelineExecutors.io().execute(ResultStore::getShared);
+        
         // Check OCR engine initialization
         if (!ocrEngine.isInitialized()) {
             view.showError("Failed to initialize OCR Engine.\n" +
@@ -79,15 +144,20 @@ public class OCRController {
      */
     private void initializeListeners() {
         view.getLoadImageButton().addActionListener(e -> handleLoadImage());
-        view.getExtractTextButton().addActionListener(e -> handleExtractText(currentImage, false));
+        view.getExtractTextButton().addActionListener(e -> handleExtractText(currentImage, null, false));
         view.getClearButton().addActionListener(e -> handleClear());
+        view.getCancelJobButton().addActionListener(e -> cancelActiveJobs());
         view.getCopyClipboardButton().addActionListener(e -> handleCopyToClipboard());
         
         view.getLanguageComboBox().addActionListener(e -> handleLanguageChange());
+        view.getProfileComboBox().addActionListener(e -> handleProfileChange());
         
         view.getOpenMenuItem().addActionListener(e -> handleLoadImage());
         view.getSaveMenuItem().addActionListener(e -> handleSaveText());
+        view.getHistoryMenuItem().addActionListener(e -> handleShowHistory());
+        view.getTessdataMenuItem().addActionListener(e -> handleChooseTessdata());
         view.getCopyMenuItem().addActionListener(e -> handleCopyToClipboard());
+        view.getRerunRegionMenuItem().addActionListener(e -> handleRerunRegion());
         view.getExitMenuItem().addActionListener(e -> handleExit());
         view.getClearMenuItem().addActionListener(e -> handleClear());
         view.getAboutMenuItem().addActionListener(e -> view.showAboutDialog());
@@ -102,9 +172,14 @@ public class OCRController {
         setupDragAndDrop();
         setupClipboardPaste();
         
-        view.getImagePanel().setOnSelectionComplete(selectedRegion -> {
-            handleExtractText(selectedRegion, true);
+        view.getImagePanel().setOnSelectionComplete((selectedRegion, selectedBounds) -> {
+            selectionPreview.selectionFinished();
+            handleExtractText(selectedRegion, selectedBounds, true);
         });
+        
+        if (SelectionPreview.isEnabled()) {
+            view.getImagePanel().setOnSelectionChanged(selectionPreview::selectionChanged);
+        }
     }
     
     private void handleLoadImage() {
@@ -131,145 +206,519 @@ public class OCRController {
     }
     
     /**
-     * Handle Extract Text - works for both full image and selected regions
-     * @param imageToProcess The image to extract text from
+     * Handle Extract Text - works for both full image and selected regions.
+     * The work is queued on the job scheduler, so several extractions can be
+     * queued while others run; region crops go in the interactive lane.
+     * @param imageToProcess The image to extract text from, or null to read regionBounds from the current source
+     * @param regionBounds Crop rectangle in full-resolution coordinates (null for full image)
      * @param appendText Whether to append text (true for regions) or replace (false for full image)
      */
-    private void handleExtractText(BufferedImage imageToProcess, boolean appendText) {
-        if (imageToProcess == null) {
+    private void handleExtractText(BufferedImage imageToProcess, Rectangle regionBounds, boolean appendText) {
+        if (imageToProcess == null && (regionBounds == null || currentSource == null)) {
             view.showError("No image to process.");
             return;
         }
         
-        final String existingText = appendText ? view.getText() : "";
-        final boolean shouldAppend = appendText && !existingText.trim().isEmpty(); 
+        final ImageRegionSource source = currentSource;
+        final ImageInput imageInput = currentInput;
+        final String language = ocrEngine.getCurrentLanguage();
+        final OCRProfile profile = ocrEngine.getProfile();
         final String statusMessage = appendText ? 
             "Processing selected region..." : "Processing entire image...";
         
-        System.out.println(appendText ? 
-            "OCR processing selected region: " + imageToProcess.getWidth() + "x" + imageToProcess.getHeight() :
-            "OCR processing entire image");
+        // correlation ID for every log line of this extraction
+        final String pageId = LogContext.newPageId();
         
-        // Disable buttons during processing
-        view.setExtractButtonEnabled(false);
-        view.getLoadImageButton().setEnabled(false);
+        if (appendText) {
+            log.info("OCR processing selected region: {}x{} ({})",
+                    regionBounds.width, regionBounds.height, pageId);
+        } else {
+            log.info("OCR processing entire image ({})", pageId);
+        }
         
-        view.showProgress("Initializing...");
         view.setStatus(statusMessage);
         
-        // Process in a separate thread to keep UI responsive
-        SwingWorker<OCRResult, Void> worker = new SwingWorker<OCRResult, Void>() {
-        	@Override
-        	protected OCRResult doInBackground() throws Exception {
-        	    // Step 1: Preprocessing (0-30%)
-        	    SwingUtilities.invokeLater(() -> view.updateProgress(0, "Analyzing image..."));
-        	    SwingUtilities.invokeLater(() -> view.updateProgress(15, "Preprocessing image..."));
-        	    
-        	    BufferedImage processedImage = imageProcessor.preprocessImage(imageToProcess);
-        	    
-        	    if (processedImage == null) {
-        	        throw new Exception("Image preprocessing failed");
-        	    }
-        	    
-        	    SwingUtilities.invokeLater(() -> view.updateProgress(30, "Preprocessing complete"));
-        	    
-        	    // Step 2: OCR Processing (30-80%)
-        	    SwingUtilities.invokeLater(() -> view.updateProgress(40, "Initializing OCR engine..."));
-        	    SwingUtilities.invokeLater(() -> view.updateProgress(50, "Extracting text..."));
-        	    
-        	    // Perform OCR (this is where the REAL work happens)
-        	    OCRResult result = ocrEngine.extractText(currentImageFile, processedImage);
-        	    
-        	    if (result == null) {
-        	        throw new Exception("OCR extraction failed");
-        	    }
-        	    
-        	    SwingUtilities.invokeLater(() -> view.updateProgress(80, "Text extracted"));
-        	    
-        	    // Step 3: Text Processing (80-100%)
-        	    SwingUtilities.invokeLater(() -> view.updateProgress(90, "Cleaning text..."));
-        	    SwingUtilities.invokeLater(() -> view.updateProgress(100, "Complete!"));
-        	    
-        	    return result;
-        	}
-            
+        Priority priority = appendText ? Priority.INTERACTIVE : Priority.FULL_PAGE;
+        JobHandle<OCRResult> job = scheduler.submit(priority, pageId, context -> {
+            LogContext.setPage(pageId);
+            try {
+                context.beginStage("Analyzing image...", 0, 5);
+                
+                if (regionBounds == null) {
+                    // a subsampled decode mustn't answer for the full-resolution bytes in the store
+                    boolean fullResolution = source == null || imageToProcess.getWidth() >= source.getWidth();
+                    String contentHash = fullResolution ? ResultStore.contentHash(imageInput) : null;
+                    OCRResult result = pageRecognizer.recognizePage(imageInput, contentHash, imageToProcess,
+                            language, profile, context);
+                    context.setStageProgress(100);
+                    return result;
+                }
+                
+                // the live preview may already have recognized this exact crop
+                OCRResult result = selectionPreview.takeResult(regionBounds, language, profile);
+                if (result != null) {
+                    log.debug("Using live preview result for selection");
+                } else {
+                    BufferedImage input = (imageToProcess != null) ? imageToProcess : readRegion(source, regionBounds);
+                    result = pageRecognizer.recognize(input, regionBounds, imageInput, language, profile, context);
+                }
+                
+                context.beginStage("Cleaning text...", 95, 100);
+                result.setExtractedText(textProcessor.cleanText(result.getExtractedText()));
+                context.setStageProgress(100);
+                return result;
+            } finally {
+                LogContext.clearPage();
+            }
+        }, this::publishJobProgress);
+        
+        trackJob(job, statusMessage);
+        job.getFuture().whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            LogContext.setPage(pageId);
+            try {
+                finishExtraction(result, error, appendText);
+            } finally {
+                untrackJob(job);
+                if (appendText) {
+                    view.clearSelection();
+                }
+                LogContext.clearPage();
+            }
+        }));
+    }
+    
+    /**
+     * Show the outcome of an extraction job (on the EDT)
+     * @param result Cleaned result, or null on failure
+     * @param error Failure or cancellation, or null on success
+     * @param appendText Whether the result is a region to append
+     */
+    private void finishExtraction(OCRResult result, Throwable error, boolean appendText) {
+        Throwable cause = (error instanceof CompletionException && error.getCause() != null) ?
+                error.getCause() : error;
+        
+        if (cause instanceof CancellationException) {
+            view.setStatus("OCR cancelled");
+            log.info("OCR cancelled");
+            return;
+        }
+        if (cause != null) {
+            view.showError("OCR extraction failed:\n" + cause.getMessage());
+            view.setStatus("OCR extraction failed");
+            log.error("OCR error", cause);
+            return;
+        }
+        
+        // read at completion time, so queued regions append in the order they finish
+        String existingText = appendText ? view.getText() : "";
+        boolean shouldAppend = appendText && !existingText.trim().isEmpty();
+        String cleanedText = result.getExtractedText();
+        
+        String finalText;
+        if (shouldAppend && !cleanedText.trim().isEmpty()) {
+            finalText = existingText + "\n\n" + cleanedText;
+            // append only the new region instead of replacing the whole document
+            view.appendText("\n\n" + cleanedText);
+            extractionCount++;
+        } else if (!cleanedText.trim().isEmpty()) {
+            finalText = cleanedText;
+            view.displayText(finalText);
+            extractionCount = 1;
+        } else {
+            finalText = existingText;
+            if (!appendText) {
+                view.displayText(finalText);
+            }
+            extractionCount = existingText.trim().isEmpty() ? 0 : extractionCount;
+        }
+        
+        // combine stats if appending
+        if (shouldAppend && currentResult != null) {
+            // each crop stays a region; confidence is weighted by characters, counts are summed
+            if (!cleanedText.trim().isEmpty()) {
+                currentResult.addRegions(result);
+            }
+        } else {
+            currentResult = result;
+        }
+        view.getRerunRegionMenuItem().setEnabled(canRerunRegion());
+        
+        int totalChars = finalText.length();
+        int totalWords = textProcessor.countWords(finalText);
+        String textInfo = String.format("Text: %d characters, %d words - Extractions: %d",
+                totalChars, totalWords, extractionCount);
+        view.setTextInfo(textInfo);
+        
+        if (!finalText.trim().isEmpty()) {
+            view.getCopyMenuItem().setEnabled(true);
             
-            @Override
-            protected void done() {
-                try {
-                    OCRResult result = get();
-                    
-                    String cleanedText = textProcessor.cleanText(result.getExtractedText());
-                    result.setExtractedText(cleanedText);
-                    
-                    String finalText;
-                    if (shouldAppend && !cleanedText.trim().isEmpty()) {
-                        finalText = existingText + "\n\n" + cleanedText;
-                        extractionCount++;
-                    } else if (!cleanedText.trim().isEmpty()) {
-                        finalText = cleanedText;
-                        extractionCount = 1;
-                    } else {
-                        finalText = existingText;
-                        extractionCount = existingText.trim().isEmpty() ? 0 : extractionCount;
-                    }
-                    
-                    // combine stats if appending
-                    if (shouldAppend && currentResult != null) {
-                        currentResult.setExtractedText(finalText);
-                        // confidence is averaged, counts are summed
-                    } else {
-                        currentResult = result;
-                        currentResult.setExtractedText(finalText);
-                    }
-                    
-                    view.displayText(finalText);
-                    
-                    int totalChars = finalText.length();
-                    int totalWords = textProcessor.countWords(finalText);
-                    String textInfo = String.format("Text: %d characters, %d words - Extractions: %d",
-                            totalChars, totalWords, extractionCount);
-                    view.setTextInfo(textInfo);
-                    
-                    if (!finalText.trim().isEmpty()) {
-                        view.getCopyMenuItem().setEnabled(true);
-                        
-                        if (shouldAppend) {
-                            view.setStatus("Region text added! Select another area or extract full image");
-                            view.showSuccess("Text added!\n" +
-                                           result.getWordCount() + " words extracted from region.\n" +
-                                           "Total: " + totalWords + " words");
-                        } else {
-                            view.setStatus("Text extraction completed successfully");
-                            view.showSuccess("OCR completed!\n" +
-                                           result.getWordCount() + " words extracted.");
-                        }
-                    } else {
-                        view.setStatus("No text found in " + (appendText ? "selected region" : "image"));
-                        view.showInfo("No text was detected.\n" +
-                                    "Try selecting a different area or checking the image quality.");
-                    }
-                    
-                    System.out.println("OCR completed: " + result.getSummary());
-                    
-                } catch (Exception e) {
-                    view.showError("OCR extraction failed:\n" + e.getMessage());
-                    view.setStatus("OCR extraction failed");
-                    System.err.println("OCR error: " + e.getMessage());
-                    e.printStackTrace();
-                } finally {
-                    view.hideProgress();
-                    view.setExtractButtonEnabled(true);
-                    view.getLoadImageButton().setEnabled(true);
-                    
-                    if (appendText) {
-                        view.clearSelection();
+            if (shouldAppend) {
+                view.setStatus("Region text added! Select another area or extract full image");
+                view.showSuccess("Text added!\n" +
+                               result.getWordCount() + " words extracted from region.\n" +
+                               "Total: " + totalWords + " words");
+            } else {
+                view.setStatus("Text extraction completed successfully");
+                view.showSuccess("OCR completed!\n" +
+                               result.getWordCount() + " words extracted.");
+            }
+        } else {
+            view.setStatus("No text found in " + (appendText ? "selected region" : "image"));
+            view.showInfo("No text was detected.\n" +
+                        "Try selecting a different area or checking the image quality.");
+        }
+        
+        log.info("OCR completed: {}", result.getSummary());
+    }
+    
+    /**
+     * Check that the current result was read from the loaded image, so its
+     * regions can be read again
+     * @return true if a region can be re-run
+     */
+    private boolean canRerunRegion() {
+        return currentResult != null && currentResult.getRegionCount() > 0 &&
+                currentImage != null && currentSource != null && currentInput != null &&
+                currentInput.getSourcePath().equals(currentResult.getSourceImagePath());
+    }
+    
+    /**
+     * Let the user pick a region of the current result and re-run OCR on it
+     */
+    private void handleRerunRegion() {
+        if (!canRerunRegion()) {
+            view.showInfo("No region of the loaded image to re-run.\n" +
+                         "Extract text from the image first.");
+            return;
+        }
+        
+        int count = currentResult.getRegionCount();
+        int index = 0;
+        if (count > 1) {
+            String[] labels = new String[count];
+            for (int i = 0; i < count; i++) {
+                labels[i] = describeRegion(i, currentResult.getRegion(i));
+            }
+            index = view.chooseRegion(labels);
+        }
+        if (index >= 0) {
+            reprocessRegion(index);
+        }
+    }
+    
+    private static String describeRegion(int index, RegionResult region) {
+        Rectangle bounds = region.getBounds();
+        String where = (bounds == null) ? "whole image" :
+                String.format("%d,%d %dx%d", bounds.x, bounds.y, bounds.width, bounds.height);
+        String text = region.getText().strip().replaceAll("\\s+", " ");
+        if (text.length() > 40) {
+            text = text.substring(0, 40) + "...";
+        }
+        return "Region " + (index + 1) + " (" + where + "): " + text;
+    }
+    
+    /**
+     * Re-run OCR on a single region of the current result without
+     * re-processing the rest of the page. The region is found again by its
+     * bounds when the job finishes, and dropped if it no longer has text.
+     * @param regionIndex Index of the region in the current result
+     */
+    private void reprocessRegion(int regionIndex) {
+        final Rectangle bounds = currentResult.getRegion(regionIndex).getBounds();
+        final BufferedImage fullImage = currentImage;
+        final ImageRegionSource source = currentSource;
+        final ImageInput imageInput = currentInput;
+        final String language = ocrEngine.getCurrentLanguage();
+        final OCRProfile profile = ocrEngine.getProfile();
+        final OCRResult targetResult = currentResult;
+        final String pageId = LogContext.newPageId();
+        final String statusMessage = "Re-processing region " + (regionIndex + 1) + "...";
+        
+        log.info("OCR re-processing region {} ({})", regionIndex + 1, pageId);
+        view.setStatus(statusMessage);
+        
+        JobHandle<RegionResult> job = scheduler.submit(Priority.INTERACTIVE, pageId, context -> {
+            LogContext.setPage(pageId);
+            try {
+                context.beginStage("Reading region...", 0, 5);
+                BufferedImage regionImage = (bounds != null) ? readRegion(source, bounds) : fullImage;
+                OCRResult result = pageRecognizer.recognize(regionImage, bounds, imageInput, language, profile, context);
+                
+                context.beginStage("Cleaning text...", 95, 100);
+                RegionResult region = result.getRegion(0);
+                region = region.withText(textProcessor.cleanText(region.getText()));
+                context.setStageProgress(100);
+                return region;
+            } finally {
+                LogContext.clearPage();
+            }
+        }, this::publishJobProgress);
+        
+        trackJob(job, statusMessage);
+        job.getFuture().whenComplete((region, error) -> SwingUtilities.invokeLater(() -> {
+            LogContext.setPage(pageId);
+            try {
+                finishRegionRerun(targetResult, bounds, region, error);
+            } finally {
+                untrackJob(job);
+                LogContext.clearPage();
+            }
+        }));
+    }
+    
+    /**
+     * Put a re-run region back into the result it came from (on the EDT)
+     * @param targetResult Result the region was taken from
+     * @param bounds Crop rectangle of the region (null for the whole image)
+     * @param region Cleaned region, or null on failure
+     * @param error Failure or cancellation, or null on success
+     */
+    private void finishRegionRerun(OCRResult targetResult, Rectangle bounds, RegionResult region, Throwable error) {
+        Throwable cause = (error instanceof CompletionException && error.getCause() != null) ?
+                error.getCause() : error;
+        
+        if (cause instanceof CancellationException) {
+            view.setStatus("OCR cancelled");
+            log.info("OCR cancelled");
+            return;
+        }
+        if (cause != null) {
+            view.showError("OCR extraction failed:\n" + cause.getMessage());
+            view.setStatus("OCR extraction failed");
+            log.error("OCR error", cause);
+            return;
+        }
+        
+        // the result may have been cleared, replaced or collapsed meanwhile
+        int index = (targetResult == currentResult) ? currentResult.indexOfRegion(bounds) : -1;
+        if (index < 0) {
+            view.setStatus("Region is no longer part of the text");
+            log.info("Re-run region dropped, the result changed meanwhile");
+            return;
+        }
+        
+        if (region.getText().trim().isEmpty()) {
+            currentResult.removeRegion(index);
+            view.setStatus("No text found in region " + (index + 1) + ", removed it");
+        } else {
+            currentResult.replaceRegion(index, region);
+            view.setStatus("Region " + (index + 1) + " re-processed");
+        }
+        extractionCount = currentResult.getRegionCount();
+        view.getRerunRegionMenuItem().setEnabled(canRerunRegion());
+        
+        String finalText = currentResult.getExtractedText();
+        view.displayText(finalText);
+        view.setTextInfo(String.format("Text: %d characters, %d words - Extractions: %d",
+                finalText.length(), textProcessor.countWords(finalText), extractionCount));
+        view.getCopyMenuItem().setEnabled(!finalText.trim().isEmpty());
+        
+        log.info("Region re-processed: {}", region);
+    }
+    
+    /**
+     * Queue every image among dropped files and folders for OCR
+     * @param files Dropped files and folders
+     */
+    private void handleFilesDropped(List<File> files) {
+        view.setStatus("Scanning dropped files...");
+        
+        // folders are walked on the I/O executor, not the EDT
+        PipelineExecutors.supplyIo(() -> fileManager.collectImageFiles(files))
+                .whenComplete((images, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null || images.isEmpty()) {
+                        view.showError("No supported images were found in the dropped files.\n" +
+                                      "Supported formats: JPG, PNG, BMP, TIFF, GIF.");
+                        view.setStatus("No images to process");
+                        return;
                     }
-                }
+                    enqueueBatch(images);
+                }));
+    }
+    
+    /**
+     * Queue images for background OCR. They run in the BATCH lane, so at
+     * most one per scheduler worker (the engine pool size) is processed at
+     * a time and interactive work still goes first. Text is appended to the
+     * output as each one finishes.
+     * @param images Image files
+     */
+    private void enqueueBatch(List<File> images) {
+        if (batchFinished == batchTotal) {
+            // previous batch is done, start counting afresh
+            batchTotal = 0;
+            batchFinished = 0;
+            batchStartNanos = System.nanoTime();
+        }
+        
+        String language = ocrEngine.getCurrentLanguage();
+        OCRProfile profile = ocrEngine.getProfile();
+        for (File image : images) {
+            enqueueBatchFile(image, language, profile);
+        }
+        
+        updateBatchSummary();
+        view.setStatus("Queued " + images.size() + " image(s) for OCR");
+        log.info("Queued {} image(s) for batch OCR", images.size());
+    }
+    
+    private void enqueueBatchFile(File file, String language, OCRProfile profile) {
+        final BatchQueuePanel queue = view.getBatchQueuePanel();
+        final int row = queue.addItem(file.getName());
+        final int generation = batchGeneration;
+        final String pageId = LogContext.newPageId();
+        batchTotal++;
+        
+        JobHandle<BatchResult> job = scheduler.submit(Priority.BATCH, pageId, context -> {
+            LogContext.setPage(pageId);
+            try {
+                long startNanos = System.nanoTime();
+                SwingUtilities.invokeLater(() -> queue.setItemStatus(row, "Processing", -1, false));
+                
+                OCRResult result = pageRecognizer.recognizePage(ImageInput.fromFile(file), null, language, profile, context);
+                return new BatchResult(result, (System.nanoTime() - startNanos) / 1_000_000);
+            } finally {
+                LogContext.clearPage();
             }
-        };
+        }, this::publishJobProgress);
         
-        worker.execute();
+        trackJob(job, "Processing " + file.getName() + "...");
+        job.getFuture().whenComplete((batchResult, error) -> SwingUtilities.invokeLater(() -> {
+            untrackJob(job);
+            if (generation == batchGeneration) {
+                finishBatchFile(file, row, batchResult, error);
+            }
+        }));
+    }
+    
+    /**
+     * Record a finished batch file and stream its text into the output (on the EDT)
+     */
+    private void finishBatchFile(File file, int row, BatchResult batchResult, Throwable error) {
+        BatchQueuePanel queue = view.getBatchQueuePanel();
+        Throwable cause = (error instanceof CompletionException && error.getCause() != null) ?
+                error.getCause() : error;
+        batchFinished++;
+        
+        if (cause instanceof CancellationException) {
+            queue.setItemStatus(row, "Cancelled", -1, true);
+        } else if (cause != null) {
+            queue.setItemStatus(row, "Failed", -1, true);
+            log.warn("Batch OCR failed for {}: {}", file.getName(), cause.getMessage());
+        } else {
+            String text = batchResult.result.getExtractedText();
+            boolean hasText = text != null && !text.trim().isEmpty();
+            queue.setItemStatus(row, hasText ? "Done" : "No text", batchResult.millis, true);
+            
+            if (hasText) {
+                String existingText = view.getText();
+                String separator = existingText.trim().isEmpty() ? "" : "\n\n";
+                view.appendText(separator + "=== " + file.getName() + " ===\n" + text);
+                extractionCount++;
+                
+                String finalText = view.getText();
+                view.setTextInfo(String.format("Text: %d characters, %d words - Extractions: %d",
+                        finalText.length(), textProcessor.countWords(finalText), extractionCount));
+                view.getCopyMenuItem().setEnabled(true);
+            }
+            log.info("Batch OCR completed for {}: {}", file.getName(), batchResult.result.getSummary());
+        }
+        
+        updateBatchSummary();
+        if (batchFinished == batchTotal) {
+            view.setStatus("Batch complete - " + batchTotal + " image(s) processed");
+        }
+    }
+    
+    private void updateBatchSummary() {
+        double elapsedMinutes = (System.nanoTime() - batchStartNanos) / 60e9;
+        double pagesPerMinute = (elapsedMinutes > 0) ? batchFinished / elapsedMinutes : 0;
+        view.getBatchQueuePanel().setSummary(String.format("Queue: %d of %d done - %.1f pages/min",
+                batchFinished, batchTotal, pagesPerMinute));
+    }
+    
+    /**
+     * Start showing progress for a queued job (on the EDT)
+     * @param job Submitted job
+     * @param message Initial progress message
+     */
+    private void trackJob(JobHandle<?> job, String message) {
+        activeJobs.add(job);
+        if (activeJobs.size() == 1) {
+            view.showProgress(message);
+        } else {
+            view.updateProgress(activeJobs.get(0).getProgress(), queuedMessage(message));
+        }
+    }
+    
+    /**
+     * Stop tracking a finished job (on the EDT)
+     * @param job Completed, failed or cancelled job
+     */
+    private void untrackJob(JobHandle<?> job) {
+        activeJobs.remove(job);
+        if (activeJobs.isEmpty()) {
+            view.hideProgress();
+        }
+    }
+    
+    /**
+     * Progress listener for scheduled jobs; the bar follows the oldest active job
+     */
+    private void publishJobProgress(JobHandle<?> job, int percent, String message) {
+        SwingUtilities.invokeLater(() -> {
+            if (!activeJobs.isEmpty() && activeJobs.get(0) == job) {
+                view.updateProgress(percent, queuedMessage(message));
+            }
+        });
+    }
+    
+    private String queuedMessage(String message) {
+        int others = activeJobs.size() - 1;
+        return (others > 0) ? message + " (+" + others + " queued)" : message;
+    }
+    
+    /**
+     * Cancel all running and queued extraction jobs
+     */
+    private void cancelActiveJobs() {
+        if (activeJobs.isEmpty()) {
+            return;
+        }
+        log.info("Cancelling {} OCR job(s)", activeJobs.size());
+        for (JobHandle<?> job : new ArrayList<>(activeJobs)) {
+            job.cancel();
+        }
+        view.setStatus("Cancelling OCR...");
+    }
+    
+    /**
+     * Read a region of the current image for OCR. Crops too large for the
+     * image memory budget are read subsampled, straight from the source.
+     * @param source Full-resolution image source
+     * @param bounds Region in full-resolution coordinates
+     * @return Region image
+     * @throws IOException if the region can't be read
+     */
+    private static BufferedImage readRegion(ImageRegionSource source, Rectangle bounds) throws IOException {
+        int subsampling = ImageAdmissionController.getShared().subsamplingFor(
+                ImageProcessor.estimateDecodeBytes(bounds.width, bounds.height));
+        BufferedImage region = source.readRegion(bounds, subsampling);
+        if (region == null) {
+            throw new IOException("Region is outside the image: " + bounds);
+        }
+        return region;
+    }
+    
+    /**
+     * Replace the current full-resolution source, closing the old one
+     * @param source New source, or null
+     */
+    private void setCurrentSource(ImageRegionSource source) {
+        if (currentSource != null && currentSource != source) {
+            currentSource.close();
+        }
+        currentSource = source;
     }
     
     private void handleSaveText() {
@@ -282,7 +731,8 @@ public class OCRController {
         
         view.setStatus("Selecting save location...");
         
-        String defaultFileName = fileManager.generateDefaultSaveFileName(currentImageFile);
+        String defaultFileName = fileManager.generateDefaultSaveFileName(
+                (currentInput != null) ? currentInput.getFile() : null);
         
         File saveFile = fileManager.selectSaveLocation(defaultFileName);
         
@@ -291,15 +741,68 @@ public class OCRController {
             return;
         }
         
+        ExportFormat format = ExportFormat.forFileName(saveFile.getName());
+        if (format != null && format != ExportFormat.TEXT) {
+            exportResult(format, saveFile);
+            return;
+        }
+        
         view.setStatus("Saving text...");
         
-        boolean success = fileManager.saveTextToFile(text, saveFile);
+        // plain text is saved from the text area, so the user's edits are kept
+        PipelineExecutors.supplyIo(() -> fileManager.saveTextToFile(text, saveFile))
+                .whenComplete((success, error) -> SwingUtilities.invokeLater(
+                        () -> finishSave(saveFile, error == null && success)));
+    }
+    
+    /**
+     * Export the current result with its word layout (hOCR, ALTO, TSV, PDF)
+     * @param format Export format
+     * @param saveFile Target file
+     */
+    private void exportResult(ExportFormat format, File saveFile) {
+        boolean hasLayout = currentResult != null && currentSource != null &&
+                currentResult.getRegions().stream().anyMatch(RegionResult::hasWordLayout);
+        if (!hasLayout) {
+            view.showError(format.getDescription() + " export needs word positions from OCR.\n" +
+                          "Please extract text from the image first.");
+            view.setStatus("Nothing to export");
+            return;
+        }
+        
+        // snapshot on the EDT; the export runs on the I/O executor
+        OCRResult snapshot = new OCRResult();
+        snapshot.addRegions(currentResult);
+        String pageName = (currentInput != null) ? currentInput.getName() : "page";
+        ExportPage page = new ExportPage(pageName, currentSource.getWidth(), currentSource.getHeight(), snapshot,
+                (currentImage != null) ? ImageInput.fromImage(currentImage, pageName) : null);
         
+        view.setStatus("Exporting " + format.getDescription() + "...");
+        PipelineExecutors.supplyIo(() -> {
+            long startNanos = System.nanoTime();
+            try (ResultExporter exporter = format.createExporter(saveFile.toPath())) {
+                exporter.writePage(page);
+                exporter.finish();
+            }
+            PipelineMetrics.record(PipelineMetrics.Stage.SAVE, startNanos, 0);
+            return true;
+        }).whenComplete((success, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                log.error("Export to {} failed", saveFile.getAbsolutePath(), error);
+            }
+            finishSave(saveFile, error == null);
+        }));
+    }
+    
+    /**
+     * Report the outcome of a save (on the EDT)
+     */
+    private void finishSave(File saveFile, boolean success) {
         if (success) {
             view.setStatus("Text saved successfully to: " + saveFile.getName());
             view.showSuccess("Text saved successfully!\n" +
                            "File: " + saveFile.getAbsolutePath());
-            System.out.println("Text saved to: " + saveFile.getAbsolutePath());
+            log.info("Text saved to: {}", saveFile.getAbsolutePath());
         } else {
             view.showError("Failed to save text file.\n" +
                          "Please check file permissions and try again.");
@@ -307,6 +810,72 @@ public class OCRController {
         }
     }
     
+    /**
+     * Open the search dialog over past results
+     */
+    private void handleShowHistory() {
+        // the store may still be rebuilding its index on first use
+        PipelineExecutors.supplyIo(ResultStore::getShared)
+                .whenComplete((store, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null || !store.isAvailable()) {
+                        view.showError("Result history is not available.\n" +
+                                      "Check that the data directory is writable.");
+                        return;
+                    }
+                    new HistoryDialog(view, store, this::showStoredResult).setVisible(true);
+                }));
+    }
+    
+    /**
+     * Choose the tessdata folder to use from the next start
+     */
+    private void handleChooseTessdata() {
+        File folder = fileManager.selectDirectory("Select Tessdata Folder");
+        if (folder == null) {
+            return;
+        }
+        
+        List<String> languages = TessdataLocator.listLanguages(folder.getAbsolutePath());
+        if (languages.isEmpty()) {
+            view.showError("No language data (.traineddata files) in\n" + folder.getAbsolutePath());
+            return;
+        }
+        
+        AppPreferences.saveTessdataPath(folder.getAbsolutePath());
+        log.info("Tessdata folder set to {} ({})", folder.getAbsolutePath(), String.join(", ", languages));
+        view.showInfo("Language data will be loaded from\n" + folder.getAbsolutePath() + "\n" +
+                     "the next time the application starts.\n\n" +
+                     "Installed: " + String.join(", ", languages));
+        view.setStatus("Tessdata folder saved");
+    }
+    
+    /**
+     * Show a result opened from the history in the text area (on the EDT)
+     * @param result Stored result
+     */
+    private void showStoredResult(OCRResult result) {
+        boolean sameImage = currentInput != null &&
+                currentInput.getSourcePath().equals(result.getSourceImagePath());
+        if (sameImage) {
+            currentResult = result;
+        } else {
+            // word boxes belong to another image; keep only the text for exports
+            RegionResult region = result.getRegion(0);
+            currentResult = new OCRResult(new RegionResult(region.getText(), region.getConfidenceScore(),
+                    null, region.getProcessingTimeMs(), region.getLanguage()), result.getSourceImagePath());
+        }
+        extractionCount = 1;
+        view.getRerunRegionMenuItem().setEnabled(canRerunRegion());
+        
+        String text = result.getExtractedText();
+        view.displayText(text);
+        view.setTextInfo(String.format("Text: %d characters, %d words - Extractions: %d",
+                text.length(), textProcessor.countWords(text), extractionCount));
+        view.getCopyMenuItem().setEnabled(!text.trim().isEmpty());
+        view.setStatus("Opened result from " + result.getFormattedTimestamp() + ": " +
+                new File(result.getSourceImagePath()).getName());
+    }
+    
     /**
      * Handle Copy to Clipboard button click
      */
@@ -329,13 +898,12 @@ public class OCRController {
                          "Characters: " + text.length() + "\n" +
                          "Words: " + textProcessor.countWords(text));
             
-            System.out.println("Text copied to clipboard: " + text.length() + " characters");
+            log.debug("Text copied to clipboard: {} characters", text.length());
             
         } catch (Exception e) {
             view.showError("Failed to copy text to clipboard:\n" + e.getMessage());
             view.setStatus("Clipboard copy failed");
-            System.err.println("Clipboard error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Clipboard error", e);
         }
     }
     
@@ -350,9 +918,18 @@ public class OCRController {
         );
         
         if (choice == JOptionPane.YES_OPTION) {
+            cancelActiveJobs();
+            loadGeneration++;
+            showingLoadPreview = false;
+            batchGeneration++;
+            batchTotal = 0;
+            batchFinished = 0;
+            
             // Clear state
-            currentImageFile = null;
+            currentInput = null;
             currentImage = null;
+            setCurrentSource(null);
+            selectionPreview.setSource(null, null);
             currentResult = null;
             extractionCount = 0;
             
@@ -360,7 +937,7 @@ public class OCRController {
             
             view.clearAll();
             
-            System.out.println("Application cleared");
+            log.info("Application cleared");
         }
     }
     
@@ -375,7 +952,7 @@ public class OCRController {
         );
         
         if (choice == JOptionPane.YES_OPTION) {
-            System.out.println("Application exiting...");
+            log.info("Application exiting...");
             System.exit(0);
         }
     }
@@ -393,7 +970,7 @@ public class OCRController {
         	AppPreferences.saveLastLanguage(selectedLanguage);
         	 
             view.setStatus("Language changed to: " + selectedLanguage);
-            System.out.println("OCR language changed to: " + selectedLanguage + " (" + languageCode + ")");
+            log.info("OCR language changed to: {} ({})", selectedLanguage, languageCode);
         } else {
             view.showError("Failed to change language to " + selectedLanguage + "\n" +
                           "Language data may not be installed.\n" +
@@ -405,6 +982,22 @@ public class OCRController {
         }
     }
     
+    /**
+     * Handle speed/accuracy profile change; applies to jobs submitted from now on
+     */
+    private void handleProfileChange() {
+        OCRProfile profile = (OCRProfile) view.getProfileComboBox().getSelectedItem();
+        if (profile == null) {
+            return;
+        }
+        
+        ocrEngine.setProfile(profile);
+        AppPreferences.saveLastProfile(profile.getId());
+        selectionPreview.cancel();
+        view.setStatus("Quality set to: " + profile.getDisplayName());
+        log.info("OCR profile changed to: {}", profile.getId());
+    }
+    
     /**
      * Handle undo action
      */
@@ -414,7 +1007,7 @@ public class OCRController {
                 view.getUndoManager().undo();
             }
         } catch (Exception e) {
-            System.err.println("Cannot undo: " + e.getMessage());
+            log.warn("Cannot undo: {}", e.getMessage());
         }
     }
 
@@ -427,7 +1020,7 @@ public class OCRController {
                 view.getUndoManager().redo();
             }
         } catch (Exception e) {
-            System.err.println("Cannot redo: " + e.getMessage());
+            log.warn("Cannot redo: {}", e.getMessage());
         }
     }
 
@@ -467,13 +1060,14 @@ public class OCRController {
      * Setup drag and drop for image panel
      */
     private void setupDragAndDrop() {
-        ImageDropTarget dropTarget = new ImageDropTarget(file -> {
-            // Load dropped file
-            SwingUtilities.invokeLater(() -> loadImageFromFile(file));
-        });
+        ImageDropTarget dropTarget = new ImageDropTarget(
+                // Load dropped file
+                file -> SwingUtilities.invokeLater(() -> loadImageFromFile(file)),
+                // several files or folders go to the batch queue
+                files -> SwingUtilities.invokeLater(() -> handleFilesDropped(files)));
         
         view.getImageCropPanel().setDropTarget(new DropTarget(view.getImageCropPanel(), dropTarget));
-        System.out.println("Drag and drop enabled");
+        log.debug("Drag and drop enabled");
     }
 
     /**
@@ -502,7 +1096,7 @@ public class OCRController {
             }
         });
 
-        System.out.println("Clipboard paste enabled (Ctrl+V for both window and image area)");
+        log.debug("Clipboard paste enabled (Ctrl+V for both window and image area)");
     }
 
 
@@ -515,39 +1109,58 @@ public class OCRController {
             Transferable contents = clipboard.getContents(null);
                      
             if (contents != null && contents.isDataFlavorSupported(DataFlavor.imageFlavor)) {
-                BufferedImage image = (BufferedImage) contents.getTransferData(DataFlavor.imageFlavor);
+                BufferedImage image = toBufferedImage((Image) contents.getTransferData(DataFlavor.imageFlavor));
                 
                 if (image != null) {
                     // release memory resources
                     if (currentImage != null) {
                         currentImage.flush();     
                         currentImage = null;
-                        System.out.println("Previous Image flushed");
+                        log.debug("Previous image flushed");
                     }
-                    // Create temp file to store image
-                    File tempFile = File.createTempFile("ocr_pasted_", ".png");
-                    tempFile.deleteOnExit();
                     
-                    ImageIO.write(image, "png", tempFile);
-                    
-                    loadImageFromFile(tempFile);
-                    
-                    view.setStatus("Image pasted from clipboard");
-                    System.out.println("Image pasted from clipboard");
+                    // straight to the pipeline - no temp file round trip
+                    loadImage(ImageInput.fromImage(image, "Pasted image"));
+                    log.info("Image pasted from clipboard");
                 }
             } else {
                 view.setStatus("No image found in clipboard");
-                System.out.println("No image was found in clipboard. Use valid formats.");
+                log.info("No image was found in clipboard. Use valid formats.");
             }
             
         } catch (Exception e) {
             view.showError("Failed to paste image from clipboard:\n" + e.getMessage());
-            System.err.println("Clipboard paste error: " + e.getMessage());
+            log.error("Clipboard paste error", e);
         }
     }
 
     /**
-     * Load image from file (shared by drag-drop, paste, and file picker)
+     * Get a clipboard image as a BufferedImage, copying only when the
+     * platform hands back some other kind of Image
+     * @param image Clipboard image (may be null)
+     * @return BufferedImage, or null
+     */
+    private static BufferedImage toBufferedImage(Image image) {
+        if (image == null || image instanceof BufferedImage) {
+            return (BufferedImage) image;
+        }
+        
+        ImageIcon loaded = new ImageIcon(image); // waits for toolkit images to finish loading
+        int width = loaded.getIconWidth();
+        int height = loaded.getIconHeight();
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        
+        BufferedImage copy = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = copy.createGraphics();
+        g2d.drawImage(loaded.getImage(), 0, 0, null);
+        g2d.dispose();
+        return copy;
+    }
+
+    /**
+     * Load image from file (shared by drag-drop and file picker)
      */
     private void loadImageFromFile(File selectedFile) {
         if (selectedFile == null) {
@@ -561,33 +1174,168 @@ public class OCRController {
             return;
         }
         
+        loadImage(ImageInput.fromFile(selectedFile));
+    }
+    
+    /**
+     * Load an image from any source and make it current
+     * @param input Image to load
+     */
+    private void loadImage(ImageInput input) {
         view.setStatus("Loading image...");
         
-        BufferedImage image = imageProcessor.loadImage(selectedFile);
+        // decoding is blocking I/O; the EDT picks the result up when it's ready
+        final int generation = ++loadGeneration;
+        final ImageProcessor.LoadListener listener = new ImageProcessor.LoadListener() {
+            @Override
+            public void previewReady(BufferedImage preview, int fullWidth, int fullHeight) {
+                SwingUtilities.invokeLater(() -> {
+                    if (generation == loadGeneration) {
+                        showingLoadPreview = true;
+                        view.setExtractButtonEnabled(false);
+                        view.displayLoadingPreview(preview);
+                        view.setImageInfo(String.format("Image: %s (%dx%d) - loading",
+                                input.getName(), fullWidth, fullHeight));
+                    }
+                });
+            }
+            
+            @Override
+            public void progressChanged(int percent) {
+                SwingUtilities.invokeLater(() -> {
+                    if (generation == loadGeneration && percent < 100) {
+                        view.setStatus("Loading image... " + percent + "%");
+                    }
+                });
+            }
+        };
+        
+        PipelineExecutors.supplyIo(() -> {
+            BufferedImage image = imageProcessor.loadImage(input, listener);
+            if (image == null) {
+                return null;
+            }
+            return new LoadedImage(image, openRegionSource(input, image));
+        }).whenComplete((loaded, error) -> SwingUtilities.invokeLater(() -> {
+            if (generation != loadGeneration) {
+                // another image was picked while this one decoded
+                if (loaded != null) {
+                    loaded.source.close();
+                }
+                return;
+            }
+            if (error != null) {
+                log.error("Image load error", error);
+            }
+            showLoadedImage(input, (error == null) ? loaded : null);
+        }));
+    }
+    
+    /**
+     * Make a decoded image current (on the EDT)
+     * @param input Image that was loaded
+     * @param loaded Decoded image and its source, or null if loading failed
+     */
+    private void showLoadedImage(ImageInput input, LoadedImage loaded) {
+        boolean hadPreview = showingLoadPreview;
+        showingLoadPreview = false;
         
-        if (image == null) {
+        if (loaded == null) {
+            if (hadPreview) {
+                // put back the image the preview covered
+                view.displayImage(currentImage, currentSource);
+                view.setExtractButtonEnabled(currentImage != null);
+                showImageInfo();
+            }
             view.showError("Failed to load image.\n" +
                           "The file may be corrupted or in an unsupported format.");
             view.setStatus("Failed to load image");
             return;
         }
         
-        this.currentImageFile = selectedFile;
-        this.currentImage = image;
+        // results for the previous image are of no use any more
+        cancelActiveJobs();
         
-        view.displayImage(image);
+        this.currentInput = input;
+        this.currentImage = loaded.image;
+        setCurrentSource(loaded.source);
+        selectionPreview.setSource(currentSource, input);
         
-        String imageInfo = String.format("Image: %s (%dx%d) - %s",
-                selectedFile.getName(),
-                image.getWidth(),
-                image.getHeight(),
-                fileManager.getFormattedFileSize(selectedFile));
-        view.setImageInfo(imageInfo);
+        view.displayImage(currentImage, currentSource);
+        showImageInfo();
         
         view.setExtractButtonEnabled(true);
         view.setStatus("Image loaded - Select 'Extract Text' for full image or 'Select Area' for specific regions");
         
-        System.out.println("Image loaded: " + selectedFile.getAbsolutePath());
+        log.info("Image loaded: {}", input.getSourcePath());
+    }
+    
+    /**
+     * Show the name, size and file size of the current image
+     */
+    private void showImageInfo() {
+        if (currentInput == null || currentSource == null) {
+            view.setImageInfo("Image: None");
+            return;
+        }
+        
+        String imageInfo = String.format("Image: %s (%dx%d) - %s",
+                currentInput.getName(),
+                currentSource.getWidth(),
+                currentSource.getHeight(),
+                (currentInput.getFile() != null) ?
+                        fileManager.getFormattedFileSize(currentInput.getFile()) : "in memory");
+        view.setImageInfo(imageInfo);
+    }
+    
+    /**
+     * Pick the full-resolution source for a loaded image. Images that had to
+     * be decoded subsampled are backed by region reads from the file, so
+     * zooming and cropping still see every pixel.
+     * @param input Image source
+     * @param image Decoded (possibly subsampled) image
+     * @return Region source for the image
+     */
+    private ImageRegionSource openRegionSource(ImageInput input, BufferedImage image) {
+        File file = input.getFile();
+        Dimension fullSize = ImageProcessor.readImageDimensions(file);
+        if (fullSize != null && fullSize.width > image.getWidth()) {
+            try {
+                log.info("Large image {}x{}, reading full resolution on demand",
+                        fullSize.width, fullSize.height);
+                return new FileImageRegionSource(file);
+            } catch (IOException e) {
+                log.warn("Region reads unavailable, using decoded image: {}", e.getMessage());
+            }
+        }
+        return new BufferedImageRegionSource(image);
+    }
+    
+    /**
+     * Text of one batch file and how long it took end to end
+     */
+    private static final class BatchResult {
+        private final OCRResult result;
+        private final long millis;
+        
+        private BatchResult(OCRResult result, long millis) {
+            this.result = result;
+            this.millis = millis;
+        }
+    }
+    
+    /**
+     * Decoded image and its full-resolution source, handed from the
+     * loading thread to the EDT
+     */
+    private static final class LoadedImage {
+        private final BufferedImage image;
+        private final ImageRegionSource source;
+        
+        private LoadedImage(BufferedImage image, ImageRegionSource source) {
+            this.image = image;
+            this.source = source;
+        }
     }
     
     /**
@@ -602,7 +1350,7 @@ public class OCRController {
         
         if (!success) {
             // last used language not found anymore, reset to English
-            System.out.println("Saved language '" + savedLanguage + "' not available. Resetting to English.");
+            log.warn("Saved language '{}' not available. Resetting to English.", savedLanguage);
             
             view.getLanguageComboBox().setSelectedIndex(0); // set to english
             AppPreferences.saveLastLanguage("English");
@@ -615,7 +1363,7 @@ public class OCRController {
                 "https://github.com/tesseract-ocr/tessdata"
             );
         } else {
-            System.out.println("Language restored from preferences: " + savedLanguage);
+            log.info("Language restored from preferences: {}", savedLanguage);
         }
     }
 }
\ No newline at end of file
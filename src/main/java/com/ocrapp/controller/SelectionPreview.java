@@ -0,0 +1,258 @@
+package com.ocrapp.controller;
+
+import com.ocrapp.model.OCRResult;
+import com.ocrapp.service.ImageInput;
+import com.ocrapp.service.ImageProcessor;
+import com.ocrapp.service.ImageRegionSource;
+import com.ocrapp.service.OCREnginePool;
+import com.ocrapp.service.OCRProfile;
+import com.ocrapp.service.TextProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Speculative OCR of the selection while it is being dragged.
+ * Each selection change restarts a short debounce; when it fires, the crop
+ * is read (downscaled if large), preprocessed and recognized on a pooled
+ * engine on one background thread. Every change bumps a generation number,
+ * so superseded jobs are skipped before they start and their text is
+ * dropped if they finish late.
+ *
+ * Results of full-resolution crops are kept so the extraction started on
+ * mouse release can reuse them, or wait for the job still running on the
+ * same crop instead of starting over.
+ *
+ * Disable with -Docrapp.livePreview=false.
+ */
+class SelectionPreview {
+
+    private static final Logger log = LoggerFactory.getLogger(SelectionPreview.class);
+
+    private static final int DEBOUNCE_MS = 200;
+    // longest side of the crop recognized for a preview
+    private static final int PREVIEW_MAX_SIDE = 1200;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ocr-preview");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ImageProcessor imageProcessor;
+    private final TextProcessor textProcessor;
+    private final OCREnginePool enginePool;
+    private final Supplier<String> language;
+    private final Supplier<OCRProfile> profile;
+    private final Consumer<String> onPreview;
+    private final Timer debounceTimer;
+    private final AtomicInteger generation;
+
+    // EDT only
+    private ImageRegionSource source;
+    private ImageInput sourceInput;
+    private Rectangle pendingBounds;
+
+    // latest full-resolution job, guarded by this
+    private Rectangle speculativeBounds;
+    private String speculativeLanguage;
+    private OCRProfile speculativeProfile;
+    private CompletableFuture<OCRResult> speculative;
+
+    /**
+     * Constructor
+     * @param imageProcessor Preprocessing for the crop
+     * @param textProcessor Cleanup for the provisional text
+     * @param enginePool Engines to recognize on
+     * @param language Supplies the current language code (read on the EDT)
+     * @param profile Supplies the current speed/accuracy profile (read on the EDT)
+     * @param onPreview Receives provisional text on the EDT (null to hide it)
+     */
+    SelectionPreview(ImageProcessor imageProcessor, TextProcessor textProcessor, OCREnginePool enginePool,
+                     Supplier<String> language, Supplier<OCRProfile> profile, Consumer<String> onPreview) {
+        this.imageProcessor = imageProcessor;
+        this.textProcessor = textProcessor;
+        this.enginePool = enginePool;
+        this.language = language;
+        this.profile = profile;
+        this.onPreview = onPreview;
+        this.generation = new AtomicInteger();
+        this.debounceTimer = new Timer(DEBOUNCE_MS, e -> startPreview());
+        this.debounceTimer.setRepeats(false);
+    }
+
+    static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("ocrapp.livePreview", "true"));
+    }
+
+    /**
+     * Set the image selections are made on
+     * @param source Full-resolution image source (null when no image)
+     * @param sourceInput Original image, for result metadata (may be null)
+     */
+    void setSource(ImageRegionSource source, ImageInput sourceInput) {
+        cancel();
+        this.source = source;
+        this.sourceInput = sourceInput;
+        synchronized (this) {
+            speculative = null;
+            speculativeBounds = null;
+        }
+    }
+
+    /**
+     * Called on every selection change while dragging
+     * @param bounds Selection in full-resolution coordinates, or null if too small
+     */
+    void selectionChanged(Rectangle bounds) {
+        if (bounds != null && bounds.equals(pendingBounds)) {
+            return;
+        }
+        pendingBounds = bounds;
+        generation.incrementAndGet();
+
+        if (bounds == null || source == null) {
+            debounceTimer.stop();
+            onPreview.accept(null);
+        } else {
+            debounceTimer.restart();
+        }
+    }
+
+    /**
+     * Stop showing provisional text once the selection is complete.
+     * A job already running keeps going so its result can still be taken.
+     */
+    void selectionFinished() {
+        debounceTimer.stop();
+        generation.incrementAndGet();
+        pendingBounds = null;
+    }
+
+    /**
+     * Drop any pending preview and hide the provisional text
+     */
+    void cancel() {
+        selectionFinished();
+        onPreview.accept(null);
+    }
+
+    private void startPreview() {
+        final Rectangle bounds = pendingBounds;
+        final ImageRegionSource imageSource = source;
+        final ImageInput input = sourceInput;
+        final String languageCode = language.get();
+        final OCRProfile jobProfile = profile.get();
+        final int jobGeneration = generation.get();
+        if (bounds == null || imageSource == null) {
+            return;
+        }
+
+        int longestSide = Math.max(bounds.width, bounds.height);
+        final int subsampling = Math.max(1, (longestSide + PREVIEW_MAX_SIDE - 1) / PREVIEW_MAX_SIDE);
+
+        final CompletableFuture<OCRResult> future = new CompletableFuture<>();
+        if (subsampling == 1) {
+            // only full-resolution results are good enough to reuse as the final one
+            synchronized (this) {
+                speculative = future;
+                speculativeBounds = new Rectangle(bounds);
+                speculativeLanguage = languageCode;
+                speculativeProfile = jobProfile;
+            }
+        }
+
+        EXECUTOR.execute(() -> {
+            if (generation.get() != jobGeneration) {
+                // superseded while queued
+                future.complete(null);
+                return;
+            }
+
+            try {
+                OCRResult result = recognize(imageSource, input, bounds, subsampling, languageCode, jobProfile);
+                future.complete(result);
+
+                if (result != null && generation.get() == jobGeneration) {
+                    String text = textProcessor.cleanText(result.getExtractedText());
+                    SwingUtilities.invokeLater(() -> {
+                        if (generation.get() == jobGeneration) {
+                            onPreview.accept(text);
+                        }
+                    });
+                }
+            } catch (Exception e) {
+                log.debug("Preview OCR failed: {}", e.getMessage());
+                future.complete(null);
+            }
+        });
+    }
+
+    private OCRResult recognize(ImageRegionSource imageSource, ImageInput input, Rectangle bounds,
+                                int subsampling, String languageCode, OCRProfile jobProfile) throws Exception {
+        // skip rather than queue behind other work - a stale preview is worthless
+        try (OCREnginePool.Lease lease = enginePool.tryBorrow(languageCode)) {
+            if (lease == null) {
+                log.debug("No idle engine for preview, skipping");
+                return null;
+            }
+
+            BufferedImage crop = imageSource.readRegion(bounds, subsampling);
+            if (crop == null) {
+                return null;
+            }
+
+            BufferedImage processed = imageProcessor.preprocessImage(crop, jobProfile);
+            if (processed == null) {
+                return null;
+            }
+
+            try {
+                lease.getEngine().setProfile(jobProfile);
+                return lease.getEngine().extractText(input, processed, bounds, null);
+            } finally {
+                imageProcessor.releaseProcessedImage(processed);
+            }
+        }
+    }
+
+    /**
+     * Take the speculative result for a completed selection, waiting for
+     * the job if it is still running. Each result is handed out once.
+     * @param bounds Final selection in full-resolution coordinates
+     * @param languageCode Language the final result must be in
+     * @param resultProfile Profile the final result must be recognized with
+     * @return Uncleaned result, or null if there is none for this crop
+     * @throws InterruptedException if interrupted while waiting
+     */
+    OCRResult takeResult(Rectangle bounds, String languageCode, OCRProfile resultProfile)
+            throws InterruptedException {
+        CompletableFuture<OCRResult> future;
+        synchronized (this) {
+            if (speculative == null || !bounds.equals(speculativeBounds)
+                    || !languageCode.equals(speculativeLanguage) || resultProfile != speculativeProfile) {
+                return null;
+            }
+            future = speculative;
+            speculative = null;
+            speculativeBounds = null;
+        }
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+}
@@ -1,22 +1,67 @@
 package com.ocrapp.main;
 
 import com.ocrapp.controller.OCRController;
+import com.ocrapp.service.BatchRunner;
+import com.ocrapp.service.HotFolderService;
+import com.ocrapp.service.OCREnginePool;
+import com.ocrapp.service.OCRHttpService;
+import com.ocrapp.service.OCRJobScheduler;
+import com.ocrapp.service.OCRProfile;
+import com.ocrapp.service.PageRecognizer;
+import com.ocrapp.service.bench.OCRBenchmark;
+import com.ocrapp.service.bench.SyntheticCorpus;
+import com.ocrapp.service.export.ExportFormat;
+import com.ocrapp.util.PipelineMetrics;
 import com.ocrapp.view.OCRView;
 import com.formdev.flatlaf.FlatDarkLaf;
 
 import javax.swing.*;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Main application class - Entry point for the OCR Application.
- * Initializes and launches the GUI.
+ * Initializes and launches the GUI, or runs headless when started with
+ * command line options.
  */
 public class OCRApplication {
     
+    private static final String USAGE =
+            "Usage: OCRApplication [options]\n" +
+            "  (no options)            start the GUI\n" +
+            "  --watch <folder>        OCR images as they arrive in a folder\n" +
+            "      --output <folder>   write output there instead of next to each image\n" +
+            "      --format <ext>      txt, hocr, xml (ALTO), tsv or pdf (default txt)\n" +
+            "      --lang <code>       Tesseract language code (default eng)\n" +
+            "  --batch <folder>        OCR every image in a folder into one file, resuming an\n" +
+            "                          interrupted run of the same folder and output\n" +
+            "      --output <file>     output file; the extension picks the format (required)\n" +
+            "      --lang <code>       Tesseract language code (default eng)\n" +
+            "  --bench <pages>         measure throughput and accuracy on a synthetic corpus\n" +
+            "      --threads <n>       pages recognized at once (default: engine pool size)\n" +
+            "      --seed <n>          corpus seed (default 1)\n" +
+            "      --corpus <folder>   also save the pages and their ground truth there\n" +
+            "      --lang <code>       Tesseract language code (default eng)\n" +
+            "  --serve <port>          answer OCR requests over HTTP (POST /ocr, GET /status)\n" +
+            "      --host <address>    address to listen on (default 127.0.0.1)\n" +
+            "      --lang <code>       language for requests without ?lang= (default eng)\n" +
+            "  every mode also takes\n" +
+            "      --profile <name>    fast, balanced or accurate (default balanced; for\n" +
+            "                          --serve, requests can pick one with ?profile=)";
+    
     /**
      * Main method - Application entry point
-     * @param args Command line arguments (not used)
+     * @param args Command line arguments (see USAGE; none starts the GUI)
      */
     public static void main(String[] args) {
+        if (args.length > 0) {
+            runHeadless(args);
+            return;
+        }
+        
         try {
             // FlatLaf dark theme
             FlatDarkLaf.setup();
@@ -34,6 +79,12 @@ public class OCRApplication {
         System.out.println("========================================");
         System.out.println("Initializing components...");
         
+        // Optional periodic metrics dump, e.g. -Docrapp.metrics.reportSeconds=60
+        long reportSeconds = Long.getLong("ocrapp.metrics.reportSeconds", 0L);
+        if (reportSeconds > 0) {
+            PipelineMetrics.startPeriodicReport(reportSeconds);
+        }
+        
         // Launch application on Event Dispatch Thread (EDT)
         SwingUtilities.invokeLater(() -> {
             try {
@@ -65,4 +116,180 @@ public class OCRApplication {
             }
         });
     }
-}
\ No newline at end of file
+    
+    /**
+     * Run a command line mode instead of the GUI
+     * @param args Command line arguments
+     */
+    private static void runHeadless(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        if (options == null) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        
+        long reportSeconds = Long.getLong("ocrapp.metrics.reportSeconds", 0L);
+        if (reportSeconds > 0) {
+            PipelineMetrics.startPeriodicReport(reportSeconds);
+        }
+        
+        try {
+            if (options.containsKey("watch")) {
+                startHotFolder(options);
+            } else if (options.containsKey("batch")) {
+                runBatch(options);
+                System.exit(0);
+            } else if (options.containsKey("bench")) {
+                runBenchmark(options);
+                System.exit(0);
+            } else if (options.containsKey("serve")) {
+                startHttpService(options);
+            } else {
+                System.err.println(USAGE);
+                System.exit(2);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            System.err.println("Interrupted; run the same command again to resume");
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Parse "--name value" pairs
+     * @param args Command line arguments
+     * @return Options by name without dashes, or null if malformed
+     */
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                return null;
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+    
+    /**
+     * Watch a folder until the process is stopped
+     */
+    private static void startHotFolder(Map<String, String> options) throws IOException {
+        String extension = options.getOrDefault("format", "txt");
+        ExportFormat format = ExportFormat.forFileName("output." + extension);
+        if (format == null) {
+            throw new IllegalArgumentException("Unknown output format: " + extension);
+        }
+        String output = options.get("output");
+        
+        HotFolderService service = new HotFolderService(Path.of(options.get("watch")),
+                (output != null) ? Path.of(output) : null, format, options.getOrDefault("lang", "eng"),
+                parseProfile(options), new PageRecognizer(), OCRJobScheduler.getShared());
+        Runtime.getRuntime().addShutdownHook(new Thread(service::close, "hot-folder-shutdown"));
+        service.start();
+    }
+    
+    /**
+     * OCR a folder into one output file and wait for it to finish
+     */
+    private static void runBatch(Map<String, String> options) throws IOException, InterruptedException {
+        String output = options.get("output");
+        if (output == null) {
+            throw new IllegalArgumentException("--batch needs --output <file>");
+        }
+        ExportFormat format = ExportFormat.forFileName(output);
+        if (format == null) {
+            throw new IllegalArgumentException("Unknown output format: " + output);
+        }
+        
+        BatchRunner runner = new BatchRunner(Path.of(options.get("batch")), Path.of(output), format,
+                options.getOrDefault("lang", "eng"), parseProfile(options), new PageRecognizer(),
+                OCRJobScheduler.getShared());
+        runner.run();
+        System.out.println("Wrote " + output + " (" + runner.getProcessedCount() + " processed, " +
+                runner.getFailedCount() + " failed, " + runner.getSkippedCount() + " from an earlier run)");
+    }
+    
+    /**
+     * Benchmark the pipeline on a synthetic corpus and print the report
+     */
+    private static void runBenchmark(Map<String, String> options) throws IOException, InterruptedException {
+        int pages = parseCount(options, "bench", 0);
+        int threads = parseCount(options, "threads", OCREnginePool.getShared().getMaxSize());
+        long seed;
+        try {
+            seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid seed: " + options.get("seed"));
+        }
+        
+        SyntheticCorpus corpus = new SyntheticCorpus(seed);
+        if (options.containsKey("corpus")) {
+            corpus.writeTo(Path.of(options.get("corpus")), pages);
+            System.out.println("Saved " + pages + " page(s) to " + options.get("corpus"));
+        }
+        
+        OCRBenchmark benchmark = new OCRBenchmark(corpus, pages, threads,
+                options.getOrDefault("lang", "eng"), parseProfile(options), threads);
+        System.out.print(benchmark.run());
+    }
+    
+    /**
+     * Parse a positive count option
+     * @return The option's value, or defaultValue if it isn't given
+     */
+    private static int parseCount(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int count = Integer.parseInt(value);
+            if (count > 0) {
+                return count;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("--" + name + " needs a positive number: " + value);
+    }
+    
+    /**
+     * Parse the --profile option
+     * @return The named profile, or the default if it isn't given
+     */
+    private static OCRProfile parseProfile(Map<String, String> options) {
+        String name = options.get("profile");
+        if (name == null) {
+            return OCRProfile.getDefault();
+        }
+        OCRProfile profile = OCRProfile.forName(name);
+        if (profile == null) {
+            throw new IllegalArgumentException("Unknown profile: " + name + " (use fast, balanced or accurate)");
+        }
+        return profile;
+    }
+    
+    /**
+     * Serve OCR over HTTP until the process is stopped
+     */
+    private static void startHttpService(Map<String, String> options) throws IOException {
+        int port;
+        try {
+            port = Integer.parseInt(options.get("serve"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid port: " + options.get("serve"));
+        }
+        InetSocketAddress address = new InetSocketAddress(options.getOrDefault("host", "127.0.0.1"), port);
+        if (address.isUnresolved()) {
+            throw new IllegalArgumentException("Unknown host: " + address.getHostString());
+        }
+        
+        OCRHttpService service = new OCRHttpService(address, options.getOrDefault("lang", "eng"),
+                parseProfile(options), new PageRecognizer(), OCRJobScheduler.getShared(), OCREnginePool.getShared());
+        Runtime.getRuntime().addShutdownHook(new Thread(service::close, "http-service-shutdown"));
+        service.start();
+    }
+}
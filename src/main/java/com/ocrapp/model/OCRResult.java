@@ -1,43 +1,56 @@
 package com.ocrapp.model;
 
+import java.awt.Rectangle;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Model class representing the result of an OCR operation.
- * Contains extracted text, metadata, and confidence information.
+ * A result is a composite of one or more RegionResults (whole image or
+ * selected crops). Document-level text, counts and confidence are kept
+ * up to date incrementally as regions are added or replaced.
  */
 public class OCRResult {
-    
-    private String extractedText;
-    private float confidenceScore;
+
+    // Separator used between regions in the combined text
+    public static final String REGION_SEPARATOR = "\n\n";
+
+    private final List<RegionResult> regions;
     private LocalDateTime timestamp;
     private String sourceImagePath;
+
+    // Running aggregates, updated on every add/replace
     private int characterCount;
     private int wordCount;
-    
+    private double weightedConfidenceSum;
+    private float unweightedConfidenceSum;
+    private long totalProcessingTimeMs;
+
+    // Combined text, null when it needs to be rebuilt
+    private StringBuilder combinedText;
+
     /**
      * Default constructor
      */
     public OCRResult() {
+        this.regions = new ArrayList<>();
         this.timestamp = LocalDateTime.now();
-        this.extractedText = "";
-        this.confidenceScore = 0.0f;
         this.sourceImagePath = "";
-        this.characterCount = 0;
-        this.wordCount = 0;
+        this.combinedText = new StringBuilder();
     }
-    
+
     /**
      * Constructor with extracted text
      * @param extractedText The text extracted from the image
      */
     public OCRResult(String extractedText) {
         this();
-        this.extractedText = extractedText;
-        calculateStats();
+        appendRegion(new RegionResult(extractedText, 0.0f, null, 0, ""));
     }
-    
+
     /**
      * Full constructor
      * @param extractedText The text extracted from the image
@@ -45,69 +58,242 @@ public class OCRResult {
      * @param sourceImagePath Path to the source image file
      */
     public OCRResult(String extractedText, float confidenceScore, String sourceImagePath) {
-        this.extractedText = extractedText;
-        this.confidenceScore = confidenceScore;
+        this();
         this.sourceImagePath = sourceImagePath;
-        this.timestamp = LocalDateTime.now();
-        calculateStats();
+        appendRegion(new RegionResult(extractedText, confidenceScore, null, 0, ""));
+    }
+
+    /**
+     * Constructor for a single region result
+     * @param region Region that makes up the whole result
+     * @param sourceImagePath Path to the source image file
+     */
+    public OCRResult(RegionResult region, String sourceImagePath) {
+        this();
+        this.sourceImagePath = sourceImagePath;
+        appendRegion(region);
+    }
+
+    // ========== Region management ==========
+
+    /**
+     * Append a region and fold it into the document aggregates
+     * @param region Region to add
+     */
+    public void addRegion(RegionResult region) {
+        appendRegion(region);
+    }
+
+    // not overridable, so the constructors can use it
+    private void appendRegion(RegionResult region) {
+        if (region == null) {
+            return;
+        }
+
+        if (!regions.isEmpty() && combinedText != null) {
+            combinedText.append(REGION_SEPARATOR);
+        }
+        regions.add(region);
+        if (combinedText != null) {
+            combinedText.append(region.getText());
+        }
+
+        accumulate(region, 1);
+    }
+
+    /**
+     * Append all regions from another result (e.g. a newly OCR'd crop)
+     * @param other Result whose regions should be appended
+     */
+    public void addRegions(OCRResult other) {
+        if (other == null) {
+            return;
+        }
+        for (RegionResult region : other.regions) {
+            addRegion(region);
+        }
     }
-    
+
     /**
-     * Calculate character and word counts from extracted text
+     * Replace one region, e.g. after re-running OCR on just that crop
+     * @param index Index of the region to replace
+     * @param region New region result
      */
-    private void calculateStats() {
-        if (extractedText != null && !extractedText.isEmpty()) {
-            this.characterCount = extractedText.length();
-            this.wordCount = extractedText.trim().split("\\s+").length;
-        } else {
-            this.characterCount = 0;
-            this.wordCount = 0;
+    public void replaceRegion(int index, RegionResult region) {
+        if (region == null) {
+            return;
         }
+
+        RegionResult old = regions.set(index, region);
+        accumulate(old, -1);
+        accumulate(region, 1);
+
+        // Offsets of later regions shift, rebuild text lazily
+        combinedText = null;
+    }
+
+    /**
+     * Remove one region
+     * @param index Index of the region to remove
+     * @return The removed region
+     */
+    public RegionResult removeRegion(int index) {
+        RegionResult old = regions.remove(index);
+        accumulate(old, -1);
+        combinedText = null;
+        return old;
+    }
+
+    public RegionResult getRegion(int index) {
+        return regions.get(index);
+    }
+
+    /**
+     * Get all regions in extraction order
+     * @return Read-only view of the regions
+     */
+    public List<RegionResult> getRegions() {
+        return Collections.unmodifiableList(regions);
     }
-    
+
+    public int getRegionCount() {
+        return regions.size();
+    }
+
+    /**
+     * Find the region read from the given crop rectangle
+     * @param bounds Crop rectangle (null for the whole image)
+     * @return Region index, or -1 if none matches
+     */
+    public int indexOfRegion(Rectangle bounds) {
+        for (int i = 0; i < regions.size(); i++) {
+            Rectangle regionBounds = regions.get(i).getBounds();
+            if (bounds == null ? regionBounds == null : bounds.equals(regionBounds)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Add or subtract one region's contribution to the running aggregates
+     */
+    private void accumulate(RegionResult region, int sign) {
+        characterCount += sign * region.getCharacterCount();
+        wordCount += sign * region.getWordCount();
+        weightedConfidenceSum += sign * (double) region.getConfidenceScore() * region.getCharacterCount();
+        unweightedConfidenceSum += sign * region.getConfidenceScore();
+        totalProcessingTimeMs += sign * region.getProcessingTimeMs();
+    }
+
     // Getters and Setters
-    
+
+    /**
+     * Get the combined text of all regions
+     * @return Region texts joined by REGION_SEPARATOR
+     */
     public String getExtractedText() {
-        return extractedText;
+        if (combinedText == null) {
+            combinedText = new StringBuilder();
+            for (int i = 0; i < regions.size(); i++) {
+                if (i > 0) {
+                    combinedText.append(REGION_SEPARATOR);
+                }
+                combinedText.append(regions.get(i).getText());
+            }
+        }
+        return combinedText.toString();
     }
-    
+
+    /**
+     * Replace the document text. A single-region result keeps its provenance;
+     * a multi-region result collapses into one whole-image region.
+     * @param extractedText New text
+     */
     public void setExtractedText(String extractedText) {
-        this.extractedText = extractedText;
-        calculateStats();
+        if (regions.size() == 1) {
+            replaceRegion(0, regions.get(0).withText(extractedText));
+            return;
+        }
+
+        float confidence = getConfidenceScore();
+        long processingTime = totalProcessingTimeMs;
+        String language = regions.isEmpty() ? "" : regions.get(0).getLanguage();
+
+        clearRegions();
+        addRegion(new RegionResult(extractedText, confidence, null, processingTime, language));
     }
-    
+
+    private void clearRegions() {
+        regions.clear();
+        characterCount = 0;
+        wordCount = 0;
+        weightedConfidenceSum = 0;
+        unweightedConfidenceSum = 0;
+        totalProcessingTimeMs = 0;
+        combinedText = new StringBuilder();
+    }
+
+    /**
+     * Get the document confidence: the mean of region confidences weighted
+     * by character count, so empty or tiny crops don't drag it down
+     * @return Confidence score (0-100)
+     */
     public float getConfidenceScore() {
-        return confidenceScore;
+        if (regions.isEmpty()) {
+            return 0.0f;
+        }
+        if (characterCount > 0) {
+            return (float) (weightedConfidenceSum / characterCount);
+        }
+        return unweightedConfidenceSum / regions.size();
     }
-    
+
+    /**
+     * Set the same confidence on every region
+     * @param confidenceScore Confidence score (0-100)
+     */
     public void setConfidenceScore(float confidenceScore) {
-        this.confidenceScore = confidenceScore;
+        for (int i = 0; i < regions.size(); i++) {
+            replaceRegion(i, regions.get(i).withConfidence(confidenceScore));
+        }
     }
-    
+
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
-    
+
     public void setTimestamp(LocalDateTime timestamp) {
         this.timestamp = timestamp;
     }
-    
+
     public String getSourceImagePath() {
         return sourceImagePath;
     }
-    
+
     public void setSourceImagePath(String sourceImagePath) {
         this.sourceImagePath = sourceImagePath;
     }
-    
+
+    /**
+     * Get character count of the combined text (separators included)
+     * @return Character count
+     */
     public int getCharacterCount() {
-        return characterCount;
+        if (regions.size() <= 1) {
+            return characterCount;
+        }
+        return characterCount + REGION_SEPARATOR.length() * (regions.size() - 1);
     }
-    
+
     public int getWordCount() {
         return wordCount;
     }
-    
+
+    public long getTotalProcessingTimeMs() {
+        return totalProcessingTimeMs;
+    }
+
     /**
      * Get formatted timestamp string
      * @return Formatted timestamp (yyyy-MM-dd HH:mm:ss)
@@ -116,34 +302,36 @@ public class OCRResult {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         return timestamp.format(formatter);
     }
-    
+
     /**
      * Check if OCR result contains valid text
      * @return true if extracted text is not empty
      */
     public boolean hasText() {
-        return extractedText != null && !extractedText.trim().isEmpty();
+        return wordCount > 0;
     }
-    
+
     /**
      * Get a summary of the OCR result
      * @return Summary string with stats
      */
     public String getSummary() {
-        return String.format("OCR Result - Characters: %d, Words: %d, Confidence: %.2f%%",
-                characterCount, wordCount, confidenceScore);
+        return String.format("OCR Result - Regions: %d, Characters: %d, Words: %d, Confidence: %.2f%%, Time: %dms",
+                regions.size(), getCharacterCount(), wordCount, getConfidenceScore(), totalProcessingTimeMs);
     }
-    
+
     @Override
     public String toString() {
+        String extractedText = getExtractedText();
         return "OCRResult{" +
-                "extractedText='" + (extractedText.length() > 50 ? 
+                "extractedText='" + (extractedText.length() > 50 ?
                         extractedText.substring(0, 50) + "..." : extractedText) + '\'' +
-                ", confidenceScore=" + confidenceScore +
+                ", regions=" + regions.size() +
+                ", confidenceScore=" + getConfidenceScore() +
                 ", timestamp=" + getFormattedTimestamp() +
                 ", sourceImagePath='" + sourceImagePath + '\'' +
-                ", characterCount=" + characterCount +
+                ", characterCount=" + getCharacterCount() +
                 ", wordCount=" + wordCount +
                 '}';
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,104 @@
+package com.ocrapp.model;
+
+import java.awt.Rectangle;
+
+/**
+ * Immutable recognized word with its bounding box and layout position,
+ * as reported by Tesseract for the image it recognized.
+ */
+public class OCRWord {
+
+    private final String text;
+    private final Rectangle bounds;
+    private final float confidence;
+    private final int blockNumber;
+    private final int paragraphNumber;
+    private final int lineNumber;
+
+    /**
+     * Constructor
+     * @param text Word text
+     * @param bounds Bounding box in recognized-image pixels
+     * @param confidence Word confidence (0-100)
+     * @param blockNumber Block the word belongs to (1-based)
+     * @param paragraphNumber Paragraph within the block (1-based)
+     * @param lineNumber Line within the paragraph (1-based)
+     */
+    public OCRWord(String text, Rectangle bounds, float confidence,
+                   int blockNumber, int paragraphNumber, int lineNumber) {
+        this.text = text != null ? text : "";
+        this.bounds = new Rectangle(bounds);
+        this.confidence = confidence;
+        this.blockNumber = blockNumber;
+        this.paragraphNumber = paragraphNumber;
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Map the word into another coordinate space, e.g. from a preprocessed
+     * crop back to the full-resolution page
+     * @param scaleX Horizontal scale factor
+     * @param scaleY Vertical scale factor
+     * @param offsetX Horizontal offset added after scaling
+     * @param offsetY Vertical offset added after scaling
+     * @return Moved copy of the word
+     */
+    public OCRWord transform(double scaleX, double scaleY, int offsetX, int offsetY) {
+        int x0 = offsetX + (int) Math.floor(bounds.x * scaleX);
+        int y0 = offsetY + (int) Math.floor(bounds.y * scaleY);
+        int x1 = offsetX + (int) Math.ceil((bounds.x + bounds.width) * scaleX);
+        int y1 = offsetY + (int) Math.ceil((bounds.y + bounds.height) * scaleY);
+        return new OCRWord(text, new Rectangle(x0, y0, x1 - x0, y1 - y0), confidence,
+                blockNumber, paragraphNumber, lineNumber);
+    }
+
+    /**
+     * Check whether another word is on the same text line
+     * @param other Word to compare with
+     * @return true if block, paragraph and line numbers all match
+     */
+    public boolean isSameLine(OCRWord other) {
+        return isSameParagraph(other) && lineNumber == other.lineNumber;
+    }
+
+    /**
+     * Check whether another word is in the same paragraph
+     * @param other Word to compare with
+     * @return true if block and paragraph numbers match
+     */
+    public boolean isSameParagraph(OCRWord other) {
+        return blockNumber == other.blockNumber && paragraphNumber == other.paragraphNumber;
+    }
+
+    // Getters
+
+    public String getText() {
+        return text;
+    }
+
+    public Rectangle getBounds() {
+        return new Rectangle(bounds);
+    }
+
+    public float getConfidence() {
+        return confidence;
+    }
+
+    public int getBlockNumber() {
+        return blockNumber;
+    }
+
+    public int getParagraphNumber() {
+        return paragraphNumber;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public String toString() {
+        return "OCRWord{'" + text + "' " + bounds.x + "," + bounds.y + " " +
+                bounds.width + "x" + bounds.height + ", confidence=" + confidence + '}';
+    }
+}
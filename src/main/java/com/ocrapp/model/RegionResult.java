@@ -0,0 +1,196 @@
+package com.ocrapp.model;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable result of running OCR over one region of a source image.
+ * An OCRResult is made up of one or more of these.
+ */
+public class RegionResult {
+
+    private final String text;
+    private final float confidenceScore;
+    private final Rectangle bounds;
+    private final long processingTimeMs;
+    private final String language;
+    private final LocalDateTime timestamp;
+    private final int characterCount;
+    private final int wordCount;
+    // word boxes in the pixels of the image Tesseract saw (the preprocessed crop)
+    private final List<OCRWord> words;
+    private final Dimension recognizedSize;
+
+    /**
+     * Constructor
+     * @param text Text extracted from the region
+     * @param confidenceScore OCR confidence score (0-100)
+     * @param bounds Crop rectangle in source image coordinates (null for the whole image)
+     * @param processingTimeMs Time spent recognizing the region
+     * @param language Tesseract language code used for the region
+     */
+    public RegionResult(String text, float confidenceScore, Rectangle bounds,
+                        long processingTimeMs, String language) {
+        this(text, confidenceScore, bounds, processingTimeMs, language, null, null);
+    }
+
+    /**
+     * Constructor with word layout
+     * @param text Text extracted from the region
+     * @param confidenceScore OCR confidence score (0-100)
+     * @param bounds Crop rectangle in source image coordinates (null for the whole image)
+     * @param processingTimeMs Time spent recognizing the region
+     * @param language Tesseract language code used for the region
+     * @param words Recognized words, in recognized-image pixels (may be null)
+     * @param recognizedSize Size of the image the words were found in (null if no words)
+     */
+    public RegionResult(String text, float confidenceScore, Rectangle bounds, long processingTimeMs,
+                        String language, List<OCRWord> words, Dimension recognizedSize) {
+        this(text, confidenceScore, bounds, processingTimeMs, language, LocalDateTime.now(),
+                words, recognizedSize);
+    }
+
+    private RegionResult(String text, float confidenceScore, Rectangle bounds,
+                         long processingTimeMs, String language, LocalDateTime timestamp,
+                         List<OCRWord> words, Dimension recognizedSize) {
+        this.text = text != null ? text : "";
+        this.confidenceScore = confidenceScore;
+        this.bounds = bounds != null ? new Rectangle(bounds) : null;
+        this.processingTimeMs = processingTimeMs;
+        this.language = language != null ? language : "";
+        this.timestamp = timestamp;
+        boolean hasLayout = words != null && recognizedSize != null;
+        this.words = hasLayout ? Collections.unmodifiableList(new ArrayList<>(words)) : Collections.emptyList();
+        this.recognizedSize = hasLayout ? new Dimension(recognizedSize) : null;
+
+        if (!this.text.isEmpty()) {
+            this.characterCount = this.text.length();
+            this.wordCount = this.text.trim().isEmpty() ? 0 : this.text.trim().split("\\s+").length;
+        } else {
+            this.characterCount = 0;
+            this.wordCount = 0;
+        }
+    }
+
+    /**
+     * Create a copy of this region with different text (e.g. after cleanup)
+     * @param newText Replacement text
+     * @return New RegionResult with the same provenance
+     */
+    public RegionResult withText(String newText) {
+        return new RegionResult(newText, confidenceScore, bounds, processingTimeMs, language, timestamp,
+                words, recognizedSize);
+    }
+
+    /**
+     * Create a copy of this region with a different confidence score
+     * @param newConfidence Replacement confidence (0-100)
+     * @return New RegionResult with the same provenance
+     */
+    public RegionResult withConfidence(float newConfidence) {
+        return new RegionResult(text, newConfidence, bounds, processingTimeMs, language, timestamp,
+                words, recognizedSize);
+    }
+
+    // Getters
+
+    public String getText() {
+        return text;
+    }
+
+    public float getConfidenceScore() {
+        return confidenceScore;
+    }
+
+    /**
+     * Get the crop rectangle this region was read from
+     * @return Copy of the bounds, or null if the whole image was used
+     */
+    public Rectangle getBounds() {
+        return bounds != null ? new Rectangle(bounds) : null;
+    }
+
+    public long getProcessingTimeMs() {
+        return processingTimeMs;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public int getCharacterCount() {
+        return characterCount;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public boolean isFullImage() {
+        return bounds == null;
+    }
+
+    /**
+     * Get the recognized words in the pixels of the image Tesseract saw.
+     * Word text is as recognized, before any cleanup applied with withText.
+     * @return Unmodifiable list, empty if no layout was captured
+     */
+    public List<OCRWord> getWords() {
+        return words;
+    }
+
+    public boolean hasWordLayout() {
+        return recognizedSize != null;
+    }
+
+    /**
+     * Get the size of the image the words were recognized in
+     * @return Size, or null if no layout was captured
+     */
+    public Dimension getRecognizedSize() {
+        return (recognizedSize != null) ? new Dimension(recognizedSize) : null;
+    }
+
+    /**
+     * Get the recognized words mapped onto the source page
+     * @param pageWidth Full-resolution page width
+     * @param pageHeight Full-resolution page height
+     * @return Words in page coordinates, empty if no layout was captured
+     */
+    public List<OCRWord> getPageWords(int pageWidth, int pageHeight) {
+        if (recognizedSize == null || recognizedSize.width <= 0 || recognizedSize.height <= 0) {
+            return Collections.emptyList();
+        }
+
+        Rectangle target = (bounds != null) ? bounds : new Rectangle(0, 0, pageWidth, pageHeight);
+        double scaleX = (double) target.width / recognizedSize.width;
+        double scaleY = (double) target.height / recognizedSize.height;
+
+        List<OCRWord> pageWords = new ArrayList<>(words.size());
+        for (OCRWord word : words) {
+            pageWords.add(word.transform(scaleX, scaleY, target.x, target.y));
+        }
+        return pageWords;
+    }
+
+    @Override
+    public String toString() {
+        return "RegionResult{" +
+                "bounds=" + (bounds != null ?
+                        bounds.x + "," + bounds.y + " " + bounds.width + "x" + bounds.height : "full") +
+                ", confidenceScore=" + confidenceScore +
+                ", language='" + language + '\'' +
+                ", processingTimeMs=" + processingTimeMs +
+                ", characterCount=" + characterCount +
+                ", wordCount=" + wordCount +
+                '}';
+    }
+}
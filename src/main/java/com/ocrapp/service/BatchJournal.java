@@ -0,0 +1,287 @@
+package com.ocrapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of a batch run: one record per finished input, in
+ * output order, with its content hash, the output length after its page
+ * and the exporter's checkpoint state. Records are framed with a length
+ * and CRC32 like the result store, and a torn last record is cut off when
+ * the journal is reopened.
+ *
+ * The first record describes the run (format, language and profile,
+ * output), so a
+ * journal is never resumed into a different output.
+ */
+final class BatchJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchJournal.class);
+
+    private static final byte[] MAGIC = "OCRBATCH".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_BYTES = MAGIC.length + Integer.BYTES;
+    private static final int FRAME_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final List<Entry> entries = new ArrayList<>();
+    // file offset of each entry's record, for truncate()
+    private final List<Long> entryOffsets = new ArrayList<>();
+    private long endOffset;
+
+    /**
+     * Open a journal, creating it if missing
+     * @param file Journal file
+     * @param runKey Description of the run the journal belongs to
+     * @throws IOException if the file can't be opened, or belongs to another run
+     */
+    BatchJournal(Path file, String runKey) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+                header.put(MAGIC).putInt(VERSION).flip();
+                writeFully(header, 0);
+                endOffset = FILE_HEADER_BYTES;
+                appendFrame(runKey.getBytes(StandardCharsets.UTF_8));
+            } else {
+                String journalKey = load();
+                if (journalKey == null) {
+                    // crashed before the run was described; nothing was recorded yet
+                    appendFrame(runKey.getBytes(StandardCharsets.UTF_8));
+                } else if (!runKey.equals(journalKey)) {
+                    throw new IOException("Journal " + file + " belongs to a different run (" + journalKey +
+                            "); delete it to start over");
+                }
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the inputs finished so far
+     * @return Entries in output order
+     */
+    List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Get the output length after the last finished input
+     * @return Bytes of output known to be complete
+     */
+    long getOutputLength() {
+        return entries.isEmpty() ? 0L : entries.get(entries.size() - 1).outputLength;
+    }
+
+    /**
+     * Durably record a finished input. The output must already be synced
+     * up to outputLength.
+     * @param entry Finished input
+     * @throws IOException if writing fails
+     */
+    void append(Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 + entry.exporterState.length);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(entry.input);
+        out.writeUTF((entry.contentHash != null) ? entry.contentHash : "");
+        out.writeBoolean(entry.failed);
+        out.writeLong(entry.outputLength);
+        out.writeInt(entry.exporterState.length);
+        out.write(entry.exporterState);
+        out.flush();
+
+        long offset = endOffset;
+        appendFrame(bytes.toByteArray());
+        entries.add(entry);
+        entryOffsets.add(offset);
+    }
+
+    /**
+     * Durably forget the entries from a position on, so their inputs are redone
+     * @param count Number of entries to keep
+     * @throws IOException if the journal can't be cut
+     */
+    void truncate(int count) throws IOException {
+        if (count >= entries.size()) {
+            return;
+        }
+        long offset = entryOffsets.get(count);
+        channel.truncate(offset);
+        channel.force(false);
+        entries.subList(count, entries.size()).clear();
+        entryOffsets.subList(count, entryOffsets.size()).clear();
+        endOffset = offset;
+    }
+
+    private void appendFrame(byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + payload.length);
+        frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        writeFully(frame, endOffset);
+        channel.force(false);
+        endOffset += frame.capacity();
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Read the records, cutting off a torn last one
+     * @return Run key from the first record, or null if it was lost
+     */
+    private String load() throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(channel.position(0)), 64 * 1024));
+
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        int version = in.readInt();
+        if (!Arrays.equals(magic, MAGIC) || version != VERSION) {
+            throw new IOException("Not a batch journal (version " + version + "): " + file);
+        }
+
+        String runKey = null;
+        long offset = FILE_HEADER_BYTES;
+        long size = channel.size();
+        CRC32 crc = new CRC32();
+        while (offset < size) {
+            byte[] payload;
+            try {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 0 || length > MAX_RECORD_BYTES || offset + FRAME_HEADER_BYTES + length > size) {
+                    break;
+                }
+                payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+            } catch (EOFException e) {
+                break;
+            }
+
+            if (runKey == null) {
+                runKey = new String(payload, StandardCharsets.UTF_8);
+            } else {
+                entries.add(decodeEntry(payload));
+                entryOffsets.add(offset);
+            }
+            offset += FRAME_HEADER_BYTES + payload.length;
+        }
+
+        if (offset < size) {
+            log.warn("Batch journal {} has a damaged record at byte {}, truncating", file, offset);
+            channel.truncate(offset);
+        }
+        endOffset = offset;
+        return runKey;
+    }
+
+    private static Entry decodeEntry(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        String input = in.readUTF();
+        String contentHash = in.readUTF();
+        boolean failed = in.readBoolean();
+        long outputLength = in.readLong();
+        byte[] exporterState = new byte[in.readInt()];
+        in.readFully(exporterState);
+        return new Entry(input, contentHash.isEmpty() ? null : contentHash, failed, outputLength, exporterState);
+    }
+
+    /**
+     * Close and remove the journal once the run has finished
+     * @throws IOException if the file can't be removed
+     */
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * One finished input
+     */
+    static final class Entry {
+
+        private final String input;
+        private final String contentHash;
+        private final boolean failed;
+        private final long outputLength;
+        private final byte[] exporterState;
+
+        /**
+         * Constructor
+         * @param input Input file name
+         * @param contentHash Content hash of the input (null if unknown)
+         * @param failed true if the input couldn't be recognized and has no page
+         * @param outputLength Output length after this input
+         * @param exporterState Exporter checkpoint for its page (empty if failed)
+         */
+        Entry(String input, String contentHash, boolean failed, long outputLength, byte[] exporterState) {
+            this.input = input;
+            this.contentHash = contentHash;
+            this.failed = failed;
+            this.outputLength = outputLength;
+            this.exporterState = exporterState;
+        }
+
+        String getInput() {
+            return input;
+        }
+
+        String getContentHash() {
+            return contentHash;
+        }
+
+        boolean isFailed() {
+            return failed;
+        }
+
+        long getOutputLength() {
+            return outputLength;
+        }
+
+        byte[] getExporterState() {
+            return exporterState;
+        }
+    }
+}
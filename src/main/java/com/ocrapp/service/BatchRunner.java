@@ -0,0 +1,286 @@
+package com.ocrapp.service;
+
+import com.ocrapp.model.OCRResult;
+import com.ocrapp.service.OCRJobScheduler.JobHandle;
+import com.ocrapp.service.OCRJobScheduler.Priority;
+import com.ocrapp.service.export.ExportFormat;
+import com.ocrapp.service.export.ExportPage;
+import com.ocrapp.service.export.ResultExporter;
+import com.ocrapp.util.AtomicFileOutput;
+import com.ocrapp.util.LogContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Dimension;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * OCRs every image in a folder into one multi-page export, in file name
+ * order, and can pick up where a crashed or stopped run left off.
+ *
+ * Pages are written to a partial file next to the output. After each page
+ * the output is synced and a record is appended to a journal
+ * (output + ".journal") with the input's content hash, the output length
+ * and the exporter's checkpoint state. A restart with the same folder,
+ * output, language and profile keeps the journaled pages, cuts the partial
+ * file back to the last of them (dropping a half-written one) and
+ * continues. Journaled inputs are hashed again on restart: from the first
+ * one that failed, changed, or no longer lines up with the folder listing,
+ * the pages are redone, so retried and changed images still land in file
+ * name order (unchanged ones after it come back from the result store).
+ * Once the last page is written the output is finished, moved into place
+ * and the journal removed.
+ *
+ * Up to -Docrapp.batch.maxInFlight pages (default twice the scheduler
+ * threads) are recognized ahead of the writer; results are written in
+ * order as they complete.
+ */
+public class BatchRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchRunner.class);
+
+    private final Path inputDir;
+    private final Path target;
+    private final ExportFormat format;
+    private final String language;
+    private final OCRProfile profile;
+    private final PageRecognizer recognizer;
+    private final OCRJobScheduler scheduler;
+    private final int maxInFlight;
+
+    private int skippedCount;
+    private int processedCount;
+    private int failedCount;
+
+    /**
+     * Constructor
+     * @param inputDir Folder of images
+     * @param target Output file
+     * @param format Output format
+     * @param language Language code to recognize in
+     * @param profile Speed/accuracy profile
+     * @param recognizer Recognition pipeline
+     * @param scheduler Scheduler to run pages on (BATCH lane)
+     */
+    public BatchRunner(Path inputDir, Path target, ExportFormat format, String language, OCRProfile profile,
+                       PageRecognizer recognizer, OCRJobScheduler scheduler) {
+        this.inputDir = inputDir.toAbsolutePath();
+        this.target = target.toAbsolutePath();
+        this.format = format;
+        this.language = language;
+        this.profile = profile;
+        this.recognizer = recognizer;
+        this.scheduler = scheduler;
+        this.maxInFlight = Math.max(1, Integer.getInteger("ocrapp.batch.maxInFlight",
+                scheduler.getThreadCount() * 2));
+    }
+
+    /**
+     * Get the journal kept next to an output while its batch runs
+     * @param target Output file
+     * @return Journal file
+     */
+    public static Path journalFile(Path target) {
+        return target.resolveSibling(target.getFileName() + ".journal");
+    }
+
+    /**
+     * Run the batch to completion, resuming a previous run if its journal exists
+     * @throws IOException if the folder can't be listed or the output or journal can't be written
+     * @throws InterruptedException if interrupted; the run can be resumed later
+     */
+    public void run() throws IOException, InterruptedException {
+        if (!Files.isDirectory(inputDir)) {
+            throw new IOException("Not a folder: " + inputDir);
+        }
+        List<Path> images = listImages();
+
+        BatchJournal journal = new BatchJournal(journalFile(target),
+                format.name() + "|" + profile.storeKey(language) + "|" + inputDir + "|" + target);
+        AtomicFileOutput output = null;
+        ResultExporter exporter = null;
+        try {
+            journal.truncate(countReusable(journal.getEntries(), images));
+            output = AtomicFileOutput.resume(target, journal.getOutputLength());
+            exporter = format.createExporter(output);
+
+            for (BatchJournal.Entry entry : journal.getEntries()) {
+                exporter.restorePage(new DataInputStream(new ByteArrayInputStream(entry.getExporterState())));
+            }
+            skippedCount = journal.getEntries().size();
+            if (skippedCount > 0) {
+                log.info("Resuming batch into {}: {} of {} image(s) already done ({} page(s))",
+                        target.getFileName(), skippedCount, images.size(), exporter.getPageCount());
+            } else {
+                log.info("Starting batch of {} image(s) into {}", images.size(), target.getFileName());
+            }
+
+            processAll(images.subList(skippedCount, images.size()), exporter, journal);
+
+            exporter.finish();
+            journal.delete();
+            log.info("Batch finished: {} ({} processed, {} failed, {} from an earlier run)",
+                    target, processedCount, failedCount, skippedCount);
+        } finally {
+            if (exporter != null) {
+                exporter.close();
+            } else if (output != null) {
+                output.close();
+            }
+            journal.close();
+        }
+    }
+
+    /**
+     * Count the journaled pages that can be kept: the leading entries that
+     * match the folder listing, were recognized, and whose files still hash
+     * the same
+     * @param entries Journal entries in output order
+     * @param images Current folder listing
+     * @return Number of entries to keep
+     */
+    private int countReusable(List<BatchJournal.Entry> entries, List<Path> images) {
+        int kept = 0;
+        while (kept < entries.size() && kept < images.size()) {
+            BatchJournal.Entry entry = entries.get(kept);
+            Path image = images.get(kept);
+            String reason = null;
+            if (!entry.getInput().equals(image.getFileName().toString())) {
+                reason = "the folder changed";
+            } else if (entry.isFailed()) {
+                reason = "it failed";
+            } else if (!Objects.equals(entry.getContentHash(),
+                    ResultStore.contentHash(ImageInput.fromFile(image.toFile())))) {
+                reason = "the file changed";
+            }
+            if (reason != null) {
+                log.info("Redoing the batch from {} ({}), {} page(s) kept", entry.getInput(), reason, kept);
+                break;
+            }
+            kept++;
+        }
+        return kept;
+    }
+
+    private List<Path> listImages() throws IOException {
+        try (Stream<Path> files = Files.list(inputDir)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> {
+                        String name = file.getFileName().toString();
+                        return !name.startsWith(".") && HotFolderService.isImageName(name);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Keep up to maxInFlight pages recognizing and write them in order
+     */
+    private void processAll(List<Path> images, ResultExporter exporter, BatchJournal journal)
+            throws IOException, InterruptedException {
+        Deque<PendingPage> inFlight = new ArrayDeque<>();
+        int next = 0;
+        try {
+            while (next < images.size() || !inFlight.isEmpty()) {
+                while (next < images.size() && inFlight.size() < maxInFlight) {
+                    inFlight.addLast(submit(images.get(next++)));
+                }
+                PendingPage page = inFlight.removeFirst();
+                writePage(page, exporter, journal);
+            }
+        } finally {
+            for (PendingPage page : inFlight) {
+                page.job.cancel();
+            }
+        }
+    }
+
+    private PendingPage submit(Path file) {
+        String pageId = LogContext.newPageId();
+        ImageInput input = ImageInput.fromFile(file.toFile());
+        PendingPage page = new PendingPage(file, input);
+        page.job = scheduler.submit(Priority.BATCH, pageId, context -> {
+            LogContext.setPage(pageId);
+            try {
+                page.contentHash = ResultStore.contentHash(input);
+                return recognizer.recognizePage(input, page.contentHash, null, language, profile, context);
+            } finally {
+                LogContext.clearPage();
+            }
+        }, null);
+        return page;
+    }
+
+    /**
+     * Wait for a page, append it to the output and journal it
+     */
+    private void writePage(PendingPage page, ResultExporter exporter, BatchJournal journal)
+            throws IOException, InterruptedException {
+        String name = page.file.getFileName().toString();
+        OCRResult result;
+        try {
+            result = page.job.getFuture().get();
+        } catch (ExecutionException e) {
+            Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+            log.warn("Batch OCR failed for {}: {}", name, cause.getMessage());
+            failedCount++;
+            journal.append(new BatchJournal.Entry(name, page.contentHash, true,
+                    journal.getOutputLength(), new byte[0]));
+            return;
+        }
+
+        Dimension size = ImageProcessor.readImageDimensions(page.file.toFile());
+        exporter.writePage(new ExportPage(name, (size != null) ? size.width : 0,
+                (size != null) ? size.height : 0, result, page.input));
+
+        ByteArrayOutputStream state = new ByteArrayOutputStream();
+        long outputLength = exporter.checkpoint(new DataOutputStream(state));
+        journal.append(new BatchJournal.Entry(name, page.contentHash, false, outputLength, state.toByteArray()));
+        processedCount++;
+        if (processedCount % 100 == 0) {
+            log.info("Batch progress: {} processed, {} failed, {} queued", processedCount, failedCount,
+                    scheduler.getQueuedCount());
+        }
+    }
+
+    public int getProcessedCount() {
+        return processedCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * Page being recognized; contentHash is set by the job before the result completes
+     */
+    private static final class PendingPage {
+
+        private final Path file;
+        private final ImageInput input;
+        private volatile String contentHash;
+        private JobHandle<OCRResult> job;
+
+        private PendingPage(Path file, ImageInput input) {
+            this.file = file;
+            this.input = input;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.ocrapp.service;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+/**
+ * ImageRegionSource over an image that is already decoded in memory.
+ * Reduced-resolution regions are scaled smoothly rather than decimated.
+ */
+public class BufferedImageRegionSource implements ImageRegionSource {
+
+    private final BufferedImage image;
+
+    /**
+     * Constructor
+     * @param image Decoded image
+     */
+    public BufferedImageRegionSource(BufferedImage image) {
+        this.image = image;
+    }
+
+    @Override
+    public int getWidth() {
+        return image.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return image.getHeight();
+    }
+
+    @Override
+    public BufferedImage readRegion(Rectangle region, int subsampling) {
+        Rectangle clipped = region.intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+        if (clipped.isEmpty()) {
+            return null;
+        }
+
+        BufferedImage sub = image.getSubimage(clipped.x, clipped.y, clipped.width, clipped.height);
+        if (subsampling <= 1) {
+            return sub;
+        }
+
+        int width = Math.max(1, clipped.width / subsampling);
+        int height = Math.max(1, clipped.height / subsampling);
+        return ImageProcessor.progressiveScale(sub, width, height, () -> false);
+    }
+
+    @Override
+    public boolean isInMemory() {
+        return true;
+    }
+
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    @Override
+    public void close() {
+        // nothing to release
+    }
+}
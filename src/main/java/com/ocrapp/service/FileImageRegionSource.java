@@ -0,0 +1,122 @@
+package com.ocrapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ImageRegionSource that decodes regions straight from the file with
+ * ImageReadParam.setSourceRegion / setSourceSubsampling, so only the
+ * requested pixels are ever materialized. The underlying ImageReader is
+ * not thread-safe, so reads are serialized (with a ReentrantLock, so
+ * virtual threads waiting for a read don't pin their carrier).
+ */
+public class FileImageRegionSource implements ImageRegionSource {
+
+    private static final Logger log = LoggerFactory.getLogger(FileImageRegionSource.class);
+
+    private final File file;
+    private final ImageInputStream input;
+    private final ImageReader reader;
+    private final int width;
+    private final int height;
+    private final ReentrantLock lock;
+    private boolean closed;
+
+    /**
+     * Open an image file for region reads
+     * @param file Image file
+     * @throws IOException if no ImageIO reader supports the file
+     */
+    public FileImageRegionSource(File file) throws IOException {
+        this.file = file;
+        this.input = ImageIO.createImageInputStream(file);
+        if (input == null) {
+            throw new IOException("Cannot open image: " + file.getName());
+        }
+
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            input.close();
+            throw new IOException("No image reader for: " + file.getName());
+        }
+
+        this.reader = readers.next();
+        // seekForwardOnly=false so regions can be read in any order
+        reader.setInput(input, false, true);
+        this.width = reader.getWidth(0);
+        this.height = reader.getHeight(0);
+        this.lock = new ReentrantLock();
+        this.closed = false;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public BufferedImage readRegion(Rectangle region, int subsampling) throws IOException {
+        Rectangle clipped = region.intersection(new Rectangle(0, 0, width, height));
+        if (clipped.isEmpty()) {
+            return null;
+        }
+
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(clipped);
+        if (subsampling > 1) {
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        }
+
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IOException("Image source closed: " + file.getName());
+            }
+            return reader.read(0, param);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isInMemory() {
+        return false;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            reader.dispose();
+            input.close();
+        } catch (IOException e) {
+            log.warn("Failed to close image source {}: {}", file.getName(), e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.ocrapp.service;
+
+import com.ocrapp.model.OCRResult;
+import com.ocrapp.service.OCRJobScheduler.JobHandle;
+import com.ocrapp.service.OCRJobScheduler.Priority;
+import com.ocrapp.service.export.ExportFormat;
+import com.ocrapp.service.export.ExportPage;
+import com.ocrapp.service.export.ResultExporter;
+import com.ocrapp.util.FileManager;
+import com.ocrapp.util.LogContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Dimension;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Watches a folder for scanned images and OCRs each one as it arrives.
+ *
+ * A file is picked up once its size and modification time have stayed the
+ * same for a settle period (-Docrapp.hotFolder.settleMs, default 2000) and it
+ * can be opened, so half-written scans are left alone. Images whose content
+ * hash was already processed in this session are skipped; ones recognized in
+ * an earlier session are served from the result store. Output goes next to
+ * the input or into an output folder, in any export format, and inputs can
+ * be moved to a done folder afterwards (-Docrapp.hotFolder.doneDir).
+ *
+ * Backpressure: at most -Docrapp.hotFolder.maxInFlight files (default twice
+ * the scheduler threads) are queued on the scheduler at once. Everything
+ * else waits as a path in the pending list, so a burst of thousands of
+ * scans costs a few hundred bytes each and no image memory. If the watch
+ * service overflows, the folder is rescanned.
+ */
+public class HotFolderService implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(HotFolderService.class);
+
+    private static final long POLL_MS = 500;
+
+    private final Path inputDir;
+    private final Path outputDir;
+    private final Path doneDir;
+    private final ExportFormat format;
+    private final String language;
+    private final OCRProfile profile;
+    private final long settleNanos;
+
+    private final PageRecognizer recognizer;
+    private final OCRJobScheduler scheduler;
+    private final WatchService watchService;
+    private final Semaphore inFlight;
+
+    // arrival order; guarded by pendingLock
+    private final Map<Path, Candidate> pending = new LinkedHashMap<>();
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private final Set<Path> processing = ConcurrentHashMap.newKeySet();
+    private final Set<String> seenHashes = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger processedCount = new AtomicInteger();
+    private final AtomicInteger duplicateCount = new AtomicInteger();
+    private final AtomicInteger failedCount = new AtomicInteger();
+
+    private volatile boolean running;
+    private Thread watcherThread;
+
+    /**
+     * Constructor
+     * @param inputDir Folder to watch
+     * @param outputDir Folder for output files, or null to write next to each input
+     * @param format Output format
+     * @param language Language code to recognize in
+     * @param profile Speed/accuracy profile
+     * @param recognizer Recognition pipeline
+     * @param scheduler Scheduler to run recognition on (BATCH lane)
+     * @throws IOException if the folder can't be watched
+     */
+    public HotFolderService(Path inputDir, Path outputDir, ExportFormat format, String language,
+                            OCRProfile profile, PageRecognizer recognizer, OCRJobScheduler scheduler) throws IOException {
+        if (!Files.isDirectory(inputDir)) {
+            throw new IOException("Not a folder: " + inputDir);
+        }
+        this.inputDir = inputDir.toAbsolutePath();
+        this.outputDir = (outputDir != null) ? Files.createDirectories(outputDir.toAbsolutePath()) : null;
+        String done = System.getProperty("ocrapp.hotFolder.doneDir");
+        this.doneDir = (done != null && !done.isBlank()) ? Files.createDirectories(Path.of(done).toAbsolutePath()) : null;
+        this.format = format;
+        this.language = language;
+        this.profile = profile;
+        this.settleNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("ocrapp.hotFolder.settleMs", 2000L));
+        this.recognizer = recognizer;
+        this.scheduler = scheduler;
+
+        int maxInFlight = Integer.getInteger("ocrapp.hotFolder.maxInFlight", 0);
+        this.inFlight = new Semaphore((maxInFlight > 0) ? maxInFlight : scheduler.getThreadCount() * 2);
+
+        this.watchService = inputDir.getFileSystem().newWatchService();
+        this.inputDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /**
+     * Pick up files already in the folder and start watching
+     */
+    public void start() {
+        running = true;
+        watcherThread = new Thread(this::watchLoop, "hot-folder-watcher");
+        watcherThread.start();
+        log.info("Watching {} -> {} ({}, {}, {})", inputDir, (outputDir != null) ? outputDir : "input folder",
+                format.getDescription(), language, profile.getId());
+    }
+
+    /**
+     * Stop watching. Files already queued on the scheduler still finish.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.debug("Failed to close watch service: {}", e.getMessage());
+        }
+        if (watcherThread != null) {
+            try {
+                watcherThread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void watchLoop() {
+        scanFolder();
+        try {
+            while (running) {
+                WatchKey key = watchService.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            log.info("Watch events overflowed, rescanning {}", inputDir);
+                            scanFolder();
+                        } else {
+                            addCandidate(inputDir.resolve((Path) event.context()));
+                        }
+                    }
+                    if (!key.reset()) {
+                        log.error("{} is no longer accessible, stopping", inputDir);
+                        running = false;
+                    }
+                }
+                dispatchReady();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // closed by close()
+        }
+        log.info("Stopped watching {} ({} processed, {} duplicates, {} failed)", inputDir,
+                processedCount.get(), duplicateCount.get(), failedCount.get());
+    }
+
+    private void scanFolder() {
+        pendingLock.lock();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(inputDir)) {
+            for (Path file : files) {
+                addCandidate(file);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to list {}: {}", inputDir, e.getMessage());
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    private void addCandidate(Path file) {
+        String name = file.getFileName().toString();
+        if (name.startsWith(".") || !isImageName(name) || processing.contains(file)) {
+            return;
+        }
+        pendingLock.lock();
+        try {
+            pending.putIfAbsent(file, new Candidate());
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    /**
+     * Check a file name against the supported image extensions
+     * @param name File name
+     * @return true for images the pipeline can read
+     */
+    static boolean isImageName(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (String extension : FileManager.getSupportedFormats()) {
+            if (lower.endsWith("." + extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Queue files that have settled, oldest first, while there is room.
+     * Runs on every watcher poll and whenever a file finishes.
+     */
+    private void dispatchReady() {
+        // a job that finished before its callback was attached calls back in here mid-loop
+        if (!running || pendingLock.isHeldByCurrentThread()) {
+            return;
+        }
+        pendingLock.lock();
+        try {
+            dispatchPending();
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    private void dispatchPending() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Path, Candidate>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, Candidate> entry = it.next();
+            Path file = entry.getKey();
+            Boolean settled = entry.getValue().check(file, now, settleNanos);
+            if (settled == null) {
+                it.remove(); // deleted or moved away
+                continue;
+            }
+            if (!settled || !isReadable(file)) {
+                continue;
+            }
+            if (isUpToDate(file)) {
+                it.remove();
+                continue;
+            }
+            if (!inFlight.tryAcquire()) {
+                return; // scheduler has enough; the rest wait here as paths
+            }
+            it.remove();
+            submit(file);
+        }
+    }
+
+    private void submit(Path file) {
+        processing.add(file);
+        String pageId = LogContext.newPageId();
+        JobHandle<Boolean> job = scheduler.submit(Priority.BATCH, pageId, context -> {
+            LogContext.setPage(pageId);
+            try {
+                return process(file, context);
+            } finally {
+                LogContext.clearPage();
+            }
+        }, null);
+
+        job.getFuture().whenComplete((written, error) -> {
+            processing.remove(file);
+            inFlight.release();
+            if (error != null) {
+                failedCount.incrementAndGet();
+                Throwable cause = (error.getCause() != null) ? error.getCause() : error;
+                log.warn("Hot folder OCR failed for {}: {}", file.getFileName(), cause.getMessage());
+            }
+            // keep the scheduler fed without waiting for the next poll
+            dispatchReady();
+        });
+    }
+
+    /**
+     * Recognize one file and write its output (on a scheduler worker)
+     * @return true if output was written, false for a duplicate
+     */
+    private boolean process(Path file, JobContext context) throws Exception {
+        ImageInput input = ImageInput.fromFile(file.toFile());
+        String contentHash = ResultStore.contentHash(input);
+        if (contentHash != null && !seenHashes.add(contentHash)) {
+            duplicateCount.incrementAndGet();
+            log.info("Skipping {}: same content as a file already processed", file.getFileName());
+            moveToDone(file);
+            return false;
+        }
+
+        try {
+            OCRResult result = recognizer.recognizePage(input, contentHash, null, language, profile, context);
+            writeOutput(file, input, result);
+        } catch (Exception e) {
+            if (contentHash != null) {
+                seenHashes.remove(contentHash); // let a retry through
+            }
+            throw e;
+        }
+
+        moveToDone(file);
+        int count = processedCount.incrementAndGet();
+        log.info("Processed {} ({} done, {} pending)", file.getFileName(), count, scheduler.getQueuedCount());
+        return true;
+    }
+
+    private void writeOutput(Path file, ImageInput input, OCRResult result) throws IOException {
+        Dimension size = ImageProcessor.readImageDimensions(file.toFile());
+        int width = (size != null) ? size.width : 0;
+        int height = (size != null) ? size.height : 0;
+        ExportPage page = new ExportPage(file.getFileName().toString(), width, height, result, input);
+
+        try (ResultExporter exporter = format.createExporter(outputFor(file))) {
+            exporter.writePage(page);
+            exporter.finish();
+        }
+    }
+
+    private Path outputFor(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String outputName = ((dot > 0) ? name.substring(0, dot) : name) + "." + format.getExtension();
+        return ((outputDir != null) ? outputDir : file.getParent()).resolve(outputName);
+    }
+
+    /**
+     * Check whether the output of an earlier run is newer than the input
+     */
+    private boolean isUpToDate(Path file) {
+        Path output = outputFor(file);
+        try {
+            return Files.exists(output) &&
+                    Files.getLastModifiedTime(output).compareTo(Files.getLastModifiedTime(file)) >= 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void moveToDone(Path file) {
+        if (doneDir == null) {
+            return;
+        }
+        try {
+            Files.move(file, doneDir.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Failed to move {} to {}: {}", file.getFileName(), doneDir, e.getMessage());
+        }
+    }
+
+    /**
+     * Check that a file can be opened; scanners on some systems keep it
+     * locked while writing
+     */
+    private static boolean isReadable(Path file) {
+        try {
+            FileChannel.open(file, StandardOpenOption.READ).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public int getProcessedCount() {
+        return processedCount.get();
+    }
+
+    public int getDuplicateCount() {
+        return duplicateCount.get();
+    }
+
+    public int getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Size and modification time of a pending file, to tell when it stops changing
+     */
+    private static final class Candidate {
+        private long size = -1;
+        private long modified = -1;
+        private long stableSince;
+
+        /**
+         * @return true if unchanged for the settle period, false if still changing, null if gone
+         */
+        private Boolean check(Path file, long now, long settleNanos) {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (IOException e) {
+                return null;
+            }
+            if (!attributes.isRegularFile()) {
+                return null;
+            }
+            long currentSize = attributes.size();
+            long currentModified = attributes.lastModifiedTime().toMillis();
+            if (currentSize != size || currentModified != modified) {
+                size = currentSize;
+                modified = currentModified;
+                stableSince = now;
+                return false;
+            }
+            return size > 0 && now - stableSince >= settleNanos;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.ocrapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Memory budget for image work.
+ * Every decode or extraction job reserves its estimated peak bytes before it
+ * starts and releases them when done; jobs block while the budget is used up,
+ * so concurrent work can't push the heap past a predictable limit. Images
+ * whose decoded size alone is too large are decoded subsampled instead.
+ *
+ * The budget defaults to 60% of the max heap and can be set with
+ * -Docrapp.memory.budgetMB=N.
+ *
+ * Waiting uses a ReentrantLock rather than a monitor so decodes running on
+ * virtual threads unmount while they wait.
+ */
+public class ImageAdmissionController {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageAdmissionController.class);
+
+    private static final double DEFAULT_HEAP_FRACTION = 0.6;
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    private static final ImageAdmissionController SHARED = new ImageAdmissionController(defaultBudgetBytes());
+
+    private final long budgetBytes;
+    private final ReentrantLock lock;
+    private final Condition released;
+    private long reservedBytes;
+
+    /**
+     * Constructor
+     * @param budgetBytes Total bytes that may be reserved at once
+     */
+    public ImageAdmissionController(long budgetBytes) {
+        if (budgetBytes <= 0) {
+            throw new IllegalArgumentException("Budget must be positive: " + budgetBytes);
+        }
+        this.budgetBytes = budgetBytes;
+        this.lock = new ReentrantLock();
+        this.released = lock.newCondition();
+        this.reservedBytes = 0;
+    }
+
+    /**
+     * Get the process-wide controller shared by all services
+     * @return Shared ImageAdmissionController
+     */
+    public static ImageAdmissionController getShared() {
+        return SHARED;
+    }
+
+    private static long defaultBudgetBytes() {
+        long configuredMB = Long.getLong("ocrapp.memory.budgetMB", 0L);
+        if (configuredMB > 0) {
+            return configuredMB * BYTES_PER_MB;
+        }
+        return (long) (Runtime.getRuntime().maxMemory() * DEFAULT_HEAP_FRACTION);
+    }
+
+    /**
+     * Reserve bytes, blocking until enough of the budget is free.
+     * A request larger than the whole budget waits until nothing else is
+     * running and then runs alone.
+     * @param bytes Estimated peak bytes of the job
+     * @return Permit to close when the job's memory has been released
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Permit acquire(long bytes) throws InterruptedException {
+        long amount = clamp(bytes);
+
+        lock.lock();
+        try {
+            if (reservedBytes + amount > budgetBytes) {
+                log.debug("Waiting for {} MB of image budget ({} MB in use)",
+                        amount / BYTES_PER_MB, reservedBytes / BYTES_PER_MB);
+            }
+            while (reservedBytes + amount > budgetBytes) {
+                released.await();
+            }
+            reservedBytes += amount;
+        } finally {
+            lock.unlock();
+        }
+
+        return new Permit(amount);
+    }
+
+    /**
+     * Get the subsampling factor needed so a long-lived decoded image takes
+     * at most half the budget, leaving the other half for jobs working on it
+     * @param decodedBytes Estimated bytes of the image at full resolution
+     * @return Factor for ImageReadParam.setSourceSubsampling (1 = full size)
+     */
+    public int subsamplingFor(long decodedBytes) {
+        long limit = budgetBytes / 2;
+        if (decodedBytes <= limit) {
+            return 1;
+        }
+        // bytes shrink with the square of the factor
+        return (int) Math.ceil(Math.sqrt((double) decodedBytes / limit));
+    }
+
+    private long clamp(long bytes) {
+        return Math.max(0, Math.min(bytes, budgetBytes));
+    }
+
+    private void release(long bytes) {
+        lock.lock();
+        try {
+            reservedBytes -= bytes;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public long getReservedBytes() {
+        lock.lock();
+        try {
+            return reservedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAvailableBytes() {
+        return budgetBytes - getReservedBytes();
+    }
+
+    /**
+     * Reservation handle, releases its bytes once when closed
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final long bytes;
+        private boolean released;
+
+        private Permit(long bytes) {
+            this.bytes = bytes;
+            this.released = false;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            release(bytes);
+        }
+    }
+}
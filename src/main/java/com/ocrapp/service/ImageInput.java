@@ -0,0 +1,162 @@
+package com.ocrapp.service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+/**
+ * Where an image comes from: a file, encoded bytes, a stream or an image
+ * already in memory (clipboard pastes, screenshots). Loading and OCR take
+ * an ImageInput so in-memory images go straight to preprocessing instead
+ * of being written to a temp file and decoded again.
+ *
+ * Stream inputs can only be decoded once.
+ */
+public final class ImageInput {
+
+    private final String name;
+    private final File file;
+    private final byte[] bytes;
+    private final InputStream stream;
+    private final BufferedImage image;
+
+    private ImageInput(String name, File file, byte[] bytes, InputStream stream, BufferedImage image) {
+        this.name = name;
+        this.file = file;
+        this.bytes = bytes;
+        this.stream = stream;
+        this.image = image;
+    }
+
+    /**
+     * Image stored in a file
+     * @param file Image file
+     * @return ImageInput, or null if file is null
+     */
+    public static ImageInput fromFile(File file) {
+        return (file != null) ? new ImageInput(file.getName(), file, null, null, null) : null;
+    }
+
+    /**
+     * Encoded image bytes (PNG, JPEG, ...)
+     * @param bytes Encoded image
+     * @param name Display name
+     * @return ImageInput
+     */
+    public static ImageInput fromBytes(byte[] bytes, String name) {
+        if (bytes == null) {
+            throw new IllegalArgumentException("Image bytes must not be null");
+        }
+        return new ImageInput(name, null, bytes, null, null);
+    }
+
+    /**
+     * Encoded image read from a stream; the caller closes the stream
+     * @param stream Stream positioned at the start of the image
+     * @param name Display name
+     * @return ImageInput
+     */
+    public static ImageInput fromStream(InputStream stream, String name) {
+        if (stream == null) {
+            throw new IllegalArgumentException("Image stream must not be null");
+        }
+        return new ImageInput(name, null, null, stream, null);
+    }
+
+    /**
+     * Image already decoded in memory
+     * @param image Image
+     * @param name Display name
+     * @return ImageInput
+     */
+    public static ImageInput fromImage(BufferedImage image, String name) {
+        if (image == null) {
+            throw new IllegalArgumentException("Image must not be null");
+        }
+        return new ImageInput(name, null, null, null, image);
+    }
+
+    /**
+     * Open the encoded image for an ImageReader
+     * @return Stream to read from, or null if there is no reader-compatible stream
+     * @throws IOException if the source can't be opened
+     */
+    ImageInputStream openStream() throws IOException {
+        if (file != null) {
+            return ImageIO.createImageInputStream(file);
+        }
+        if (bytes != null) {
+            return ImageIO.createImageInputStream(new ByteArrayInputStream(bytes));
+        }
+        if (stream != null) {
+            return ImageIO.createImageInputStream(stream);
+        }
+        return null;
+    }
+
+    /**
+     * Open the encoded bytes for reading, e.g. to hash them. Stream inputs
+     * can't be read twice, so they aren't offered.
+     * @return Stream over the encoded image, or null for stream and in-memory inputs
+     * @throws IOException if the file can't be opened
+     */
+    InputStream openEncoded() throws IOException {
+        if (file != null) {
+            return Files.newInputStream(file.toPath());
+        }
+        return (bytes != null) ? new ByteArrayInputStream(bytes) : null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the backing file
+     * @return File, or null if the image isn't stored in one
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Get the decoded image for in-memory inputs
+     * @return Image, or null if the input has to be decoded
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    public boolean isInMemory() {
+        return image != null;
+    }
+
+    /**
+     * Get the size of the encoded image
+     * @return Size in bytes, or -1 if unknown
+     */
+    public long getEncodedSize() {
+        if (file != null) {
+            return file.length();
+        }
+        return (bytes != null) ? bytes.length : -1;
+    }
+
+    /**
+     * Describe the source for result metadata
+     * @return Absolute file path, or the display name
+     */
+    public String getSourcePath() {
+        return (file != null) ? file.getAbsolutePath() : name;
+    }
+
+    @Override
+    public String toString() {
+        return getSourcePath();
+    }
+}
@@ -1,21 +1,39 @@
 package com.ocrapp.service;
 
+import com.ocrapp.util.PipelineMetrics;
+import com.ocrapp.util.PipelineMetrics.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.event.IIOReadProgressListener;
+import javax.imageio.event.IIOReadUpdateListener;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorConvertOp;
 import java.awt.image.RescaleOp;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.function.BooleanSupplier;
 
 /**
  * Service class for image processing operations.
  * Handles loading, preprocessing, and optimizing images for OCR.
  */
 public class ImageProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageProcessor.class);
     
-    private BufferedImage currentImage;
+    // weak so the processor never pins an image the caller has let go of
+    private WeakReference<BufferedImage> currentImage;
     private File currentImageFile;
+    private final ImageAdmissionController admissionController;
     
     // Image processing parameters
     private static final int MAX_IMAGE_WIDTH = 3000;
@@ -23,12 +41,195 @@ public class ImageProcessor {
     private static final float CONTRAST_FACTOR = 1.2f;
     private static final float BRIGHTNESS_OFFSET = 10.0f;
     
+    // Text scaling: x-height (px) Tesseract reads best, e.g. -Docrapp.textScale.xHeight=24;
+    // disable with -Docrapp.textScale=false to only cap the image size
+    private static final boolean TEXT_SCALING = Boolean.parseBoolean(System.getProperty("ocrapp.textScale", "true"));
+    private static final int TARGET_X_HEIGHT = Math.max(8, Integer.getInteger("ocrapp.textScale.xHeight", 24));
+    // text within this factor of the target is left alone rather than resampled
+    private static final double TEXT_SCALE_TOLERANCE = 1.25;
+    private static final double MIN_TEXT_SCALE = 0.2;
+    private static final double MAX_TEXT_SCALE = 4.0;
+    
+    // Worst-case bytes per pixel of a decoded or resized (INT_ARGB) image
+    private static final int ARGB_BYTES_PER_PIXEL = 4;
+    
+    // Pixel arrays for intermediates are borrowed from and returned to this pool
+    private static final RasterPool RASTER_POOL = RasterPool.getShared();
+    
+    // Loads of images smaller than this finish too quickly to be worth a preview
+    private static final long PREVIEW_MIN_PIXELS = 4_000_000L;
+    private static final int PREVIEW_MAX_SIDE = 1024;
+    private static final long PREVIEW_INTERVAL_NANOS = 250_000_000L;
+    
     /**
-     * Default constructor
+     * Receives the state of a load while it decodes, on the loading thread
+     */
+    public interface LoadListener {
+        /**
+         * A subsampled preview of the image is ready
+         * @param preview Small copy of what has been decoded so far
+         * @param fullWidth Width of the image being loaded
+         * @param fullHeight Height of the image being loaded
+         */
+        void previewReady(BufferedImage preview, int fullWidth, int fullHeight);
+        
+        /**
+         * Decoding progressed
+         * @param percent Percent decoded, 0-100
+         */
+        void progressChanged(int percent);
+    }
+    
+    /**
+     * Default constructor - uses the shared memory budget
      */
     public ImageProcessor() {
-        this.currentImage = null;
+        this(ImageAdmissionController.getShared());
+    }
+    
+    /**
+     * Constructor with a specific memory budget
+     * @param admissionController Controller that bounds decode and preprocessing memory
+     */
+    public ImageProcessor(ImageAdmissionController admissionController) {
+        this.currentImage = new WeakReference<>(null);
         this.currentImageFile = null;
+        this.admissionController = admissionController;
+    }
+    
+    /**
+     * Estimate the heap needed to decode an image
+     * @param width Image width from the file header
+     * @param height Image height from the file header
+     * @return Estimated bytes
+     */
+    public static long estimateDecodeBytes(int width, int height) {
+        return (long) width * height * ARGB_BYTES_PER_PIXEL;
+    }
+    
+    /**
+     * Estimate peak heap used by preprocessImage, not counting the input,
+     * before the text height is known. This bounds whatever size
+     * workingSize picks: text scaling enlarges at most MAX_TEXT_SCALE times
+     * and never past the profile's area, and otherwise the image only shrinks.
+     * @param width Input width
+     * @param height Input height
+     * @param profile Profile the image will be preprocessed with
+     * @return Estimated bytes
+     */
+    public static long estimatePreprocessBytes(int width, int height, OCRProfile profile) {
+        long pixels = (long) width * height;
+        long maxSide = profile.getMaxImageSide();
+        double growth = TEXT_SCALING ? MAX_TEXT_SCALE * MAX_TEXT_SCALE : 1.0;
+        return estimateWorkingPixels(Math.min(maxSide * maxSide, (long) (pixels * growth)));
+    }
+    
+    private static long estimateWorkingBytes(Dimension workingSize) {
+        return estimateWorkingPixels((long) workingSize.width * workingSize.height);
+    }
+    
+    // at most two ARGB-sized intermediates (resized + inverted) are alive at
+    // once; the grayscale and contrast steps are one byte per pixel
+    private static long estimateWorkingPixels(long workingPixels) {
+        return workingPixels * (2L * ARGB_BYTES_PER_PIXEL + 2L);
+    }
+    
+    /**
+     * Read image dimensions from the file header without decoding pixels
+     * @param imageFile Image file
+     * @return Dimension, or null if the file can't be read
+     */
+    public static Dimension readImageDimensions(File imageFile) {
+        if (imageFile == null || !imageFile.isFile()) {
+            return null;
+        }
+        
+        try (ImageInputStream input = ImageIO.createImageInputStream(imageFile)) {
+            return readImageDimensions(input);
+        } catch (IOException e) {
+            log.warn("Could not read image header: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Read image dimensions from the encoded bytes of a file or byte input
+     * without decoding pixels
+     * @param imageInput Image input
+     * @return Dimension, or null if the input has no encoded form or can't be read
+     */
+    public static Dimension readImageDimensions(ImageInput imageInput) {
+        try (InputStream encoded = imageInput.openEncoded()) {
+            if (encoded == null) {
+                return null;
+            }
+            try (ImageInputStream input = ImageIO.createImageInputStream(encoded)) {
+                return readImageDimensions(input);
+            }
+        } catch (IOException e) {
+            log.warn("Could not read image header: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    private static Dimension readImageDimensions(ImageInputStream input) throws IOException {
+        if (input == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(input, true, true);
+            return new Dimension(reader.getWidth(0), reader.getHeight(0));
+        } finally {
+            reader.dispose();
+        }
+    }
+    
+    /**
+     * Downscale by repeated halving with bilinear filtering, then a final
+     * bicubic step. Much faster than SCALE_SMOOTH area averaging and
+     * close in quality.
+     * @param source Image to scale
+     * @param targetWidth Final width
+     * @param targetHeight Final height
+     * @param cancelled Checked between steps to abandon stale work
+     * @return Scaled image, or null if cancelled
+     */
+    public static BufferedImage progressiveScale(BufferedImage source, int targetWidth, int targetHeight,
+                                                 BooleanSupplier cancelled) {
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        
+        do {
+            if (cancelled.getAsBoolean()) {
+                return null;
+            }
+            
+            // halve while still more than 2x too big, otherwise go straight to target
+            width = (width / 2 >= targetWidth) ? width / 2 : targetWidth;
+            height = (height / 2 >= targetHeight) ? height / 2 : targetHeight;
+            boolean finalStep = width == targetWidth && height == targetHeight;
+            
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = step.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, finalStep ?
+                    RenderingHints.VALUE_INTERPOLATION_BICUBIC : RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2d.drawImage(current, 0, 0, width, height, null);
+            g2d.dispose();
+            
+            if (current != source) {
+                current.flush();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        
+        return current;
     }
     
     /**
@@ -38,33 +239,249 @@ public class ImageProcessor {
      */
     public BufferedImage loadImage(File imageFile) {
         if (imageFile == null || !imageFile.exists()) {
-            System.err.println("Invalid image file");
+            log.warn("Invalid image file: {}", imageFile);
+            return null;
+        }
+        
+        return loadImage(ImageInput.fromFile(imageFile));
+    }
+    
+    /**
+     * Load an image from any source. In-memory images are used as they are,
+     * without encoding or decoding.
+     * @param source Image to load
+     * @return BufferedImage object, or null if loading fails
+     */
+    public BufferedImage loadImage(ImageInput source) {
+        return load(source, null, null, null);
+    }
+    
+    /**
+     * Load an image from any source, reporting decode progress. Large
+     * images also produce subsampled previews while the full raster fills
+     * in: the embedded thumbnail if there is one, then snapshots of the
+     * rows decoded so far.
+     * @param source Image to load
+     * @param listener Receives progress and previews (may be null)
+     * @return BufferedImage object, or null if loading fails
+     */
+    public BufferedImage loadImage(ImageInput source, LoadListener listener) {
+        return load(source, listener, null, null);
+    }
+    
+    /**
+     * Load an image for a job that will preprocess and recognize it. The
+     * memory for the decoded image and its preprocessing stays reserved
+     * until the job's run ends, rather than just while it decodes.
+     * @param source Image to load
+     * @param profile Profile the image will be preprocessed with
+     * @param context Job that keeps the image
+     * @return BufferedImage object, or null if loading fails
+     */
+    public BufferedImage loadImage(ImageInput source, OCRProfile profile, JobContext context) {
+        return load(source, null, profile, context);
+    }
+    
+    private BufferedImage load(ImageInput source, LoadListener listener, OCRProfile profile, JobContext context) {
+        if (source == null) {
+            log.warn("No image source");
             return null;
         }
         
         try {
-            BufferedImage image = ImageIO.read(imageFile);
+            long startNanos = System.nanoTime();
+            BufferedImage image = source.isInMemory() ?
+                    source.getImage() : decodeWithinBudget(source, listener, profile, context);
             
             if (image == null) {
-                System.err.println("Failed to read image file: " + imageFile.getName());
+                log.warn("Failed to read image: {}", source.getName());
                 return null;
             }
             
-            this.currentImage = image;
-            this.currentImageFile = imageFile;
+            if (!source.isInMemory()) {
+                PipelineMetrics.record(Stage.DECODE, startNanos, (long) image.getWidth() * image.getHeight());
+            }
+            
+            this.currentImage = new WeakReference<>(image);
+            this.currentImageFile = source.getFile();
             
-            System.out.println("Image loaded successfully: " + imageFile.getName());
-            System.out.println("Image dimensions: " + image.getWidth() + "x" + image.getHeight());
+            log.info("Image loaded: {} ({}x{})", source.getName(), image.getWidth(), image.getHeight());
             
             return image;
             
         } catch (IOException e) {
-            System.err.println("Error loading image: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error loading image: {}", source.getName(), e);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting to load {}", source.getName());
             return null;
         }
     }
     
+    /**
+     * Decode an image, reserving its size against the memory budget first.
+     * Images too large for the budget are decoded subsampled. For a job the
+     * reservation also covers preprocessing and is handed to the job, which
+     * releases it when its run ends; otherwise (the window's image, which
+     * subsampling keeps to half the budget) it is released after decoding.
+     * @param source Encoded image to decode
+     * @param listener Receives progress and previews (may be null)
+     * @param profile Profile the job preprocesses with (null without a job)
+     * @param context Job that keeps the image (may be null)
+     * @return Decoded image, or null if no reader supports the source
+     */
+    private BufferedImage decodeWithinBudget(ImageInput source, LoadListener listener, OCRProfile profile,
+                                             JobContext context) throws IOException, InterruptedException {
+        try (ImageInputStream input = source.openStream()) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = admissionController.subsamplingFor(estimateDecodeBytes(width, height));
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                    log.warn("Image {} ({}x{}) exceeds memory budget - decoding at 1/{} scale",
+                            source.getName(), width, height, subsampling);
+                }
+                
+                int decodedWidth = (width + subsampling - 1) / subsampling;
+                int decodedHeight = (height + subsampling - 1) / subsampling;
+                long decodeBytes = estimateDecodeBytes(decodedWidth, decodedHeight);
+                
+                if (listener != null) {
+                    attachLoadListener(reader, listener, width, height);
+                }
+                if (context == null) {
+                    ImageAdmissionController.Permit permit = admissionController.acquire(decodeBytes);
+                    try {
+                        return reader.read(0, param);
+                    } finally {
+                        permit.close();
+                    }
+                }
+                
+                // reserved in one go: waiting for more while holding some could deadlock the workers
+                long preprocessBytes = estimatePreprocessBytes(decodedWidth, decodedHeight, profile);
+                context.holdUntilDone(admissionController.acquire(decodeBytes + preprocessBytes), preprocessBytes);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    
+    /**
+     * Forward a reader's progress to a load listener and, for large images,
+     * hand out previews while it decodes
+     * @param reader Reader about to decode image 0
+     * @param listener Load listener
+     * @param width Full image width
+     * @param height Full image height
+     */
+    private static void attachLoadListener(ImageReader reader, LoadListener listener, int width, int height)
+            throws IOException {
+        reader.addIIOReadProgressListener(new IIOReadProgressListener() {
+            private int lastPercent = -1;
+            
+            @Override
+            public void imageProgress(ImageReader source, float percentageDone) {
+                int percent = Math.min(100, (int) percentageDone);
+                if (percent != lastPercent) {
+                    lastPercent = percent;
+                    listener.progressChanged(percent);
+                }
+            }
+            
+            @Override
+            public void imageComplete(ImageReader source) {
+                listener.progressChanged(100);
+            }
+            
+            @Override public void sequenceStarted(ImageReader source, int minIndex) { }
+            @Override public void sequenceComplete(ImageReader source) { }
+            @Override public void imageStarted(ImageReader source, int imageIndex) { }
+            @Override public void thumbnailStarted(ImageReader source, int imageIndex, int thumbnailIndex) { }
+            @Override public void thumbnailProgress(ImageReader source, float percentageDone) { }
+            @Override public void thumbnailComplete(ImageReader source) { }
+            @Override public void readAborted(ImageReader source) { }
+        });
+        
+        if ((long) width * height < PREVIEW_MIN_PIXELS) {
+            return;
+        }
+        
+        // the embedded thumbnail costs next to nothing and shows the whole page
+        if (reader.readerSupportsThumbnails() && reader.getNumThumbnails(0) > 0) {
+            listener.previewReady(reader.readThumbnail(0, 0), width, height);
+        }
+        
+        reader.addIIOReadUpdateListener(new IIOReadUpdateListener() {
+            private long lastPreviewNanos = System.nanoTime();
+            
+            @Override
+            public void imageUpdate(ImageReader source, BufferedImage theImage, int minX, int minY,
+                                    int regionWidth, int regionHeight, int periodX, int periodY, int[] bands) {
+                maybePreview(theImage);
+            }
+            
+            @Override
+            public void passComplete(ImageReader source, BufferedImage theImage) {
+                maybePreview(theImage);
+            }
+            
+            private void maybePreview(BufferedImage partial) {
+                long now = System.nanoTime();
+                if (now - lastPreviewNanos < PREVIEW_INTERVAL_NANOS) {
+                    return;
+                }
+                lastPreviewNanos = now;
+                listener.previewReady(previewOf(partial), width, height);
+            }
+            
+            @Override public void passStarted(ImageReader source, BufferedImage theImage, int pass, int minPass,
+                                              int maxPass, int minX, int minY, int periodX, int periodY,
+                                              int[] bands) { }
+            @Override public void thumbnailPassStarted(ImageReader source, BufferedImage theThumbnail, int pass,
+                                                       int minPass, int maxPass, int minX, int minY,
+                                                       int periodX, int periodY, int[] bands) { }
+            @Override public void thumbnailUpdate(ImageReader source, BufferedImage theThumbnail, int minX,
+                                                  int minY, int width, int height, int periodX, int periodY,
+                                                  int[] bands) { }
+            @Override public void thumbnailPassComplete(ImageReader source, BufferedImage theThumbnail) { }
+        });
+    }
+    
+    /**
+     * Subsample a partly decoded image for display. Nearest neighbor, so
+     * the cost depends on the preview size, not the image size.
+     * @param partial Image being decoded
+     * @return Preview no larger than PREVIEW_MAX_SIDE
+     */
+    private static BufferedImage previewOf(BufferedImage partial) {
+        double scale = Math.min(1.0, (double) PREVIEW_MAX_SIDE / Math.max(partial.getWidth(), partial.getHeight()));
+        int width = Math.max(1, (int) (partial.getWidth() * scale));
+        int height = Math.max(1, (int) (partial.getHeight() * scale));
+        
+        BufferedImage preview = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = preview.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g2d.drawImage(partial, 0, 0, width, height, null);
+        g2d.dispose();
+        return preview;
+    }
+    
     /**
      * Load image from file path
      * @param imagePath Path to image file
@@ -72,7 +489,7 @@ public class ImageProcessor {
      */
     public BufferedImage loadImage(String imagePath) {
         if (imagePath == null || imagePath.isEmpty()) {
-            System.err.println("Invalid image path");
+            log.warn("Invalid image path");
             return null;
         }
         
@@ -80,40 +497,187 @@ public class ImageProcessor {
     }
     
     /**
-     * Preprocess image for OCR (grayscale, contrast, resize if needed)
+     * Preprocess image for OCR (scale to the text size, grayscale, contrast)
      * @param image Image to preprocess
      * @return Preprocessed BufferedImage
      */
     public BufferedImage preprocessImage(BufferedImage image) {
+        return preprocessImage(image, OCRProfile.BALANCED);
+    }
+    
+    /**
+     * Preprocess image for OCR with a profile's size limit and steps
+     * @param image Image to preprocess
+     * @param profile Profile deciding the working size and whether contrast is enhanced
+     * @return Preprocessed BufferedImage
+     */
+    public BufferedImage preprocessImage(BufferedImage image, OCRProfile profile) {
+        return preprocessImage(image, profile, null);
+    }
+    
+    /**
+     * Preprocess image for a job, using the memory the job reserved when it
+     * decoded the image if that covers the working size
+     * @param image Image to preprocess
+     * @param profile Profile deciding the working size and whether contrast is enhanced
+     * @param context Job doing the preprocessing (may be null)
+     * @return Preprocessed BufferedImage
+     */
+    public BufferedImage preprocessImage(BufferedImage image, OCRProfile profile, JobContext context) {
         if (image == null) {
-            System.err.println("Cannot preprocess null image");
+            log.warn("Cannot preprocess null image");
+            return null;
+        }
+        
+        // sized first, so the permit covers an upscaled working image too
+        Dimension workingSize = workingSize(image, profile);
+        long workingBytes = estimateWorkingBytes(workingSize);
+        if (context != null && context.getHeldPreprocessBytes() >= workingBytes) {
+            return runPreprocessing(image, workingSize, profile);
+        }
+        ImageAdmissionController.Permit permit;
+        try {
+            permit = admissionController.acquire(workingBytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for preprocessing memory");
             return null;
         }
+        try {
+            return runPreprocessing(image, workingSize, profile);
+        } finally {
+            permit.close();
+        }
+    }
+    
+    /**
+     * Work out the size OCR should see an image at. When the text height
+     * can be measured, the image is scaled so the x-height lands near the
+     * target: small, low-resolution crops are enlarged and oversized scans
+     * shrunk by however much their text allows. The profile's maximum side
+     * then only bounds the area (maxSide x maxSide pixels), so tall pages
+     * aren't shrunk for their shape. Without measurable text (photos,
+     * blank or tiny crops) the image is just kept within maxSide on each side.
+     * @param image Image to preprocess
+     * @param profile Profile giving the size limit
+     * @return Working size (the image's own size if no scaling is needed)
+     */
+    public Dimension workingSize(BufferedImage image, OCRProfile profile) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int maxSide = profile.getMaxImageSide();
         
-        System.out.println("Starting image preprocessing...");
+        double xHeight = 0.0;
+        if (TEXT_SCALING) {
+            long start = System.nanoTime();
+            xHeight = TextHeightEstimator.estimateXHeight(image);
+            PipelineMetrics.record(Stage.PREPROCESS_TEXT_HEIGHT, start, (long) width * height);
+        }
         
-        // Step 1: Resize if too large
-        BufferedImage processedImage = resizeIfNeeded(image);
+        double scale;
+        if (xHeight > 0) {
+            scale = TARGET_X_HEIGHT / xHeight;
+            if (scale >= 1.0 / TEXT_SCALE_TOLERANCE && scale <= TEXT_SCALE_TOLERANCE) {
+                scale = 1.0;
+            }
+            scale = Math.max(MIN_TEXT_SCALE, Math.min(MAX_TEXT_SCALE, scale));
+            scale = Math.min(scale, Math.sqrt((double) maxSide * maxSide / ((double) width * height)));
+            log.debug("Text x-height ~{}px, scaling by {}", Math.round(xHeight), String.format("%.2f", scale));
+        } else {
+            scale = Math.min(1.0, Math.min((double) maxSide / width, (double) maxSide / height));
+        }
+        
+        if (scale == 1.0) {
+            return new Dimension(width, height);
+        }
+        return new Dimension(Math.max(1, (int) Math.round(width * scale)),
+                Math.max(1, (int) Math.round(height * scale)));
+    }
+    
+    /**
+     * Run the preprocessing steps, dropping each intermediate as soon as
+     * the next one has been produced
+     */
+    private BufferedImage runPreprocessing(BufferedImage image, Dimension workingSize, OCRProfile profile) {
+        log.debug("Starting image preprocessing...");
+        
+        long preprocessStart = System.nanoTime();
+        long stepStart = preprocessStart;
+        long inputPixels = (long) image.getWidth() * image.getHeight();
+        
+        // Step 1: Scale to the working size
+        BufferedImage processedImage = image;
+        if (workingSize.width != image.getWidth() || workingSize.height != image.getHeight()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Resizing image from {}x{} to {}x{}", image.getWidth(), image.getHeight(),
+                        workingSize.width, workingSize.height);
+            }
+            processedImage = resizeImage(image, workingSize.width, workingSize.height);
+        }
+        PipelineMetrics.record(Stage.PREPROCESS_RESIZE, stepStart, inputPixels);
+        
+        long pixels = (long) processedImage.getWidth() * processedImage.getHeight();
         
         // Step 2: Invert color brightness if needed
+        stepStart = System.nanoTime();
         if (shouldInvert(processedImage)) {
-            System.out.println("Image is  too dark - inverting for better OCR...");
-            processedImage = invertImage(processedImage);
+            log.debug("Image is too dark - inverting for better OCR");
+            processedImage = releaseIntermediate(processedImage, invertImage(processedImage), image);
         } else {
-            System.out.println("I see the light - skipping inversion.");
+            log.debug("I see the light - skipping inversion");
         }
+        PipelineMetrics.record(Stage.PREPROCESS_INVERT, stepStart, pixels);
         
         // Step 3: Convert to grayscale
-        processedImage = convertToGrayscale(processedImage);
+        stepStart = System.nanoTime();
+        processedImage = releaseIntermediate(processedImage, convertToGrayscale(processedImage), image);
+        PipelineMetrics.record(Stage.PREPROCESS_GRAYSCALE, stepStart, pixels);
         
         // Step 4: Enhance contrast
-        processedImage = enhanceContrast(processedImage);
+        if (profile.isEnhanceContrast()) {
+            stepStart = System.nanoTime();
+            processedImage = releaseIntermediate(processedImage, enhanceContrast(processedImage), image);
+            PipelineMetrics.record(Stage.PREPROCESS_CONTRAST, stepStart, pixels);
+        }
+        
+        PipelineMetrics.record(Stage.PREPROCESS, preprocessStart, inputPixels);
         
-        System.out.println("Image preprocessing completed");
+        log.debug("Image preprocessing completed");
         
         return processedImage;
     }
     
+    /**
+     * Return a replaced intermediate to the raster pool unless it is the caller's input image
+     * @param previous Intermediate being replaced
+     * @param next Its replacement
+     * @param input Image passed in by the caller (never recycled)
+     * @return next
+     */
+    private static BufferedImage releaseIntermediate(BufferedImage previous, BufferedImage next, BufferedImage input) {
+        if (previous != null && previous != input && previous != next) {
+            RASTER_POOL.release(previous);
+        }
+        return next;
+    }
+    
+    /**
+     * Return an image produced by preprocessImage to the raster pool once
+     * OCR has finished with it. The image must not be used afterwards.
+     * @param processedImage Image returned by preprocessImage
+     */
+    public void releaseProcessedImage(BufferedImage processedImage) {
+        RASTER_POOL.release(processedImage);
+    }
+    
+    /**
+     * Pick a poolable type for a new image derived from the given one
+     */
+    private static int outputTypeFor(BufferedImage image) {
+        int type = image.getType();
+        return type == BufferedImage.TYPE_CUSTOM ? BufferedImage.TYPE_INT_ARGB : type;
+    }
+    
     /**
      * Check if image needs color inversion based on average brightness.
      * Dark backgrounds (avg brightness < 100) benefit from inversion for better OCR.
@@ -142,7 +706,7 @@ public class ImageProcessor {
         }
 
         double avgBrightness = (double) totalBrightness / count;
-        System.out.println("Average brightness: " + avgBrightness);
+        log.debug("Average brightness: {}", avgBrightness);
 
         // Threshold of ~100 works well for most images
         return avgBrightness < 100;
@@ -159,7 +723,7 @@ public class ImageProcessor {
     public static BufferedImage invertImage(BufferedImage image) {
         int width = image.getWidth();
         int height = image.getHeight();
-        BufferedImage inverted = new BufferedImage(width, height, image.getType());
+        BufferedImage inverted = RASTER_POOL.borrow(width, height, outputTypeFor(image));
 
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
@@ -187,7 +751,7 @@ public class ImageProcessor {
         }
         
         // Create grayscale image
-        BufferedImage grayImage = new BufferedImage(
+        BufferedImage grayImage = RASTER_POOL.borrow(
                 image.getWidth(),
                 image.getHeight(),
                 BufferedImage.TYPE_BYTE_GRAY
@@ -202,7 +766,7 @@ public class ImageProcessor {
         
         op.filter(image, grayImage);
         
-        System.out.println("Image converted to grayscale");
+        log.debug("Image converted to grayscale");
         
         return grayImage;
     }
@@ -220,15 +784,15 @@ public class ImageProcessor {
         // Create rescale operation for contrast enhancement
         RescaleOp rescaleOp = new RescaleOp(CONTRAST_FACTOR, BRIGHTNESS_OFFSET, null);
         
-        BufferedImage enhancedImage = new BufferedImage(
+        BufferedImage enhancedImage = RASTER_POOL.borrow(
                 image.getWidth(),
                 image.getHeight(),
-                image.getType()
+                outputTypeFor(image)
         );
         
         rescaleOp.filter(image, enhancedImage);
         
-        System.out.println("Image contrast enhanced");
+        log.debug("Image contrast enhanced");
         
         return enhancedImage;
     }
@@ -239,6 +803,17 @@ public class ImageProcessor {
      * @return Resized BufferedImage (or original if within limits)
      */
     public BufferedImage resizeIfNeeded(BufferedImage image) {
+        return resizeIfNeeded(image, MAX_IMAGE_WIDTH, MAX_IMAGE_HEIGHT);
+    }
+    
+    /**
+     * Resize image if it exceeds the given dimensions
+     * @param image Image to resize
+     * @param maxWidth Largest width to keep
+     * @param maxHeight Largest height to keep
+     * @return Resized BufferedImage (or original if within limits)
+     */
+    public BufferedImage resizeIfNeeded(BufferedImage image, int maxWidth, int maxHeight) {
         if (image == null) {
             return null;
         }
@@ -247,22 +822,23 @@ public class ImageProcessor {
         int height = image.getHeight();
         
         // Check if resizing is needed
-        if (width <= MAX_IMAGE_WIDTH && height <= MAX_IMAGE_HEIGHT) {
-            System.out.println("Image size within limits, no resizing needed");
+        if (width <= maxWidth && height <= maxHeight) {
+            log.debug("Image size within limits, no resizing needed");
             return image;
         }
         
         // Calculate new dimensions while maintaining aspect ratio
         double scale = Math.min(
-                (double) MAX_IMAGE_WIDTH / width,
-                (double) MAX_IMAGE_HEIGHT / height
+                (double) maxWidth / width,
+                (double) maxHeight / height
         );
         
         int newWidth = (int) (width * scale);
         int newHeight = (int) (height * scale);
         
-        System.out.println("Resizing image from " + width + "x" + height + 
-                          " to " + newWidth + "x" + newHeight);
+        if (log.isDebugEnabled()) {
+            log.debug("Resizing image from {}x{} to {}x{}", width, height, newWidth, newHeight);
+        }
         
         return resizeImage(image, newWidth, newHeight);
     }
@@ -279,8 +855,11 @@ public class ImageProcessor {
             return null;
         }
 
-        BufferedImage resizedImage = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage resizedImage = RASTER_POOL.borrow(targetWidth, targetHeight, BufferedImage.TYPE_INT_ARGB);
         Graphics2D g2d = resizedImage.createGraphics();
+        
+        // pooled pixels are stale, overwrite instead of blending
+        g2d.setComposite(AlphaComposite.Src);
 
         // High-quality rendering hints
         g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
@@ -308,7 +887,7 @@ public class ImageProcessor {
             BufferedImage testImage = ImageIO.read(imageFile);
             return testImage != null;
         } catch (IOException e) {
-            System.err.println("Image validation failed: " + e.getMessage());
+            log.warn("Image validation failed: {}", e.getMessage());
             return false;
         }
     }
@@ -319,13 +898,7 @@ public class ImageProcessor {
      * @return Dimension object with width and height
      */
     public Dimension getImageDimensions(File imageFile) {
-        BufferedImage image = loadImage(imageFile);
-        
-        if (image != null) {
-            return new Dimension(image.getWidth(), image.getHeight());
-        }
-        
-        return null;
+        return readImageDimensions(imageFile);
     }
     
     /**
@@ -354,7 +927,7 @@ public class ImageProcessor {
     // Getters
     
     public BufferedImage getCurrentImage() {
-        return currentImage;
+        return currentImage.get();
     }
     
     public File getCurrentImageFile() {
@@ -365,8 +938,8 @@ public class ImageProcessor {
      * Clear current image from memory
      */
     public void clearCurrentImage() {
-        this.currentImage = null;
+        this.currentImage = new WeakReference<>(null);
         this.currentImageFile = null;
-        System.out.println("Current image cleared from memory");
+        log.debug("Current image cleared from memory");
     }
 }
\ No newline at end of file
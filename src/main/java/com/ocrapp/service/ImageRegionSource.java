@@ -0,0 +1,46 @@
+package com.ocrapp.service;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Random-access view of an image that can hand out sub-regions at reduced
+ * resolution without the caller holding the full-size image.
+ * Used by the tiled viewer and for cropping selections out of huge files.
+ */
+public interface ImageRegionSource extends AutoCloseable {
+
+    /**
+     * Get full-resolution width
+     * @return Width in pixels
+     */
+    int getWidth();
+
+    /**
+     * Get full-resolution height
+     * @return Height in pixels
+     */
+    int getHeight();
+
+    /**
+     * Read a region of the image
+     * @param region Region in full-resolution coordinates (clipped to the image)
+     * @param subsampling Keep every n-th pixel in each direction (1 = full resolution)
+     * @return Image of about region.width/subsampling x region.height/subsampling pixels
+     * @throws IOException if the region can't be read
+     */
+    BufferedImage readRegion(Rectangle region, int subsampling) throws IOException;
+
+    /**
+     * Check whether the whole image is held in memory
+     * @return true for in-memory sources, false for file-backed ones
+     */
+    boolean isInMemory();
+
+    /**
+     * Release any open file handles
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,172 @@
+package com.ocrapp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Per-run state shared between a job and the scheduler.
+ * Carries the cancellation flags that the job (and Tesseract, through
+ * OCREngine) poll, and turns stage-relative progress into an overall
+ * percentage for the job's listener.
+ *
+ * A job is stopped either because the user cancelled it, or because it was
+ * pre-empted by higher-priority work; a pre-empted job is queued again.
+ *
+ * Memory reserved for images the job decodes is held here and released by
+ * the scheduler when the run ends, however it ends.
+ */
+public class JobContext {
+
+    private final String name;
+    private final ProgressSink sink;
+
+    private volatile boolean cancelRequested;
+    private volatile boolean preempted;
+
+    private volatile String stageMessage;
+    private volatile int stageStart;
+    private volatile int stageEnd;
+    private volatile int progress;
+
+    // guarded by this
+    private final List<ImageAdmissionController.Permit> heldPermits = new ArrayList<>();
+    private long heldPreprocessBytes;
+
+    /**
+     * Receives overall progress updates
+     */
+    interface ProgressSink {
+        void progressChanged(int percent, String message);
+    }
+
+    /**
+     * Constructor
+     * @param name Job name, for messages
+     * @param sink Receiver of progress updates (may be null)
+     */
+    JobContext(String name, ProgressSink sink) {
+        this.name = name;
+        this.sink = sink;
+        this.stageMessage = "";
+        this.stageStart = 0;
+        this.stageEnd = 100;
+        this.progress = -1;
+    }
+
+    /**
+     * Check whether the job should stop
+     * @return true if cancelled or pre-empted
+     */
+    public boolean isCancelled() {
+        return cancelRequested || preempted;
+    }
+
+    /**
+     * Stop the job here if it should stop
+     * @throws CancellationException if cancelled or pre-empted
+     */
+    public void checkCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException(name + (preempted ? " pre-empted" : " cancelled"));
+        }
+    }
+
+    /**
+     * Start a stage occupying part of the overall progress range
+     * @param message Description shown while the stage runs
+     * @param start Overall percent at the start of the stage
+     * @param end Overall percent at the end of the stage
+     */
+    public void beginStage(String message, int start, int end) {
+        checkCancelled();
+        this.stageMessage = message;
+        this.stageStart = start;
+        this.stageEnd = end;
+        report(start);
+    }
+
+    /**
+     * Report progress within the current stage
+     * @param percent Stage progress (0-100)
+     */
+    public void setStageProgress(int percent) {
+        int clamped = Math.max(0, Math.min(100, percent));
+        report(stageStart + (stageEnd - stageStart) * clamped / 100);
+    }
+
+    private void report(int overall) {
+        if (overall == progress) {
+            return;
+        }
+        progress = overall;
+        if (sink != null) {
+            sink.progressChanged(overall, stageMessage);
+        }
+    }
+
+    /**
+     * Keep a memory reservation until this run of the job ends
+     * @param permit Reservation for an image decoded by the job
+     * @param preprocessBytes Part of the reservation set aside for preprocessing the image
+     */
+    synchronized void holdUntilDone(ImageAdmissionController.Permit permit, long preprocessBytes) {
+        heldPermits.add(permit);
+        heldPreprocessBytes += preprocessBytes;
+    }
+
+    /**
+     * Get the preprocessing memory already reserved by this run
+     * @return Bytes, 0 if the job decoded nothing itself
+     */
+    synchronized long getHeldPreprocessBytes() {
+        return heldPreprocessBytes;
+    }
+
+    /**
+     * Release the reservations held by the run that just ended
+     */
+    void releaseHeld() {
+        List<ImageAdmissionController.Permit> permits;
+        synchronized (this) {
+            permits = new ArrayList<>(heldPermits);
+            heldPermits.clear();
+            heldPreprocessBytes = 0;
+        }
+        for (ImageAdmissionController.Permit permit : permits) {
+            permit.close();
+        }
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    void preempt() {
+        preempted = true;
+    }
+
+    /**
+     * Clear the pre-emption flag before the job is queued again
+     */
+    void resetForRetry() {
+        preempted = false;
+        progress = -1;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    boolean isPreempted() {
+        return preempted;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getProgress() {
+        return Math.max(0, progress);
+    }
+}
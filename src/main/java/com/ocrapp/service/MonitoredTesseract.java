@@ -0,0 +1,219 @@
+package com.ocrapp.service;
+
+import com.ocrapp.model.OCRWord;
+import com.sun.jna.Pointer;
+import net.sourceforge.tess4j.ITessAPI.CANCEL_FUNC;
+import net.sourceforge.tess4j.ITessAPI.ETEXT_DESC;
+import net.sourceforge.tess4j.Tesseract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Rectangle;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tesseract that runs recognition with an ETEXT_DESC monitor attached.
+ * Tesseract calls the monitor's cancel hook after every word; the hook
+ * reports the monitor's progress field to the current JobContext and
+ * returns its cancellation flag, so a long page can be stopped mid-way.
+ * Without a context, this behaves exactly like Tesseract.
+ *
+ * After the text, the word layout is read from the same recognition (as
+ * Tesseract's TSV output) so exports need no second pass.
+ *
+ * Tesseract normally creates a native instance and loads the traineddata
+ * for every page, then deletes it again. Here the instance is kept between
+ * pages while the data path, language and engine mode stay the same. Only
+ * the page's image and results are cleared after each page, so a pooled
+ * engine loads each model once instead of once per page.
+ */
+class MonitoredTesseract extends Tesseract {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitoredTesseract.class);
+
+    // TSV columns: level page block par line word left top width height conf text
+    private static final int TSV_COLUMNS = 12;
+    private static final int TSV_WORD_LEVEL = 5;
+
+    private volatile JobContext context;
+    private List<OCRWord> lastWords = Collections.emptyList();
+
+    // settings the native instance is created from, mirrored from Tesseract's private fields
+    private String datapath;
+    private String language = "eng";
+    private int ocrEngineMode = 3;
+    private int pageSegMode = -1;
+    // datapath|language|mode of the live native instance, null if none
+    private String loadedModel;
+
+    /**
+     * Take the words of the last recognition
+     * @return Words in recognized-image pixels, empty if none were captured
+     */
+    List<OCRWord> takeWords() {
+        List<OCRWord> words = lastWords;
+        lastWords = Collections.emptyList();
+        return words;
+    }
+
+    /**
+     * Attach a job context to the next recognition calls
+     * @param context Context to report to and poll (null to detach)
+     */
+    void setContext(JobContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public void setDatapath(String datapath) {
+        super.setDatapath(datapath);
+        this.datapath = datapath;
+    }
+
+    @Override
+    public void setLanguage(String language) {
+        super.setLanguage(language);
+        this.language = language;
+    }
+
+    @Override
+    public void setOcrEngineMode(int ocrEngineMode) {
+        super.setOcrEngineMode(ocrEngineMode);
+        this.ocrEngineMode = ocrEngineMode;
+    }
+
+    @Override
+    public void setPageSegMode(int pageSegMode) {
+        super.setPageSegMode(pageSegMode);
+        this.pageSegMode = pageSegMode;
+    }
+
+    /**
+     * Reuse the native instance if its model still matches the settings,
+     * otherwise replace it
+     */
+    @Override
+    protected void init() {
+        String model = datapath + "|" + language + "|" + ocrEngineMode;
+        if (model.equals(loadedModel)) {
+            if (pageSegMode > -1) {
+                getAPI().TessBaseAPISetPageSegMode(getHandle(), pageSegMode);
+            }
+            return;
+        }
+
+        unload();
+        long startNanos = System.nanoTime();
+        super.init();
+        String loadedLanguages = getAPI().TessBaseAPIGetInitLanguagesAsString(getHandle());
+        if (loadedLanguages != null && !loadedLanguages.isEmpty()) {
+            loadedModel = model;
+            log.debug("Loaded {} model from {} in {} ms", language, datapath,
+                    (System.nanoTime() - startNanos) / 1_000_000);
+        }
+        // otherwise loading failed; dispose() deletes the instance after this page
+    }
+
+    /**
+     * Keep a loaded model for the next page, dropping only this page's
+     * image and recognition results
+     */
+    @Override
+    protected void dispose() {
+        if (loadedModel != null) {
+            getAPI().TessBaseAPIClear(getHandle());
+        } else {
+            super.dispose();
+        }
+    }
+
+    /**
+     * Delete the native instance and its model
+     */
+    void unload() {
+        if (loadedModel != null) {
+            loadedModel = null;
+            super.dispose();
+        }
+    }
+
+    @Override
+    protected String getOCRText(String filename, int pageNum) {
+        JobContext jobContext = context;
+        if (jobContext != null) {
+            ETEXT_DESC monitor = new ETEXT_DESC();
+            // keep a strong reference to the callback for the whole native call
+            CANCEL_FUNC cancelHook = (cancelThis, words) -> {
+                Object progress = monitor.readField("progress");
+                if (progress instanceof Number) {
+                    jobContext.setStageProgress(((Number) progress).intValue());
+                }
+                return jobContext.isCancelled();
+            };
+            monitor.cancel = cancelHook;
+
+            // recognize with the monitor; the text call below reuses the results
+            getAPI().TessBaseAPIRecognize(getHandle(), monitor);
+            Reference.reachabilityFence(cancelHook);
+
+            jobContext.checkCancelled();
+            jobContext.setStageProgress(100);
+        }
+        String text = super.getOCRText(filename, pageNum);
+        lastWords = readWords(pageNum);
+        return text;
+    }
+
+    /**
+     * Read the word layout of the current recognition
+     * @param pageNum Page number as passed to getOCRText (1-based)
+     * @return Words, empty if the layout couldn't be read
+     */
+    private List<OCRWord> readWords(int pageNum) {
+        Pointer tsv = getAPI().TessBaseAPIGetTsvText(getHandle(), Math.max(0, pageNum - 1));
+        if (tsv == null) {
+            return Collections.emptyList();
+        }
+        try {
+            return parseTsvWords(tsv.getString(0, "UTF-8"));
+        } finally {
+            getAPI().TessDeleteText(tsv);
+        }
+    }
+
+    /**
+     * Parse the word rows of Tesseract TSV output
+     * @param tsv TSV text, without a header row
+     * @return Non-blank words in reading order
+     */
+    static List<OCRWord> parseTsvWords(String tsv) {
+        if (tsv == null || tsv.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<OCRWord> words = new ArrayList<>();
+        for (String row : tsv.split("\n")) {
+            String[] columns = row.split("\t", TSV_COLUMNS);
+            if (columns.length < TSV_COLUMNS || columns[11].isBlank()) {
+                continue;
+            }
+            try {
+                if (Integer.parseInt(columns[0]) != TSV_WORD_LEVEL) {
+                    continue;
+                }
+                Rectangle bounds = new Rectangle(
+                        Integer.parseInt(columns[6]), Integer.parseInt(columns[7]),
+                        Integer.parseInt(columns[8]), Integer.parseInt(columns[9]));
+                words.add(new OCRWord(columns[11].strip(), bounds, Float.parseFloat(columns[10]),
+                        Integer.parseInt(columns[2]), Integer.parseInt(columns[3]),
+                        Integer.parseInt(columns[4])));
+            } catch (NumberFormatException e) {
+                // header or malformed row
+            }
+        }
+        return words;
+    }
+}
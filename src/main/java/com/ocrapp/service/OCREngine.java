@@ -1,12 +1,23 @@
 package com.ocrapp.service;
 
-import net.sourceforge.tess4j.ITesseract;
-import net.sourceforge.tess4j.Tesseract;
 import net.sourceforge.tess4j.TesseractException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import com.ocrapp.model.OCRResult;
+import com.ocrapp.model.OCRWord;
+import com.ocrapp.model.RegionResult;
+import com.ocrapp.util.PipelineMetrics;
+import com.ocrapp.util.PipelineMetrics.Stage;
 
+import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service class for OCR operations using Tesseract.
@@ -14,13 +25,19 @@ import java.io.File;
  */
 public class OCREngine {
     
-    private ITesseract tesseract;
+    private static final Logger log = LoggerFactory.getLogger(OCREngine.class);
+    
+    private MonitoredTesseract tesseract;
     private String currentLanguage;
+    private OCRProfile currentProfile = OCRProfile.getDefault();
+    private String dataPath = TessdataLocator.getShared().getDataPath();
     private boolean isInitialized;
     
     // Default settings
     private static final String DEFAULT_LANGUAGE = "eng";
-    private static final String DEFAULT_DATA_PATH = "C:\\Program Files\\Tesseract-OCR\\tessdata";
+    
+    // model sets already reported missing, so the fallback is logged once
+    private static final Set<String> MISSING_MODEL_SETS = ConcurrentHashMap.newKeySet();
     
     /**
      * Default constructor - initializes with English language
@@ -44,11 +61,11 @@ public class OCREngine {
      */
     private void initializeEngine() {
         try {
-            System.out.println("Initializing Tesseract OCR engine...");
+            log.info("Initializing Tesseract OCR engine...");
             
-            tesseract = new Tesseract();
+            tesseract = new MonitoredTesseract();
             
-            tesseract.setDatapath(DEFAULT_DATA_PATH);
+            tesseract.setDatapath(dataPath);
             tesseract.setLanguage(currentLanguage);
             
             // Default OEM & PSM (3)
@@ -56,13 +73,15 @@ public class OCREngine {
             tesseract.setPageSegMode(3);
             
             this.isInitialized = true;
-            System.out.println("Tesseract OCR engine initialized successfully");
-            System.out.println("Language: " + currentLanguage);
-            System.out.println("Data path: " + DEFAULT_DATA_PATH);
+            log.info("Tesseract OCR engine initialized (language: {}, data path: {})",
+                    currentLanguage, dataPath);
+            if (!TessdataLocator.hasLanguage(dataPath, currentLanguage)) {
+                log.warn("No {} model in {}; recognition will fail until it is installed",
+                        currentLanguage, dataPath);
+            }
             
         } catch (Exception e) {
-            System.err.println("Failed to initialize Tesseract OCR engine: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Failed to initialize Tesseract OCR engine", e);
             this.isInitialized = false;
         }
     }
@@ -71,45 +90,32 @@ public class OCREngine {
      * Extract text from an image file
      * @param imageFile Image file to process
      * @return OCRResult object containing extracted text and metadata
+     * @throws TesseractException if the engine isn't ready or recognition fails
      */
-    public OCRResult extractText(File imageFile) {
-        if (!isInitialized) {
-            System.err.println("OCR Engine is not initialized");
-            return new OCRResult("", 0.0f, "");
-        }
-        
+    public OCRResult extractText(File imageFile) throws TesseractException {
         if (imageFile == null || !imageFile.exists()) {
-            System.err.println("Invalid image file");
-            return new OCRResult("", 0.0f, "");
+            throw new IllegalArgumentException("Invalid image file: " + imageFile);
         }
+        checkReady(dataPath);
         
         try {
-            System.out.println("Starting OCR on: " + imageFile.getName());
+            log.debug("Starting OCR on: {}", imageFile.getName());
             
-            long startTime = System.currentTimeMillis();
+            long startNanos = System.nanoTime();
             
             // Perform OCR
             String extractedText = tesseract.doOCR(imageFile);
             
-            long endTime = System.currentTimeMillis();
-            long processingTime = endTime - startTime;
+            long processingTime = PipelineMetrics.record(Stage.RECOGNIZE, startNanos, 0) / 1_000_000;
             
-            System.out.println("OCR completed in " + processingTime + "ms");
-            System.out.println("Extracted " + extractedText.length() + " characters");
+            log.info("OCR completed in {}ms, extracted {} characters",
+                    processingTime, extractedText != null ? extractedText.length() : 0);
             
             // Create OCR result
-            OCRResult result = new OCRResult(
-                    extractedText != null ? extractedText : "",
-                    calculateConfidence(extractedText),
-                    imageFile.getAbsolutePath()
-            );
-            
-            return result;
+            return buildResult(extractedText, null, processingTime, imageFile.getAbsolutePath());
             
-        } catch (TesseractException e) {
-            System.err.println("OCR failed: " + e.getMessage());
-            e.printStackTrace();
-            return new OCRResult("OCR Error: " + e.getMessage(), 0.0f, imageFile.getAbsolutePath());
+        } catch (RuntimeException e) {
+            throw new TesseractException(e);
         }
     }
     
@@ -117,45 +123,33 @@ public class OCREngine {
      * Extract text from a BufferedImage
      * @param image BufferedImage to process
      * @return OCRResult object containing extracted text and metadata
+     * @throws TesseractException if the engine isn't ready or recognition fails
      */
-    public OCRResult extractText(BufferedImage image) {
-        if (!isInitialized) {
-            System.err.println("OCR Engine is not initialized");
-            return new OCRResult("", 0.0f, "");
-        }
-        
+    public OCRResult extractText(BufferedImage image) throws TesseractException {
         if (image == null) {
-            System.err.println("Invalid image");
-            return new OCRResult("", 0.0f, "");
+            throw new IllegalArgumentException("Invalid image");
         }
+        checkReady(dataPath);
         
         try {
-            System.out.println("Starting OCR on BufferedImage...");
+            log.debug("Starting OCR on BufferedImage");
             
-            long startTime = System.currentTimeMillis();
+            long startNanos = System.nanoTime();
             
             // Perform OCR
             String extractedText = tesseract.doOCR(image);
             
-            long endTime = System.currentTimeMillis();
-            long processingTime = endTime - startTime;
+            long processingTime = PipelineMetrics.record(Stage.RECOGNIZE, startNanos,
+                    (long) image.getWidth() * image.getHeight()) / 1_000_000;
             
-            System.out.println("OCR completed in " + processingTime + "ms");
-            System.out.println("Extracted " + extractedText.length() + " characters");
+            log.info("OCR completed in {}ms, extracted {} characters",
+                    processingTime, extractedText != null ? extractedText.length() : 0);
             
             // Create OCR result
-            OCRResult result = new OCRResult(
-                    extractedText != null ? extractedText : "",
-                    calculateConfidence(extractedText),
-                    "BufferedImage"
-            );
-            
-            return result;
+            return buildResult(extractedText, null, processingTime, "BufferedImage");
             
-        } catch (TesseractException e) {
-            System.err.println("OCR failed: " + e.getMessage());
-            e.printStackTrace();
-            return new OCRResult("OCR Error: " + e.getMessage(), 0.0f, "BufferedImage");
+        } catch (RuntimeException e) {
+            throw new TesseractException(e);
         }
     }
     
@@ -164,52 +158,151 @@ public class OCREngine {
      * @param imageFile Original image file (for metadata)
      * @param processedImage Preprocessed BufferedImage
      * @return OCRResult object
+     * @throws TesseractException if the engine isn't ready or recognition fails
      */
-    public OCRResult extractText(File imageFile, BufferedImage processedImage) {
-        if (!isInitialized) {
-            System.err.println("OCR Engine is not initialized");
-            return new OCRResult("", 0.0f, "");
-        }
-        
+    public OCRResult extractText(File imageFile, BufferedImage processedImage) throws TesseractException {
+        return extractText(imageFile, processedImage, null);
+    }
+    
+    /**
+     * Extract text from a preprocessed crop of an image file
+     * @param imageFile Original image file (for metadata)
+     * @param processedImage Preprocessed BufferedImage of the region
+     * @param regionBounds Crop rectangle in source image coordinates (null for the whole image)
+     * @return OCRResult object with a single region
+     * @throws TesseractException if the engine isn't ready or recognition fails
+     */
+    public OCRResult extractText(File imageFile, BufferedImage processedImage, Rectangle regionBounds)
+            throws TesseractException {
+        return extractText(imageFile, processedImage, regionBounds, null);
+    }
+    
+    /**
+     * Extract text from a preprocessed crop as part of a scheduled job.
+     * Recognition reports its progress to the context and stops early
+     * when the job is cancelled or pre-empted.
+     * @param imageFile Original image file (for metadata)
+     * @param processedImage Preprocessed BufferedImage of the region
+     * @param regionBounds Crop rectangle in source image coordinates (null for the whole image)
+     * @param context Job to report to and poll for cancellation (may be null)
+     * @return OCRResult object with a single region
+     * @throws TesseractException if the engine isn't ready or recognition fails
+     * @throws CancellationException if the job was cancelled during recognition
+     */
+    public OCRResult extractText(File imageFile, BufferedImage processedImage, Rectangle regionBounds,
+                                 JobContext context) throws TesseractException {
+        return extractText(ImageInput.fromFile(imageFile), processedImage, regionBounds, context);
+    }
+    
+    /**
+     * Extract text from a preprocessed crop of any image source
+     * @param source Original image source (for metadata, may be null)
+     * @param processedImage Preprocessed BufferedImage of the region
+     * @param regionBounds Crop rectangle in source image coordinates (null for the whole image)
+     * @param context Job to report to and poll for cancellation (may be null)
+     * @return OCRResult object with a single region
+     * @throws TesseractException if the engine isn't ready or recognition fails
+     * @throws CancellationException if the job was cancelled during recognition
+     */
+    public OCRResult extractText(ImageInput source, BufferedImage processedImage, Rectangle regionBounds,
+                                 JobContext context) throws TesseractException {
         if (processedImage == null) {
-            System.err.println("Invalid processed image");
-            return new OCRResult("", 0.0f, "");
+            throw new IllegalArgumentException("Invalid processed image");
         }
+        checkReady(resolveDataPath(currentProfile, currentLanguage));
         
         try {
-            System.out.println("Starting OCR on preprocessed image...");
+            log.debug("Starting OCR on preprocessed image");
             
-            long startTime = System.currentTimeMillis();
+            long startNanos = System.nanoTime();
             
             // Perform OCR on preprocessed image
             
-            applyLanguageSpecificSettings();
-            String extractedText = tesseract.doOCR(processedImage);
+            applyProfileSettings();
+            String extractedText;
+            tesseract.setContext(context);
+            try {
+                extractedText = tesseract.doOCR(processedImage);
+            } finally {
+                tesseract.setContext(null);
+            }
             
-            long endTime = System.currentTimeMillis();
-            long processingTime = endTime - startTime;
+            long processingTime = PipelineMetrics.record(Stage.RECOGNIZE, startNanos,
+                    (long) processedImage.getWidth() * processedImage.getHeight()) / 1_000_000;
             
-            System.out.println("OCR completed in " + processingTime + "ms");
-            System.out.println("Extracted " + extractedText.length() + " characters");
+            log.info("OCR completed in {}ms, extracted {} characters",
+                    processingTime, extractedText != null ? extractedText.length() : 0);
             
             // Create OCR result
-            String sourcePath = (imageFile != null) ? imageFile.getAbsolutePath() : "Preprocessed Image";
-            OCRResult result = new OCRResult(
-                    extractedText != null ? extractedText : "",
-                    calculateConfidence(extractedText),
-                    sourcePath
-            );
+            String sourcePath = (source != null) ? source.getSourcePath() : "Preprocessed Image";
+            return buildResult(extractedText, regionBounds, processingTime, sourcePath,
+                    tesseract.takeWords(), new Dimension(processedImage.getWidth(), processedImage.getHeight()));
             
-            return result;
-            
-        } catch (TesseractException e) {
-            System.err.println("OCR failed: " + e.getMessage());
-            e.printStackTrace();
-            String sourcePath = (imageFile != null) ? imageFile.getAbsolutePath() : "Preprocessed Image";
-            return new OCRResult("OCR Error: " + e.getMessage(), 0.0f, sourcePath);
+        } catch (TesseractException | RuntimeException e) {
+            if (context != null && context.isCancelled()) {
+                // tess4j may wrap the abort from the monitor hook
+                throw new CancellationException("Recognition stopped");
+            }
+            if (e instanceof CancellationException cancelled) {
+                throw cancelled;
+            }
+            throw (e instanceof TesseractException failure) ? failure : new TesseractException(e);
         }
     }
     
+    /**
+     * Fail fast instead of recognizing with an engine that can only
+     * return empty or error text
+     * @param modelPath Folder the models will be loaded from
+     * @throws TesseractException if the engine isn't initialized or the language model is missing
+     */
+    private void checkReady(String modelPath) throws TesseractException {
+        if (!isInitialized) {
+            throw new TesseractException("OCR engine is not initialized");
+        }
+        if (!TessdataLocator.hasLanguage(modelPath, currentLanguage)) {
+            throw new TesseractException("No " + currentLanguage + " language data in " + modelPath);
+        }
+    }
+    
+    /**
+     * Wrap recognized text in a single-region OCRResult with provenance
+     * @param extractedText Text returned by Tesseract (may be null)
+     * @param regionBounds Crop rectangle in source image coordinates (null for the whole image)
+     * @param processingTime Recognition time in milliseconds
+     * @param sourcePath Source image path or description
+     * @return OCRResult object
+     */
+    private OCRResult buildResult(String extractedText, Rectangle regionBounds,
+                                  long processingTime, String sourcePath) {
+        return buildResult(extractedText, regionBounds, processingTime, sourcePath, null, null);
+    }
+    
+    /**
+     * Wrap recognized text and its word layout in a single-region OCRResult
+     * @param extractedText Text returned by Tesseract (may be null)
+     * @param regionBounds Crop rectangle in source image coordinates (null for the whole image)
+     * @param processingTime Recognition time in milliseconds
+     * @param sourcePath Source image path or description
+     * @param words Recognized words (may be null)
+     * @param recognizedSize Size of the image the words were found in
+     * @return OCRResult object
+     */
+    private OCRResult buildResult(String extractedText, Rectangle regionBounds, long processingTime,
+                                  String sourcePath, List<OCRWord> words, Dimension recognizedSize) {
+        String text = extractedText != null ? extractedText : "";
+        RegionResult region = new RegionResult(
+                text,
+                calculateConfidence(text),
+                regionBounds,
+                processingTime,
+                currentLanguage,
+                words,
+                recognizedSize
+        );
+        return new OCRResult(region, sourcePath);
+    }
+    
     /**
      * Calculate confidence score based on text characteristics
      * Note: Tesseract 5.x doesn't always provide confidence scores easily,
@@ -262,10 +355,10 @@ public class OCREngine {
         try {
             tesseract.setLanguage(language);
             this.currentLanguage = language;
-            System.out.println("Language changed to: " + language);
+            log.info("Language changed to: {}", language);
             return true;
         } catch (Exception e) {
-            System.err.println("Failed to set language: " + e.getMessage());
+            log.warn("Failed to set language {}: {}", language, e.getMessage());
             return false;
         }
     }
@@ -312,6 +405,20 @@ public class OCREngine {
         return currentLanguage;
     }
     
+    /**
+     * Set the profile the next recognitions use
+     * @param profile Speed/accuracy profile
+     */
+    public void setProfile(OCRProfile profile) {
+        if (profile != null) {
+            this.currentProfile = profile;
+        }
+    }
+    
+    public OCRProfile getProfile() {
+        return currentProfile;
+    }
+    
     /**
      * Check if OCR engine is initialized
      * @return true if initialized, false otherwise
@@ -324,7 +431,7 @@ public class OCREngine {
      * Re-initialize the OCR engine
      */
     public void reinitialize() {
-        System.out.println("Re-initializing OCR engine...");
+        log.info("Re-initializing OCR engine...");
         initializeEngine();
     }
     
@@ -334,8 +441,11 @@ public class OCREngine {
      */
     public void setDataPath(String dataPath) {
         if (dataPath != null && !dataPath.isEmpty()) {
-            tesseract.setDatapath(dataPath);
-            System.out.println("Data path set to: " + dataPath);
+            this.dataPath = dataPath;
+            if (tesseract != null) {
+                tesseract.setDatapath(dataPath);
+            }
+            log.info("Data path set to: {}", dataPath);
         }
     }
     
@@ -349,35 +459,77 @@ public class OCREngine {
         info.append("=================\n");
         info.append("Initialized: ").append(isInitialized).append("\n");
         info.append("Language: ").append(currentLanguage).append("\n");
-        info.append("Data Path: ").append(DEFAULT_DATA_PATH).append("\n");
+        info.append("Profile: ").append(currentProfile.getDisplayName()).append("\n");
+        info.append("Data Path: ").append(dataPath);
+        TessdataLocator locator = TessdataLocator.getShared();
+        if (dataPath.equals(locator.getDataPath())) {
+            info.append(" (").append(locator.getSource()).append(")");
+        }
+        info.append("\n");
+        info.append("Models in use: ").append(resolveDataPath(currentProfile, currentLanguage)).append("\n");
+        info.append("Installed models:\n");
+        for (String line : TessdataLocator.describeModels(dataPath).split("\n")) {
+            info.append("  ").append(line).append("\n");
+        }
         return info.toString();
     }
     
     /**
-     * Apply OCR settings based on current language
-     * Different languages need different page segmentation and engine modes
+     * Apply the current profile's settings, adjusted for the current language.
+     * Different languages need different page segmentation and engine modes.
      */
-    private void applyLanguageSpecificSettings() {
+    private void applyProfileSettings() {
         String currentLang = getCurrentLanguage();
+        OCRProfile profile = currentProfile;
+        
+        tesseract.setDatapath(resolveDataPath(profile, currentLang));
+        for (Map.Entry<String, String> variable : profile.getVariables().entrySet()) {
+            tesseract.setVariable(variable.getKey(), variable.getValue());
+        }
         
         if (isVerticalTextLanguage(currentLang)) {
             // Settings for vertical text languages (Japanese, Chinese)
             tesseract.setPageSegMode(5);  // Single uniform block of vertically aligned text
             tesseract.setOcrEngineMode(1); // LSTM engine (better for Asian languages)
-            System.out.println("Applied vertical text settings for language: " + currentLang);
+            log.debug("Applied vertical text settings for language: {}", currentLang);
         } else if (isComplexScriptLanguage(currentLang)) {
             // Settings for Arabic, Hebrew (RTL languages)
             tesseract.setPageSegMode(6);  // Uniform block of text
             tesseract.setOcrEngineMode(1); // LSTM engine
-            System.out.println("Applied complex script settings for language: " + currentLang);
+            log.debug("Applied complex script settings for language: {}", currentLang);
         } else {
             // Settings for horizontal languages (English, Spanish, French, etc.)
-            tesseract.setPageSegMode(3);  // Fully automatic page segmentation
-            tesseract.setOcrEngineMode(3); // Default (Tesseract + LSTM)
-            System.out.println("Applied standard horizontal text settings for language: " + currentLang);
+            tesseract.setPageSegMode(profile.getPageSegMode());
+            tesseract.setOcrEngineMode(profile.getOcrEngineMode());
+            log.debug("Applied {} horizontal text settings for language: {}", profile.getId(), currentLang);
         }
     }
-
+    
+    /**
+     * Find the model folder for a profile (see TessdataLocator.modelSetDirectory).
+     * Falls back to the standard tessdata when that folder lacks a model
+     * for the language.
+     * @param profile Profile whose model set to use
+     * @param language Language code, possibly several joined with '+'
+     * @return Tesseract data path
+     */
+    private String resolveDataPath(OCRProfile profile, String language) {
+        String modelSet = profile.getModelSet();
+        if (modelSet == null) {
+            return dataPath;
+        }
+        
+        File directory = TessdataLocator.modelSetDirectory(modelSet, dataPath);
+        if (!TessdataLocator.hasLanguage(directory.getPath(), language)) {
+            if (MISSING_MODEL_SETS.add(modelSet + "/" + language)) {
+                log.warn("No {} model for {} in {}; the {} profile uses the standard models",
+                        modelSet, language, directory, profile.getId());
+            }
+            return dataPath;
+        }
+        return directory.getPath();
+    }
+    
     /**
      * Check if language uses vertical text
      * @param langCode Language code (e.g., "jpn", "chi_sim")
@@ -0,0 +1,191 @@
+package com.ocrapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of initialized OCR engines.
+ * Tesseract instances are not thread-safe and expensive to set up, so
+ * background jobs borrow an engine, use it from one thread and hand it
+ * back. Engines are created lazily up to the pool size; idle engines are
+ * reused most-recently-returned first so the warmest one is picked,
+ * preferring one already set to the wanted language, since an engine
+ * keeps its loaded model between pages and switching reloads it.
+ *
+ * The pool size defaults to half the available processors and can be
+ * set with -Docrapp.enginePool.size=N.
+ */
+public class OCREnginePool {
+
+    private static final Logger log = LoggerFactory.getLogger(OCREnginePool.class);
+
+    private static final OCREnginePool SHARED = new OCREnginePool(defaultPoolSize());
+
+    private final BlockingDeque<OCREngine> idle;
+    private final AtomicInteger created;
+    private final int maxSize;
+
+    /**
+     * Constructor
+     * @param maxSize Maximum number of engines
+     */
+    public OCREnginePool(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive: " + maxSize);
+        }
+        this.idle = new LinkedBlockingDeque<>();
+        this.created = new AtomicInteger();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get the process-wide pool shared by all background OCR work
+     * @return Shared OCREnginePool
+     */
+    public static OCREnginePool getShared() {
+        return SHARED;
+    }
+
+    private static int defaultPoolSize() {
+        int configured = Integer.getInteger("ocrapp.enginePool.size", 0);
+        if (configured > 0) {
+            return configured;
+        }
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    /**
+     * Borrow an engine, blocking until one is free
+     * @param language Language code the engine should use
+     * @return Lease to close when done with the engine
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Lease borrow(String language) throws InterruptedException {
+        OCREngine engine = pollIdle(language);
+        if (engine == null) {
+            engine = createIfBelowLimit(language);
+        }
+        if (engine == null) {
+            engine = idle.takeFirst();
+        }
+        return lease(engine, language);
+    }
+
+    /**
+     * Borrow an engine only if one is free right away
+     * @param language Language code the engine should use
+     * @return Lease, or null if all engines are busy
+     */
+    public Lease tryBorrow(String language) {
+        OCREngine engine = pollIdle(language);
+        if (engine == null) {
+            engine = createIfBelowLimit(language);
+        }
+        return (engine != null) ? lease(engine, language) : null;
+    }
+
+    /**
+     * Create engines ahead of the first job so it doesn't pay for
+     * engine setup
+     * @param language Language code the engines should use
+     * @param count Number of idle engines wanted (capped at the pool size)
+     * @return Number of engines created
+     */
+    public int prestart(String language, int count) {
+        int started = 0;
+        while (idle.size() < count) {
+            OCREngine engine = createIfBelowLimit(language);
+            if (engine == null) {
+                break;
+            }
+            idle.offerLast(engine);
+            started++;
+        }
+        return started;
+    }
+
+    /**
+     * Take an idle engine, preferring the warmest one set to the language
+     * @return Engine, or null if none is idle
+     */
+    private OCREngine pollIdle(String language) {
+        if (language != null) {
+            for (OCREngine engine : idle) {
+                // another thread may take it between the check and the removal
+                if (language.equals(engine.getCurrentLanguage()) && idle.remove(engine)) {
+                    return engine;
+                }
+            }
+        }
+        return idle.pollFirst();
+    }
+
+    private OCREngine createIfBelowLimit(String language) {
+        while (true) {
+            int count = created.get();
+            if (count >= maxSize) {
+                return null;
+            }
+            if (created.compareAndSet(count, count + 1)) {
+                log.debug("Creating pooled OCR engine {} of {}", count + 1, maxSize);
+                return new OCREngine(language);
+            }
+        }
+    }
+
+    private Lease lease(OCREngine engine, String language) {
+        if (language != null && !language.equals(engine.getCurrentLanguage())) {
+            engine.setLanguage(language);
+        }
+        return new Lease(engine);
+    }
+
+    private void release(OCREngine engine) {
+        idle.offerFirst(engine);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getCreatedCount() {
+        return created.get();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Borrowed engine, returned to the pool once when closed
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final OCREngine engine;
+        private boolean released;
+
+        private Lease(OCREngine engine) {
+            this.engine = engine;
+            this.released = false;
+        }
+
+        public OCREngine getEngine() {
+            return engine;
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            release(engine);
+        }
+    }
+}
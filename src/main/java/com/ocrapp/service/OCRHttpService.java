@@ -0,0 +1,377 @@
+package com.ocrapp.service;
+
+import com.ocrapp.model.OCRResult;
+import com.ocrapp.model.OCRWord;
+import com.ocrapp.service.OCRJobScheduler.JobHandle;
+import com.ocrapp.service.OCRJobScheduler.Priority;
+import com.ocrapp.service.export.ExportPage;
+import com.ocrapp.util.LogContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Dimension;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Local HTTP endpoint for OCR, so other processes can use the engines
+ * without starting their own JVM and loading traineddata per call.
+ *
+ * POST /ocr takes the encoded image as the request body (language with
+ * ?lang=, default eng; speed/accuracy with ?profile=fast|balanced|accurate)
+ * and answers with JSON: text, mean confidence, page
+ * size and every word with its box in page pixels. GET /status reports
+ * requests in flight, scheduler queue depth and engine pool use.
+ *
+ * Connections are handled on virtual threads, which just wait while the
+ * page runs on the shared scheduler's FULL_PAGE lane with pooled engines
+ * (started ahead of the first request). At most -Docrapp.http.maxConcurrent
+ * requests (default twice the scheduler threads) are accepted at once;
+ * beyond that the server answers 429 straight away instead of letting the
+ * queue grow. Bodies are limited to -Docrapp.http.maxBodyMB (default 50)
+ * and recognition to -Docrapp.http.timeoutSeconds (default 120).
+ */
+public class OCRHttpService implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OCRHttpService.class);
+
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    private static final Pattern LANGUAGE = Pattern.compile("[A-Za-z_]+(\\+[A-Za-z_]+)*");
+
+    private final InetSocketAddress address;
+    private final String defaultLanguage;
+    private final OCRProfile defaultProfile;
+    private final PageRecognizer recognizer;
+    private final OCRJobScheduler scheduler;
+    private final OCREnginePool enginePool;
+
+    private final int maxConcurrent;
+    private final Semaphore permits;
+    private final long maxBodyBytes;
+    private final long timeoutMs;
+
+    private final AtomicLong servedCount;
+    private final AtomicLong rejectedCount;
+    private final AtomicLong failedCount;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Constructor
+     * @param address Address to listen on (port 0 picks a free port)
+     * @param defaultLanguage Language code for requests without ?lang=
+     * @param defaultProfile Profile for requests without ?profile=
+     * @param recognizer Recognition pipeline
+     * @param scheduler Scheduler to run pages on
+     * @param enginePool Engine pool the recognizer borrows from, warmed at start
+     */
+    public OCRHttpService(InetSocketAddress address, String defaultLanguage, OCRProfile defaultProfile,
+                          PageRecognizer recognizer, OCRJobScheduler scheduler, OCREnginePool enginePool) {
+        this.address = address;
+        this.defaultLanguage = defaultLanguage;
+        this.defaultProfile = defaultProfile;
+        this.recognizer = recognizer;
+        this.scheduler = scheduler;
+        this.enginePool = enginePool;
+
+        this.maxConcurrent = Math.max(1, Integer.getInteger("ocrapp.http.maxConcurrent",
+                scheduler.getThreadCount() * 2));
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxBodyBytes = Long.getLong("ocrapp.http.maxBodyMB", 50L) * 1024 * 1024;
+        this.timeoutMs = TimeUnit.SECONDS.toMillis(Long.getLong("ocrapp.http.timeoutSeconds", 120L));
+
+        this.servedCount = new AtomicLong();
+        this.rejectedCount = new AtomicLong();
+        this.failedCount = new AtomicLong();
+    }
+
+    /**
+     * Warm the engines and start accepting requests
+     * @throws IOException if the address can't be bound
+     */
+    public void start() throws IOException {
+        int warmed = enginePool.prestart(defaultLanguage,
+                Math.min(scheduler.getThreadCount(), enginePool.getMaxSize()));
+        log.info("Started {} OCR engine(s) for {}", warmed, defaultLanguage);
+
+        server = HttpServer.create(address, 0);
+        server.createContext("/ocr", this::handleOcr);
+        server.createContext("/status", this::handleStatus);
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ocr-http-", 0).factory());
+        server.setExecutor(executor);
+        server.start();
+        log.info("OCR HTTP service listening on {} (max {} concurrent requests)",
+                server.getAddress(), maxConcurrent);
+    }
+
+    /**
+     * Stop accepting requests; requests already waiting on a page get a
+     * second to finish
+     */
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(1);
+            executor.shutdownNow();
+            log.info("OCR HTTP service stopped ({} served, {} rejected, {} failed)",
+                    servedCount.get(), rejectedCount.get(), failedCount.get());
+        }
+    }
+
+    /**
+     * Get the port being listened on
+     * @return Bound port, or -1 before start
+     */
+    public int getPort() {
+        return (server != null) ? server.getAddress().getPort() : -1;
+    }
+
+    public long getServedCount() {
+        return servedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    private void handleOcr(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendError(exchange, 405, "Use POST with the image as the request body");
+                return;
+            }
+
+            String language = queryParameter(exchange, "lang", defaultLanguage);
+            if (!LANGUAGE.matcher(language).matches()) {
+                sendError(exchange, 400, "Invalid language: " + language);
+                return;
+            }
+            String profileName = queryParameter(exchange, "profile", null);
+            OCRProfile profile = (profileName != null) ? OCRProfile.forName(profileName) : defaultProfile;
+            if (profile == null) {
+                sendError(exchange, 400, "Unknown profile: " + profileName);
+                return;
+            }
+
+            // refuse before reading the body, so overload costs no memory
+            if (!permits.tryAcquire()) {
+                rejectedCount.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 429, "Too many requests in flight");
+                return;
+            }
+            try {
+                byte[] body = readBody(exchange);
+                if (body == null) {
+                    sendError(exchange, 413, "Image larger than " + (maxBodyBytes / (1024 * 1024)) + " MB");
+                } else if (body.length == 0) {
+                    sendError(exchange, 400, "Empty request body");
+                } else {
+                    recognizeAndRespond(exchange, body, language, profile);
+                }
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private void recognizeAndRespond(HttpExchange exchange, byte[] body, String language, OCRProfile profile)
+            throws IOException {
+        String pageId = LogContext.newPageId();
+        ImageInput input = ImageInput.fromBytes(body, pageId);
+
+        JobHandle<OCRResult> job = scheduler.submit(Priority.FULL_PAGE, pageId, context -> {
+            LogContext.setPage(pageId);
+            try {
+                return recognizer.recognizePage(input, null, language, profile, context);
+            } finally {
+                LogContext.clearPage();
+            }
+        }, null);
+
+        OCRResult result;
+        try {
+            result = job.getFuture().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            job.cancel();
+            failedCount.incrementAndGet();
+            sendError(exchange, 504, "Recognition timed out");
+            return;
+        } catch (InterruptedException e) {
+            // server is stopping
+            job.cancel();
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "Service stopping");
+            return;
+        } catch (ExecutionException | CancellationException e) {
+            failedCount.incrementAndGet();
+            Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+            log.warn("HTTP OCR request {} failed: {}", pageId, cause.getMessage());
+            boolean badImage = cause instanceof IOException;
+            sendError(exchange, badImage ? 400 : 500, String.valueOf(cause.getMessage()));
+            return;
+        }
+
+        Dimension size = ImageProcessor.readImageDimensions(input);
+        ExportPage page = new ExportPage(pageId, (size != null) ? size.width : 0,
+                (size != null) ? size.height : 0, result, input);
+        servedCount.incrementAndGet();
+        send(exchange, 200, toJson(page, language, profile));
+    }
+
+    private void handleStatus(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                sendError(exchange, 405, "Use GET");
+                return;
+            }
+            String json = "{\"inFlight\":" + (maxConcurrent - permits.availablePermits()) +
+                    ",\"maxConcurrent\":" + maxConcurrent +
+                    ",\"queued\":" + scheduler.getQueuedCount() +
+                    ",\"running\":" + scheduler.getRunningCount() +
+                    ",\"workers\":" + scheduler.getThreadCount() +
+                    ",\"engines\":" + enginePool.getCreatedCount() +
+                    ",\"idleEngines\":" + enginePool.getIdleCount() +
+                    ",\"served\":" + servedCount.get() +
+                    ",\"rejected\":" + rejectedCount.get() +
+                    ",\"failed\":" + failedCount.get() + "}";
+            send(exchange, 200, json);
+        }
+    }
+
+    /**
+     * Read the request body up to the size limit
+     * @return Body bytes, or null if it is too large
+     */
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (declared != null) {
+            try {
+                if (Long.parseLong(declared.trim()) > maxBodyBytes) {
+                    return null;
+                }
+            } catch (NumberFormatException e) {
+                // let the read below enforce the limit
+            }
+        }
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes((int) Math.min(maxBodyBytes + 1, Integer.MAX_VALUE - 8));
+            return (body.length > maxBodyBytes) ? null : body;
+        }
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name, String defaultValue) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return defaultValue;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return defaultValue;
+    }
+
+    private static String toJson(ExportPage page, String language, OCRProfile profile) {
+        OCRResult result = page.getResult();
+        StringBuilder json = new StringBuilder(256 + result.getCharacterCount() * 4);
+        json.append("{\"language\":");
+        appendString(json, language);
+        json.append(",\"profile\":");
+        appendString(json, profile.getId());
+        json.append(",\"text\":");
+        appendString(json, result.getExtractedText());
+        json.append(",\"confidence\":").append(String.format(Locale.ROOT, "%.2f", result.getConfidenceScore()));
+        json.append(",\"width\":").append(page.getWidth());
+        json.append(",\"height\":").append(page.getHeight());
+        json.append(",\"processingMs\":").append(result.getTotalProcessingTimeMs());
+        json.append(",\"words\":[");
+
+        List<OCRWord> words = page.getWords();
+        for (int i = 0; i < words.size(); i++) {
+            OCRWord word = words.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"text\":");
+            appendString(json, word.getText());
+            json.append(",\"confidence\":").append(String.format(Locale.ROOT, "%.2f", word.getConfidence()));
+            json.append(",\"x\":").append(word.getBounds().x);
+            json.append(",\"y\":").append(word.getBounds().y);
+            json.append(",\"width\":").append(word.getBounds().width);
+            json.append(",\"height\":").append(word.getBounds().height);
+            json.append(",\"block\":").append(word.getBlockNumber());
+            json.append(",\"paragraph\":").append(word.getParagraphNumber());
+            json.append(",\"line\":").append(word.getLineNumber());
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        appendString(json, message);
+        send(exchange, status, json.append('}').toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.ocrapp.service;
+
+/**
+ * Unit of work run by the OCRJobScheduler.
+ * Implementations should call context.checkCancelled() between steps and
+ * pass the context on to OCREngine so recognition itself can be stopped.
+ * @param <T> Result type
+ */
+@FunctionalInterface
+public interface OCRJob<T> {
+
+    /**
+     * Run the job on a scheduler worker thread
+     * @param context Cancellation and progress reporting for this run
+     * @return Job result
+     * @throws Exception if the job fails; CancellationException if it stopped on request
+     */
+    T run(JobContext context) throws Exception;
+}
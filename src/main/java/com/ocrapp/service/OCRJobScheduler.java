@@ -0,0 +1,263 @@
+package com.ocrapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs OCR jobs on a fixed set of worker threads, highest priority lane first.
+ * Within a lane jobs run in submission order. When an INTERACTIVE job arrives
+ * and every worker is busy, the lowest-priority running job is pre-empted:
+ * it is stopped through its JobContext (which also aborts recognition inside
+ * Tesseract) and queued again at the front of its lane.
+ *
+ * Cancellation is cooperative; a queued job is dropped right away, a running
+ * one stops at its next cancellation check.
+ *
+ * The number of workers defaults to the OCREnginePool size and can be set
+ * with -Docrapp.scheduler.threads=N.
+ */
+public class OCRJobScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(OCRJobScheduler.class);
+
+    private static final OCRJobScheduler SHARED = new OCRJobScheduler(defaultThreadCount());
+
+    /**
+     * Priority lanes, highest first
+     */
+    public enum Priority {
+        /** Region crops the user is waiting on */
+        INTERACTIVE,
+        /** Whole-page extraction started by the user */
+        FULL_PAGE,
+        /** Queued background work */
+        BATCH
+    }
+
+    /**
+     * Receives progress of running jobs, on the worker thread
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void progressChanged(JobHandle<?> job, int percent, String message);
+    }
+
+    private final PriorityBlockingQueue<JobHandle<?>> queue;
+    private final Set<JobHandle<?>> running;
+    private final AtomicLong sequence;
+    private final AtomicInteger busyWorkers;
+    private final int threadCount;
+
+    /**
+     * Constructor
+     * @param threadCount Number of worker threads
+     */
+    public OCRJobScheduler(int threadCount) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threadCount);
+        }
+        this.queue = new PriorityBlockingQueue<>();
+        this.running = ConcurrentHashMap.newKeySet();
+        this.sequence = new AtomicLong();
+        this.busyWorkers = new AtomicInteger();
+        this.threadCount = threadCount;
+
+        for (int i = 1; i <= threadCount; i++) {
+            Thread worker = new Thread(this::workerLoop, "ocr-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Get the process-wide scheduler
+     * @return Shared OCRJobScheduler
+     */
+    public static OCRJobScheduler getShared() {
+        return SHARED;
+    }
+
+    private static int defaultThreadCount() {
+        int configured = Integer.getInteger("ocrapp.scheduler.threads", 0);
+        if (configured > 0) {
+            return configured;
+        }
+        return OCREnginePool.getShared().getMaxSize();
+    }
+
+    /**
+     * Queue a job
+     * @param priority Lane to run in
+     * @param name Job name, for logs and messages
+     * @param job Work to run
+     * @param listener Progress receiver (may be null)
+     * @param <T> Result type
+     * @return Handle to cancel the job and get its result
+     */
+    public <T> JobHandle<T> submit(Priority priority, String name, OCRJob<T> job, ProgressListener listener) {
+        JobHandle<T> handle = new JobHandle<>(priority, name, job, listener, sequence.incrementAndGet());
+        queue.add(handle);
+        log.debug("Queued {} job {} ({} waiting)", priority, name, queue.size());
+
+        if (priority == Priority.INTERACTIVE && busyWorkers.get() >= threadCount) {
+            preemptLowestPriority();
+        }
+        return handle;
+    }
+
+    /**
+     * Stop the lowest-priority running job so an interactive one can start
+     */
+    private void preemptLowestPriority() {
+        JobHandle<?> victim = null;
+        for (JobHandle<?> candidate : running) {
+            if (candidate.priority == Priority.INTERACTIVE || candidate.context.isPreempted()) {
+                continue;
+            }
+            if (victim == null || candidate.compareTo(victim) > 0) {
+                victim = candidate;
+            }
+        }
+
+        if (victim != null) {
+            log.info("Pre-empting {} job {} for interactive work", victim.priority, victim.name);
+            victim.context.preempt();
+        }
+    }
+
+    private void workerLoop() {
+        while (true) {
+            JobHandle<?> handle;
+            try {
+                handle = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (handle.context.isCancelRequested()) {
+                handle.future.cancel(false);
+                continue;
+            }
+
+            busyWorkers.incrementAndGet();
+            running.add(handle);
+            try {
+                runJob(handle);
+            } finally {
+                running.remove(handle);
+                busyWorkers.decrementAndGet();
+            }
+        }
+    }
+
+    private <T> void runJob(JobHandle<T> handle) {
+        try {
+            T result;
+            try {
+                result = handle.job.run(handle.context);
+            } finally {
+                // the run's images are out of reach now, pre-empted or not
+                handle.context.releaseHeld();
+            }
+            handle.future.complete(result);
+        } catch (Throwable e) {
+            if (handle.context.isPreempted() && !handle.context.isCancelRequested()) {
+                // whatever the job threw, it stopped because we asked it to
+                handle.context.resetForRetry();
+                queue.add(handle);
+                log.debug("Re-queued pre-empted job {}", handle.name);
+            } else if (handle.context.isCancelRequested() || e instanceof CancellationException) {
+                handle.future.cancel(false);
+                log.debug("Job {} cancelled", handle.name);
+            } else {
+                handle.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    public int getRunningCount() {
+        return running.size();
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Submitted job: its lane, cancellation and result
+     * @param <T> Result type
+     */
+    public final class JobHandle<T> implements Comparable<JobHandle<?>> {
+
+        private final Priority priority;
+        private final String name;
+        private final OCRJob<T> job;
+        private final long order;
+        private final JobContext context;
+        private final CompletableFuture<T> future;
+
+        private JobHandle(Priority priority, String name, OCRJob<T> job, ProgressListener listener, long order) {
+            this.priority = priority;
+            this.name = name;
+            this.job = job;
+            this.order = order;
+            this.future = new CompletableFuture<>();
+            this.context = new JobContext(name, (listener == null) ? null :
+                    (percent, message) -> listener.progressChanged(this, percent, message));
+        }
+
+        /**
+         * Cancel the job. A queued job never starts; a running job stops
+         * at its next cancellation check and its future is cancelled.
+         */
+        public void cancel() {
+            context.requestCancel();
+            if (queue.remove(this)) {
+                future.cancel(false);
+            }
+        }
+
+        public boolean isCancelled() {
+            return context.isCancelRequested();
+        }
+
+        /**
+         * Get the result, completed on a worker thread
+         * @return Future of the job result
+         */
+        public CompletableFuture<T> getFuture() {
+            return future;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getProgress() {
+            return context.getProgress();
+        }
+
+        @Override
+        public int compareTo(JobHandle<?> other) {
+            int byPriority = priority.compareTo(other.priority);
+            return (byPriority != 0) ? byPriority : Long.compare(order, other.order);
+        }
+    }
+}
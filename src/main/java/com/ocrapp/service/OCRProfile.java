@@ -0,0 +1,143 @@
+package com.ocrapp.service;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Named trade-offs between recognition speed and accuracy.
+ * A profile bundles the Tesseract engine and page segmentation modes,
+ * tessedit variables, how large the working image may get and which steps
+ * preprocessing runs, and the model set (tessdata_fast, the standard
+ * tessdata or tessdata_best) recognition loads. Profiles are picked per
+ * job, so a throughput-bound batch and a careful interactive extraction
+ * can share one engine pool.
+ *
+ * Languages with vertical or right-to-left scripts keep their own page
+ * segmentation mode under every profile. The default profile is
+ * BALANCED, the settings used before profiles existed, and can be
+ * changed with -Docrapp.profile=fast|balanced|accurate.
+ */
+public enum OCRProfile {
+
+    /** LSTM only on tessdata_fast models, one text block, smaller working image */
+    FAST("fast", "Fast", 1, 6, 2000, false, "tessdata_fast",
+            Map.of("tessedit_do_invert", "0")),
+
+    /** Default engine mode and automatic page segmentation on the standard models */
+    BALANCED("balanced", "Balanced", 3, 3, 3000, true, null,
+            Map.of("tessedit_do_invert", "1")),
+
+    /** LSTM only on tessdata_best models, automatic segmentation, larger working image */
+    ACCURATE("accurate", "Accurate", 1, 3, 4000, true, "tessdata_best",
+            Map.of("tessedit_do_invert", "1"));
+
+    private final String id;
+    private final String displayName;
+    private final int ocrEngineMode;
+    private final int pageSegMode;
+    private final int maxImageSide;
+    private final boolean enhanceContrast;
+    private final String modelSet;
+    // every profile sets the same keys, so a pooled engine never keeps another profile's values
+    private final Map<String, String> variables;
+
+    OCRProfile(String id, String displayName, int ocrEngineMode, int pageSegMode, int maxImageSide,
+               boolean enhanceContrast, String modelSet, Map<String, String> variables) {
+        this.id = id;
+        this.displayName = displayName;
+        this.ocrEngineMode = ocrEngineMode;
+        this.pageSegMode = pageSegMode;
+        this.maxImageSide = maxImageSide;
+        this.enhanceContrast = enhanceContrast;
+        this.modelSet = modelSet;
+        this.variables = variables;
+    }
+
+    /**
+     * Get the profile jobs use unless they pick one
+     * @return Profile named by -Docrapp.profile, or BALANCED
+     */
+    public static OCRProfile getDefault() {
+        OCRProfile configured = forName(System.getProperty("ocrapp.profile", ""));
+        return (configured != null) ? configured : BALANCED;
+    }
+
+    /**
+     * Look up a profile by id or display name, ignoring case
+     * @param name Name such as "fast"
+     * @return Matching profile, or null if there is none
+     */
+    public static OCRProfile forName(String name) {
+        if (name == null) {
+            return null;
+        }
+        String lower = name.trim().toLowerCase(Locale.ROOT);
+        for (OCRProfile profile : values()) {
+            if (profile.id.equals(lower) || profile.displayName.toLowerCase(Locale.ROOT).equals(lower)) {
+                return profile;
+            }
+        }
+        return null;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public int getOcrEngineMode() {
+        return ocrEngineMode;
+    }
+
+    /**
+     * Get the page segmentation mode for horizontal scripts
+     * @return Tesseract PSM
+     */
+    public int getPageSegMode() {
+        return pageSegMode;
+    }
+
+    /**
+     * Get the working image limit: preprocessing keeps images within this
+     * squared in area, or within it on each side when the text height
+     * can't be measured
+     * @return Maximum side in pixels
+     */
+    public int getMaxImageSide() {
+        return maxImageSide;
+    }
+
+    public boolean isEnhanceContrast() {
+        return enhanceContrast;
+    }
+
+    /**
+     * Get the name of the model folder this profile prefers
+     * @return "tessdata_fast" or "tessdata_best", or null for the standard tessdata
+     */
+    public String getModelSet() {
+        return modelSet;
+    }
+
+    public Map<String, String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Get the language key results of this profile are stored under, so a
+     * stored fast result is never served to an accurate job
+     * @param language Language code
+     * @return The language for BALANCED, otherwise language@profile
+     */
+    public String storeKey(String language) {
+        return (this == BALANCED) ? language : language + "@" + id;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,136 @@
+package com.ocrapp.service;
+
+import com.ocrapp.model.OCRResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * The recognition pipeline for one image or crop: preprocessing, OCR on a
+ * pooled engine and text cleanup, with whole pages served from and recorded
+ * in the result store. Used by the window, batches and background ingestion
+ * alike, from scheduler jobs, each with its own speed/accuracy profile.
+ */
+public class PageRecognizer {
+
+    private static final Logger log = LoggerFactory.getLogger(PageRecognizer.class);
+
+    private final ImageProcessor imageProcessor;
+    private final TextProcessor textProcessor;
+    private final OCREnginePool enginePool;
+
+    /**
+     * Constructor using the shared engine pool
+     */
+    public PageRecognizer() {
+        this(new ImageProcessor(), new TextProcessor(), OCREnginePool.getShared());
+    }
+
+    /**
+     * Constructor
+     * @param imageProcessor Loads and preprocesses images
+     * @param textProcessor Cleans recognized text
+     * @param enginePool Engines to recognize with
+     */
+    public PageRecognizer(ImageProcessor imageProcessor, TextProcessor textProcessor, OCREnginePool enginePool) {
+        this.imageProcessor = imageProcessor;
+        this.textProcessor = textProcessor;
+        this.enginePool = enginePool;
+    }
+
+    /**
+     * Recognize a whole page, or serve it from the result store if the same
+     * image bytes were already recognized in this language. New results are
+     * cleaned and recorded in the store.
+     * @param imageInput Source image
+     * @param image Decoded image, or null to decode imageInput only if it isn't in the store
+     * @param language Language code to recognize in
+     * @param profile Speed/accuracy profile
+     * @param context Job context
+     * @return Cleaned OCR result
+     * @throws Exception if decoding or recognition fails or the job is cancelled
+     */
+    public OCRResult recognizePage(ImageInput imageInput, BufferedImage image, String language,
+                                   OCRProfile profile, JobContext context) throws Exception {
+        return recognizePage(imageInput, ResultStore.contentHash(imageInput), image, language, profile, context);
+    }
+
+    /**
+     * Recognize a whole page whose content hash is already known
+     * @param imageInput Source image
+     * @param contentHash Hash from ResultStore.contentHash (null to bypass the store)
+     * @param image Decoded image, or null to decode imageInput only if it isn't in the store
+     * @param language Language code to recognize in
+     * @param profile Speed/accuracy profile (results are stored per profile)
+     * @param context Job context
+     * @return Cleaned OCR result
+     * @throws Exception if decoding or recognition fails or the job is cancelled
+     */
+    public OCRResult recognizePage(ImageInput imageInput, String contentHash, BufferedImage image,
+                                   String language, OCRProfile profile, JobContext context) throws Exception {
+        ResultStore store = ResultStore.getShared();
+        String storeKey = profile.storeKey(language);
+        OCRResult stored = store.find(contentHash, storeKey);
+        if (stored != null) {
+            log.info("Using stored result for {} ({})", imageInput.getName(), storeKey);
+            return stored;
+        }
+
+        if (image == null) {
+            // decoded on the worker, so only images being recognized are in memory
+            context.beginStage("Loading " + imageInput.getName() + "...", 0, 5);
+            image = imageProcessor.loadImage(imageInput, profile, context);
+            if (image == null) {
+                throw new IOException("Unsupported or corrupted image");
+            }
+            context.checkCancelled();
+        }
+
+        OCRResult result = recognize(image, null, imageInput, language, profile, context);
+
+        context.beginStage("Cleaning text...", 95, 100);
+        result.setExtractedText(textProcessor.cleanText(result.getExtractedText()));
+        // an empty page may be a missing model or a bad decode; recognize it again next time
+        if (!result.getExtractedText().isBlank()) {
+            store.put(contentHash, storeKey, imageInput, result);
+        }
+        return result;
+    }
+
+    /**
+     * Preprocess and recognize an image on a pooled engine, reporting progress to the job
+     * @param input Image or crop to recognize
+     * @param regionBounds Crop rectangle in full-resolution coordinates (null for full image)
+     * @param imageInput Source image, for result metadata
+     * @param language Language code to recognize in
+     * @param profile Speed/accuracy profile
+     * @param context Job context
+     * @return Uncleaned OCR result
+     * @throws Exception if preprocessing or recognition fails or the job is cancelled
+     */
+    public OCRResult recognize(BufferedImage input, Rectangle regionBounds, ImageInput imageInput,
+                               String language, OCRProfile profile, JobContext context) throws Exception {
+        context.beginStage("Preprocessing image...", 5, 30);
+        BufferedImage processedImage = imageProcessor.preprocessImage(input, profile, context);
+
+        if (processedImage == null) {
+            throw new Exception("Image preprocessing failed");
+        }
+
+        try (OCREnginePool.Lease lease = enginePool.borrow(language)) {
+            context.beginStage("Extracting text...", 30, 95);
+            lease.getEngine().setProfile(profile);
+            OCRResult result = lease.getEngine().extractText(imageInput, processedImage, regionBounds, context);
+
+            if (result == null) {
+                throw new Exception("OCR extraction failed");
+            }
+            return result;
+        } finally {
+            imageProcessor.releaseProcessedImage(processedImage);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.ocrapp.service;
+
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bucketed pool of pixel arrays for preprocessing intermediates.
+ * Stages borrow a BufferedImage wrapping a pooled byte[] (gray) or int[]
+ * (RGB/ARGB) array and release it when the next stage is done with it, so
+ * batch runs stop producing a full-size image of garbage per step.
+ *
+ * Array lengths are rounded up to size classes 1/4 of a power of two apart,
+ * so images of similar size share buckets with at most 25% slack. Released
+ * arrays are kept up to a byte cap (1/8 of max heap by default,
+ * -Docrapp.rasterPool.maxMB=N to override); anything beyond is left to GC.
+ *
+ * Borrowed images are NOT cleared; callers must overwrite every pixel.
+ */
+public class RasterPool {
+
+    private static final int MIN_ARRAY_LENGTH = 64 * 1024;
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    private static final ColorModel GRAY_MODEL = new ComponentColorModel(
+            ColorSpace.getInstance(ColorSpace.CS_GRAY), new int[] {8},
+            false, true, Transparency.OPAQUE, DataBuffer.TYPE_BYTE);
+    private static final ColorModel RGB_MODEL = new DirectColorModel(24, 0xFF0000, 0xFF00, 0xFF);
+    private static final int[] ARGB_MASKS = {0xFF0000, 0xFF00, 0xFF, 0xFF000000};
+    private static final int[] RGB_MASKS = {0xFF0000, 0xFF00, 0xFF};
+
+    private static final RasterPool SHARED = new RasterPool(defaultMaxPooledBytes());
+
+    private final Map<Integer, Deque<byte[]>> byteBuckets;
+    private final Map<Integer, Deque<int[]>> intBuckets;
+    private final long maxPooledBytes;
+    private final AtomicLong pooledBytes;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    /**
+     * Constructor
+     * @param maxPooledBytes Maximum bytes kept in the pool while idle
+     */
+    public RasterPool(long maxPooledBytes) {
+        this.byteBuckets = new ConcurrentHashMap<>();
+        this.intBuckets = new ConcurrentHashMap<>();
+        this.maxPooledBytes = maxPooledBytes;
+        this.pooledBytes = new AtomicLong();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * Get the process-wide pool shared by all image processing
+     * @return Shared RasterPool
+     */
+    public static RasterPool getShared() {
+        return SHARED;
+    }
+
+    private static long defaultMaxPooledBytes() {
+        long configuredMB = Long.getLong("ocrapp.rasterPool.maxMB", 0L);
+        if (configuredMB > 0) {
+            return configuredMB * BYTES_PER_MB;
+        }
+        return Runtime.getRuntime().maxMemory() / 8;
+    }
+
+    /**
+     * Borrow an image of the given size and type.
+     * TYPE_BYTE_GRAY, TYPE_INT_RGB and TYPE_INT_ARGB are pooled; other types
+     * are allocated normally (and ignored on release).
+     * @param width Image width
+     * @param height Image height
+     * @param imageType BufferedImage type constant
+     * @return Image whose pixel contents are undefined
+     */
+    public BufferedImage borrow(int width, int height, int imageType) {
+        int length = width * height;
+
+        switch (imageType) {
+            case BufferedImage.TYPE_BYTE_GRAY: {
+                byte[] data = takeBytes(length);
+                WritableRaster raster = Raster.createInterleavedRaster(
+                        new DataBufferByte(data, length), width, height, width, 1, new int[] {0}, null);
+                return new BufferedImage(GRAY_MODEL, raster, false, null);
+            }
+            case BufferedImage.TYPE_INT_RGB: {
+                int[] data = takeInts(length);
+                WritableRaster raster = Raster.createPackedRaster(
+                        new DataBufferInt(data, length), width, height, width, RGB_MASKS, null);
+                return new BufferedImage(RGB_MODEL, raster, false, null);
+            }
+            case BufferedImage.TYPE_INT_ARGB: {
+                int[] data = takeInts(length);
+                WritableRaster raster = Raster.createPackedRaster(
+                        new DataBufferInt(data, length), width, height, width, ARGB_MASKS, null);
+                return new BufferedImage(ColorModel.getRGBdefault(), raster, false, null);
+            }
+            default:
+                misses.incrementAndGet();
+                return new BufferedImage(width, height, imageType);
+        }
+    }
+
+    /**
+     * Return an image's pixel array to the pool.
+     * The caller must not use the image (or any subimage of it) afterwards.
+     * @param image Image to recycle (null and non-poolable images are ignored)
+     */
+    public void release(BufferedImage image) {
+        if (image == null) {
+            return;
+        }
+
+        image.flush();
+
+        // a subimage shares its parent's array, which may still be in use
+        WritableRaster raster = image.getRaster();
+        if (raster.getParent() != null) {
+            return;
+        }
+
+        DataBuffer buffer = raster.getDataBuffer();
+        if (buffer.getNumBanks() != 1) {
+            return;
+        }
+
+        if (buffer instanceof DataBufferByte) {
+            byte[] data = ((DataBufferByte) buffer).getData();
+            offer(byteBuckets, data, data.length, data.length);
+        } else if (buffer instanceof DataBufferInt) {
+            int[] data = ((DataBufferInt) buffer).getData();
+            offer(intBuckets, data, data.length, (long) data.length * Integer.BYTES);
+        }
+    }
+
+    private byte[] takeBytes(int length) {
+        int sizeClass = sizeClass(length);
+        Deque<byte[]> bucket = byteBuckets.get(sizeClass);
+        byte[] data = bucket != null ? bucket.pollFirst() : null;
+        if (data != null) {
+            pooledBytes.addAndGet(-data.length);
+            hits.incrementAndGet();
+            return data;
+        }
+        misses.incrementAndGet();
+        return new byte[sizeClass];
+    }
+
+    private int[] takeInts(int length) {
+        int sizeClass = sizeClass(length);
+        Deque<int[]> bucket = intBuckets.get(sizeClass);
+        int[] data = bucket != null ? bucket.pollFirst() : null;
+        if (data != null) {
+            pooledBytes.addAndGet(-(long) data.length * Integer.BYTES);
+            hits.incrementAndGet();
+            return data;
+        }
+        misses.incrementAndGet();
+        return new int[sizeClass];
+    }
+
+    private <T> void offer(Map<Integer, Deque<T>> buckets, T data, int length, long bytes) {
+        // only arrays this pool handed out have an exact size-class length
+        if (sizeClass(length) != length) {
+            return;
+        }
+
+        if (pooledBytes.addAndGet(bytes) > maxPooledBytes) {
+            pooledBytes.addAndGet(-bytes);
+            return;
+        }
+
+        buckets.computeIfAbsent(length, k -> new ConcurrentLinkedDeque<>()).offerFirst(data);
+    }
+
+    /**
+     * Round a length up to its bucket size
+     * @param length Required array length
+     * @return Bucket array length
+     */
+    static int sizeClass(int length) {
+        if (length <= MIN_ARRAY_LENGTH) {
+            return MIN_ARRAY_LENGTH;
+        }
+        int step = Integer.highestOneBit(length - 1) / 4;
+        long rounded = ((long) length + step - 1) / step * step;
+        return (int) Math.min(rounded, Integer.MAX_VALUE - 8);
+    }
+
+    /**
+     * Drop all pooled arrays
+     */
+    public void clear() {
+        byteBuckets.clear();
+        intBuckets.clear();
+        pooledBytes.set(0);
+    }
+
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,732 @@
+package com.ocrapp.service;
+
+import com.ocrapp.model.OCRResult;
+import com.ocrapp.model.OCRWord;
+import com.ocrapp.model.RegionResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent history of OCR results.
+ * Results are appended to a single log file under the user's data directory
+ * (-Docrapp.store.dir, default ~/.ocrapp/store) as CRC-checked records holding
+ * the text, word layout, source path, content hash, language and timestamps.
+ * Records are never rewritten; a torn record at the end of the file (crash
+ * mid-write) is truncated on the next start.
+ *
+ * On open the log is scanned once to rebuild two in-memory indexes:
+ * an inverted index from words to records, for searching past extractions,
+ * and a map from (content hash, language) to the newest record, so OCR of
+ * an image that was already recognized is served from the store. Only
+ * record metadata stays in memory; text is read back from the file on demand.
+ *
+ * The window, --watch, --serve and --batch processes may share one log.
+ * Appends hold an exclusive lock on the file and go at its current end, and
+ * records other processes appended are indexed before each append and
+ * before lookups.
+ *
+ * Disable with -Docrapp.store.enabled=false. Thread-safe.
+ */
+public class ResultStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultStore.class);
+
+    private static final byte[] MAGIC = "OCRSTORE".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_BYTES = MAGIC.length + Integer.BYTES;
+    // record frame: payload length and CRC32 of the payload
+    private static final int FRAME_HEADER_BYTES = 2 * Integer.BYTES;
+    // guards against reading a garbage length from a damaged file
+    private static final int MAX_RECORD_BYTES = 256 * 1024 * 1024;
+
+    private static final String LOG_FILE_NAME = "results.log";
+
+    private final Path logFile;
+    private final FileChannel channel;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // record metadata by id (ids are positions in the log)
+    private final List<Entry> entries = new ArrayList<>();
+    // newest record per content hash and language
+    private final Map<String, Entry> latestByKey = new HashMap<>();
+    // word -> ids of records containing it
+    private final NavigableMap<String, Postings> index = new TreeMap<>();
+    // end of the last record indexed; read without the lock to skip needless refreshes
+    private volatile long endOffset;
+
+    /**
+     * Open or create a store
+     * @param directory Directory to keep the log in
+     * @throws IOException if the log can't be opened or isn't a result store
+     */
+    public ResultStore(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.logFile = directory.resolve(LOG_FILE_NAME);
+        this.channel = FileChannel.open(logFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            FileLock fileLock = channel.lock();
+            try {
+                if (channel.size() == 0) {
+                    ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+                    header.put(MAGIC).putInt(VERSION).flip();
+                    writeFully(header, 0);
+                    channel.force(true);
+                    endOffset = FILE_HEADER_BYTES;
+                } else {
+                    load();
+                }
+            } finally {
+                fileLock.release();
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Disabled store: remembers nothing, finds nothing
+     */
+    private ResultStore() {
+        this.logFile = null;
+        this.channel = null;
+    }
+
+    /**
+     * Get the process-wide store, opened on first use
+     * @return Shared ResultStore (disabled if it couldn't be opened)
+     */
+    public static ResultStore getShared() {
+        return Holder.SHARED;
+    }
+
+    private static final class Holder {
+        private static final ResultStore SHARED = openDefault();
+    }
+
+    private static ResultStore openDefault() {
+        if (!Boolean.parseBoolean(System.getProperty("ocrapp.store.enabled", "true"))) {
+            log.info("Result store disabled");
+            return new ResultStore();
+        }
+        String configured = System.getProperty("ocrapp.store.dir");
+        Path directory = (configured != null && !configured.isBlank()) ?
+                Paths.get(configured) : Paths.get(System.getProperty("user.home"), ".ocrapp", "store");
+        try {
+            long startNanos = System.nanoTime();
+            ResultStore store = new ResultStore(directory);
+            log.info("Opened result store {} ({} results, {} ms)", store.logFile,
+                    store.entries.size(), (System.nanoTime() - startNanos) / 1_000_000);
+            return store;
+        } catch (IOException e) {
+            log.warn("Result store unavailable at {}: {}", directory, e.getMessage());
+            return new ResultStore();
+        }
+    }
+
+    public boolean isAvailable() {
+        return channel != null;
+    }
+
+    // ========== Hashing ==========
+
+    /**
+     * Hash the encoded bytes of an image, so the same file is recognized
+     * again under another name or path
+     * @param input Image source
+     * @return Hex SHA-256, or null for inputs that can't be re-read (streams, in-memory images)
+     */
+    public static String contentHash(ImageInput input) {
+        if (input == null) {
+            return null;
+        }
+        try (InputStream in = input.openEncoded()) {
+            if (in == null) {
+                return null;
+            }
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            log.debug("Could not hash {}: {}", input, e.getMessage());
+            return null;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // ========== Writing ==========
+
+    /**
+     * Record a result. A later result for the same content hash and
+     * language supersedes the earlier one.
+     * @param contentHash Hash of the source image (null if unknown; the result is searchable but not reused)
+     * @param language Language code the image was recognized in
+     * @param input Source image, for its path and modification time (may be null)
+     * @param result Cleaned result to record
+     */
+    public void put(String contentHash, String language, ImageInput input, OCRResult result) {
+        if (channel == null || result == null) {
+            return;
+        }
+
+        File file = (input != null) ? input.getFile() : null;
+        long sourceModified = (file != null) ? file.lastModified() : 0L;
+        String sourcePath = (input != null) ? input.getSourcePath() : result.getSourceImagePath();
+
+        lock.writeLock().lock();
+        try {
+            long createdAt = System.currentTimeMillis();
+            byte[] payload = encode(createdAt, contentHash, language, sourcePath, sourceModified, result);
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + payload.length);
+            frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+
+            long offset;
+            FileLock fileLock = channel.lock();
+            try {
+                // another process may have appended since our last look
+                scan(endOffset);
+                offset = endOffset;
+                writeFully(frame, offset);
+                channel.force(false);
+                endOffset = offset + frame.capacity();
+            } finally {
+                fileLock.release();
+            }
+
+            Entry entry = new Entry(entries.size(), offset, payload.length, contentHash, language,
+                    sourcePath, createdAt, sourceModified, result.getConfidenceScore(),
+                    result.getCharacterCount(), result.getWordCount());
+            addEntry(entry, result.getExtractedText());
+        } catch (IOException e) {
+            log.warn("Failed to record result for {}: {}", sourcePath, e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static byte[] encode(long createdAt, String contentHash, String language, String sourcePath,
+                                 long sourceModified, OCRResult result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(result.getCharacterCount() * 2 + 256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(createdAt);
+        writeString(out, contentHash);
+        writeString(out, language);
+        writeString(out, sourcePath);
+        out.writeLong(sourceModified);
+        out.writeLong(result.getTotalProcessingTimeMs());
+        out.writeFloat(result.getConfidenceScore());
+        writeString(out, result.getExtractedText());
+
+        // word layout, kept for a single full-page region so exports still work from the store
+        RegionResult region = (result.getRegionCount() == 1) ? result.getRegion(0) : null;
+        Dimension size = (region != null && region.isFullImage()) ? region.getRecognizedSize() : null;
+        if (size == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(size.width);
+            out.writeInt(size.height);
+            out.writeInt(region.getWords().size());
+            for (OCRWord word : region.getWords()) {
+                Rectangle bounds = word.getBounds();
+                writeString(out, word.getText());
+                out.writeInt(bounds.x);
+                out.writeInt(bounds.y);
+                out.writeInt(bounds.width);
+                out.writeInt(bounds.height);
+                out.writeFloat(word.getConfidence());
+                out.writeInt(word.getBlockNumber());
+                out.writeInt(word.getParagraphNumber());
+                out.writeInt(word.getLineNumber());
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ========== Loading ==========
+
+    /**
+     * Check the file header and index every record. Caller holds the file lock.
+     */
+    private void load() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Not a result store (too short): " + logFile);
+            }
+        }
+        header.flip();
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        int version = header.getInt();
+        if (!Arrays.equals(magic, MAGIC) || version != VERSION) {
+            throw new IOException("Not a result store (version " + version + "): " + logFile);
+        }
+        scan(FILE_HEADER_BYTES);
+    }
+
+    /**
+     * Index the records from an offset to the end of the log and cut off a
+     * torn last record. Caller holds the file lock (and the write lock once the
+     * store is in use), so no other process is mid-append and a bad record can
+     * only be left by a crash.
+     * @param from Offset of the first record to read
+     */
+    private void scan(long from) throws IOException {
+        long size = channel.size();
+        if (from >= size) {
+            endOffset = from;
+            return;
+        }
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(channel.position(from)), 256 * 1024));
+
+        long offset = from;
+        CRC32 crc = new CRC32();
+        while (offset < size) {
+            byte[] payload;
+            try {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 0 || length > MAX_RECORD_BYTES || offset + FRAME_HEADER_BYTES + length > size) {
+                    break;
+                }
+                payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+            } catch (EOFException e) {
+                break;
+            }
+
+            decodeEntry(offset, payload);
+            offset += FRAME_HEADER_BYTES + payload.length;
+        }
+
+        if (offset < size) {
+            log.warn("Result store {} has a damaged record at byte {}, truncating", logFile, offset);
+            channel.truncate(offset);
+        }
+        endOffset = offset;
+    }
+
+    private void decodeEntry(long offset, byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        long createdAt = in.readLong();
+        String contentHash = readString(in);
+        String language = readString(in);
+        String sourcePath = readString(in);
+        long sourceModified = in.readLong();
+        in.readLong(); // processing time
+        float confidence = in.readFloat();
+        String text = readString(in);
+
+        int wordCount = text.trim().isEmpty() ? 0 : text.trim().split("\\s+").length;
+        Entry entry = new Entry(entries.size(), offset, payload.length, contentHash, language,
+                sourcePath, createdAt, sourceModified, confidence, text.length(), wordCount);
+        addEntry(entry, text);
+    }
+
+    private void addEntry(Entry entry, String text) {
+        entries.add(entry);
+        if (entry.contentHash != null) {
+            Entry previous = latestByKey.put(key(entry.contentHash, entry.language), entry);
+            if (previous != null) {
+                previous.superseded = true;
+            }
+        }
+        for (String term : tokenize(text)) {
+            index.computeIfAbsent(term, t -> new Postings()).add(entry.id);
+        }
+    }
+
+    private static String key(String contentHash, String language) {
+        return contentHash + '|' + language;
+    }
+
+    /**
+     * Index records other processes appended since the last look
+     */
+    private void refresh() {
+        try {
+            if (channel.size() <= endOffset) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                FileLock fileLock = channel.lock();
+                try {
+                    scan(endOffset);
+                } finally {
+                    fileLock.release();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read new results from {}: {}", logFile, e.getMessage());
+        }
+    }
+
+    // ========== Reading ==========
+
+    /**
+     * Find the stored result for an image that was already recognized
+     * @param contentHash Hash from contentHash()
+     * @param language Language code
+     * @return Fresh OCRResult, or null if the image hasn't been recognized in this language
+     */
+    public OCRResult find(String contentHash, String language) {
+        if (channel == null || contentHash == null) {
+            return null;
+        }
+        refresh();
+        Entry entry;
+        lock.readLock().lock();
+        try {
+            entry = latestByKey.get(key(contentHash, language));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return (entry != null) ? load(entry) : null;
+    }
+
+    /**
+     * Read a stored result back from disk
+     * @param entry Entry from search() or recent()
+     * @return Fresh OCRResult, or null if the record can't be read
+     */
+    public OCRResult load(Entry entry) {
+        if (channel == null) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+            long position = entry.offset + FRAME_HEADER_BYTES;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException("Record past end of store");
+                }
+            }
+            return decodeResult(entry, buffer.array());
+        } catch (IOException e) {
+            log.warn("Failed to read stored result {}: {}", entry.id, e.getMessage());
+            return null;
+        }
+    }
+
+    private static OCRResult decodeResult(Entry entry, byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        in.readLong();      // created
+        readString(in);     // content hash
+        readString(in);     // language
+        readString(in);     // source path
+        in.readLong();      // source modified
+        long processingTimeMs = in.readLong();
+        float confidence = in.readFloat();
+        String text = readString(in);
+
+        List<OCRWord> words = null;
+        Dimension size = null;
+        int width = in.readInt();
+        if (width >= 0) {
+            size = new Dimension(width, in.readInt());
+            int count = in.readInt();
+            words = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String wordText = readString(in);
+                Rectangle bounds = new Rectangle(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+                words.add(new OCRWord(wordText, bounds, in.readFloat(), in.readInt(), in.readInt(), in.readInt()));
+            }
+        }
+
+        RegionResult region = new RegionResult(text, confidence, null, processingTimeMs,
+                entry.language, words, size);
+        OCRResult result = new OCRResult(region, entry.sourcePath);
+        result.setTimestamp(entry.getCreatedAt());
+        return result;
+    }
+
+    /**
+     * Search past results. Every word of the query must occur in a result;
+     * the last word also matches as a prefix, so results narrow while typing.
+     * @param query Search words (blank lists the most recent results)
+     * @param limit Maximum number of results
+     * @return Matching entries, newest first
+     */
+    public List<Entry> search(String query, int limit) {
+        if (channel == null) {
+            return Collections.emptyList();
+        }
+        List<String> terms = new ArrayList<>(tokenize(query));
+        refresh();
+
+        lock.readLock().lock();
+        try {
+            BitSet matches = new BitSet(entries.size());
+            matches.set(0, entries.size());
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                BitSet termMatches = new BitSet(entries.size());
+                if (i == terms.size() - 1) {
+                    for (Postings postings : index.subMap(term, true, term + Character.MAX_VALUE, true).values()) {
+                        postings.addTo(termMatches);
+                    }
+                } else {
+                    Postings postings = index.get(term);
+                    if (postings != null) {
+                        postings.addTo(termMatches);
+                    }
+                }
+                matches.and(termMatches);
+            }
+
+            List<Entry> results = new ArrayList<>();
+            for (int id = matches.previousSetBit(entries.size() - 1);
+                 id >= 0 && results.size() < limit; id = matches.previousSetBit(id - 1)) {
+                Entry entry = entries.get(id);
+                if (!entry.superseded) {
+                    results.add(entry);
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of stored results
+     * @return Result count, superseded ones included
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Split text into lower-case index terms (runs of letters and digits)
+     * @param text Text to split
+     * @return Distinct terms in order of first occurrence
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Sorted record ids for one term. Ids are added in increasing order.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        private void addTo(BitSet set) {
+            for (int i = 0; i < size; i++) {
+                set.set(ids[i]);
+            }
+        }
+    }
+
+    /**
+     * Metadata of one stored result. The text stays on disk; use load().
+     */
+    public static final class Entry {
+
+        private final int id;
+        private final long offset;
+        private final int length;
+        private final String contentHash;
+        private final String language;
+        private final String sourcePath;
+        private final long createdAt;
+        private final long sourceModified;
+        private final float confidence;
+        private final int characterCount;
+        private final int wordCount;
+        // a newer record for the same image and language exists (guarded by the store lock)
+        private boolean superseded;
+
+        private Entry(int id, long offset, int length, String contentHash, String language,
+                      String sourcePath, long createdAt, long sourceModified, float confidence,
+                      int characterCount, int wordCount) {
+            this.id = id;
+            this.offset = offset;
+            this.length = length;
+            this.contentHash = contentHash;
+            this.language = language != null ? language : "";
+            this.sourcePath = sourcePath != null ? sourcePath : "";
+            this.createdAt = createdAt;
+            this.sourceModified = sourceModified;
+            this.confidence = confidence;
+            this.characterCount = characterCount;
+            this.wordCount = wordCount;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Get the content hash of the source image
+         * @return Hex SHA-256, or null if the source couldn't be hashed
+         */
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        public String getLanguage() {
+            return language;
+        }
+
+        public String getSourcePath() {
+            return sourcePath;
+        }
+
+        /**
+         * Get the file name part of the source path
+         * @return Display name
+         */
+        public String getName() {
+            int slash = Math.max(sourcePath.lastIndexOf('/'), sourcePath.lastIndexOf(File.separatorChar));
+            return sourcePath.substring(slash + 1);
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAt), ZoneId.systemDefault());
+        }
+
+        /**
+         * Get when the source file was last modified, as of recognition
+         * @return Modification time, or null for sources that aren't files
+         */
+        public LocalDateTime getSourceModified() {
+            return (sourceModified > 0) ?
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(sourceModified), ZoneId.systemDefault()) : null;
+        }
+
+        public float getConfidence() {
+            return confidence;
+        }
+
+        public int getCharacterCount() {
+            return characterCount;
+        }
+
+        public int getWordCount() {
+            return wordCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" + id + " '" + getName() + "' " + language + ", " + wordCount + " words}";
+        }
+    }
+}
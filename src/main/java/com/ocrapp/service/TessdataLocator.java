@@ -0,0 +1,217 @@
+package com.ocrapp.service;
+
+import com.ocrapp.util.AppPreferences;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Finds the Tesseract language data (tessdata) folder for this machine
+ * and reports which models are installed.
+ *
+ * Locations are tried in order:
+ * <ol>
+ *   <li>-Docrapp.tessdata=folder. This is always used if given, even when
+ *       the folder holds no models.</li>
+ *   <li>The folder chosen under File &gt; Tessdata Folder (saved in the
+ *       preferences), as long as it still holds models.</li>
+ *   <li>TESSDATA_PREFIX, either the tessdata folder itself or its parent
+ *       (Tesseract 3 style).</li>
+ *   <li>./tessdata.</li>
+ *   <li>The usual install locations on Linux, macOS and Windows.</li>
+ * </ol>
+ * Among the searched locations, the first folder holding a .traineddata
+ * file wins. The lookup runs once per process.
+ *
+ * Model sets (tessdata_fast, tessdata_best) are looked for next to the
+ * tessdata folder, or at -Docrapp.tessdata.fast / -Docrapp.tessdata.best.
+ */
+public final class TessdataLocator {
+
+    private static final Logger log = LoggerFactory.getLogger(TessdataLocator.class);
+
+    private static final String MODEL_SUFFIX = ".traineddata";
+    private static final String[] MODEL_SETS = {"tessdata_fast", "tessdata_best"};
+
+    private static final String[] SYSTEM_PATHS = {
+        // Debian/Ubuntu, Fedora/RHEL, Arch/Alpine, source builds
+        "/usr/share/tesseract-ocr/5/tessdata",
+        "/usr/share/tesseract-ocr/4.00/tessdata",
+        "/usr/share/tesseract/tessdata",
+        "/usr/share/tessdata",
+        "/usr/local/share/tessdata",
+        // Homebrew (Apple silicon), MacPorts
+        "/opt/homebrew/share/tessdata",
+        "/opt/local/share/tessdata",
+        // Windows installers
+        "C:\\Program Files\\Tesseract-OCR\\tessdata",
+        "C:\\Program Files (x86)\\Tesseract-OCR\\tessdata"
+    };
+
+    private final String dataPath;
+    private final String source;
+
+    private TessdataLocator(String dataPath, String source) {
+        this.dataPath = dataPath;
+        this.source = source;
+    }
+
+    /**
+     * Get the tessdata folder found for this process
+     * @return Shared locator
+     */
+    public static TessdataLocator getShared() {
+        return Holder.SHARED;
+    }
+
+    private static final class Holder {
+        private static final TessdataLocator SHARED = locate();
+    }
+
+    private static TessdataLocator locate() {
+        String configured = System.getProperty("ocrapp.tessdata");
+        if (configured != null && !configured.isBlank()) {
+            if (listLanguages(configured).isEmpty()) {
+                log.warn("No .traineddata files in {} (-Docrapp.tessdata)", configured);
+            }
+            return found(configured, "-Docrapp.tessdata");
+        }
+
+        String preferred = AppPreferences.getTessdataPath();
+        if (preferred != null && !preferred.isBlank()) {
+            if (!listLanguages(preferred).isEmpty()) {
+                return found(preferred, "preferences");
+            }
+            log.warn("No .traineddata files in {} (preferences), searching the usual places", preferred);
+        }
+
+        Map<String, String> candidates = new LinkedHashMap<>();
+        String prefix = System.getenv("TESSDATA_PREFIX");
+        if (prefix != null && !prefix.isBlank()) {
+            candidates.put(prefix, "TESSDATA_PREFIX");
+            candidates.put(new File(prefix, "tessdata").getPath(), "TESSDATA_PREFIX");
+        }
+        candidates.put(new File("tessdata").getAbsolutePath(), "working directory");
+        String localAppData = System.getenv("LOCALAPPDATA");
+        if (localAppData != null) {
+            candidates.put(localAppData + "\\Programs\\Tesseract-OCR\\tessdata", "system path");
+        }
+        for (String path : SYSTEM_PATHS) {
+            candidates.putIfAbsent(path, "system path");
+        }
+
+        for (Map.Entry<String, String> candidate : candidates.entrySet()) {
+            if (!listLanguages(candidate.getKey()).isEmpty()) {
+                return found(candidate.getKey(), candidate.getValue());
+            }
+        }
+
+        // nothing installed where we looked; keep the platform's usual place so errors name it
+        String fallback = isWindows() ? SYSTEM_PATHS[SYSTEM_PATHS.length - 2] : SYSTEM_PATHS[0];
+        log.warn("No Tesseract language data found (searched {}); set TESSDATA_PREFIX or " +
+                "-Docrapp.tessdata to the tessdata folder", candidates.keySet());
+        return new TessdataLocator(fallback, "not found");
+    }
+
+    private static TessdataLocator found(String path, String source) {
+        TessdataLocator locator = new TessdataLocator(path, source);
+        log.info("Using tessdata {} ({})", path, source);
+        for (String line : describeModels(path).split("\n")) {
+            log.info("  {}", line);
+        }
+        return locator;
+    }
+
+    private static boolean isWindows() {
+        return System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("windows");
+    }
+
+    /**
+     * Get the tessdata folder
+     * @return Folder path
+     */
+    public String getDataPath() {
+        return dataPath;
+    }
+
+    /**
+     * Get where the folder came from
+     * @return e.g. "TESSDATA_PREFIX", "system path" or "not found"
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * List the language models in a folder
+     * @param directory Folder to look in
+     * @return Language codes ("eng", "chi_sim", ...) in name order, empty if none or unreadable
+     */
+    public static List<String> listLanguages(String directory) {
+        File[] files = new File(directory).listFiles((dir, name) -> name.endsWith(MODEL_SUFFIX));
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        List<String> languages = new ArrayList<>(files.length);
+        for (File file : files) {
+            String name = file.getName();
+            languages.add(name.substring(0, name.length() - MODEL_SUFFIX.length()));
+        }
+        Collections.sort(languages);
+        return languages;
+    }
+
+    /**
+     * Check that a folder has a model for every language of a code such as "eng+deu"
+     * @param directory Folder to look in
+     * @param language Language code, possibly several joined with '+'
+     * @return true if all are installed
+     */
+    public static boolean hasLanguage(String directory, String language) {
+        for (String code : language.split("\\+")) {
+            if (!new File(directory, code + MODEL_SUFFIX).isFile()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find the folder of a model set: -Docrapp.tessdata.fast or
+     * -Docrapp.tessdata.best if given, else a folder named after the set
+     * next to the standard tessdata
+     * @param modelSet "tessdata_fast" or "tessdata_best"
+     * @param dataPath Standard tessdata folder
+     * @return Folder (may not exist)
+     */
+    public static File modelSetDirectory(String modelSet, String dataPath) {
+        String configured = System.getProperty("ocrapp.tessdata." + modelSet.substring(modelSet.indexOf('_') + 1));
+        return (configured != null) ? new File(configured) : new File(new File(dataPath).getParentFile(), modelSet);
+    }
+
+    /**
+     * Describe the installed models, one line per variant
+     * @param dataPath Standard tessdata folder
+     * @return e.g. "tessdata: eng, deu" and a line each for tessdata_fast and tessdata_best
+     */
+    public static String describeModels(String dataPath) {
+        StringBuilder text = new StringBuilder();
+        appendVariant(text, "tessdata", listLanguages(dataPath));
+        for (String modelSet : MODEL_SETS) {
+            text.append("\n");
+            appendVariant(text, modelSet, listLanguages(modelSetDirectory(modelSet, dataPath).getPath()));
+        }
+        return text.toString();
+    }
+
+    private static void appendVariant(StringBuilder text, String variant, List<String> languages) {
+        text.append(variant).append(": ").append(languages.isEmpty() ? "not installed" : String.join(", ", languages));
+    }
+}
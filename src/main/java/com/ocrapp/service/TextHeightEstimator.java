@@ -0,0 +1,306 @@
+package com.ocrapp.service;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Estimates how tall the text in an image is, so preprocessing can scale
+ * pages to the glyph size Tesseract reads best instead of to a fixed
+ * pixel size.
+ *
+ * The image is binarized with Otsu's threshold (the minority class is
+ * taken as ink, so light-on-dark text works too) and split into 8-connected
+ * components with a run-length labelling pass. Components that can't be
+ * glyphs (specks, rules, frames) are dropped and the most common height of
+ * the rest is taken. Images with too much "ink" or no clearly dominant
+ * height, such as photos, are reported as having no text. In running Latin text most letters have neither
+ * ascender nor descender, so this is the x-height; for CJK scripts it is
+ * the full glyph height.
+ *
+ * Large images are analysed on a decimated grid of at most about 4
+ * megapixels, which keeps the estimate to a few tens of milliseconds and a
+ * few MB of scratch memory at the cost of a pixel or two of precision.
+ */
+public final class TextHeightEstimator {
+
+    private static final long MAX_ANALYSIS_PIXELS = 4_000_000L;
+    // the dominant height needs this many components, and this share of all
+    // glyph-like ones, to count as text rather than texture
+    private static final int MIN_GLYPHS = 8;
+    private static final double MIN_DOMINANT_SHARE = 0.25;
+    // in analysed pixels; anything shorter is noise or punctuation
+    private static final int MIN_GLYPH_HEIGHT = 3;
+    private static final int MAX_GLYPH_ASPECT = 12;
+    // printed text covers well under this share of a page; photos and halftones split evenly
+    private static final double MAX_INK_SHARE = 0.4;
+
+    private TextHeightEstimator() {
+    }
+
+    /**
+     * Estimate the dominant glyph height
+     * @param image Image to analyse
+     * @return x-height in image pixels, or 0 if the image doesn't contain enough text to tell
+     */
+    public static double estimateXHeight(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        long pixels = (long) width * height;
+        int step = (int) Math.max(1, Math.ceil(Math.sqrt((double) pixels / MAX_ANALYSIS_PIXELS)));
+        int gridWidth = (width + step - 1) / step;
+        int gridHeight = (height + step - 1) / step;
+        if (gridWidth < MIN_GLYPH_HEIGHT || gridHeight < MIN_GLYPH_HEIGHT) {
+            return 0.0;
+        }
+
+        byte[] gray = new byte[gridWidth * gridHeight];
+        int[] histogram = new int[256];
+        sample(image, step, gridWidth, gridHeight, gray, histogram);
+
+        int threshold = otsuThreshold(histogram, gray.length);
+        int darkCount = 0;
+        for (int i = 0; i <= threshold; i++) {
+            darkCount += histogram[i];
+        }
+        boolean inkIsDark = darkCount <= gray.length - darkCount;
+        int inkCount = inkIsDark ? darkCount : gray.length - darkCount;
+        if (inkCount > gray.length * MAX_INK_SHARE) {
+            return 0.0;
+        }
+
+        int[] heights = new Components(gridWidth).label(gray, gridHeight, threshold, inkIsDark);
+        double gridXHeight = dominantHeight(heights, gridHeight);
+        return gridXHeight * step;
+    }
+
+    /**
+     * Read every step-th pixel of every step-th row as luminance
+     */
+    private static void sample(BufferedImage image, int step, int gridWidth, int gridHeight,
+                               byte[] gray, int[] histogram) {
+        int width = image.getWidth();
+        int[] row = new int[width];
+        for (int gy = 0; gy < gridHeight; gy++) {
+            image.getRGB(0, gy * step, width, 1, row, 0, width);
+            int offset = gy * gridWidth;
+            for (int gx = 0; gx < gridWidth; gx++) {
+                int rgb = row[gx * step];
+                int luminance = (((rgb >> 16) & 0xFF) * 299 + ((rgb >> 8) & 0xFF) * 587 + (rgb & 0xFF) * 114) / 1000;
+                gray[offset + gx] = (byte) luminance;
+                histogram[luminance]++;
+            }
+        }
+    }
+
+    /**
+     * Threshold maximizing the between-class variance of the histogram
+     * @return Highest gray level of the dark class
+     */
+    private static int otsuThreshold(int[] histogram, int total) {
+        long sum = 0;
+        for (int i = 0; i < 256; i++) {
+            sum += (long) i * histogram[i];
+        }
+
+        long darkSum = 0;
+        int darkCount = 0;
+        double bestVariance = -1.0;
+        int best = 127;
+        for (int t = 0; t < 255; t++) {
+            darkCount += histogram[t];
+            darkSum += (long) t * histogram[t];
+            int lightCount = total - darkCount;
+            if (darkCount == 0 || lightCount == 0) {
+                continue;
+            }
+            double darkMean = (double) darkSum / darkCount;
+            double lightMean = (double) (sum - darkSum) / lightCount;
+            double variance = (double) darkCount * lightCount * (darkMean - lightMean) * (darkMean - lightMean);
+            if (variance > bestVariance) {
+                bestVariance = variance;
+                best = t;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Most common component height, refined to a fraction of a pixel
+     * @return Height in grid pixels, or 0 if there are too few glyphs
+     */
+    private static double dominantHeight(int[] heights, int gridHeight) {
+        int[] counts = new int[gridHeight + 2];
+        for (int h : heights) {
+            counts[h]++;
+        }
+
+        // smooth over neighbouring heights so a size split between two bins still wins
+        int bestHeight = 0;
+        int bestScore = 0;
+        for (int h = MIN_GLYPH_HEIGHT; h <= gridHeight; h++) {
+            int score = counts[h - 1] + 2 * counts[h] + counts[h + 1];
+            if (score > bestScore) {
+                bestScore = score;
+                bestHeight = h;
+            }
+        }
+
+        if (bestHeight == 0) {
+            return 0.0;
+        }
+        int window = counts[bestHeight - 1] + counts[bestHeight] + counts[bestHeight + 1];
+        if (window < MIN_GLYPHS || window < heights.length * MIN_DOMINANT_SHARE) {
+            return 0.0;
+        }
+        double weighted = (bestHeight - 1.0) * counts[bestHeight - 1] + (double) bestHeight * counts[bestHeight]
+                + (bestHeight + 1.0) * counts[bestHeight + 1];
+        return weighted / window;
+    }
+
+    /**
+     * Run-length connected component labelling with union-find; only the
+     * bounding box of each component is kept
+     */
+    private static final class Components {
+
+        private final int gridWidth;
+
+        private int[] parent = new int[1024];
+        private int[] minX = new int[1024];
+        private int[] maxX = new int[1024];
+        private int[] minY = new int[1024];
+        private int[] maxY = new int[1024];
+        private int count;
+
+        private Components(int gridWidth) {
+            this.gridWidth = gridWidth;
+        }
+
+        /**
+         * Label the ink and return the heights of the glyph-like components
+         */
+        private int[] label(byte[] gray, int gridHeight, int threshold, boolean inkIsDark) {
+            int[] previousStart = new int[gridWidth / 2 + 1];
+            int[] previousEnd = new int[gridWidth / 2 + 1];
+            int[] previousLabel = new int[gridWidth / 2 + 1];
+            int previousCount = 0;
+            int[] currentStart = new int[gridWidth / 2 + 1];
+            int[] currentEnd = new int[gridWidth / 2 + 1];
+            int[] currentLabel = new int[gridWidth / 2 + 1];
+
+            for (int y = 0; y < gridHeight; y++) {
+                int offset = y * gridWidth;
+                int currentCount = 0;
+                int first = 0;
+                int x = 0;
+                while (x < gridWidth) {
+                    if (!isInk(gray[offset + x], threshold, inkIsDark)) {
+                        x++;
+                        continue;
+                    }
+                    int start = x;
+                    while (x < gridWidth && isInk(gray[offset + x], threshold, inkIsDark)) {
+                        x++;
+                    }
+                    int end = x - 1;
+
+                    // join every run of the previous row touching this one, diagonals included
+                    while (first < previousCount && previousEnd[first] < start - 1) {
+                        first++;
+                    }
+                    int root = -1;
+                    for (int j = first; j < previousCount && previousStart[j] <= end + 1; j++) {
+                        int other = find(previousLabel[j]);
+                        root = (root < 0) ? other : union(root, other);
+                    }
+                    if (root < 0) {
+                        root = add(start, end, y);
+                    } else {
+                        minX[root] = Math.min(minX[root], start);
+                        maxX[root] = Math.max(maxX[root], end);
+                        maxY[root] = y;
+                    }
+
+                    currentStart[currentCount] = start;
+                    currentEnd[currentCount] = end;
+                    currentLabel[currentCount] = root;
+                    currentCount++;
+                }
+
+                int[] swap = previousStart;
+                previousStart = currentStart;
+                currentStart = swap;
+                swap = previousEnd;
+                previousEnd = currentEnd;
+                currentEnd = swap;
+                swap = previousLabel;
+                previousLabel = currentLabel;
+                currentLabel = swap;
+                previousCount = currentCount;
+            }
+
+            int[] heights = new int[count];
+            int glyphs = 0;
+            for (int i = 0; i < count; i++) {
+                if (parent[i] != i) {
+                    continue;
+                }
+                int w = maxX[i] - minX[i] + 1;
+                int h = maxY[i] - minY[i] + 1;
+                // specks, rules and frames aren't glyphs
+                if (h >= MIN_GLYPH_HEIGHT && h < gridHeight
+                        && w <= h * MAX_GLYPH_ASPECT && h <= w * MAX_GLYPH_ASPECT) {
+                    heights[glyphs++] = h;
+                }
+            }
+            return Arrays.copyOf(heights, glyphs);
+        }
+
+        private static boolean isInk(byte value, int threshold, boolean inkIsDark) {
+            return ((value & 0xFF) <= threshold) == inkIsDark;
+        }
+
+        private int add(int start, int end, int y) {
+            if (count == parent.length) {
+                int length = count * 2;
+                parent = Arrays.copyOf(parent, length);
+                minX = Arrays.copyOf(minX, length);
+                maxX = Arrays.copyOf(maxX, length);
+                minY = Arrays.copyOf(minY, length);
+                maxY = Arrays.copyOf(maxY, length);
+            }
+            int id = count++;
+            parent[id] = id;
+            minX[id] = start;
+            maxX[id] = end;
+            minY[id] = y;
+            maxY[id] = y;
+            return id;
+        }
+
+        private int find(int id) {
+            while (parent[id] != id) {
+                parent[id] = parent[parent[id]];
+                id = parent[id];
+            }
+            return id;
+        }
+
+        /**
+         * Merge two roots, keeping the combined bounding box on the survivor
+         */
+        private int union(int a, int b) {
+            if (a == b) {
+                return a;
+            }
+            int root = Math.min(a, b);
+            int other = Math.max(a, b);
+            parent[other] = root;
+            minX[root] = Math.min(minX[root], minX[other]);
+            maxX[root] = Math.max(maxX[root], maxX[other]);
+            minY[root] = Math.min(minY[root], minY[other]);
+            maxY[root] = Math.max(maxY[root], maxY[other]);
+            return root;
+        }
+    }
+}
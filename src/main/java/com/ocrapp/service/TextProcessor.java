@@ -1,5 +1,10 @@
 package com.ocrapp.service;
 
+import com.ocrapp.util.PipelineMetrics;
+import com.ocrapp.util.PipelineMetrics.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 
@@ -8,6 +13,8 @@ import java.util.regex.Matcher;
  * Handles text formatting, cleaning, and common OCR error corrections.
  */
 public class TextProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(TextProcessor.class);
     
     // Common OCR error patterns, need to add more later
     private static final Pattern MULTIPLE_SPACES = Pattern.compile("[ \t]+");
@@ -30,8 +37,9 @@ public class TextProcessor {
             return "";
         }
         
-        System.out.println("Starting text cleanup...");
+        log.debug("Starting text cleanup...");
         
+        long startNanos = System.nanoTime();
         String cleanedText = rawText;
         
         // Apply cleaning operations
@@ -41,7 +49,9 @@ public class TextProcessor {
         cleanedText = trimLines(cleanedText);
         cleanedText = removeExcessiveNewlines(cleanedText);
         
-        System.out.println("Text cleanup completed");
+        PipelineMetrics.record(Stage.CLEAN, startNanos, 0);
+        
+        log.debug("Text cleanup completed");
         
         return cleanedText.trim();
     }
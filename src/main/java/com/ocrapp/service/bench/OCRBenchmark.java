@@ -0,0 +1,315 @@
+package com.ocrapp.service.bench;
+
+import com.ocrapp.model.OCRResult;
+import com.ocrapp.service.ImageInput;
+import com.ocrapp.service.ImageProcessor;
+import com.ocrapp.service.OCREnginePool;
+import com.ocrapp.service.OCRJobScheduler;
+import com.ocrapp.service.OCRJobScheduler.JobHandle;
+import com.ocrapp.service.OCRJobScheduler.Priority;
+import com.ocrapp.service.OCRProfile;
+import com.ocrapp.service.PageRecognizer;
+import com.ocrapp.service.TextProcessor;
+import com.ocrapp.util.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end throughput and accuracy benchmark over a synthetic corpus.
+ * Every page goes through the same pipeline as real work (preprocessing,
+ * OCR on a pooled engine, text cleanup) on a scheduler and engine pool of
+ * the requested size, and the cleaned text is scored against the ground
+ * truth with the character error rate.
+ *
+ * Engines are created and warmed on a few pages before timing starts.
+ * Latency covers the pipeline only; pages/sec is measured on the wall
+ * clock and so also includes rendering the pages (a few ms each). The
+ * result store is bypassed, so every page is really recognized.
+ */
+public class OCRBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(OCRBenchmark.class);
+
+    private final SyntheticCorpus corpus;
+    private final int pageCount;
+    private final int threads;
+    private final String language;
+    private final OCRProfile profile;
+    private final int warmupPages;
+
+    /**
+     * Constructor
+     * @param corpus Pages to recognize
+     * @param pageCount Number of timed pages
+     * @param threads Concurrent pages (scheduler threads and engines)
+     * @param language Language code to recognize in
+     * @param profile Speed/accuracy profile to measure
+     * @param warmupPages Untimed pages to run first
+     */
+    public OCRBenchmark(SyntheticCorpus corpus, int pageCount, int threads, String language,
+                        OCRProfile profile, int warmupPages) {
+        if (pageCount <= 0 || threads <= 0 || warmupPages < 0) {
+            throw new IllegalArgumentException("Pages and threads must be positive");
+        }
+        this.corpus = corpus;
+        this.pageCount = pageCount;
+        this.threads = threads;
+        this.language = language;
+        this.profile = profile;
+        this.warmupPages = warmupPages;
+    }
+
+    /**
+     * Run the benchmark
+     * @return Throughput, latency and accuracy figures
+     * @throws InterruptedException if interrupted while waiting for pages
+     */
+    public Report run() throws InterruptedException {
+        OCREnginePool enginePool = new OCREnginePool(threads);
+        enginePool.prestart(language, threads);
+        OCRJobScheduler scheduler = new OCRJobScheduler(threads);
+        TextProcessor textProcessor = new TextProcessor();
+        PageRecognizer recognizer = new PageRecognizer(new ImageProcessor(), textProcessor, enginePool);
+
+        if (warmupPages > 0) {
+            log.info("Warming up on {} page(s)", warmupPages);
+            // pages past the timed ones, so warm-up doesn't preview the corpus
+            runPages(scheduler, recognizer, textProcessor, pageCount, warmupPages, null);
+        }
+
+        log.info("Benchmarking {} page(s) on {} thread(s)", pageCount, threads);
+        Report report = new Report(pageCount, threads, language, profile, corpus.getSeed());
+        long start = System.nanoTime();
+        runPages(scheduler, recognizer, textProcessor, 0, pageCount, report);
+        report.wallNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private void runPages(OCRJobScheduler scheduler, PageRecognizer recognizer, TextProcessor textProcessor,
+                          int first, int count, Report report) throws InterruptedException {
+        List<JobHandle<PageOutcome>> jobs = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            final int index = i;
+            jobs.add(scheduler.submit(Priority.BATCH, "bench-" + index, context -> {
+                // rendered on the worker so only pages being recognized are in memory
+                SyntheticCorpus.Page page = corpus.page(index);
+                long startNanos = System.nanoTime();
+                OCRResult result = recognizer.recognize(page.getImage(), null,
+                        ImageInput.fromImage(page.getImage(), "bench-" + index), language, profile, context);
+                String text = textProcessor.cleanText(result.getExtractedText());
+                long nanos = System.nanoTime() - startNanos;
+                return new PageOutcome(page, nanos, characterErrorRate(page.getGroundTruth(), text));
+            }, null));
+        }
+
+        for (JobHandle<PageOutcome> job : jobs) {
+            try {
+                PageOutcome outcome = job.getFuture().get();
+                if (report != null) {
+                    report.add(outcome);
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+                log.warn("Benchmark page {} failed: {}", job.getName(), cause.getMessage());
+                if (report != null) {
+                    report.failedPages++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Character error rate: edit distance between the texts divided by the
+     * expected length, after collapsing runs of whitespace to one space
+     * @param expected Ground truth
+     * @param actual Recognized text
+     * @return Error rate (0 is perfect; can exceed 1 if much extra text was recognized)
+     */
+    public static double characterErrorRate(String expected, String actual) {
+        String truth = normalize(expected);
+        String recognized = normalize(actual);
+        if (truth.isEmpty()) {
+            return recognized.isEmpty() ? 0.0 : 1.0;
+        }
+
+        // Levenshtein distance with two rows
+        int[] previous = new int[recognized.length() + 1];
+        int[] current = new int[recognized.length() + 1];
+        for (int j = 0; j <= recognized.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= truth.length(); i++) {
+            current[0] = i;
+            char c = truth.charAt(i - 1);
+            for (int j = 1; j <= recognized.length(); j++) {
+                int substitution = previous[j - 1] + ((c == recognized.charAt(j - 1)) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return (double) previous[recognized.length()] / truth.length();
+    }
+
+    private static String normalize(String text) {
+        return (text == null) ? "" : text.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Result of one page
+     */
+    private static final class PageOutcome {
+
+        private final SyntheticCorpus.Page page;
+        private final long nanos;
+        private final double errorRate;
+
+        private PageOutcome(SyntheticCorpus.Page page, long nanos, double errorRate) {
+            this.page = page;
+            this.nanos = nanos;
+            this.errorRate = errorRate;
+        }
+    }
+
+    /**
+     * Benchmark figures, overall and per page condition
+     */
+    public static final class Report {
+
+        private final int pageCount;
+        private final int threads;
+        private final String language;
+        private final OCRProfile profile;
+        private final long seed;
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final List<Double> errorRates = new ArrayList<>();
+        private final Map<String, ConditionStats> byCondition = new LinkedHashMap<>();
+        private final Map<Integer, ConditionStats> byFontSize = new TreeMap<>();
+        private int failedPages;
+        private long wallNanos;
+
+        private Report(int pageCount, int threads, String language, OCRProfile profile, long seed) {
+            this.pageCount = pageCount;
+            this.threads = threads;
+            this.language = language;
+            this.profile = profile;
+            this.seed = seed;
+            for (String condition : new String[] {"clean", "skewed", "noisy", "inverted"}) {
+                byCondition.put(condition, new ConditionStats());
+            }
+        }
+
+        private void add(PageOutcome outcome) {
+            SyntheticCorpus.Page page = outcome.page;
+            latency.recordValue(outcome.nanos);
+            errorRates.add(outcome.errorRate);
+            log.debug("Page {} ({}): CER {}", page.getIndex(), page.getDescription(),
+                    String.format(Locale.ROOT, "%.4f", outcome.errorRate));
+
+            byFontSize.computeIfAbsent(page.getFontSize(), size -> new ConditionStats()).add(outcome);
+            if (!page.isSkewed() && !page.isNoisy() && !page.isInverted()) {
+                byCondition.get("clean").add(outcome);
+            }
+            if (page.isSkewed()) {
+                byCondition.get("skewed").add(outcome);
+            }
+            if (page.isNoisy()) {
+                byCondition.get("noisy").add(outcome);
+            }
+            if (page.isInverted()) {
+                byCondition.get("inverted").add(outcome);
+            }
+        }
+
+        /**
+         * Get recognized pages per second of wall time
+         * @return Throughput
+         */
+        public double getPagesPerSecond() {
+            return (wallNanos > 0) ? errorRates.size() / (wallNanos / 1e9) : 0.0;
+        }
+
+        /**
+         * Get the mean character error rate of the recognized pages
+         * @return Mean CER (0 to 1, or more)
+         */
+        public double getMeanErrorRate() {
+            return errorRates.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+        }
+
+        /**
+         * Get a pipeline latency percentile
+         * @param percentile Percentile (0-100)
+         * @return Latency in milliseconds
+         */
+        public double getLatencyMillis(double percentile) {
+            return latency.getValueAtPercentile(percentile) / 1e6;
+        }
+
+        public int getFailedPages() {
+            return failedPages;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format(Locale.ROOT, "OCR benchmark: %d page(s), %d thread(s), language %s, profile %s, seed %d%n",
+                    pageCount, threads, language, profile.getId(), seed));
+            text.append(String.format(Locale.ROOT, "Throughput:   %.2f pages/sec (%d pages in %.1f s, %d failed)%n",
+                    getPagesPerSecond(), errorRates.size(), wallNanos / 1e9, failedPages));
+            text.append(String.format(Locale.ROOT,
+                    "Latency (ms): p50 %.0f  p90 %.0f  p99 %.0f  max %.0f  mean %.0f%n",
+                    getLatencyMillis(50), getLatencyMillis(90), getLatencyMillis(99),
+                    latency.getMaxValue() / 1e6, latency.getMean() / 1e6));
+
+            double[] sorted = errorRates.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+            double median = (sorted.length > 0) ? sorted[sorted.length / 2] : 0.0;
+            long under5 = Arrays.stream(sorted).filter(rate -> rate < 0.05).count();
+            text.append(String.format(Locale.ROOT,
+                    "Accuracy:     CER %.2f%% mean, %.2f%% median, %d of %d page(s) under 5%%%n",
+                    getMeanErrorRate() * 100, median * 100, under5, sorted.length));
+
+            text.append(String.format(Locale.ROOT, "%-16s %6s %9s %9s%n", "Condition", "pages", "CER", "mean ms"));
+            for (Map.Entry<Integer, ConditionStats> entry : byFontSize.entrySet()) {
+                entry.getValue().append(text, entry.getKey() + "px text");
+            }
+            for (Map.Entry<String, ConditionStats> entry : byCondition.entrySet()) {
+                entry.getValue().append(text, entry.getKey());
+            }
+            return text.toString();
+        }
+    }
+
+    private static final class ConditionStats {
+
+        private int pages;
+        private double errorRateSum;
+        private long nanosSum;
+
+        private void add(PageOutcome outcome) {
+            pages++;
+            errorRateSum += outcome.errorRate;
+            nanosSum += outcome.nanos;
+        }
+
+        private void append(StringBuilder text, String label) {
+            if (pages == 0) {
+                return;
+            }
+            text.append(String.format(Locale.ROOT, "  %-14s %6d %8.2f%% %9.0f%n", label, pages,
+                    errorRateSum / pages * 100, TimeUnit.NANOSECONDS.toMicros(nanosSum / pages) / 1000.0));
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.ocrapp.service.bench;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Deterministic corpus of rendered text pages with known ground truth.
+ * Page n is always the same for a given seed: random English-like text in
+ * one of the logical fonts at one of several sizes, optionally skewed,
+ * speckled with salt-and-pepper noise or inverted (light text on dark).
+ * Pages are rendered on demand so a large corpus never sits in memory.
+ *
+ * The ground truth depends only on the seed; the pixels also depend on the
+ * fonts the JDK maps Serif, SansSerif and Monospaced to, so compare
+ * results across runs on the same machine setup.
+ */
+public class SyntheticCorpus {
+
+    /** Page size: A4 at 150 dpi */
+    public static final int PAGE_WIDTH = 1240;
+    public static final int PAGE_HEIGHT = 1754;
+
+    private static final int MARGIN = 80;
+    private static final String[] FONT_FAMILIES = {Font.SERIF, Font.SANS_SERIF, Font.MONOSPACED};
+    private static final int[] FONT_SIZES = {16, 20, 26, 34};
+    private static final double[] NOISE_LEVELS = {0.0, 0.0, 0.004, 0.015};
+    private static final double MAX_SKEW_DEGREES = 3.0;
+    private static final double SKEW_CHANCE = 0.4;
+    private static final double INVERT_CHANCE = 0.15;
+
+    private static final String[] WORDS = (
+            "the of and to in is was that for it with as his on be at by this had not are but from " +
+            "or have an they which one you were her all she there would their we him been has when " +
+            "who will more no if out so said what up its about into than them can only other new " +
+            "some could time these two may then do first any my now such like our over man me even " +
+            "most made after also did many before must through back years where much your way well " +
+            "down should because each just those people how too little state good very make world " +
+            "still own see men work long get here between both life being under never day same " +
+            "another know while last might us great old year off come since against go came right " +
+            "used take three states himself few house use during without again place around however " +
+            "home small found thought went say part once general high upon school every number " +
+            "report invoice account payment total order delivery address customer service quality " +
+            "engine image scanner document receipt contract signature schedule meeting office"
+    ).split(" ");
+
+    private final long seed;
+
+    /**
+     * Constructor
+     * @param seed Seed that fixes every page's text and variation
+     */
+    public SyntheticCorpus(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Render a page
+     * @param index Page number, from 0
+     * @return Page image with its ground truth
+     */
+    public Page page(int index) {
+        Random random = new Random(seed * 0x9E3779B97F4A7C15L + index);
+        String family = FONT_FAMILIES[random.nextInt(FONT_FAMILIES.length)];
+        int fontSize = FONT_SIZES[random.nextInt(FONT_SIZES.length)];
+        double skew = (random.nextDouble() < SKEW_CHANCE) ?
+                (random.nextDouble() * 2 - 1) * MAX_SKEW_DEGREES : 0.0;
+        double noise = NOISE_LEVELS[random.nextInt(NOISE_LEVELS.length)];
+        boolean inverted = random.nextDouble() < INVERT_CHANCE;
+
+        BufferedImage image = new BufferedImage(PAGE_WIDTH, PAGE_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(inverted ? Color.BLACK : Color.WHITE);
+        g2d.fillRect(0, 0, PAGE_WIDTH, PAGE_HEIGHT);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        g2d.rotate(Math.toRadians(skew), PAGE_WIDTH / 2.0, PAGE_HEIGHT / 2.0);
+        g2d.setColor(inverted ? Color.WHITE : Color.BLACK);
+        g2d.setFont(new Font(family, Font.PLAIN, fontSize));
+
+        FontMetrics metrics = g2d.getFontMetrics();
+        List<String> lines = layoutLines(random, metrics);
+        int lineHeight = (int) Math.round(metrics.getHeight() * 1.3);
+        int y = MARGIN + metrics.getAscent();
+        for (String line : lines) {
+            g2d.drawString(line, MARGIN, y);
+            y += lineHeight;
+        }
+        g2d.dispose();
+
+        if (noise > 0) {
+            addNoise(image, noise, random);
+        }
+
+        String description = String.format(Locale.ROOT, "%s %dpx skew %.1f noise %.1f%%%s",
+                family, fontSize, skew, noise * 100, inverted ? " inverted" : "");
+        return new Page(index, image, String.join("\n", lines), description,
+                fontSize, skew != 0.0, noise > 0, inverted);
+    }
+
+    /**
+     * Save pages with their ground truth (page-0001.png and
+     * page-0001.gt.txt, ...) for inspection or other OCR tools
+     * @param directory Folder to write to (created if missing)
+     * @param pageCount Number of pages
+     * @throws IOException if writing fails
+     */
+    public void writeTo(Path directory, int pageCount) throws IOException {
+        Files.createDirectories(directory);
+        for (int i = 0; i < pageCount; i++) {
+            Page page = page(i);
+            String name = String.format(Locale.ROOT, "page-%04d", i + 1);
+            ImageIO.write(page.getImage(), "png", directory.resolve(name + ".png").toFile());
+            Files.writeString(directory.resolve(name + ".gt.txt"), page.getGroundTruth() + "\n");
+        }
+    }
+
+    /**
+     * Fill the page with word-wrapped sentences
+     */
+    private static List<String> layoutLines(Random random, FontMetrics metrics) {
+        int maxWidth = PAGE_WIDTH - 2 * MARGIN;
+        int lineHeight = (int) Math.round(metrics.getHeight() * 1.3);
+        int maxLines = (PAGE_HEIGHT - 2 * MARGIN) / lineHeight;
+
+        List<String> lines = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        boolean sentenceStart = true;
+        while (lines.size() < maxLines) {
+            String word = nextWord(random, sentenceStart);
+            sentenceStart = word.endsWith(".");
+
+            String candidate = (line.length() == 0) ? word : line + " " + word;
+            if (metrics.stringWidth(candidate) <= maxWidth) {
+                line.setLength(0);
+                line.append(candidate);
+            } else {
+                lines.add(line.toString());
+                line.setLength(0);
+                line.append(word);
+            }
+        }
+        return lines;
+    }
+
+    private static String nextWord(Random random, boolean sentenceStart) {
+        String word;
+        if (random.nextInt(25) == 0) {
+            word = Integer.toString(random.nextInt(10_000));
+        } else {
+            word = WORDS[random.nextInt(WORDS.length)];
+            if (sentenceStart) {
+                word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+            }
+        }
+
+        int punctuation = random.nextInt(12);
+        if (punctuation == 0) {
+            return word + ".";
+        }
+        return (punctuation == 1) ? word + "," : word;
+    }
+
+    /**
+     * Salt-and-pepper noise over a fraction of the pixels
+     */
+    private static void addNoise(BufferedImage image, double fraction, Random random) {
+        long count = Math.round((long) image.getWidth() * image.getHeight() * fraction);
+        for (long i = 0; i < count; i++) {
+            int x = random.nextInt(image.getWidth());
+            int y = random.nextInt(image.getHeight());
+            image.setRGB(x, y, random.nextBoolean() ? 0xFFFFFF : 0x000000);
+        }
+    }
+
+    /**
+     * One rendered page
+     */
+    public static final class Page {
+
+        private final int index;
+        private final BufferedImage image;
+        private final String groundTruth;
+        private final String description;
+        private final int fontSize;
+        private final boolean skewed;
+        private final boolean noisy;
+        private final boolean inverted;
+
+        private Page(int index, BufferedImage image, String groundTruth, String description,
+                     int fontSize, boolean skewed, boolean noisy, boolean inverted) {
+            this.index = index;
+            this.image = image;
+            this.groundTruth = groundTruth;
+            this.description = description;
+            this.fontSize = fontSize;
+            this.skewed = skewed;
+            this.noisy = noisy;
+            this.inverted = inverted;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public BufferedImage getImage() {
+            return image;
+        }
+
+        /**
+         * Get the rendered text, one line per rendered line
+         * @return Ground truth text
+         */
+        public String getGroundTruth() {
+            return groundTruth;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public int getFontSize() {
+            return fontSize;
+        }
+
+        public boolean isSkewed() {
+            return skewed;
+        }
+
+        public boolean isNoisy() {
+            return noisy;
+        }
+
+        public boolean isInverted() {
+            return inverted;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.ocrapp.service.export;
+
+import com.ocrapp.model.OCRWord;
+import com.ocrapp.util.AtomicFileOutput;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * ALTO 4 XML, one Page per exported page, measurements in pixels
+ */
+class AltoExporter extends ResultExporter {
+
+    AltoExporter(AtomicFileOutput output) {
+        super(output);
+    }
+
+    @Override
+    protected void writeHeader() throws IOException {
+        Writer out = output.getWriter();
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<alto xmlns=\"http://www.loc.gov/standards/alto/ns-v4#\"\n");
+        out.write("      xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n");
+        out.write("      xsi:schemaLocation=\"http://www.loc.gov/standards/alto/ns-v4# " +
+                "http://www.loc.gov/standards/alto/v4/alto-4-2.xsd\">\n");
+        out.write("  <Description>\n");
+        out.write("    <MeasurementUnit>pixel</MeasurementUnit>\n");
+        out.write("    <OCRProcessing ID=\"OCR_0\">\n");
+        out.write("      <ocrProcessingStep>\n");
+        out.write("        <processingSoftware><softwareName>tesseract</softwareName></processingSoftware>\n");
+        out.write("      </ocrProcessingStep>\n");
+        out.write("    </OCRProcessing>\n");
+        out.write("  </Description>\n");
+        out.write("  <Layout>\n");
+    }
+
+    @Override
+    protected void writePage(ExportPage page, int pageNumber) throws IOException {
+        Writer out = output.getWriter();
+        out.write("    <Page ID=\"page_" + pageNumber + "\" PHYSICAL_IMG_NR=\"" + pageNumber +
+                "\" WIDTH=\"" + page.getWidth() + "\" HEIGHT=\"" + page.getHeight() + "\">\n");
+        out.write("      <PrintSpace HPOS=\"0\" VPOS=\"0\" WIDTH=\"" + page.getWidth() +
+                "\" HEIGHT=\"" + page.getHeight() + "\">\n");
+
+        List<List<OCRWord>> lines = ExportPage.groupLines(page.getWords());
+        int lineIndex = 0;
+        int wordIndex = 0;
+        while (lineIndex < lines.size()) {
+            int block = lines.get(lineIndex).get(0).getBlockNumber();
+            int blockEnd = lineIndex;
+            while (blockEnd < lines.size() && lines.get(blockEnd).get(0).getBlockNumber() == block) {
+                blockEnd++;
+            }
+            Rectangle blockBox = union(lines.subList(lineIndex, blockEnd).stream().flatMap(List::stream).toList());
+            out.write("        <TextBlock ID=\"block_" + pageNumber + "_" + block + "\"" + position(blockBox) + ">\n");
+
+            for (; lineIndex < blockEnd; lineIndex++) {
+                List<OCRWord> line = lines.get(lineIndex);
+                out.write("          <TextLine ID=\"line_" + pageNumber + "_" + (lineIndex + 1) + "\"" +
+                        position(union(line)) + ">\n");
+                for (int i = 0; i < line.size(); i++) {
+                    OCRWord word = line.get(i);
+                    if (i > 0) {
+                        out.write("            <SP/>\n");
+                    }
+                    out.write("            <String ID=\"string_" + pageNumber + "_" + (++wordIndex) + "\"" +
+                            position(word.getBounds()) +
+                            String.format(Locale.ROOT, " WC=\"%.2f\"", word.getConfidence() / 100f) +
+                            " CONTENT=\"" + escapeXml(word.getText()) + "\"/>\n");
+                }
+                out.write("          </TextLine>\n");
+            }
+            out.write("        </TextBlock>\n");
+        }
+
+        out.write("      </PrintSpace>\n");
+        out.write("    </Page>\n");
+    }
+
+    @Override
+    protected void writeFooter() throws IOException {
+        Writer out = output.getWriter();
+        out.write("  </Layout>\n");
+        out.write("</alto>\n");
+    }
+
+    private static String position(Rectangle box) {
+        return " HPOS=\"" + box.x + "\" VPOS=\"" + box.y + "\" WIDTH=\"" + box.width + "\" HEIGHT=\"" + box.height + "\"";
+    }
+}
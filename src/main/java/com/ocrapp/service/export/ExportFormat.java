@@ -0,0 +1,83 @@
+package com.ocrapp.service.export;
+
+import com.ocrapp.util.AtomicFileOutput;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Formats recognition results can be exported in
+ */
+public enum ExportFormat {
+    TEXT("Plain text", "txt"),
+    HOCR("hOCR (HTML with word boxes)", "hocr"),
+    ALTO("ALTO XML", "xml"),
+    TSV("Tesseract TSV", "tsv"),
+    PDF("Searchable PDF", "pdf");
+
+    private final String description;
+    private final String extension;
+
+    ExportFormat(String description, String extension) {
+        this.description = description;
+        this.extension = extension;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Pick the format matching a file name's extension
+     * @param fileName File name
+     * @return Matching format, or null if the extension isn't an export format
+     */
+    public static ExportFormat forFileName(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        for (ExportFormat format : values()) {
+            if (lower.endsWith("." + format.extension)) {
+                return format;
+            }
+        }
+        if (lower.endsWith(".html") || lower.endsWith(".htm")) {
+            return HOCR;
+        }
+        return null;
+    }
+
+    /**
+     * Start an export to a file. Nothing appears at the target until the
+     * exporter is finished.
+     * @param target File to write
+     * @return Exporter to write pages to
+     * @throws IOException if the output can't be opened
+     */
+    public ResultExporter createExporter(Path target) throws IOException {
+        return createExporter(new AtomicFileOutput(target));
+    }
+
+    /**
+     * Start an export into an open output, such as a resumable one
+     * @param output Output to write to
+     * @return Exporter to write pages to
+     */
+    public ResultExporter createExporter(AtomicFileOutput output) {
+        switch (this) {
+            case HOCR:
+                return new HocrExporter(output);
+            case ALTO:
+                return new AltoExporter(output);
+            case TSV:
+                return new TsvExporter(output);
+            case PDF:
+                return new PdfExporter(output);
+            default:
+                return new TextExporter(output);
+        }
+    }
+}
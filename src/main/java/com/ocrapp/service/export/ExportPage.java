@@ -0,0 +1,98 @@
+package com.ocrapp.service.export;
+
+import com.ocrapp.model.OCRResult;
+import com.ocrapp.model.OCRWord;
+import com.ocrapp.model.RegionResult;
+import com.ocrapp.service.ImageInput;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page handed to an exporter: the recognition result and the page it
+ * was read from. Exporters write each page as it arrives and keep nothing
+ * but small bookkeeping, so a batch can be exported page by page.
+ */
+public class ExportPage {
+
+    private final String name;
+    private final int width;
+    private final int height;
+    private final OCRResult result;
+    private final ImageInput image;
+
+    /**
+     * Constructor
+     * @param name Page name (usually the source file name)
+     * @param width Full-resolution page width in pixels
+     * @param height Full-resolution page height in pixels
+     * @param result Recognition result for the page
+     * @param image Page image, decoded only by formats that embed it (may be null)
+     */
+    public ExportPage(String name, int width, int height, OCRResult result, ImageInput image) {
+        this.name = name;
+        this.width = width;
+        this.height = height;
+        this.result = result;
+        this.image = image;
+    }
+
+    /**
+     * Get the words of all regions in page coordinates, in reading order.
+     * Block numbers are made unique across regions so each region forms
+     * its own blocks.
+     * @return Words with page-wide block numbers
+     */
+    public List<OCRWord> getWords() {
+        List<OCRWord> words = new ArrayList<>();
+        int blockOffset = 0;
+        for (RegionResult region : result.getRegions()) {
+            int maxBlock = 0;
+            for (OCRWord word : region.getPageWords(width, height)) {
+                maxBlock = Math.max(maxBlock, word.getBlockNumber());
+                words.add(new OCRWord(word.getText(), word.getBounds(), word.getConfidence(),
+                        blockOffset + word.getBlockNumber(), word.getParagraphNumber(), word.getLineNumber()));
+            }
+            blockOffset += maxBlock;
+        }
+        return words;
+    }
+
+    /**
+     * Split words into text lines
+     * @param words Words in reading order
+     * @return Runs of consecutive words on the same line
+     */
+    static List<List<OCRWord>> groupLines(List<OCRWord> words) {
+        List<List<OCRWord>> lines = new ArrayList<>();
+        List<OCRWord> line = null;
+        for (OCRWord word : words) {
+            if (line == null || !line.get(0).isSameLine(word)) {
+                line = new ArrayList<>();
+                lines.add(line);
+            }
+            line.add(word);
+        }
+        return lines;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public OCRResult getResult() {
+        return result;
+    }
+
+    public ImageInput getImage() {
+        return image;
+    }
+}
@@ -0,0 +1,103 @@
+package com.ocrapp.service.export;
+
+import com.ocrapp.model.OCRWord;
+import com.ocrapp.util.AtomicFileOutput;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * hOCR 1.2: XHTML with ocr_page / ocr_carea / ocr_par / ocr_line /
+ * ocrx_word elements carrying page-coordinate bounding boxes
+ */
+class HocrExporter extends ResultExporter {
+
+    HocrExporter(AtomicFileOutput output) {
+        super(output);
+    }
+
+    @Override
+    protected void writeHeader() throws IOException {
+        Writer out = output.getWriter();
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML 1.0 Transitional//EN\"\n");
+        out.write("    \"http://www.w3.org/TR/xhtml1/DTD/xhtml1-transitional.dtd\">\n");
+        out.write("<html xmlns=\"http://www.w3.org/1999/xhtml\" xml:lang=\"en\" lang=\"en\">\n");
+        out.write("<head>\n");
+        out.write("  <title></title>\n");
+        out.write("  <meta http-equiv=\"Content-Type\" content=\"text/html;charset=utf-8\"/>\n");
+        out.write("  <meta name=\"ocr-system\" content=\"tesseract\"/>\n");
+        out.write("  <meta name=\"ocr-capabilities\" content=\"ocr_page ocr_carea ocr_par ocr_line ocrx_word\"/>\n");
+        out.write("</head>\n<body>\n");
+    }
+
+    @Override
+    protected void writePage(ExportPage page, int pageNumber) throws IOException {
+        Writer out = output.getWriter();
+        out.write("  <div class=\"ocr_page\" id=\"page_" + pageNumber + "\" title=\"image &quot;" +
+                escapeXml(page.getName()) + "&quot;; ");
+        writeBbox(out, new Rectangle(0, 0, page.getWidth(), page.getHeight()));
+        out.write("; ppageno " + (pageNumber - 1) + "\">\n");
+
+        List<List<OCRWord>> lines = ExportPage.groupLines(page.getWords());
+        int lineIndex = 0;
+        int wordIndex = 0;
+        while (lineIndex < lines.size()) {
+            // one ocr_carea per block, one ocr_par per paragraph
+            OCRWord blockStart = lines.get(lineIndex).get(0);
+            int blockEnd = lineIndex;
+            while (blockEnd < lines.size() &&
+                    lines.get(blockEnd).get(0).getBlockNumber() == blockStart.getBlockNumber()) {
+                blockEnd++;
+            }
+            String blockId = pageNumber + "_" + blockStart.getBlockNumber();
+            out.write("   <div class=\"ocr_carea\" id=\"block_" + blockId + "\" title=\"");
+            writeBbox(out, union(flatten(lines.subList(lineIndex, blockEnd))));
+            out.write("\">\n");
+
+            while (lineIndex < blockEnd) {
+                OCRWord parStart = lines.get(lineIndex).get(0);
+                int parEnd = lineIndex;
+                while (parEnd < blockEnd && lines.get(parEnd).get(0).isSameParagraph(parStart)) {
+                    parEnd++;
+                }
+                out.write("    <p class=\"ocr_par\" id=\"par_" + blockId + "_" + parStart.getParagraphNumber() +
+                        "\" title=\"");
+                writeBbox(out, union(flatten(lines.subList(lineIndex, parEnd))));
+                out.write("\">\n");
+
+                for (; lineIndex < parEnd; lineIndex++) {
+                    List<OCRWord> line = lines.get(lineIndex);
+                    out.write("     <span class=\"ocr_line\" id=\"line_" + pageNumber + "_" + (lineIndex + 1) +
+                            "\" title=\"");
+                    writeBbox(out, union(line));
+                    out.write("\">");
+                    for (OCRWord word : line) {
+                        out.write("<span class=\"ocrx_word\" id=\"word_" + pageNumber + "_" + (++wordIndex) +
+                                "\" title=\"");
+                        writeBbox(out, word.getBounds());
+                        out.write(String.format(Locale.ROOT, "; x_wconf %d\">", Math.round(word.getConfidence())));
+                        out.write(escapeXml(word.getText()));
+                        out.write("</span> ");
+                    }
+                    out.write("</span>\n");
+                }
+                out.write("    </p>\n");
+            }
+            out.write("   </div>\n");
+        }
+        out.write("  </div>\n");
+    }
+
+    @Override
+    protected void writeFooter() throws IOException {
+        output.getWriter().write("</body>\n</html>\n");
+    }
+
+    private static List<OCRWord> flatten(List<List<OCRWord>> lines) {
+        return lines.stream().flatMap(List::stream).toList();
+    }
+}
@@ -0,0 +1,286 @@
+package com.ocrapp.service.export;
+
+import com.ocrapp.model.OCRWord;
+import com.ocrapp.service.ImageInput;
+import com.ocrapp.service.ImageProcessor;
+import com.ocrapp.util.AtomicFileOutput;
+import com.ocrapp.util.AtomicFileOutput.CountingOutputStream;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Searchable PDF: each page is the page image (JPEG) with the recognized
+ * words laid over it as invisible text, so the PDF can be searched and
+ * copied from. Objects are streamed as pages arrive; only their byte
+ * offsets are kept for the cross-reference table.
+ *
+ * The text layer uses the standard Helvetica font, so characters outside
+ * Latin-1 are written as '?'. Page size assumes -Docrapp.pdf.dpi (default 300).
+ * Checkpoints carry the offsets and page ids added since the previous one.
+ */
+class PdfExporter extends ResultExporter {
+
+    private static final int CATALOG_ID = 1;
+    private static final int PAGES_ID = 2;
+    private static final int FONT_ID = 3;
+
+    private static final double DPI = Integer.getInteger("ocrapp.pdf.dpi", 300);
+    private static final float JPEG_QUALITY = 0.85f;
+    // Helvetica's average glyph width, in text space units per 1000
+    private static final double AVERAGE_GLYPH_WIDTH = 500;
+
+    private final CountingOutputStream out;
+    // byte offset of each object, index = object number - 1
+    private final List<Long> offsets = new ArrayList<>();
+    private final List<Integer> pageIds = new ArrayList<>();
+    // objects and pages already covered by a checkpoint
+    private int savedObjects;
+    private int savedPages;
+
+    // size and color model of the last encoded page image
+    private int jpegWidth;
+    private int jpegHeight;
+    private boolean jpegGray;
+
+    PdfExporter(AtomicFileOutput output) {
+        super(output);
+        this.out = output.getStream();
+    }
+
+    @Override
+    protected void writeHeader() throws IOException {
+        write("%PDF-1.4\n");
+        // binary marker so transfer tools treat the file as binary
+        out.write(new byte[] {'%', (byte) 0xE2, (byte) 0xE3, (byte) 0xCF, (byte) 0xD3, '\n'});
+
+        // catalog and page tree are written last, once all pages are known
+        offsets.add(0L);
+        offsets.add(0L);
+        beginObject(FONT_ID);
+        write("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>\nendobj\n");
+    }
+
+    @Override
+    protected void writePage(ExportPage page, int pageNumber) throws IOException {
+        double scale = 72.0 / DPI;
+        double pageWidth = page.getWidth() * scale;
+        double pageHeight = page.getHeight() * scale;
+
+        int imageId = 0;
+        byte[] jpeg = encodePageImage(page.getImage());
+        if (jpeg != null) {
+            imageId = nextId();
+            beginObject(imageId);
+            write("<< /Type /XObject /Subtype /Image /Width " + jpegWidth + " /Height " + jpegHeight +
+                    " /ColorSpace /" + (jpegGray ? "DeviceGray" : "DeviceRGB") +
+                    " /BitsPerComponent 8 /Filter /DCTDecode /Length " + jpeg.length + " >>\nstream\n");
+            out.write(jpeg);
+            write("\nendstream\nendobj\n");
+        }
+
+        StringBuilder content = new StringBuilder();
+        if (jpeg != null) {
+            content.append("q ").append(number(pageWidth)).append(" 0 0 ").append(number(pageHeight))
+                    .append(" 0 0 cm /Im1 Do Q\n");
+        }
+        appendTextLayer(content, page.getWords(), scale, pageHeight);
+        byte[] contentBytes = content.toString().getBytes(StandardCharsets.ISO_8859_1);
+
+        int contentId = nextId();
+        beginObject(contentId);
+        write("<< /Length " + contentBytes.length + " >>\nstream\n");
+        out.write(contentBytes);
+        write("\nendstream\nendobj\n");
+
+        int pageId = nextId();
+        beginObject(pageId);
+        write("<< /Type /Page /Parent " + PAGES_ID + " 0 R /MediaBox [0 0 " + number(pageWidth) + " " +
+                number(pageHeight) + "] /Resources << /Font << /F1 " + FONT_ID + " 0 R >>" +
+                ((imageId != 0) ? " /XObject << /Im1 " + imageId + " 0 R >>" : "") +
+                " >> /Contents " + contentId + " 0 R >>\nendobj\n");
+        pageIds.add(pageId);
+    }
+
+    @Override
+    protected void writeFooter() throws IOException {
+        beginObject(PAGES_ID);
+        StringBuilder kids = new StringBuilder();
+        for (int pageId : pageIds) {
+            kids.append(pageId).append(" 0 R ");
+        }
+        write("<< /Type /Pages /Kids [" + kids + "] /Count " + pageIds.size() + " >>\nendobj\n");
+
+        beginObject(CATALOG_ID);
+        write("<< /Type /Catalog /Pages " + PAGES_ID + " 0 R >>\nendobj\n");
+
+        long xrefOffset = out.getCount();
+        StringBuilder xref = new StringBuilder();
+        xref.append("xref\n0 ").append(offsets.size() + 1).append('\n');
+        xref.append("0000000000 65535 f \n");
+        for (long offset : offsets) {
+            xref.append(String.format(Locale.ROOT, "%010d 00000 n \n", offset));
+        }
+        xref.append("trailer\n<< /Size ").append(offsets.size() + 1)
+                .append(" /Root ").append(CATALOG_ID).append(" 0 R >>\n");
+        xref.append("startxref\n").append(xrefOffset).append("\n%%EOF\n");
+        write(xref.toString());
+        out.flush();
+    }
+
+    /**
+     * Save the object offsets and page ids added since the last checkpoint
+     */
+    @Override
+    protected void saveState(DataOutput state) throws IOException {
+        state.writeInt(offsets.size() - savedObjects);
+        for (int i = savedObjects; i < offsets.size(); i++) {
+            state.writeLong(offsets.get(i));
+        }
+        state.writeInt(pageIds.size() - savedPages);
+        for (int i = savedPages; i < pageIds.size(); i++) {
+            state.writeInt(pageIds.get(i));
+        }
+        savedObjects = offsets.size();
+        savedPages = pageIds.size();
+    }
+
+    @Override
+    protected void restoreState(DataInput state) throws IOException {
+        int objects = state.readInt();
+        for (int i = 0; i < objects; i++) {
+            offsets.add(state.readLong());
+        }
+        int pages = state.readInt();
+        for (int i = 0; i < pages; i++) {
+            pageIds.add(state.readInt());
+        }
+        savedObjects = offsets.size();
+        savedPages = pageIds.size();
+    }
+
+    /**
+     * Invisible text (render mode 3) for every word, sized and stretched to cover its box
+     */
+    private static void appendTextLayer(StringBuilder content, List<OCRWord> words, double scale, double pageHeight) {
+        if (words.isEmpty()) {
+            return;
+        }
+        content.append("BT\n3 Tr\n");
+        for (OCRWord word : words) {
+            String text = word.getText();
+            Rectangle box = word.getBounds();
+            if (text.isEmpty() || box.width <= 0 || box.height <= 0) {
+                continue;
+            }
+
+            double fontSize = box.height * scale;
+            double naturalWidth = text.length() * AVERAGE_GLYPH_WIDTH / 1000 * fontSize;
+            double horizontalScale = 100 * box.width * scale / naturalWidth;
+            // baseline a fifth of the box above its bottom, roughly where descenders end
+            double x = box.x * scale;
+            double y = pageHeight - (box.y + box.height) * scale + fontSize * 0.2;
+
+            content.append("/F1 ").append(number(fontSize)).append(" Tf ")
+                    .append(number(horizontalScale)).append(" Tz ")
+                    .append("1 0 0 1 ").append(number(x)).append(' ').append(number(y)).append(" Tm (")
+                    .append(pdfString(text)).append(") Tj\n");
+        }
+        content.append("ET\n");
+    }
+
+    /**
+     * Decode the page image if needed and compress it as JPEG
+     * @param input Page image (may be null)
+     * @return JPEG bytes, or null if there is no usable image
+     */
+    private byte[] encodePageImage(ImageInput input) throws IOException {
+        if (input == null) {
+            return null;
+        }
+        BufferedImage image = input.isInMemory() ? input.getImage() : new ImageProcessor().loadImage(input);
+        if (image == null) {
+            return null;
+        }
+
+        boolean gray = image.getType() == BufferedImage.TYPE_BYTE_GRAY;
+        BufferedImage encodable = image;
+        if (!gray && image.getType() != BufferedImage.TYPE_INT_RGB && image.getType() != BufferedImage.TYPE_3BYTE_BGR) {
+            // JPEG has no alpha and the writer rejects indexed images
+            encodable = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = encodable.createGraphics();
+            g2d.drawImage(image, 0, 0, null);
+            g2d.dispose();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(encodable, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+
+        jpegWidth = encodable.getWidth();
+        jpegHeight = encodable.getHeight();
+        jpegGray = gray;
+        return bytes.toByteArray();
+    }
+
+    private int nextId() {
+        offsets.add(0L);
+        return offsets.size();
+    }
+
+    private void beginObject(int id) throws IOException {
+        while (offsets.size() < id) {
+            offsets.add(0L);
+        }
+        offsets.set(id - 1, out.getCount());
+        write(id + " 0 obj\n");
+    }
+
+    private void write(String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    /**
+     * Escape a PDF literal string, replacing characters Helvetica can't encode
+     */
+    private static String pdfString(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(' || c == ')' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20 || c > 0xFF) {
+                escaped.append('?');
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,172 @@
+package com.ocrapp.service.export;
+
+import com.ocrapp.model.OCRWord;
+import com.ocrapp.util.AtomicFileOutput;
+
+import java.awt.Rectangle;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Streaming export of recognition results to one file.
+ * Call writePage for each page as results come in, then finish(); the
+ * file appears at the target only when finish() succeeds. Closing
+ * without finishing discards the output.
+ *
+ * Long runs into a resumable output can checkpoint after each page and,
+ * after a crash, reopen the output at the checkpointed length and restore
+ * the pages already in it before continuing.
+ */
+public abstract class ResultExporter implements AutoCloseable {
+
+    protected final AtomicFileOutput output;
+    private int pageCount;
+    private boolean started;
+
+    /**
+     * Constructor
+     * @param output Output to write to
+     */
+    protected ResultExporter(AtomicFileOutput output) {
+        this.output = output;
+    }
+
+    /**
+     * Write one page
+     * @param page Page and its result
+     * @throws IOException if writing fails
+     */
+    public void writePage(ExportPage page) throws IOException {
+        if (!started) {
+            started = true;
+            writeHeader();
+        }
+        pageCount++;
+        writePage(page, pageCount);
+    }
+
+    /**
+     * Complete the file and move it into place
+     * @throws IOException if writing fails
+     */
+    public void finish() throws IOException {
+        if (!started) {
+            started = true;
+            writeHeader();
+        }
+        writeFooter();
+        output.commit();
+    }
+
+    /**
+     * Force the pages written so far to disk and save what the exporter
+     * needs to continue after them
+     * @param state Receives the exporter's state for the pages since the last checkpoint
+     * @return Output length in bytes after the last page written
+     * @throws IOException if writing fails
+     */
+    public long checkpoint(DataOutput state) throws IOException {
+        long length = output.sync();
+        saveState(state);
+        return length;
+    }
+
+    /**
+     * Account for a page already in a resumed output without writing it.
+     * Call once per checkpointed page, in order, before writing new pages.
+     * @param state State saved by the checkpoint after that page
+     * @throws IOException if the state can't be read
+     */
+    public void restorePage(DataInput state) throws IOException {
+        started = true;
+        pageCount++;
+        restoreState(state);
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    @Override
+    public void close() {
+        output.close();
+    }
+
+    protected abstract void writeHeader() throws IOException;
+
+    /**
+     * Write one page
+     * @param page Page and its result
+     * @param pageNumber 1-based page number
+     * @throws IOException if writing fails
+     */
+    protected abstract void writePage(ExportPage page, int pageNumber) throws IOException;
+
+    protected abstract void writeFooter() throws IOException;
+
+    /**
+     * Save state for the pages written since the last call; formats that
+     * only need the page count save nothing
+     * @param state Checkpoint data
+     * @throws IOException if writing fails
+     */
+    protected void saveState(DataOutput state) throws IOException {
+        // page count is enough
+    }
+
+    /**
+     * Restore state saved by saveState
+     * @param state Checkpoint data
+     * @throws IOException if reading fails
+     */
+    protected void restoreState(DataInput state) throws IOException {
+        // page count is enough
+    }
+
+    /**
+     * Escape text for XML content and attribute values
+     * @param text Text to escape
+     * @return Escaped text, without characters XML 1.0 doesn't allow
+     */
+    static String escapeXml(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<': escaped.append("&lt;"); break;
+                case '>': escaped.append("&gt;"); break;
+                case '&': escaped.append("&amp;"); break;
+                case '"': escaped.append("&quot;"); break;
+                case '\'': escaped.append("&apos;"); break;
+                default:
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        escaped.append(c);
+                    }
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Bounding box of a run of words
+     * @param words Non-empty list of words
+     * @return Union of their boxes
+     */
+    static Rectangle union(List<OCRWord> words) {
+        Rectangle bounds = words.get(0).getBounds();
+        for (OCRWord word : words) {
+            bounds.add(word.getBounds());
+        }
+        return bounds;
+    }
+
+    /**
+     * Write "x0 y0 x1 y1" for a box, as hOCR bbox properties use
+     */
+    static void writeBbox(Writer out, Rectangle box) throws IOException {
+        out.write("bbox " + box.x + " " + box.y + " " + (box.x + box.width) + " " + (box.y + box.height));
+    }
+}
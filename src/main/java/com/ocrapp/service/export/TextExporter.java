@@ -0,0 +1,36 @@
+package com.ocrapp.service.export;
+
+import com.ocrapp.util.AtomicFileOutput;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Plain UTF-8 text, pages separated by form feeds like Tesseract's text output
+ */
+class TextExporter extends ResultExporter {
+
+    TextExporter(AtomicFileOutput output) {
+        super(output);
+    }
+
+    @Override
+    protected void writeHeader() {
+        // no header
+    }
+
+    @Override
+    protected void writePage(ExportPage page, int pageNumber) throws IOException {
+        Writer out = output.getWriter();
+        if (pageNumber > 1) {
+            out.write('\f');
+        }
+        out.write(page.getResult().getExtractedText());
+        out.write('\n');
+    }
+
+    @Override
+    protected void writeFooter() {
+        // no footer
+    }
+}
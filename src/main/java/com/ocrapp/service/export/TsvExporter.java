@@ -0,0 +1,50 @@
+package com.ocrapp.service.export;
+
+import com.ocrapp.model.OCRWord;
+import com.ocrapp.util.AtomicFileOutput;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Word rows in Tesseract's TSV layout, page coordinates, one header row
+ */
+class TsvExporter extends ResultExporter {
+
+    private static final String HEADER =
+            "level\tpage_num\tblock_num\tpar_num\tline_num\tword_num\tleft\ttop\twidth\theight\tconf\ttext\n";
+    private static final int WORD_LEVEL = 5;
+
+    TsvExporter(AtomicFileOutput output) {
+        super(output);
+    }
+
+    @Override
+    protected void writeHeader() throws IOException {
+        output.getWriter().write(HEADER);
+    }
+
+    @Override
+    protected void writePage(ExportPage page, int pageNumber) throws IOException {
+        Writer out = output.getWriter();
+        for (List<OCRWord> line : ExportPage.groupLines(page.getWords())) {
+            int wordNumber = 0;
+            for (OCRWord word : line) {
+                Rectangle box = word.getBounds();
+                out.write(WORD_LEVEL + "\t" + pageNumber + "\t" + word.getBlockNumber() + "\t" +
+                        word.getParagraphNumber() + "\t" + word.getLineNumber() + "\t" + (++wordNumber) + "\t" +
+                        box.x + "\t" + box.y + "\t" + box.width + "\t" + box.height + "\t" +
+                        String.format(Locale.ROOT, "%.2f", word.getConfidence()) + "\t" +
+                        word.getText().replaceAll("[\\t\\r\\n]", " ") + "\n");
+            }
+        }
+    }
+
+    @Override
+    protected void writeFooter() {
+        // no footer
+    }
+}
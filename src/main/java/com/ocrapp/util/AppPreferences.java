@@ -11,6 +11,8 @@ public class AppPreferences {
     
     private static final String KEY_LAST_LANGUAGE = "lastLanguage";
     private static final String KEY_LAST_DIRECTORY = "lastDirectory";
+    private static final String KEY_LAST_PROFILE = "lastProfile";
+    private static final String KEY_TESSDATA_PATH = "tessdataPath";
     
     public static void saveLastLanguage(String language) {
         if (language != null) {
@@ -22,6 +24,32 @@ public class AppPreferences {
         return prefs.get(KEY_LAST_LANGUAGE, "English");
     }
     
+    public static void saveLastProfile(String profileId) {
+        if (profileId != null) {
+            prefs.put(KEY_LAST_PROFILE, profileId);
+        }
+    }
+    
+    public static String getLastProfile() {
+        return prefs.get(KEY_LAST_PROFILE, null);
+    }
+    
+    /**
+     * Remember the tessdata folder to use from the next start
+     * @param directory Folder holding .traineddata files, or null to search again
+     */
+    public static void saveTessdataPath(String directory) {
+        if (directory != null) {
+            prefs.put(KEY_TESSDATA_PATH, directory);
+        } else {
+            prefs.remove(KEY_TESSDATA_PATH);
+        }
+    }
+    
+    public static String getTessdataPath() {
+        return prefs.get(KEY_TESSDATA_PATH, null);
+    }
+    
     public static void saveLastDirectory(String directory) {
         if (directory != null) {
             prefs.put(KEY_LAST_DIRECTORY, directory);
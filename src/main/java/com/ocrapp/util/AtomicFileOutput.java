@@ -0,0 +1,219 @@
+package com.ocrapp.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Output file that appears all at once or not at all.
+ * Content is streamed through a buffered FileChannel into a temp file next
+ * to the target; commit() forces it to disk and renames it over the target,
+ * close() without commit() deletes it. A failed or cancelled export never
+ * leaves a truncated file behind, and the old file survives until the new
+ * one is complete.
+ *
+ * A resumable output instead writes to a fixed partial file that survives
+ * close() and crashes, so a later run can cut it back to the last length
+ * it knows is complete and carry on from there.
+ */
+public class AtomicFileOutput implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AtomicFileOutput.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path target;
+    private final Path tempFile;
+    private final FileChannel channel;
+    private final CountingOutputStream stream;
+    private final boolean keepOnClose;
+    private Writer writer;
+    private boolean committed;
+
+    /**
+     * Open a temp file for the target
+     * @param target File to write
+     * @throws IOException if the temp file can't be created
+     */
+    public AtomicFileOutput(Path target) throws IOException {
+        this.target = target.toAbsolutePath();
+        Path directory = this.target.getParent();
+        this.tempFile = Files.createTempFile(directory, "." + this.target.getFileName(), ".tmp");
+        this.channel = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.stream = new CountingOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), 0);
+        this.keepOnClose = false;
+    }
+
+    private AtomicFileOutput(Path target, long length) throws IOException {
+        this.target = target.toAbsolutePath();
+        this.tempFile = partialFile(this.target);
+        this.channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < length) {
+                throw new IOException("Partial output " + tempFile + " is shorter than expected (" +
+                        channel.size() + " < " + length + " bytes)");
+            }
+            // drop anything written after the last known-good length
+            channel.truncate(length);
+            channel.position(length);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.stream = new CountingOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), length);
+        this.keepOnClose = true;
+    }
+
+    /**
+     * Open the partial file of a resumable output, keeping its first bytes
+     * @param target File to write
+     * @param length Bytes of the partial file to keep (0 to start over)
+     * @return Output positioned after the kept bytes
+     * @throws IOException if the partial file can't be opened or is shorter than length
+     */
+    public static AtomicFileOutput resume(Path target, long length) throws IOException {
+        return new AtomicFileOutput(target, length);
+    }
+
+    /**
+     * Get the partial file a resumable output writes to
+     * @param target File to write
+     * @return Hidden file next to the target
+     */
+    public static Path partialFile(Path target) {
+        return target.resolveSibling("." + target.getFileName() + ".part");
+    }
+
+    /**
+     * Get the byte stream. Use either this or the writer, not both.
+     * @return Buffered stream into the temp file
+     */
+    public CountingOutputStream getStream() {
+        return stream;
+    }
+
+    /**
+     * Get a UTF-8 writer over the stream
+     * @return Writer into the temp file
+     */
+    public Writer getWriter() {
+        if (writer == null) {
+            writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+        return writer;
+    }
+
+    /**
+     * Force everything written so far to disk
+     * @return Bytes written, including any kept from a resumed file
+     * @throws IOException if writing fails
+     */
+    public long sync() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        stream.flush();
+        channel.force(false);
+        return stream.getCount();
+    }
+
+    /**
+     * Flush everything to disk and move the temp file over the target
+     * @throws IOException if writing or renaming fails
+     */
+    public void commit() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        stream.flush();
+        channel.force(true);
+        channel.close();
+
+        try {
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        committed = true;
+    }
+
+    public Path getTarget() {
+        return target;
+    }
+
+    /**
+     * Close, discarding the temp file unless committed or resumable
+     */
+    @Override
+    public void close() {
+        if (committed) {
+            return;
+        }
+        try {
+            channel.close();
+            if (keepOnClose) {
+                return;
+            }
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            log.warn("Failed to remove temp file {}: {}", tempFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Stream that knows how many bytes went through it (for formats with
+     * byte offsets, like PDF)
+     */
+    public static final class CountingOutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private long count;
+
+        private CountingOutputStream(OutputStream out, long count) {
+            this.out = out;
+            this.count = count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
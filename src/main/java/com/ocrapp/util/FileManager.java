@@ -1,21 +1,27 @@
 package com.ocrapp.util;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import javax.swing.JFileChooser;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Utility class for file operations.
  * Handles file selection dialogs, image loading, and text saving.
  */
 public class FileManager {
+
+    private static final Logger log = LoggerFactory.getLogger(FileManager.class);
     
     // Supported image formats
     private static final List<String> SUPPORTED_IMAGE_FORMATS = Arrays.asList(
@@ -25,6 +31,14 @@ public class FileManager {
     private static final String IMAGE_FILTER_DESCRIPTION = "Image Files (*.jpg, *.jpeg, *.png, *.bmp, *.tiff, *.gif)";
     private static final String TEXT_FILTER_DESCRIPTION = "Text Files (*.txt)";
     
+    // Export formats offered next to plain text: description, extension
+    private static final String[][] EXPORT_FILTERS = {
+            {"hOCR (*.hocr)", "hocr"},
+            {"ALTO XML (*.xml)", "xml"},
+            {"Tesseract TSV (*.tsv)", "tsv"},
+            {"Searchable PDF (*.pdf)", "pdf"}
+    };
+    
     private JFileChooser fileChooser;
     
     /**
@@ -62,7 +76,7 @@ public class FileManager {
             if (isValidImageFile(selectedFile)) {
                 return selectedFile;
             } else {
-                System.err.println("Invalid image file selected: " + selectedFile.getName());
+                log.warn("Invalid image file selected: {}", selectedFile.getName());
                 return null;
             }
         }
@@ -85,6 +99,11 @@ public class FileManager {
                 "txt"
         );
         
+        fileChooser.addChoosableFileFilter(textFilter);
+        for (String[] export : EXPORT_FILTERS) {
+            fileChooser.addChoosableFileFilter(new FileNameExtensionFilter(export[0], export[1]));
+        }
+        fileChooser.setAcceptAllFileFilterUsed(false);
         fileChooser.setFileFilter(textFilter);
         fileChooser.setDialogTitle("Save Text File");
         fileChooser.setSelectedFile(new File(defaultFileName));
@@ -94,9 +113,13 @@ public class FileManager {
         if (result == JFileChooser.APPROVE_OPTION) {
             File selectedFile = fileChooser.getSelectedFile();
             
-            // Ensure .txt extension
-            if (!selectedFile.getName().toLowerCase().endsWith(".txt")) {
-                selectedFile = new File(selectedFile.getAbsolutePath() + ".txt");
+            // Ensure the extension of the chosen format
+            String extension = "txt";
+            if (fileChooser.getFileFilter() instanceof FileNameExtensionFilter) {
+                extension = ((FileNameExtensionFilter) fileChooser.getFileFilter()).getExtensions()[0];
+            }
+            if (!selectedFile.getName().toLowerCase().endsWith("." + extension)) {
+                selectedFile = new File(selectedFile.getAbsolutePath() + "." + extension);
             }
             
             return selectedFile;
@@ -106,24 +129,46 @@ public class FileManager {
     }
     
     /**
-     * Save text content to a file
+     * Open a dialog to choose a folder
+     * @param title Dialog title
+     * @return Selected folder, or null if cancelled
+     */
+    public File selectDirectory(String title) {
+        fileChooser.resetChoosableFileFilters();
+        fileChooser.setAcceptAllFileFilterUsed(true);
+        fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        fileChooser.setDialogTitle(title);
+        
+        try {
+            int result = fileChooser.showOpenDialog(null);
+            return (result == JFileChooser.APPROVE_OPTION) ? fileChooser.getSelectedFile() : null;
+        } finally {
+            fileChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+        }
+    }
+    
+    /**
+     * Save text content to a file as UTF-8. The file is replaced atomically,
+     * so a failed save leaves any previous version intact.
      * @param text Text content to save
      * @param file File to save to
      * @return true if successful, false otherwise
      */
     public boolean saveTextToFile(String text, File file) {
         if (text == null || file == null) {
-            System.err.println("Invalid parameters for saving file");
+            log.warn("Invalid parameters for saving file");
             return false;
         }
         
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write(text);
-            System.out.println("Text saved successfully to: " + file.getAbsolutePath());
+        long startNanos = System.nanoTime();
+        try (AtomicFileOutput output = new AtomicFileOutput(file.toPath())) {
+            output.getWriter().write(text);
+            output.commit();
+            PipelineMetrics.record(PipelineMetrics.Stage.SAVE, startNanos, 0);
+            log.info("Text saved successfully to: {}", file.getAbsolutePath());
             return true;
         } catch (IOException e) {
-            System.err.println("Error saving file: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error saving file: {}", file.getAbsolutePath(), e);
             return false;
         }
     }
@@ -150,6 +195,32 @@ public class FileManager {
         return false;
     }
     
+    /**
+     * Expand dropped files and folders into the image files they contain.
+     * Folders are searched recursively; everything else that isn't a
+     * supported image is skipped. Does disk I/O - keep it off the EDT.
+     * @param files Files and folders
+     * @return Image files, folder contents in path order
+     */
+    public List<File> collectImageFiles(List<File> files) {
+        List<File> images = new ArrayList<>();
+        for (File file : files) {
+            if (file.isDirectory()) {
+                try (Stream<Path> paths = Files.walk(file.toPath())) {
+                    paths.sorted()
+                         .map(Path::toFile)
+                         .filter(this::isValidImageFile)
+                         .forEach(images::add);
+                } catch (IOException e) {
+                    log.warn("Failed to list folder {}: {}", file, e.getMessage());
+                }
+            } else if (isValidImageFile(file)) {
+                images.add(file);
+            }
+        }
+        return images;
+    }
+    
     /**
      * Get file extension from a file
      * @param file File to get extension from
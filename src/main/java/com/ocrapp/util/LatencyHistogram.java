@@ -0,0 +1,134 @@
+package com.ocrapp.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram for nanosecond latencies.
+ * Same bucketing idea as HdrHistogram: values below 128 are exact, above
+ * that each power of two is split into 64 linear sub-buckets, which keeps
+ * the relative error under ~1.6% across the whole long range.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_COUNT = 128;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+    private static final int SUB_BUCKET_HALF_BITS = 6;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT
+            + (63 - SUB_BUCKET_HALF_BITS) * SUB_BUCKET_HALF;
+
+    private final AtomicLongArray counts;
+    private final LongAdder totalCount;
+    private final LongAdder totalValue;
+    private final AtomicLong maxValue;
+    private final AtomicLong minValue;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.totalCount = new LongAdder();
+        this.totalValue = new LongAdder();
+        this.maxValue = new AtomicLong(0);
+        this.minValue = new AtomicLong(Long.MAX_VALUE);
+    }
+
+    /**
+     * Record a single value
+     * @param value Value to record (negative values are clamped to 0)
+     */
+    public void recordValue(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        counts.incrementAndGet(indexFor(value));
+        totalCount.increment();
+        totalValue.add(value);
+        maxValue.accumulateAndGet(value, Math::max);
+        minValue.accumulateAndGet(value, Math::min);
+    }
+
+    /**
+     * Get the value at a given percentile
+     * @param percentile Percentile (0-100)
+     * @return Highest value equivalent to the percentile bucket, or 0 if empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.sum();
+        if (count == 0) {
+            return 0;
+        }
+
+        double clamped = Math.min(Math.max(percentile, 0.0), 100.0);
+        long target = Math.max(1, (long) Math.ceil(clamped / 100.0 * count));
+
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += counts.get(i);
+            if (cumulative >= target) {
+                return Math.min(highestEquivalentValue(i), getMaxValue());
+            }
+        }
+
+        return getMaxValue();
+    }
+
+    public long getTotalCount() {
+        return totalCount.sum();
+    }
+
+    public long getTotalValue() {
+        return totalValue.sum();
+    }
+
+    public long getMaxValue() {
+        return maxValue.get();
+    }
+
+    public long getMinValue() {
+        long min = minValue.get();
+        return min == Long.MAX_VALUE ? 0 : min;
+    }
+
+    public double getMean() {
+        long count = totalCount.sum();
+        return count == 0 ? 0.0 : (double) totalValue.sum() / count;
+    }
+
+    /**
+     * Clear all recorded values.
+     * Not atomic with respect to concurrent recordValue calls.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        totalValue.reset();
+        maxValue.set(0);
+        minValue.set(Long.MAX_VALUE);
+    }
+
+    private static int indexFor(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        // shift so the value lands in [64, 128)
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_HALF_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_HALF;
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF + subBucket;
+    }
+
+    private static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int offset = index - SUB_BUCKET_COUNT;
+        int shift = offset / SUB_BUCKET_HALF + 1;
+        long subBucket = offset % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        long lowest = subBucket << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,45 @@
+package com.ocrapp.util;
+
+import org.slf4j.MDC;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-page correlation IDs for log output.
+ * The ID is stored in the SLF4J MDC under PAGE_KEY so every log line
+ * written while a page is being processed can be traced back to it,
+ * even when several pages are in flight on different threads.
+ */
+public final class LogContext {
+
+    public static final String PAGE_KEY = "page";
+
+    private static final AtomicLong PAGE_COUNTER = new AtomicLong();
+
+    private LogContext() {
+        // static access only
+    }
+
+    /**
+     * Create a new, process-unique page ID
+     * @return Page ID (e.g. "p-42")
+     */
+    public static String newPageId() {
+        return "p-" + PAGE_COUNTER.incrementAndGet();
+    }
+
+    /**
+     * Bind a page ID to the current thread
+     * @param pageId Page ID from newPageId()
+     */
+    public static void setPage(String pageId) {
+        MDC.put(PAGE_KEY, pageId);
+    }
+
+    /**
+     * Remove the page ID from the current thread
+     */
+    public static void clearPage() {
+        MDC.remove(PAGE_KEY);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ocrapp.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors for the blocking I/O stages of the pipeline.
+ * Reads, decodes and writes run one virtual thread per task, so any number
+ * of them can wait on disk without holding a platform thread. CPU-bound
+ * preprocessing and recognition do not belong here; they run on the
+ * OCRJobScheduler's bounded platform workers.
+ *
+ * Code running on these threads should block with java.util.concurrent
+ * locks rather than synchronized/wait, which pins the carrier thread.
+ */
+public final class PipelineExecutors {
+
+    private static final ExecutorService IO = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("ocr-io-", 1).factory());
+
+    private PipelineExecutors() {
+        // static access only
+    }
+
+    /**
+     * Get the executor for blocking I/O tasks
+     * @return Virtual-thread-per-task executor
+     */
+    public static ExecutorService io() {
+        return IO;
+    }
+
+    /**
+     * Run a blocking I/O task on its own virtual thread
+     * @param task Task to run
+     * @param <T> Result type
+     * @return Future completed with the task's result or exception
+     */
+    public static <T> CompletableFuture<T> supplyIo(Callable<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, IO);
+    }
+}
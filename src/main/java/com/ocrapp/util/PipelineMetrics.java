@@ -0,0 +1,171 @@
+package com.ocrapp.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide latency metrics for each stage of the OCR pipeline.
+ * Every stage is registered as a JMX MBean under "com.ocrapp:type=PipelineMetrics"
+ * and can also be dumped as a plain text report, optionally on a schedule.
+ *
+ * Usage: take System.nanoTime() before the stage and call record() after it.
+ */
+public final class PipelineMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(PipelineMetrics.class);
+    // the periodic report has its own logger so logback can route or silence it
+    private static final Logger reportLog = LoggerFactory.getLogger("com.ocrapp.metrics");
+
+    /**
+     * Pipeline stages that are timed
+     */
+    public enum Stage {
+        DECODE("decode"),
+        PREPROCESS("preprocess"),
+        PREPROCESS_TEXT_HEIGHT("preprocess.textHeight"),
+        PREPROCESS_RESIZE("preprocess.resize"),
+        PREPROCESS_INVERT("preprocess.invert"),
+        PREPROCESS_GRAYSCALE("preprocess.grayscale"),
+        PREPROCESS_CONTRAST("preprocess.contrast"),
+        RECOGNIZE("recognize"),
+        CLEAN("clean"),
+        SAVE("save");
+
+        private final String metricName;
+
+        Stage(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    private static final String OBJECT_NAME_PREFIX = "com.ocrapp:type=PipelineMetrics,stage=";
+
+    private static final Map<Stage, StageMetrics> STAGES = new EnumMap<>(Stage.class);
+
+    private static ScheduledExecutorService reporter;
+    private static ScheduledFuture<?> reportTask;
+
+    static {
+        for (Stage stage : Stage.values()) {
+            STAGES.put(stage, new StageMetrics(stage.getMetricName()));
+        }
+        registerMBeans();
+    }
+
+    private PipelineMetrics() {
+        // static access only
+    }
+
+    /**
+     * Record a stage execution that started at startNanos and ends now
+     * @param stage Pipeline stage
+     * @param startNanos Value of System.nanoTime() when the stage started
+     * @param pixelCount Pixels processed (0 if not applicable)
+     * @return Elapsed time in nanoseconds
+     */
+    public static long record(Stage stage, long startNanos, long pixelCount) {
+        long elapsed = System.nanoTime() - startNanos;
+        STAGES.get(stage).record(elapsed, pixelCount);
+        return elapsed;
+    }
+
+    /**
+     * Get the metrics for one stage
+     * @param stage Pipeline stage
+     * @return StageMetrics for the stage
+     */
+    public static StageMetrics get(Stage stage) {
+        return STAGES.get(stage);
+    }
+
+    /**
+     * Reset all stages
+     */
+    public static void resetAll() {
+        for (StageMetrics metrics : STAGES.values()) {
+            metrics.reset();
+        }
+    }
+
+    /**
+     * Build a text report of all stages that have recorded at least once
+     * @return Report string
+     */
+    public static String getReport() {
+        StringBuilder report = new StringBuilder();
+        report.append("Pipeline Metrics\n");
+        report.append("================\n");
+        report.append(String.format("%-22s %8s %9s %9s %9s %9s %9s %12s%n",
+                "stage", "count", "p50 ms", "p95 ms", "p99 ms", "max ms", "ops/s", "pixels/s"));
+
+        for (StageMetrics metrics : STAGES.values()) {
+            if (metrics.getCount() > 0) {
+                report.append(metrics.formatReportLine()).append("\n");
+            }
+        }
+
+        return report.toString();
+    }
+
+    /**
+     * Log the report to the "com.ocrapp.metrics" logger at a fixed interval on a daemon thread
+     * @param periodSeconds Interval between reports
+     */
+    public static synchronized void startPeriodicReport(long periodSeconds) {
+        if (periodSeconds <= 0) {
+            return;
+        }
+
+        stopPeriodicReport();
+
+        if (reporter == null) {
+            reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "pipeline-metrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        reportTask = reporter.scheduleAtFixedRate(
+                () -> reportLog.info("\n{}", getReport()),
+                periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop the periodic report if running
+     */
+    public static synchronized void stopPeriodicReport() {
+        if (reportTask != null) {
+            reportTask.cancel(false);
+            reportTask = null;
+        }
+    }
+
+    private static void registerMBeans() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (Map.Entry<Stage, StageMetrics> entry : STAGES.entrySet()) {
+                ObjectName name = new ObjectName(OBJECT_NAME_PREFIX + entry.getKey().getMetricName());
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(entry.getValue(), name);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to register pipeline metrics MBeans", e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.ocrapp.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and throughput statistics for one pipeline stage.
+ * Exposed over JMX through StageMetricsMBean.
+ */
+public class StageMetrics implements StageMetricsMBean {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final String name;
+    private final LatencyHistogram histogram;
+    private final LongAdder pixels;
+    private volatile long windowStartNanos;
+
+    /**
+     * Constructor
+     * @param name Stage name (e.g. "recognize", "preprocess.grayscale")
+     */
+    public StageMetrics(String name) {
+        this.name = name;
+        this.histogram = new LatencyHistogram();
+        this.pixels = new LongAdder();
+        this.windowStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Record one execution of the stage
+     * @param elapsedNanos Time spent in the stage
+     * @param pixelCount Pixels processed (0 if not applicable)
+     */
+    public void record(long elapsedNanos, long pixelCount) {
+        histogram.recordValue(elapsedNanos);
+        if (pixelCount > 0) {
+            pixels.add(pixelCount);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return histogram.getTotalCount();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return histogram.getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return histogram.getValueAtPercentile(50.0) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP95Millis() {
+        return histogram.getValueAtPercentile(95.0) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return histogram.getValueAtPercentile(99.0) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return histogram.getMaxValue() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Get executions per wall-clock second since the last reset
+     * @return Throughput in operations per second
+     */
+    @Override
+    public double getThroughputPerSecond() {
+        double elapsedSeconds = (System.nanoTime() - windowStartNanos) / NANOS_PER_SECOND;
+        return elapsedSeconds > 0 ? histogram.getTotalCount() / elapsedSeconds : 0.0;
+    }
+
+    /**
+     * Get pixels processed per second of time spent inside the stage
+     * @return Pixel rate, or 0 if the stage doesn't report pixels
+     */
+    @Override
+    public double getPixelsPerSecond() {
+        long busyNanos = histogram.getTotalValue();
+        return busyNanos > 0 ? pixels.sum() / (busyNanos / NANOS_PER_SECOND) : 0.0;
+    }
+
+    @Override
+    public void reset() {
+        histogram.reset();
+        pixels.reset();
+        windowStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Format a single report line for this stage
+     * @return Report line
+     */
+    public String formatReportLine() {
+        return String.format("%-22s %8d %9.1f %9.1f %9.1f %9.1f %9.2f %12.0f",
+                name, getCount(), getP50Millis(), getP95Millis(), getP99Millis(),
+                getMaxMillis(), getThroughputPerSecond(), getPixelsPerSecond());
+    }
+}
@@ -0,0 +1,28 @@
+package com.ocrapp.util;
+
+/**
+ * JMX management interface for a single pipeline stage.
+ * Times are reported in milliseconds.
+ */
+public interface StageMetricsMBean {
+
+    String getName();
+
+    long getCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP95Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    double getThroughputPerSecond();
+
+    double getPixelsPerSecond();
+
+    void reset();
+}
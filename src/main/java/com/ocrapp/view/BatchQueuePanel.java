@@ -0,0 +1,200 @@
+package com.ocrapp.view;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Panel listing files queued for batch OCR with their status,
+ * and the throughput of the batch so far.
+ * Hidden while the queue is empty. All methods must be called on the EDT.
+ */
+public class BatchQueuePanel extends JPanel {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int VISIBLE_ROWS = 6;
+
+    private final QueueTableModel model;
+    private final JTable table;
+    private final JLabel summaryLabel;
+    private final JButton clearButton;
+
+    public BatchQueuePanel() {
+        super(new BorderLayout());
+        setBackground(Theme.getBgSecondary());
+        setBorder(BorderFactory.createMatteBorder(1, 0, 0, 0, Theme.getBorder()));
+
+        model = new QueueTableModel();
+        table = new JTable(model);
+        table.setFont(Theme.FONT_REGULAR);
+        table.setBackground(Theme.getBgTertiary());
+        table.setForeground(Theme.getTextPrimary());
+        table.setGridColor(Theme.getBorder());
+        table.setFillsViewportHeight(true);
+        table.setRowSelectionAllowed(false);
+        table.getColumnModel().getColumn(0).setPreferredWidth(260);
+        table.getColumnModel().getColumn(1).setPreferredWidth(110);
+        table.getColumnModel().getColumn(2).setPreferredWidth(70);
+
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(0, table.getRowHeight() * VISIBLE_ROWS + 24));
+        scrollPane.getViewport().setBackground(Theme.getBgTertiary());
+
+        summaryLabel = new JLabel("Queue");
+        summaryLabel.setFont(Theme.FONT_REGULAR);
+        summaryLabel.setForeground(Theme.getTextSecondary());
+        summaryLabel.setBorder(new EmptyBorder(6, 15, 6, 15));
+
+        clearButton = new JButton("Clear finished");
+        clearButton.setFont(Theme.FONT_REGULAR);
+        clearButton.setFocusPainted(false);
+        clearButton.addActionListener(e -> clearFinished());
+
+        JPanel header = new JPanel(new BorderLayout());
+        header.setBackground(Theme.getBgSecondary());
+        header.add(summaryLabel, BorderLayout.WEST);
+        header.add(clearButton, BorderLayout.EAST);
+
+        add(header, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+        setVisible(false);
+    }
+
+    /**
+     * Add a file to the list
+     * @param name File name
+     * @return Row id to update the entry with
+     */
+    public int addItem(String name) {
+        int id = model.add(name);
+        setVisible(true);
+        revalidate();
+        return id;
+    }
+
+    /**
+     * Update an entry
+     * @param id Row id from addItem
+     * @param status Status text
+     * @param millis Processing time, or -1 if not finished
+     * @param finished Whether the entry is done (successfully or not)
+     */
+    public void setItemStatus(int id, String status, long millis, boolean finished) {
+        model.update(id, status, millis, finished);
+    }
+
+    /**
+     * Set the summary line above the list
+     * @param summary Progress and throughput text
+     */
+    public void setSummary(String summary) {
+        summaryLabel.setText(summary);
+    }
+
+    /**
+     * Remove finished entries, hiding the panel if nothing is left
+     */
+    public void clearFinished() {
+        model.removeFinished();
+        if (model.getRowCount() == 0) {
+            setVisible(false);
+            revalidate();
+        }
+    }
+
+    /**
+     * Remove all entries and hide the panel
+     */
+    public void clear() {
+        model.clear();
+        setVisible(false);
+        revalidate();
+    }
+
+    private static final class Item {
+        private final int id;
+        private final String name;
+        private String status;
+        private long millis;
+        private boolean finished;
+
+        private Item(int id, String name) {
+            this.id = id;
+            this.name = name;
+            this.status = "Queued";
+            this.millis = -1;
+        }
+    }
+
+    private static final class QueueTableModel extends AbstractTableModel {
+
+        private static final long serialVersionUID = 1L;
+        private static final String[] COLUMNS = {"File", "Status", "Time"};
+
+        private final transient List<Item> items = new ArrayList<>();
+        private int nextId;
+
+        int add(String name) {
+            Item item = new Item(nextId++, name);
+            items.add(item);
+            fireTableRowsInserted(items.size() - 1, items.size() - 1);
+            return item.id;
+        }
+
+        void update(int id, String status, long millis, boolean finished) {
+            for (int row = 0; row < items.size(); row++) {
+                Item item = items.get(row);
+                if (item.id == id) {
+                    item.status = status;
+                    item.millis = millis;
+                    item.finished = finished;
+                    fireTableRowsUpdated(row, row);
+                    return;
+                }
+            }
+        }
+
+        void removeFinished() {
+            if (items.removeIf(item -> item.finished)) {
+                fireTableDataChanged();
+            }
+        }
+
+        void clear() {
+            items.clear();
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return items.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            Item item = items.get(row);
+            switch (column) {
+                case 0:
+                    return item.name;
+                case 1:
+                    return item.status;
+                default:
+                    return (item.millis >= 0) ? String.format("%.1f s", item.millis / 1000.0) : "";
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.ocrapp.view;
+
+import com.ocrapp.model.OCRResult;
+import com.ocrapp.service.ResultStore;
+import com.ocrapp.util.PipelineExecutors;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Dialog for searching past OCR results in the result store.
+ * Results update as the user types; the selected result's text is
+ * previewed and can be opened in the main window.
+ */
+public class HistoryDialog extends JDialog {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int MAX_RESULTS = 200;
+    private static final int SEARCH_DELAY_MS = 150;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final transient ResultStore store;
+    private final transient Consumer<OCRResult> onOpen;
+
+    private final JTextField searchField;
+    private final DefaultListModel<ResultStore.Entry> listModel;
+    private final JList<ResultStore.Entry> resultList;
+    private final JTextArea previewArea;
+    private final JLabel countLabel;
+    private final JButton openButton;
+    private final Timer searchTimer;
+
+    // result shown in the preview, null while loading (EDT only)
+    private transient OCRResult previewResult;
+    // bumped per search so a slow one can't overwrite a newer query's results (EDT only)
+    private int searchGeneration;
+
+    /**
+     * Constructor
+     * @param owner Main window
+     * @param store Store to search
+     * @param onOpen Called with a stored result the user chose to open
+     */
+    public HistoryDialog(Frame owner, ResultStore store, Consumer<OCRResult> onOpen) {
+        super(owner, "Search History", false);
+        this.store = store;
+        this.onOpen = onOpen;
+
+        searchField = new JTextField();
+        searchField.setFont(Theme.FONT_MEDIUM);
+        searchField.putClientProperty("JTextField.placeholderText", "Search past extractions...");
+
+        listModel = new DefaultListModel<>();
+        resultList = new JList<>(listModel);
+        resultList.setFont(Theme.FONT_REGULAR);
+        resultList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultList.setCellRenderer(new EntryRenderer());
+
+        previewArea = new JTextArea();
+        previewArea.setFont(Theme.FONT_MONO);
+        previewArea.setEditable(false);
+        previewArea.setLineWrap(true);
+        previewArea.setWrapStyleWord(true);
+
+        countLabel = new JLabel(" ");
+        countLabel.setFont(Theme.FONT_REGULAR);
+        countLabel.setForeground(Theme.getTextSecondary());
+
+        openButton = new JButton("Open");
+        openButton.setEnabled(false);
+        JButton closeButton = new JButton("Close");
+
+        JSplitPane split = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT,
+                new JScrollPane(resultList), new JScrollPane(previewArea));
+        split.setResizeWeight(0.45);
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 0));
+        buttons.add(openButton);
+        buttons.add(closeButton);
+
+        JPanel footer = new JPanel(new BorderLayout());
+        footer.setBorder(new EmptyBorder(8, 0, 0, 0));
+        footer.add(countLabel, BorderLayout.WEST);
+        footer.add(buttons, BorderLayout.EAST);
+
+        JPanel content = new JPanel(new BorderLayout(0, 8));
+        content.setBorder(new EmptyBorder(12, 12, 12, 12));
+        content.add(searchField, BorderLayout.NORTH);
+        content.add(split, BorderLayout.CENTER);
+        content.add(footer, BorderLayout.SOUTH);
+        setContentPane(content);
+
+        searchTimer = new Timer(SEARCH_DELAY_MS, e -> runSearch());
+        searchTimer.setRepeats(false);
+
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { searchTimer.restart(); }
+            public void removeUpdate(DocumentEvent e) { searchTimer.restart(); }
+            public void changedUpdate(DocumentEvent e) { }
+        });
+        searchField.addActionListener(e -> runSearch());
+        resultList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showPreview(resultList.getSelectedValue());
+            }
+        });
+        resultList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    openSelected();
+                }
+            }
+        });
+        openButton.addActionListener(e -> openSelected());
+        closeButton.addActionListener(e -> dispose());
+
+        setSize(900, 560);
+        setLocationRelativeTo(owner);
+        runSearch();
+    }
+
+    /**
+     * Search the store on the I/O executor. A search first picks up records
+     * other processes appended, which takes the store's file lock, so it
+     * must not run on the EDT.
+     */
+    private void runSearch() {
+        searchTimer.stop();
+        String query = searchField.getText();
+        int generation = ++searchGeneration;
+
+        PipelineExecutors.supplyIo(() -> store.search(query, MAX_RESULTS))
+                .whenComplete((results, error) -> SwingUtilities.invokeLater(() -> {
+                    if (generation != searchGeneration) {
+                        return; // superseded by a newer query
+                    }
+                    if (error != null) {
+                        listModel.clear();
+                        countLabel.setText("Search failed");
+                        showPreview(null);
+                        return;
+                    }
+                    showResults(query, results);
+                }));
+    }
+
+    private void showResults(String query, List<ResultStore.Entry> results) {
+        listModel.clear();
+        listModel.addAll(results);
+        countLabel.setText(results.isEmpty() ?
+                (query.isBlank() ? "No saved results yet" : "No matches") :
+                results.size() + (results.size() == MAX_RESULTS ? "+" : "") + " result(s)");
+        if (!results.isEmpty()) {
+            resultList.setSelectedIndex(0);
+        } else {
+            showPreview(null);
+        }
+    }
+
+    /**
+     * Load the text of an entry from disk for the preview
+     */
+    private void showPreview(ResultStore.Entry entry) {
+        previewResult = null;
+        openButton.setEnabled(false);
+        if (entry == null) {
+            previewArea.setText("");
+            return;
+        }
+
+        PipelineExecutors.supplyIo(() -> store.load(entry))
+                .whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+                    if (resultList.getSelectedValue() != entry) {
+                        return; // selection moved on
+                    }
+                    if (result == null) {
+                        previewArea.setText("Could not read this result.");
+                        return;
+                    }
+                    previewResult = result;
+                    previewArea.setText(result.getExtractedText());
+                    previewArea.setCaretPosition(0);
+                    openButton.setEnabled(true);
+                }));
+    }
+
+    private void openSelected() {
+        if (previewResult != null) {
+            onOpen.accept(previewResult);
+        }
+    }
+
+    private static final class EntryRenderer extends DefaultListCellRenderer {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                      boolean isSelected, boolean cellHasFocus) {
+            super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            if (value instanceof ResultStore.Entry entry) {
+                setText(String.format("<html><b>%s</b><br>%s - %d words - %s - %.0f%%</html>",
+                        escape(entry.getName()), entry.getCreatedAt().format(DATE_FORMAT),
+                        entry.getWordCount(), entry.getLanguage(), entry.getConfidence()));
+                setToolTipText(entry.getSourcePath());
+                setBorder(new EmptyBorder(4, 8, 4, 8));
+            }
+            return this;
+        }
+
+        private static String escape(String text) {
+            return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        }
+    }
+}
@@ -1,16 +1,28 @@
 package com.ocrapp.view;
 
+import com.ocrapp.service.BufferedImageRegionSource;
+import com.ocrapp.service.ImageProcessor;
+import com.ocrapp.service.ImageRegionSource;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
  * Interactive panel for selecting rectangular regions from images.
  * Allows user to select a region by clicking and dragging.
  * Automatically triggers callback when selection is complete.
+ *
+ * Ctrl+wheel (or Ctrl +/-/0) zooms, middle-drag pans. When fitted to the
+ * window a single cached display image is drawn; when zoomed in, only the
+ * visible tiles of a TilePyramid are painted, decoded on demand from the
+ * ImageRegionSource, so very large images never have to be held at full size.
  */
 public class ImageCropPanel extends JPanel {
     
@@ -25,19 +37,56 @@ public class ImageCropPanel extends JPanel {
     private Point endPoint;
     private boolean isDragging;
     private boolean selectionEnabled;
+    // showing a preview while the full image decodes; no selections until it's replaced
+    private boolean loadingPreview;
     
     private double scaleX;
     private double scaleY;
     
+    // Full-resolution pixels, possibly larger than originalImage for huge files
+    private transient ImageRegionSource regionSource;
+    private transient TilePyramid tilePyramid;
+    
+    // Zoom: display pixels per source pixel, used when not fitted to the window
+    private boolean fitToWindow;
+    private double zoom;
+    private double layoutScale;
+    private Point panStart;
+    private Point panViewStart;
+    private static final double MAX_ZOOM = 8.0;
+    private static final double ZOOM_STEP = 1.25;
+    
     private static final Color SELECTION_COLOR = Theme.getSelectionFill();
     private static final Color BORDER_COLOR = Theme.getSelectionBorder();
     private static final BasicStroke BORDER_STROKE = new BasicStroke(2.0f);
+    private static final int LABEL_PADDING = 8;
+    // half the border stroke plus antialiasing bleed
+    private static final int OVERLAY_MARGIN = 3;
        
     private int imageXOffset;
     private int imageYOffset;
     
+    // Size the image is currently laid out at (scaledImage may lag behind during resizes)
+    private int displayWidth;
+    private int displayHeight;
+    
+    // Display cache: bumped on every new image/size so stale background results are dropped
+    private int scaleGeneration;
+    private transient SwingWorker<BufferedImage, Void> scaleWorker;
+    
+    // scaledImage uploaded to video memory, so repaints are a plain blit
+    private transient VolatileImage displayBuffer;
+    private boolean displayBufferStale;
+    private Timer resizeDebounceTimer;
+    private static final int RESIZE_DEBOUNCE_MS = 150;
+    
     private DropZonePanel dropZonePanel;
-    private Consumer<BufferedImage> onSelectionComplete;
+    private BiConsumer<BufferedImage, Rectangle> onSelectionComplete;
+    private transient Consumer<Rectangle> onSelectionChanged;
+    
+    // provisional OCR text for the selection being dragged
+    private String previewText;
+    private static final int PREVIEW_MAX_LINES = 3;
 
     /**
      * Constructor
@@ -48,6 +97,9 @@ public class ImageCropPanel extends JPanel {
         this.selectionEnabled = false;
         this.scaleX = 1.0;
         this.scaleY = 1.0;
+        this.fitToWindow = true;
+        this.zoom = 1.0;
+        this.layoutScale = 1.0;
         
         setBackground(Theme.getBgSecondary());
         setPreferredSize(new Dimension(600, 400));
@@ -57,17 +109,47 @@ public class ImageCropPanel extends JPanel {
         add(dropZonePanel, BorderLayout.CENTER);
         
         setupMouseListeners();
+        setupZoomControls();
         setupResizeListener();
     }
     
     /**
      * Set callback for selection completion
-     * @param callback Function to call when selection is complete
+     * @param callback Function to call with the cropped image and its bounds
+     *                 in full-resolution coordinates when selection is complete.
+     *                 The image is null for file-backed sources; read the
+     *                 bounds from the source off the EDT instead.
      */
-    public void setOnSelectionComplete(Consumer<BufferedImage> callback) {
+    public void setOnSelectionComplete(BiConsumer<BufferedImage, Rectangle> callback) {
         this.onSelectionComplete = callback;
     }
     
+    /**
+     * Set callback for selection changes while dragging
+     * @param callback Function to call with the selection in full-resolution
+     *                 coordinates, or null while it is too small to use
+     */
+    public void setOnSelectionChanged(Consumer<Rectangle> callback) {
+        this.onSelectionChanged = callback;
+    }
+    
+    /**
+     * Show provisional text for the selection being made
+     * @param text Text to show, or null to hide the preview
+     */
+    public void setPreviewText(String text) {
+        Rectangle oldBounds = getPreviewBounds();
+        this.previewText = text;
+        Rectangle newBounds = getPreviewBounds();
+        
+        if (oldBounds != null) {
+            repaint(oldBounds);
+        }
+        if (newBounds != null) {
+            repaint(newBounds);
+        }
+    }
+    
     /**
      * Enable or disable selection mode
      * @param enabled true to enable selection
@@ -95,26 +177,44 @@ public class ImageCropPanel extends JPanel {
         MouseAdapter mouseAdapter = new MouseAdapter() {
             @Override
             public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+                if (SwingUtilities.isMiddleMouseButton(e)) {
+                    startPan(e);
+                    return;
+                }
                 if (image != null && selectionEnabled) {
                     startPoint = e.getPoint();
                     endPoint = startPoint;
                     isDragging = true;
                     selectionRect = null;
+                    previewText = null;
                     repaint();
+                    notifySelectionChanged();
                 }
             }
             
             @Override
             public void mouseDragged(MouseEvent e) {
+                if (panStart != null) {
+                    updatePan(e);
+                    return;
+                }
                 if (isDragging && image != null && selectionEnabled) {
                     endPoint = e.getPoint();
+                    Rectangle oldSelection = selectionRect;
                     updateSelectionRect();
-                    repaint();
+                    repaintSelection(oldSelection, selectionRect);
+                    notifySelectionChanged();
                 }
             }
             
             @Override
             public void mouseReleased(MouseEvent e) {
+                if (panStart != null) {
+                    panStart = null;
+                    panViewStart = null;
+                    return;
+                }
                 if (isDragging && image != null && selectionEnabled) {
                     endPoint = e.getPoint();
                     isDragging = false;
@@ -123,14 +223,16 @@ public class ImageCropPanel extends JPanel {
                     
                     // Auto-trigger OCR on valid selection
                     if (hasSelection()) {
-                        BufferedImage selectedRegion = getSelectedRegion();
-                        if (selectedRegion != null && onSelectionComplete != null) {
+                        // file-backed crops are read by the callback, not on the EDT
+                        BufferedImage selectedRegion = regionSource.isInMemory() ? getSelectedRegion() : null;
+                        Rectangle selectedBounds = getSelectionBounds();
+                        if (selectedBounds != null && onSelectionComplete != null) {
                             // Disable selection mode after completing
                             selectionEnabled = false;
                             
                             // Trigger callback
                             SwingUtilities.invokeLater(() -> 
-                                onSelectionComplete.accept(selectedRegion));
+                                onSelectionComplete.accept(selectedRegion, selectedBounds));
                         }
                     }
                 }
@@ -140,11 +242,20 @@ public class ImageCropPanel extends JPanel {
         addMouseListener(mouseAdapter);
         addMouseMotionListener(mouseAdapter);
         
+        addMouseWheelListener(e -> {
+            if (image != null && (e.isControlDown() || e.isMetaDown())) {
+                zoomAt(Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()), e.getPoint());
+            } else if (getParent() != null) {
+                // a wheel listener swallows events, so hand scrolling back to the scroll pane
+                getParent().dispatchEvent(SwingUtilities.convertMouseEvent(this, e, getParent()));
+            }
+        });
+        
         // Auto-enable selection when hovering over image with loaded image
         addMouseMotionListener(new MouseMotionAdapter() {
             @Override
             public void mouseMoved(MouseEvent e) {
-                if (image != null) {
+                if (image != null && !loadingPreview) {
                     // Auto-enable selection mode when hovering
                     if (!selectionEnabled) {
                         selectionEnabled = true;
@@ -163,11 +274,11 @@ public class ImageCropPanel extends JPanel {
      * Update selection rectangle based on start and end points
      */
     private void updateSelectionRect() {
-        if (startPoint != null && endPoint != null && scaledImage != null) {
+        if (startPoint != null && endPoint != null && originalImage != null) {
             int x1 = Math.max(imageXOffset, Math.min(startPoint.x, endPoint.x));
             int y1 = Math.max(imageYOffset, Math.min(startPoint.y, endPoint.y));
-            int x2 = Math.min(imageXOffset + scaledImage.getWidth(), Math.max(startPoint.x, endPoint.x));
-            int y2 = Math.min(imageYOffset + scaledImage.getHeight(), Math.max(startPoint.y, endPoint.y));
+            int x2 = Math.min(imageXOffset + displayWidth, Math.max(startPoint.x, endPoint.x));
+            int y2 = Math.min(imageYOffset + displayHeight, Math.max(startPoint.y, endPoint.y));
 
             int width = Math.max(0, x2 - x1);
             int height = Math.max(0, y2 - y1);
@@ -175,6 +286,191 @@ public class ImageCropPanel extends JPanel {
             selectionRect = new Rectangle(x1, y1, width, height);
         }
     }
+    
+    private void notifySelectionChanged() {
+        if (onSelectionChanged != null) {
+            onSelectionChanged.accept(hasSelection() ? getSelectionBounds() : null);
+        }
+    }
+    
+    /**
+     * Setup keyboard shortcuts for zooming
+     */
+    private void setupZoomControls() {
+        setFocusable(true);
+        
+        InputMap inputMap = getInputMap(WHEN_FOCUSED);
+        ActionMap actionMap = getActionMap();
+        int menuMask = Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+        
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_EQUALS, menuMask), "zoomIn");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_ADD, menuMask), "zoomIn");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_MINUS, menuMask), "zoomOut");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_SUBTRACT, menuMask), "zoomOut");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_0, menuMask), "zoomFit");
+        
+        actionMap.put("zoomIn", new AbstractAction() {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                zoomIn();
+            }
+        });
+        actionMap.put("zoomOut", new AbstractAction() {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                zoomOut();
+            }
+        });
+        actionMap.put("zoomFit", new AbstractAction() {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                zoomToFit();
+            }
+        });
+    }
+    
+    /**
+     * Zoom in one step around the center of the visible area
+     */
+    public void zoomIn() {
+        zoomAt(ZOOM_STEP, getVisibleCenter());
+    }
+    
+    /**
+     * Zoom out one step around the center of the visible area
+     */
+    public void zoomOut() {
+        zoomAt(1.0 / ZOOM_STEP, getVisibleCenter());
+    }
+    
+    /**
+     * Return to fit-to-window display
+     */
+    public void zoomToFit() {
+        if (image == null || fitToWindow) {
+            return;
+        }
+        fitToWindow = true;
+        clearSelection();
+
+        // the viewport only stretches the panel to fill it when scrolled to the origin
+        JViewport viewport = getViewport();
+        if (viewport != null) {
+            viewport.setViewPosition(new Point(0, 0));
+        }
+        revalidate();
+        scaleImageToFit();
+        repaint();
+    }
+    
+    /**
+     * Get the current display scale
+     * @return Display pixels per full-resolution image pixel
+     */
+    public double getZoom() {
+        return layoutScale;
+    }
+    
+    /**
+     * Change the zoom by a factor, keeping the image point under the anchor in place
+     * @param factor Multiplier for the current scale
+     * @param anchor Point in panel coordinates
+     */
+    private void zoomAt(double factor, Point anchor) {
+        if (image == null) {
+            return;
+        }
+        
+        double oldScale = layoutScale;
+        double fitScale = getFitScale();
+        double newScale = Math.min(MAX_ZOOM, oldScale * factor);
+        
+        if (newScale <= fitScale) {
+            zoomToFit();
+            return;
+        }
+        if (newScale == oldScale) {
+            return;
+        }
+        
+        // image point under the cursor before zooming
+        double imageX = (anchor.x - imageXOffset) / oldScale;
+        double imageY = (anchor.y - imageYOffset) / oldScale;
+        
+        boolean wasFit = fitToWindow;
+        fitToWindow = false;
+        zoom = newScale;
+        clearSelection();
+        isDragging = false;
+        updateLayout();
+        
+        if (wasFit) {
+            // the fit-size cache is of no use while zoomed
+            scaleGeneration++;
+            cancelScaleWorker();
+            resizeDebounceTimer.stop();
+        }
+        
+        JViewport viewport = getViewport();
+        if (viewport != null) {
+            Point oldView = viewport.getViewPosition();
+            viewport.setViewSize(getPreferredSize());
+            int viewX = (int) Math.round(imageXOffset + imageX * newScale - (anchor.x - oldView.x));
+            int viewY = (int) Math.round(imageYOffset + imageY * newScale - (anchor.y - oldView.y));
+            setViewPosition(viewport, viewX, viewY);
+        }
+        revalidate();
+        repaint();
+    }
+    
+    private void startPan(MouseEvent e) {
+        JViewport viewport = getViewport();
+        if (image == null || viewport == null) {
+            return;
+        }
+        panStart = e.getLocationOnScreen();
+        panViewStart = viewport.getViewPosition();
+        setCursor(Cursor.getPredefinedCursor(Cursor.MOVE_CURSOR));
+    }
+    
+    private void updatePan(MouseEvent e) {
+        JViewport viewport = getViewport();
+        if (viewport == null) {
+            return;
+        }
+        Point now = e.getLocationOnScreen();
+        setViewPosition(viewport,
+                panViewStart.x - (now.x - panStart.x),
+                panViewStart.y - (now.y - panStart.y));
+    }
+    
+    private void setViewPosition(JViewport viewport, int x, int y) {
+        Dimension view = viewport.getViewSize();
+        Dimension extent = viewport.getExtentSize();
+        viewport.setViewPosition(new Point(
+                Math.max(0, Math.min(x, view.width - extent.width)),
+                Math.max(0, Math.min(y, view.height - extent.height))));
+    }
+    
+    private JViewport getViewport() {
+        return (getParent() instanceof JViewport) ? (JViewport) getParent() : null;
+    }
+    
+    private Point getVisibleCenter() {
+        Rectangle visible = getVisibleRect();
+        return new Point(visible.x + visible.width / 2, visible.y + visible.height / 2);
+    }
+    
+    @Override
+    public Dimension getPreferredSize() {
+        if (image != null && !fitToWindow) {
+            return new Dimension(displayWidth, displayHeight);
+        }
+        return super.getPreferredSize();
+    }
 
     
     /**
@@ -182,11 +478,41 @@ public class ImageCropPanel extends JPanel {
      * @param image Image to display
      */
     public void setImage(BufferedImage image) {
+        setImage(image, null);
+    }
+    
+    /**
+     * Set image to display, backed by a larger full-resolution source.
+     * The image is used for fit-to-window display; zoomed views and
+     * selections read from the source. The caller keeps ownership of
+     * the source and closes it once another image is shown.
+     * @param image Image to display (may be a subsampled preview)
+     * @param fullResolution Full-resolution source, or null to use the image itself
+     */
+    public void setImage(BufferedImage image, ImageRegionSource fullResolution) {
+        this.loadingPreview = false;
         this.originalImage = image;  // ALWAYS store original
         this.image = image;           // Keep for compatibility
         this.selectionRect = null;
         this.startPoint = null;
         this.endPoint = null;
+        this.fitToWindow = true;
+        
+        if (tilePyramid != null) {
+            tilePyramid.dispose();
+            tilePyramid = null;
+        }
+        this.regionSource = null;
+        
+        if (image != null) {
+            regionSource = (fullResolution != null) ? fullResolution : new BufferedImageRegionSource(image);
+            tilePyramid = new TilePyramid(regionSource, this::repaint);
+        }
+        
+        if (scaledImage != null) {
+            scaledImage.flush();
+            scaledImage = null;
+        }
         
         if (image != null) {
             scaleImageToFit();
@@ -194,60 +520,182 @@ public class ImageCropPanel extends JPanel {
                 dropZonePanel.setVisible(false);
             }
         } else {
+            scaleGeneration++;
+            cancelScaleWorker();
             this.scaledImage = null;
             this.originalImage = null;
+            releaseDisplayBuffer();
             if (dropZonePanel != null) {
                 dropZonePanel.setVisible(true);
             }
         }
         
+        revalidate();
         repaint();
     }
     
     /**
-     * Scale image to fit panel while maintaining aspect ratio
+     * Show a subsampled preview while the full image is still loading.
+     * Selection stays off until the full image is set.
+     * @param preview Preview image
+     */
+    public void setLoadingPreview(BufferedImage preview) {
+        setImage(preview, null);
+        this.loadingPreview = true;
+        this.selectionEnabled = false;
+        setCursor(Cursor.getDefaultCursor());
+        repaint();
+    }
+    
+    /**
+     * Scale image to fit panel while maintaining aspect ratio.
+     * Shows a nearest-neighbor preview right away and replaces it with a
+     * progressively downscaled, smooth version computed off the EDT.
      */
     private void scaleImageToFit() {
         if (image == null) return;
         
-        int panelWidth = getWidth();
-        int panelHeight = getHeight();
+        updateLayout();
         
-        if (panelWidth <= 0 || panelHeight <= 0) {
-            panelWidth = 600;
-            panelHeight = 400;
-        }
+        // cheap preview so something is on screen immediately
+        setScaledImage(createPreview(originalImage, displayWidth, displayHeight));
+        
+        scheduleQualityScale();
+    }
+    
+    /**
+     * Recompute display size, offsets and scale factors for the current panel size and zoom
+     */
+    private void updateLayout() {
+        Dimension visible = getVisibleAreaSize();
         
-        int imgWidth = originalImage.getWidth();
-        int imgHeight = originalImage.getHeight();
+        int imgWidth = regionSource.getWidth();
+        int imgHeight = regionSource.getHeight();
 
-        double scale = Math.min(
-            (double) panelWidth / imgWidth,
-            (double) panelHeight / imgHeight
-        );
+        double scale = fitToWindow ? getFitScale() : zoom;
         
-        int scaledWidth = (int) (imgWidth * scale);
-        int scaledHeight = (int) (imgHeight * scale);
+        displayWidth = Math.max(1, (int) (imgWidth * scale));
+        displayHeight = Math.max(1, (int) (imgHeight * scale));
+        layoutScale = (double) displayWidth / imgWidth;
+        
+        scaleX = (double) imgWidth / displayWidth;
+        scaleY = (double) imgHeight / displayHeight;
+        
+        // center while smaller than the visible area, otherwise start at the panel edge
+        imageXOffset = Math.max(0, (visible.width - displayWidth) / 2);
+        imageYOffset = Math.max(0, (visible.height - displayHeight) / 2);
+    }
+    
+    /**
+     * Scale at which the whole image fits the visible area
+     */
+    private double getFitScale() {
+        Dimension visible = getVisibleAreaSize();
+        return Math.min(
+            (double) visible.width / regionSource.getWidth(),
+            (double) visible.height / regionSource.getHeight()
+        );
+    }
+    
+    /**
+     * Size of the area the image is shown in: the scroll pane's viewport
+     * if there is one, otherwise the panel itself
+     */
+    private Dimension getVisibleAreaSize() {
+        JViewport viewport = getViewport();
+        Dimension size = (viewport != null) ? viewport.getExtentSize() : getSize();
         
-        scaleX = (double) imgWidth / scaledWidth;
-        scaleY = (double) imgHeight / scaledHeight;
+        if (size.width <= 0 || size.height <= 0) {
+            return new Dimension(600, 400);
+        }
+        return size;
+    }
+    
+    /**
+     * Start a background job producing the smooth display image for the current layout
+     */
+    private void scheduleQualityScale() {
+        cancelScaleWorker();
         
-        imageXOffset = (panelWidth - scaledWidth) / 2;
-        imageYOffset = (panelHeight - scaledHeight) / 2;
+        final int generation = ++scaleGeneration;
+        final BufferedImage source = originalImage;
+        final int targetWidth = displayWidth;
+        final int targetHeight = displayHeight;
         
-        Image scaled = image.getScaledInstance(scaledWidth, scaledHeight, Image.SCALE_SMOOTH);
-        scaledImage = new BufferedImage(scaledWidth, scaledHeight, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = scaledImage.createGraphics();
-        g2d.drawImage(scaled, 0, 0, null);
+        scaleWorker = new SwingWorker<BufferedImage, Void>() {
+            @Override
+            protected BufferedImage doInBackground() {
+                return ImageProcessor.progressiveScale(source, targetWidth, targetHeight, this::isCancelled);
+            }
+            
+            @Override
+            protected void done() {
+                if (isCancelled() || generation != scaleGeneration) {
+                    return;
+                }
+                try {
+                    BufferedImage scaled = get();
+                    if (scaled != null) {
+                        setScaledImage(scaled);
+                        repaint();
+                    }
+                } catch (Exception e) {
+                    System.err.println("Error scaling image: " + e.getMessage());
+                }
+            }
+        };
+        scaleWorker.execute();
+    }
+    
+    private void cancelScaleWorker() {
+        if (scaleWorker != null) {
+            scaleWorker.cancel(false);
+            scaleWorker = null;
+        }
+    }
+    
+    private void setScaledImage(BufferedImage newScaledImage) {
+        if (scaledImage != null && scaledImage != newScaledImage) {
+            scaledImage.flush();
+        }
+        scaledImage = newScaledImage;
+        displayBufferStale = true;
+    }
+    
+    /**
+     * Nearest-neighbor scale: only reads one source pixel per target pixel
+     */
+    private static BufferedImage createPreview(BufferedImage source, int width, int height) {
+        BufferedImage preview = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = preview.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g2d.drawImage(source, 0, 0, width, height, null);
         g2d.dispose();
+        return preview;
     }
     
     /**
-     * Get selected region from original image
+     * Get selected region from the full-resolution image
      * @return BufferedImage of selected region, or null if no selection
      */
     public BufferedImage getSelectedRegion() {
-        if (originalImage == null || selectionRect == null) return null;
+        Rectangle bounds = getSelectionBounds();
+        if (bounds == null) return null;
+
+        try {
+            return regionSource.readRegion(bounds, 1);  // Use FULL resolution!
+        } catch (Exception e) {
+            System.err.println("Error extracting region: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Get the current selection in full-resolution image coordinates
+     * @return Selection rectangle, or null if no valid selection
+     */
+    public Rectangle getSelectionBounds() {
+        if (regionSource == null || selectionRect == null) return null;
 
         // Adjust for centering offset
         int adjX = selectionRect.x - imageXOffset;
@@ -255,7 +703,7 @@ public class ImageCropPanel extends JPanel {
 
         // Ensure selection is inside displayed image
         if (adjX < 0 || adjY < 0 || 
-            adjX > scaledImage.getWidth() || adjY > scaledImage.getHeight()) {
+            adjX > displayWidth || adjY > displayHeight) {
             return null;
         }
      
@@ -265,19 +713,14 @@ public class ImageCropPanel extends JPanel {
         int width = (int) (selectionRect.width * scaleX);
         int height = (int) (selectionRect.height * scaleY);
 
-        x = Math.max(0, Math.min(x, originalImage.getWidth() - 1));
-        y = Math.max(0, Math.min(y, originalImage.getHeight() - 1));
-        width = Math.min(width, originalImage.getWidth() - x);
-        height = Math.min(height, originalImage.getHeight() - y);
+        x = Math.max(0, Math.min(x, regionSource.getWidth() - 1));
+        y = Math.max(0, Math.min(y, regionSource.getHeight() - 1));
+        width = Math.min(width, regionSource.getWidth() - x);
+        height = Math.min(height, regionSource.getHeight() - y);
 
         if (width <= 0 || height <= 0) return null;
 
-        try {
-            return originalImage.getSubimage(x, y, width, height);  // Use ORIGINAL!
-        } catch (Exception e) {
-            System.err.println("Error extracting region: " + e.getMessage());
-            return null;
-        }
+        return new Rectangle(x, y, width, height);
     }
 
     
@@ -294,6 +737,7 @@ public class ImageCropPanel extends JPanel {
      */
     public void clearSelection() {
         selectionRect = null;
+        previewText = null;
         startPoint = null;
         endPoint = null;
         repaint();
@@ -311,60 +755,24 @@ public class ImageCropPanel extends JPanel {
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         
         if (originalImage != null) {
-            int scaledWidth = (int) (originalImage.getWidth() / scaleX);
-            int scaledHeight = (int) (originalImage.getHeight() / scaleY);
             int x = imageXOffset;
             int y = imageYOffset;
 
-            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-            g2d.drawImage(originalImage, x, y, scaledWidth, scaledHeight, null);
-            
-            // Draw selection indicator message when in selection mode
-            if (selectionEnabled && !isDragging && selectionRect == null) {
-                g2d.setColor(new Color(0, 0, 0, 150));
-                String msg = "Click and drag to select text region";
-                FontMetrics fm = g2d.getFontMetrics();
-                int msgWidth = fm.stringWidth(msg);
-                int msgX = (getWidth() - msgWidth) / 2;
-                int msgY = 30;
-                
-                g2d.fillRoundRect(msgX - 10, msgY - 20, msgWidth + 20, 30, 10, 10);
-                g2d.setColor(Color.WHITE);
-                g2d.drawString(msg, msgX, msgY);
+            if (!fitToWindow) {
+                Rectangle clip = g2d.getClipBounds();
+                tilePyramid.paint(g2d, layoutScale, x, y, clip != null ? clip : getVisibleRect());
+            } else if (scaledImage != null) {
+                if (scaledImage.getWidth() == displayWidth && scaledImage.getHeight() == displayHeight) {
+                    drawDisplayImage(g2d, x, y);
+                } else {
+                    // layout changed and the quality version isn't ready yet - stretch the cache
+                    g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                            RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+                    g2d.drawImage(scaledImage, x, y, displayWidth, displayHeight, null);
+                }
             }
             
-            if (selectionRect != null) {
-                g2d.setColor(SELECTION_COLOR);
-                g2d.fillRect(selectionRect.x, selectionRect.y, selectionRect.width, selectionRect.height);
-                
-                g2d.setColor(BORDER_COLOR);
-                g2d.setStroke(BORDER_STROKE);
-                g2d.drawRect(selectionRect.x, selectionRect.y, selectionRect.width, selectionRect.height);
-                
-                String dimensions = selectionRect.width + " × " + selectionRect.height;
-
-             FontMetrics fm = g2d.getFontMetrics();
-             int textWidth = fm.stringWidth(dimensions);
-             int textHeight = fm.getHeight();
-
-             // position near the top right edge of the image area
-             int boxPadding = 8;
-             int boxWidth = textWidth + boxPadding * 2;
-             int boxHeight = textHeight + 4;
-
-             int boxX = getWidth() - boxWidth - 15;
-             int boxY = 10;
-
-             Color bgColor = Theme.getBgPrimary();
-             Color textColor = Color.WHITE;
-
-             g2d.setColor(bgColor);
-             g2d.fillRoundRect(boxX, boxY, boxWidth, boxHeight, 10, 10);
-
-             g2d.setColor(textColor);
-             g2d.drawString(dimensions, boxX + boxPadding, boxY + fm.getAscent());
-
-            }
+            paintOverlay(g2d);
         } else {
             g2d.setColor(Theme.getTextSecondary());
             String message = "No image loaded";
@@ -375,6 +783,195 @@ public class ImageCropPanel extends JPanel {
         }
     }
     
+    /**
+     * Blit the display-sized image from video memory, re-uploading it only
+     * when the cache changed or the surface was lost
+     */
+    private void drawDisplayImage(Graphics2D g2d, int x, int y) {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc == null) {
+            g2d.drawImage(scaledImage, x, y, null);
+            return;
+        }
+        
+        int attempts = 0;
+        do {
+            int status = (displayBuffer != null) ? displayBuffer.validate(gc) : VolatileImage.IMAGE_INCOMPATIBLE;
+            
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE
+                    || displayBuffer.getWidth() != displayWidth || displayBuffer.getHeight() != displayHeight) {
+                releaseDisplayBuffer();
+                displayBuffer = gc.createCompatibleVolatileImage(displayWidth, displayHeight);
+                status = VolatileImage.IMAGE_RESTORED;
+            }
+            
+            if (status == VolatileImage.IMAGE_RESTORED || displayBufferStale) {
+                Graphics2D bufferGraphics = displayBuffer.createGraphics();
+                bufferGraphics.drawImage(scaledImage, 0, 0, null);
+                bufferGraphics.dispose();
+                displayBufferStale = false;
+            }
+            
+            g2d.drawImage(displayBuffer, x, y, null);
+        } while (displayBuffer.contentsLost() && ++attempts < 3);
+    }
+    
+    private void releaseDisplayBuffer() {
+        if (displayBuffer != null) {
+            displayBuffer.flush();
+            displayBuffer = null;
+        }
+    }
+    
+    /**
+     * Draw a hint message centered at the top of the visible area
+     */
+    private void paintHint(Graphics2D g2d, Rectangle visible, String msg) {
+        g2d.setColor(new Color(0, 0, 0, 150));
+        FontMetrics fm = g2d.getFontMetrics();
+        int msgWidth = fm.stringWidth(msg);
+        int msgX = visible.x + (visible.width - msgWidth) / 2;
+        int msgY = visible.y + 30;
+        
+        g2d.fillRoundRect(msgX - 10, msgY - 20, msgWidth + 20, 30, 10, 10);
+        g2d.setColor(Color.WHITE);
+        g2d.drawString(msg, msgX, msgY);
+    }
+    
+    /**
+     * Draw the hint message and the selection on top of the image
+     */
+    private void paintOverlay(Graphics2D g2d) {
+        // overlays stay anchored to the visible area while zoomed
+        Rectangle visible = getVisibleRect();
+        
+        // Draw selection indicator message when in selection mode
+        if (loadingPreview) {
+            paintHint(g2d, visible, "Loading full image...");
+        } else if (selectionEnabled && !isDragging && selectionRect == null) {
+            paintHint(g2d, visible, "Click and drag to select text region");
+        }
+        
+        if (selectionRect != null) {
+            g2d.setColor(SELECTION_COLOR);
+            g2d.fillRect(selectionRect.x, selectionRect.y, selectionRect.width, selectionRect.height);
+            
+            g2d.setColor(BORDER_COLOR);
+            g2d.setStroke(BORDER_STROKE);
+            g2d.drawRect(selectionRect.x, selectionRect.y, selectionRect.width, selectionRect.height);
+            
+            String dimensions = getDimensionsLabel(selectionRect);
+            FontMetrics fm = g2d.getFontMetrics();
+            Rectangle box = getLabelBounds(selectionRect, fm);
+            
+            g2d.setColor(Theme.getBgPrimary());
+            g2d.fillRoundRect(box.x, box.y, box.width, box.height, 10, 10);
+            
+            g2d.setColor(Color.WHITE);
+            g2d.drawString(dimensions, box.x + LABEL_PADDING, box.y + fm.getAscent());
+        }
+        
+        Rectangle previewBox = getPreviewBounds();
+        if (previewBox != null) {
+            FontMetrics fm = g2d.getFontMetrics();
+            g2d.setColor(new Color(0, 0, 0, 180));
+            g2d.fillRoundRect(previewBox.x, previewBox.y, previewBox.width, previewBox.height, 10, 10);
+            
+            g2d.setColor(Color.WHITE);
+            int lineY = previewBox.y + LABEL_PADDING / 2 + fm.getAscent();
+            for (String line : getPreviewLines(fm, previewBox.width - LABEL_PADDING * 2)) {
+                g2d.drawString(line, previewBox.x + LABEL_PADDING, lineY);
+                lineY += fm.getHeight();
+            }
+        }
+    }
+    
+    /**
+     * Preview box, along the bottom edge of the visible area
+     * @return Bounds, or null when there is no preview to show
+     */
+    private Rectangle getPreviewBounds() {
+        if (previewText == null || image == null) {
+            return null;
+        }
+        Rectangle visible = getVisibleRect();
+        FontMetrics fm = getFontMetrics(getFont());
+        int width = Math.max(0, visible.width - 30);
+        int lines = getPreviewLines(fm, width - LABEL_PADDING * 2).size();
+        int height = lines * fm.getHeight() + LABEL_PADDING;
+        return new Rectangle(visible.x + 15, visible.y + visible.height - height - 10, width, height);
+    }
+    
+    /**
+     * Wrap the preview text into at most PREVIEW_MAX_LINES lines
+     */
+    private List<String> getPreviewLines(FontMetrics fm, int maxWidth) {
+        List<String> lines = new ArrayList<>();
+        String text = previewText.trim().replaceAll("\\s+", " ");
+        if (text.isEmpty()) {
+            lines.add("Preview: no text detected");
+            return lines;
+        }
+        
+        StringBuilder line = new StringBuilder("Preview: ");
+        for (String word : text.split(" ")) {
+            if (line.length() > 0 && fm.stringWidth(line + word) > maxWidth) {
+                if (lines.size() == PREVIEW_MAX_LINES - 1) {
+                    line.append("…");
+                    break;
+                }
+                lines.add(line.toString());
+                line.setLength(0);
+            }
+            line.append(word).append(' ');
+        }
+        lines.add(line.toString());
+        return lines;
+    }
+    
+    private static String getDimensionsLabel(Rectangle selection) {
+        return selection.width + " × " + selection.height;
+    }
+    
+    /**
+     * Dimension label box, near the top right edge of the visible area
+     */
+    private Rectangle getLabelBounds(Rectangle selection, FontMetrics fm) {
+        Rectangle visible = getVisibleRect();
+        int boxWidth = fm.stringWidth(getDimensionsLabel(selection)) + LABEL_PADDING * 2;
+        int boxHeight = fm.getHeight() + 4;
+        return new Rectangle(visible.x + visible.width - boxWidth - 15, visible.y + 10, boxWidth, boxHeight);
+    }
+    
+    /**
+     * Repaint only what changed between two selection states: the union of
+     * the old and new rectangles, and the union of the old and new labels.
+     * The label sits apart from the selection, and the RepaintManager would
+     * merge both into one large bounding box, so each area is painted
+     * immediately instead.
+     */
+    private void repaintSelection(Rectangle oldSelection, Rectangle newSelection) {
+        FontMetrics fm = getFontMetrics(getFont());
+        Rectangle selectionArea = null;
+        Rectangle labelArea = null;
+        
+        for (Rectangle selection : new Rectangle[] {oldSelection, newSelection}) {
+            if (selection == null) {
+                continue;
+            }
+            Rectangle area = new Rectangle(selection);
+            area.grow(OVERLAY_MARGIN, OVERLAY_MARGIN);
+            Rectangle label = getLabelBounds(selection, fm);
+            selectionArea = (selectionArea == null) ? area : selectionArea.union(area);
+            labelArea = (labelArea == null) ? label : labelArea.union(label);
+        }
+        
+        if (selectionArea != null) {
+            paintImmediately(selectionArea);
+            paintImmediately(labelArea);
+        }
+    }
+    
     /**
      * Setup listener to handle panel resizing
      */
@@ -382,12 +979,22 @@ public class ImageCropPanel extends JPanel {
         addComponentListener(new java.awt.event.ComponentAdapter() {
             @Override
             public void componentResized(java.awt.event.ComponentEvent e) {
-                // Recalculate scaling when panel is resized
+                // Recalculate layout now, rescale once resizing settles
                 if (originalImage != null) {
-                    scaleImageToFit();
+                    updateLayout();
+                    if (fitToWindow) {
+                        resizeDebounceTimer.restart();
+                    }
                     repaint();
                 }
             }
         });
+        
+        resizeDebounceTimer = new Timer(RESIZE_DEBOUNCE_MS, e -> {
+            if (originalImage != null && fitToWindow) {
+                scheduleQualityScale();
+            }
+        });
+        resizeDebounceTimer.setRepeats(false);
     }
 }
\ No newline at end of file
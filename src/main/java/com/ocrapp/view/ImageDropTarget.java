@@ -8,14 +8,23 @@ import java.util.List;
 import java.util.function.Consumer;
 
 /**
- * Drag and drop handler for image files
+ * Drag and drop handler for image files.
+ * A single image is handed to onFileDropped; several files, or folders,
+ * go to onFilesDropped (when set) unfiltered, so folders can be expanded
+ * off the EDT.
  */
 public class ImageDropTarget extends DropTargetAdapter {
     
     private Consumer<File> onFileDropped;
+    private Consumer<List<File>> onFilesDropped;
     
     public ImageDropTarget(Consumer<File> onFileDropped) {
+        this(onFileDropped, null);
+    }
+    
+    public ImageDropTarget(Consumer<File> onFileDropped, Consumer<List<File>> onFilesDropped) {
         this.onFileDropped = onFileDropped;
+        this.onFilesDropped = onFilesDropped;
     }
     
     @Override
@@ -29,6 +38,13 @@ public class ImageDropTarget extends DropTargetAdapter {
                 @SuppressWarnings("unchecked")
                 List<File> files = (List<File>) transferable.getTransferData(DataFlavor.javaFileListFlavor);
                 
+                if (onFilesDropped != null && (files.size() > 1 ||
+                        (files.size() == 1 && files.get(0).isDirectory()))) {
+                    onFilesDropped.accept(files);
+                    dtde.dropComplete(true);
+                    return;
+                }
+                
                 if (!files.isEmpty()) {
                     File file = files.get(0); // first file only
                     
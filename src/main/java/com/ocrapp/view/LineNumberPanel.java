@@ -6,28 +6,141 @@ import javax.swing.event.DocumentListener;
 import javax.swing.text.BadLocationException;
 import java.awt.*;
 import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
 
 public class LineNumberPanel extends JPanel {
 	private static final long serialVersionUID = 1L;
-	
+
+    // at most one gutter repaint per frame
+    private static final int REPAINT_DELAY_MS = 16;
+    private static final int MIN_DIGITS = 2;
+
 	private final JTextArea textArea;
     private final FontMetrics fontMetrics;
+    // line index maintained by the document, when it keeps one
+    private final OCRTextDocument lineIndex;
+
+    // changed lines since the last repaint; dirtyTo == Integer.MAX_VALUE means "to the end"
+    private final Timer repaintTimer;
+    private int dirtyFrom = Integer.MAX_VALUE;
+    private int dirtyTo = -1;
+    private int lastLineCount;
+    private int lastTextHeight;
+
+    // width only changes when the line count crosses a power of ten
+    private int digits;
+    private int digitsFloor;
+    private int digitsCeiling;
+    private int cachedWidth;
 
     public LineNumberPanel(JTextArea textArea) {
         this.textArea = textArea;
+        this.lineIndex = (textArea.getDocument() instanceof OCRTextDocument document) ? document : null;
         setFont(textArea.getFont());
         fontMetrics = getFontMetrics(getFont());
         setBackground(Theme.getBgTertiary());
         setForeground(new Color(180, 180, 180));
         setBorder(BorderFactory.createMatteBorder(0, 0, 0, 1, new Color(60, 60, 60)));
 
+        lastLineCount = getLineCount();
+        updateDigits(lastLineCount);
+
+        repaintTimer = new Timer(REPAINT_DELAY_MS, e -> flushRepaint());
+        repaintTimer.setRepeats(false);
+
         textArea.getDocument().addDocumentListener(new DocumentListener() {
-            public void insertUpdate(DocumentEvent e) { repaint(); }
-            public void removeUpdate(DocumentEvent e) { repaint(); }
-            public void changedUpdate(DocumentEvent e) { repaint(); }
+            public void insertUpdate(DocumentEvent e) { markDirty(e.getOffset()); }
+            public void removeUpdate(DocumentEvent e) { markDirty(e.getOffset()); }
+            public void changedUpdate(DocumentEvent e) { }
         });
+    }
+
+    /**
+     * Record an edit and schedule a repaint for the next frame.
+     * Numbers only change from the edited line down, and only if lines
+     * were added or removed; otherwise just that line is repainted.
+     * @param offset Document offset of the edit
+     */
+    private void markDirty(int offset) {
+        try {
+            int line = getLineOfOffset(offset);
+            int lineCount = getLineCount();
+            dirtyFrom = Math.min(dirtyFrom, line);
+            dirtyTo = (lineCount != lastLineCount) ? Integer.MAX_VALUE : Math.max(dirtyTo, line);
+            lastLineCount = lineCount;
+        } catch (BadLocationException e) {
+            dirtyFrom = 0;
+            dirtyTo = Integer.MAX_VALUE;
+        }
+        if (!repaintTimer.isRunning()) {
+            repaintTimer.start();
+        }
+    }
+
+    private void flushRepaint() {
+        int from = dirtyFrom;
+        int to = dirtyTo;
+        dirtyFrom = Integer.MAX_VALUE;
+        dirtyTo = -1;
+
+        if (updateDigits(getLineCount())) {
+            revalidate();
+            repaint();
+            return;
+        }
+
+        // a wrapped line that grew or shrank moves every line below it
+        int textHeight = textArea.getPreferredSize().height;
+        if (textHeight != lastTextHeight) {
+            lastTextHeight = textHeight;
+            to = Integer.MAX_VALUE;
+        }
 
-        textArea.addCaretListener(e -> repaint());
+        try {
+            // modelToView2D returns null until the text area has been laid out
+            Rectangle2D start = textArea.modelToView2D(getLineStartOffset(from));
+            if (start == null) {
+                repaint();
+                return;
+            }
+            int top = (int) start.getY();
+            int bottom = getHeight();
+            if (to != Integer.MAX_VALUE && to + 1 < getLineCount()) {
+                Rectangle2D end = textArea.modelToView2D(getLineStartOffset(to + 1));
+                if (end != null) {
+                    bottom = (int) end.getY();
+                }
+            }
+            repaint(0, top, getWidth(), Math.max(bottom - top, 1));
+        } catch (BadLocationException e) {
+            repaint();
+        }
+    }
+
+    /**
+     * Recompute the gutter width if the line count left the current
+     * power-of-ten band
+     * @param lineCount Current line count
+     * @return true if the width changed
+     */
+    private boolean updateDigits(int lineCount) {
+        if (cachedWidth > 0 && lineCount >= digitsFloor && lineCount < digitsCeiling) {
+            return false;
+        }
+        int count = 1;
+        int floor = 1;
+        while (count < 10 && floor <= lineCount / 10) {
+            floor *= 10;
+            count++;
+        }
+        digitsFloor = floor;
+        digitsCeiling = (count < 10) ? floor * 10 : Integer.MAX_VALUE;
+
+        int newDigits = Math.max(MIN_DIGITS, count);
+        boolean changed = newDigits != digits;
+        digits = newDigits;
+        cachedWidth = fontMetrics.charWidth('0') * digits + 10;
+        return changed;
     }
 
     @Override
@@ -42,8 +155,9 @@ public class LineNumberPanel extends JPanel {
         g.setFont(getFont());
 
         try {
-            int startLine = textArea.getLineOfOffset(startOffset);
-            int endLine = textArea.getLineOfOffset(endOffset);
+            // only the lines inside the clip are looked up and drawn
+            int startLine = getLineOfOffset(startOffset);
+            int endLine = getLineOfOffset(endOffset);
 
             for (int i = startLine; i <= endLine; i++) {
                 int y = getLineY(i);
@@ -56,15 +170,24 @@ public class LineNumberPanel extends JPanel {
     }
 
     private int getLineY(int line) throws BadLocationException {
-        Rectangle r = textArea.modelToView2D(textArea.getLineStartOffset(line)).getBounds();
+        Rectangle r = textArea.modelToView2D(getLineStartOffset(line)).getBounds();
         return r.y + r.height - 4;
     }
 
+    private int getLineOfOffset(int offset) throws BadLocationException {
+        return (lineIndex != null) ? lineIndex.getLineOfOffset(offset) : textArea.getLineOfOffset(offset);
+    }
+
+    private int getLineStartOffset(int line) throws BadLocationException {
+        return (lineIndex != null) ? lineIndex.getLineStartOffset(line) : textArea.getLineStartOffset(line);
+    }
+
+    private int getLineCount() {
+        return (lineIndex != null) ? lineIndex.getLineCount() : textArea.getLineCount();
+    }
+
     @Override
     public Dimension getPreferredSize() {
-        int lineCount = textArea.getLineCount();
-        int digits = Math.max(2, String.valueOf(lineCount).length());
-        int width = fontMetrics.charWidth('0') * digits + 10;
-        return new Dimension(width, textArea.getHeight());
+        return new Dimension(cachedWidth, textArea.getHeight());
     }
 }
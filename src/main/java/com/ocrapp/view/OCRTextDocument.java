@@ -0,0 +1,65 @@
+package com.ocrapp.view;
+
+import javax.swing.text.PlainDocument;
+
+/**
+ * Plain text document for OCR results, backed by a piece table.
+ * Appending a page doesn't copy the text before it, and the line-start
+ * index is kept up to date by each edit, so the line number gutter can
+ * look up the lines it paints without walking the element tree.
+ */
+public class OCRTextDocument extends PlainDocument {
+    private static final long serialVersionUID = 1L;
+
+    private final transient PieceTableContent content;
+
+    public OCRTextDocument() {
+        this(new PieceTableContent());
+    }
+
+    private OCRTextDocument(PieceTableContent content) {
+        super(content);
+        this.content = content;
+    }
+
+    /**
+     * Get the number of lines
+     * @return Line count (at least 1)
+     */
+    public int getLineCount() {
+        readLock();
+        try {
+            return content.getLineCount();
+        } finally {
+            readUnlock();
+        }
+    }
+
+    /**
+     * Get the line containing an offset
+     * @param offset Document offset (clamped to the document)
+     * @return 0-based line index
+     */
+    public int getLineOfOffset(int offset) {
+        readLock();
+        try {
+            return content.getLineOfOffset(offset);
+        } finally {
+            readUnlock();
+        }
+    }
+
+    /**
+     * Get the offset where a line starts
+     * @param line 0-based line index
+     * @return Document offset of the line's first character
+     */
+    public int getLineStartOffset(int line) {
+        readLock();
+        try {
+            return content.getLineStartOffset(line);
+        } finally {
+            readUnlock();
+        }
+    }
+}
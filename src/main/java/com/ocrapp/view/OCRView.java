@@ -1,5 +1,7 @@
 package com.ocrapp.view;
 
+import com.ocrapp.service.ImageRegionSource;
+import com.ocrapp.service.OCRProfile;
 import com.ocrapp.util.AppPreferences;
 
 import javax.swing.*;
@@ -28,7 +30,9 @@ public class OCRView extends JFrame {
     private JScrollPane imageScrollPane;
     private JProgressBar progressBar;
     private JLabel progressLabel;
+    private JButton cancelJobButton;
     private LineNumberPanel lineNumberPanel;
+    private BatchQueuePanel batchQueuePanel;
 
     private JTextArea textArea;
     private JScrollPane textScrollPane;
@@ -49,13 +53,18 @@ public class OCRView extends JFrame {
 
     private JComboBox<String> languageComboBox;
     private JLabel languageLabel;
+    private JComboBox<OCRProfile> profileComboBox;
+    private JLabel profileLabel;
 
     private JMenuItem openMenuItem;
     private JMenuItem saveMenuItem;
+    private JMenuItem historyMenuItem;
+    private JMenuItem tessdataMenuItem;
     private JMenuItem exitMenuItem;
     private JMenuItem clearMenuItem;
     private JMenuItem aboutMenuItem;
     private JMenuItem copyMenuItem;
+    private JMenuItem rerunRegionMenuItem;
 
     private UndoManager undoManager;
     private JMenuItem undoMenuItem;
@@ -131,9 +140,16 @@ public class OCRView extends JFrame {
         imageInfoLabel.setFont(Theme.FONT_REGULAR);
         imageInfoLabel.setForeground(Theme.getTextSecondary());
         imageInfoLabel.setBorder(new EmptyBorder(8, 15, 8, 15));
-        imagePanelContainer.add(imageInfoLabel, BorderLayout.SOUTH);
+        
+        batchQueuePanel = new BatchQueuePanel();
+        
+        JPanel imageFooterPanel = new JPanel(new BorderLayout());
+        imageFooterPanel.setBackground(Theme.getBgSecondary());
+        imageFooterPanel.add(imageInfoLabel, BorderLayout.NORTH);
+        imageFooterPanel.add(batchQueuePanel, BorderLayout.CENTER);
+        imagePanelContainer.add(imageFooterPanel, BorderLayout.SOUTH);
 
-        textArea = new JTextArea();
+        textArea = new JTextArea(new OCRTextDocument());
         textArea.setFont(Theme.FONT_MONO);
         textArea.setBackground(Theme.getBgTertiary());
         textArea.setForeground(Theme.getTextPrimary());
@@ -256,6 +272,21 @@ public class OCRView extends JFrame {
             }
         }
 
+        profileLabel = new JLabel("Quality:");
+        profileLabel.setFont(Theme.FONT_REGULAR);
+        profileLabel.setForeground(Theme.getTextPrimary());
+
+        profileComboBox = new JComboBox<>(OCRProfile.values());
+        profileComboBox.setFont(Theme.FONT_REGULAR);
+        profileComboBox.setBackground(Theme.getBgPrimary());
+        profileComboBox.setPreferredSize(new Dimension(110, 40));
+        profileComboBox.setBorder(BorderFactory.createLineBorder(Theme.getBorder()));
+        profileComboBox.setToolTipText("Fast: quickest, for clean scans. Accurate: slowest, for difficult pages.");
+
+        // Load last selected profile
+        OCRProfile lastProfile = OCRProfile.forName(AppPreferences.getLastProfile());
+        profileComboBox.setSelectedItem((lastProfile != null) ? lastProfile : OCRProfile.getDefault());
+
         // Progress bar
         progressBar = new JProgressBar(0, 100);
         progressBar.setStringPainted(true);
@@ -270,6 +301,10 @@ public class OCRView extends JFrame {
         progressLabel.setForeground(Theme.getTextSecondary());
         progressLabel.setVisible(false);
 
+        cancelJobButton = createStyledButton("Cancel", 80, 22, Theme.getError());
+        cancelJobButton.setToolTipText("Cancel running and queued OCR jobs");
+        cancelJobButton.setVisible(false);
+
         // Status label
         statusLabel = new JLabel("Ready - OCR Engine successfully initialized");
         statusLabel.setFont(Theme.FONT_REGULAR);
@@ -296,6 +331,8 @@ public class OCRView extends JFrame {
     	languagePanel.setBackground(Theme.getBgSecondary());
     	languagePanel.add(languageLabel);
     	languagePanel.add(languageComboBox);
+    	languagePanel.add(profileLabel);
+    	languagePanel.add(profileComboBox);
     	languagePanel.add(loadImageButton);
 
     	// Button panel
@@ -330,6 +367,7 @@ public class OCRView extends JFrame {
     	progressPanel.setBackground(Theme.getBgSecondary());
     	progressPanel.add(progressLabel);
     	progressPanel.add(progressBar);
+    	progressPanel.add(cancelJobButton);
     	statusPanel.add(progressPanel, BorderLayout.CENTER);
 
     	// Right side - Empty (for now) for balance
@@ -361,10 +399,15 @@ public class OCRView extends JFrame {
     	openMenuItem = createStyledMenuItem("Open Image...", "control O", 'O');
     	saveMenuItem = createStyledMenuItem("Save Text...", "control S", 'S');
     	saveMenuItem.setEnabled(false);
+    	historyMenuItem = createStyledMenuItem("Search History...", "control H", 'H');
+    	tessdataMenuItem = createStyledMenuItem("Tessdata Folder...", null, 'T');
     	exitMenuItem = createStyledMenuItem("Exit", "control Q", 'X');
 
     	fileMenu.add(openMenuItem);
     	fileMenu.add(saveMenuItem);
+    	fileMenu.add(historyMenuItem);
+    	fileMenu.addSeparator();
+    	fileMenu.add(tessdataMenuItem);
     	fileMenu.addSeparator();
     	fileMenu.add(exitMenuItem);
 
@@ -384,6 +427,8 @@ public class OCRView extends JFrame {
     	pasteMenuItem = createStyledMenuItem("Paste", "control V", (char)0);
     	selectAllMenuItem = createStyledMenuItem("Select All", "control A", (char)0);
     	clearMenuItem = createStyledMenuItem("Clear All", "control L", 'L');
+    	rerunRegionMenuItem = createStyledMenuItem("Re-run Region...", "control R", 'R');
+    	rerunRegionMenuItem.setEnabled(false);
 
     	editMenu.add(undoMenuItem);
     	editMenu.add(redoMenuItem);
@@ -394,6 +439,8 @@ public class OCRView extends JFrame {
     	editMenu.addSeparator();
     	editMenu.add(selectAllMenuItem);
     	editMenu.addSeparator();
+    	editMenu.add(rerunRegionMenuItem);
+    	editMenu.addSeparator();
     	editMenu.add(clearMenuItem);
 
     	// Help Menu
@@ -441,6 +488,23 @@ public class OCRView extends JFrame {
 
     }
 
+    /**
+     * Display an image whose full-resolution pixels are read from a source
+     * @param image Image shown when fitted to the window (may be subsampled)
+     * @param fullResolution Source for zoomed views and selections
+     */
+    public void displayImage(BufferedImage image, ImageRegionSource fullResolution) {
+        imageCropPanel.setImage(image, fullResolution);
+    }
+    
+    /**
+     * Display a preview of an image that is still loading
+     * @param preview Subsampled preview
+     */
+    public void displayLoadingPreview(BufferedImage preview) {
+        imageCropPanel.setLoadingPreview(preview);
+    }
+
     /**
      * Display text in the text area
      * @param text Text to display
@@ -454,6 +518,14 @@ public class OCRView extends JFrame {
         }
     }
 
+    /**
+     * Append text to the end of the text area, keeping the caret where it is
+     * @param text Text to append
+     */
+    public void appendText(String text) {
+        textArea.append(text);
+    }
+
     /**
      * Get text from text area
      * @return Current text in text area
@@ -510,6 +582,22 @@ public class OCRView extends JFrame {
         JOptionPane.showMessageDialog(this, message, "Success", JOptionPane.INFORMATION_MESSAGE);
     }
 
+    /**
+     * Ask which region of the current result to re-run
+     * @param regions One description per region, in extraction order
+     * @return Index of the chosen region, or -1 if cancelled
+     */
+    public int chooseRegion(String[] regions) {
+        Object choice = JOptionPane.showInputDialog(this, "Region to re-run OCR on:", "Re-run Region",
+                JOptionPane.QUESTION_MESSAGE, null, regions, regions[regions.length - 1]);
+        for (int i = 0; i < regions.length; i++) {
+            if (regions[i] == choice) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Clear all content (image and text)
      */
@@ -521,9 +609,11 @@ public class OCRView extends JFrame {
         updateUndoRedoState();
         imageInfoLabel.setText("Image: None");
         textInfoLabel.setText("Text: 0 characters, 0 words");
+        batchQueuePanel.clear();
         setStatus("Ready");
         extractTextButton.setEnabled(false);
         saveMenuItem.setEnabled(false);
+        rerunRegionMenuItem.setEnabled(false);
     }
 
     /**
@@ -569,6 +659,7 @@ public class OCRView extends JFrame {
         progressBar.setValue(0);
         progressBar.setVisible(true);
         progressLabel.setVisible(true);
+        cancelJobButton.setVisible(true);
         progressBar.getParent().setVisible(true);
     }
 
@@ -588,6 +679,7 @@ public class OCRView extends JFrame {
     public void hideProgress() {
         progressBar.setVisible(false);
         progressLabel.setVisible(false);
+        cancelJobButton.setVisible(false);
         progressBar.getParent().setVisible(false);
     }
 
@@ -690,6 +782,10 @@ public class OCRView extends JFrame {
         return clearButton;
     }
 
+    public JButton getCancelJobButton() {
+        return cancelJobButton;
+    }
+
     public JButton getCopyClipboardButton() {
     	return copyClipboardButton;
     }
@@ -701,6 +797,14 @@ public class OCRView extends JFrame {
         return saveMenuItem;
     }
 
+    public JMenuItem getHistoryMenuItem() {
+        return historyMenuItem;
+    }
+
+    public JMenuItem getTessdataMenuItem() {
+        return tessdataMenuItem;
+    }
+
     public JMenuItem getExitMenuItem() {
         return exitMenuItem;
     }
@@ -721,10 +825,18 @@ public class OCRView extends JFrame {
         return languageComboBox;
     }
 
+    public JComboBox<OCRProfile> getProfileComboBox() {
+        return profileComboBox;
+    }
+
     public JMenuItem getCopyMenuItem() {
         return copyMenuItem;
     }
 
+    public JMenuItem getRerunRegionMenuItem() {
+        return rerunRegionMenuItem;
+    }
+
     public JMenuItem getUndoMenuItem() {
         return undoMenuItem;
     }
@@ -753,6 +865,10 @@ public class OCRView extends JFrame {
         return imageCropPanel.getSelectedRegion();
     }
 
+    public BatchQueuePanel getBatchQueuePanel() {
+        return batchQueuePanel;
+    }
+
     public ImageCropPanel getImagePanel() {
         return imageCropPanel;
     }
@@ -0,0 +1,557 @@
+package com.ocrapp.view;
+
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Position;
+import javax.swing.text.Segment;
+import javax.swing.undo.AbstractUndoableEdit;
+import javax.swing.undo.CannotRedoException;
+import javax.swing.undo.CannotUndoException;
+import javax.swing.undo.UndoableEdit;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Document content stored as a piece table.
+ * All text lives in one append-only buffer; the document is a sequence of
+ * pieces (ranges of that buffer) kept in a treap ordered by position, with
+ * subtree character and newline counts. Edits split and join pieces in
+ * O(log n) and never move existing text, so appending a page to a long
+ * result costs the same as appending to an empty one.
+ *
+ * The buffer also records where its newlines are. Since it only grows,
+ * that list stays sorted, which gives an O(log n) line-start index for
+ * the gutter without scanning text.
+ *
+ * Access is serialized by the owning AbstractDocument's lock.
+ */
+class PieceTableContent implements AbstractDocument.Content {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // append-only text buffer and the buffer offsets of its newlines
+    private char[] buffer = new char[INITIAL_CAPACITY];
+    private int bufferLength;
+    private int[] newlines = new int[64];
+    private int newlineCount;
+
+    private Piece root;
+
+    // positions handed out by createPosition, sorted by offset
+    private final List<Mark> marks = new ArrayList<>();
+    private final ReferenceQueue<StickyPosition> collected = new ReferenceQueue<>();
+    private int deadMarks;
+
+    PieceTableContent() {
+        // AbstractDocument expects the content to end with a newline
+        root = newPiece(append("\n"), 1);
+    }
+
+    // ========== Content ==========
+
+    @Override
+    public int length() {
+        return length(root);
+    }
+
+    @Override
+    public UndoableEdit insertString(int where, String str) throws BadLocationException {
+        if (where < 0 || where >= length()) {
+            throw new BadLocationException("Invalid insert", where);
+        }
+        if (str.isEmpty()) {
+            return null;
+        }
+        insert(where, str);
+        shiftMarks(where, str.length());
+        return new InsertEdit(where, str.length());
+    }
+
+    @Override
+    public UndoableEdit remove(int where, int nitems) throws BadLocationException {
+        if (where < 0 || nitems < 0 || where + nitems >= length()) {
+            throw new BadLocationException("Invalid remove", where + nitems);
+        }
+        if (nitems == 0) {
+            return null;
+        }
+        String removed = getString(where, nitems);
+        delete(where, nitems);
+        collapseMarks(where, nitems);
+        return new RemoveEdit(where, removed);
+    }
+
+    @Override
+    public String getString(int where, int len) throws BadLocationException {
+        Segment segment = new Segment();
+        getChars(where, len, segment);
+        return new String(segment.array, segment.offset, segment.count);
+    }
+
+    @Override
+    public void getChars(int where, int len, Segment txt) throws BadLocationException {
+        if (where < 0 || len < 0 || where + len > length()) {
+            throw new BadLocationException("Invalid range", where + len);
+        }
+
+        // a range inside one piece is handed out without copying
+        Piece piece = root;
+        int offset = where;
+        while (piece != null) {
+            int leftLength = length(piece.left);
+            if (offset < leftLength) {
+                piece = piece.left;
+            } else if (offset < leftLength + piece.length) {
+                int inPiece = offset - leftLength;
+                int available = piece.length - inPiece;
+                if (len <= available || txt.isPartialReturn()) {
+                    txt.array = buffer;
+                    txt.offset = piece.start + inPiece;
+                    txt.count = Math.min(len, available);
+                    return;
+                }
+                break;
+            } else {
+                offset -= leftLength + piece.length;
+                piece = piece.right;
+            }
+        }
+
+        char[] chars = new char[len];
+        copy(root, where, where + len, chars, 0);
+        txt.array = chars;
+        txt.offset = 0;
+        txt.count = len;
+    }
+
+    @Override
+    public Position createPosition(int offset) throws BadLocationException {
+        if (offset < 0 || offset > length()) {
+            throw new BadLocationException("Invalid position", offset);
+        }
+        purgeMarks();
+        StickyPosition position = new StickyPosition();
+        Mark mark = new Mark(position, offset, collected);
+        position.mark = mark;
+        marks.add(upperBound(offset), mark);
+        return position;
+    }
+
+    // ========== Line index ==========
+
+    /**
+     * Get the number of lines, counting the text after the last newline
+     * @return Line count (at least 1)
+     */
+    int getLineCount() {
+        // the implied trailing newline ends the last line
+        return newlines(root);
+    }
+
+    /**
+     * Get the line containing an offset
+     * @param offset Document offset
+     * @return 0-based line index
+     */
+    int getLineOfOffset(int offset) {
+        int clamped = Math.max(0, Math.min(offset, length() - 1));
+        return Math.min(countNewlines(root, clamped), getLineCount() - 1);
+    }
+
+    /**
+     * Get the offset where a line starts
+     * @param line 0-based line index
+     * @return Document offset of the line's first character
+     */
+    int getLineStartOffset(int line) {
+        if (line <= 0) {
+            return 0;
+        }
+        // the line starts right after the line-th newline
+        Piece piece = root;
+        int offset = 0;
+        int remaining = line;
+        while (piece != null) {
+            int leftNewlines = newlines(piece.left);
+            if (remaining <= leftNewlines) {
+                piece = piece.left;
+            } else if (remaining <= leftNewlines + piece.newlines) {
+                int first = firstNewlineIndex(piece.start);
+                int bufferOffset = newlines[first + remaining - leftNewlines - 1];
+                return offset + length(piece.left) + (bufferOffset - piece.start) + 1;
+            } else {
+                remaining -= leftNewlines + piece.newlines;
+                offset += length(piece.left) + piece.length;
+                piece = piece.right;
+            }
+        }
+        return length();
+    }
+
+    // ========== Piece tree ==========
+
+    private void insert(int where, String str) {
+        int start = append(str);
+
+        Piece[] parts = split(root, where);
+        Piece left = parts[0];
+        Piece last = rightmost(left);
+        if (last != null && last.start + last.length == start) {
+            // typing or appending right after the previous insert: grow that piece
+            root = merge(extendRightmost(left, str.length()), parts[1]);
+        } else {
+            root = merge(merge(left, newPiece(start, str.length())), parts[1]);
+        }
+    }
+
+    private void delete(int where, int nitems) {
+        Piece[] head = split(root, where);
+        Piece[] tail = split(head[1], nitems);
+        root = merge(head[0], tail[1]);
+
+        if (length() == 1) {
+            // only the trailing newline is left: no piece refers to the old text
+            bufferLength = 0;
+            newlineCount = 0;
+            root = newPiece(append("\n"), 1);
+        }
+    }
+
+    /**
+     * Split a tree into the first count characters and the rest
+     */
+    private Piece[] split(Piece piece, int count) {
+        if (piece == null) {
+            return new Piece[] {null, null};
+        }
+        int leftLength = length(piece.left);
+        if (count <= leftLength) {
+            Piece[] parts = split(piece.left, count);
+            piece.left = parts[1];
+            update(piece);
+            return new Piece[] {parts[0], piece};
+        }
+        if (count >= leftLength + piece.length) {
+            Piece[] parts = split(piece.right, count - leftLength - piece.length);
+            piece.right = parts[0];
+            update(piece);
+            return new Piece[] {piece, parts[1]};
+        }
+
+        // split inside this piece
+        int inPiece = count - leftLength;
+        Piece tail = newPiece(piece.start + inPiece, piece.length - inPiece);
+        tail.right = piece.right;
+        update(tail);
+        piece.length = inPiece;
+        piece.newlines = newlinesBetween(piece.start, piece.start + inPiece);
+        piece.right = null;
+        update(piece);
+        return new Piece[] {piece, tail};
+    }
+
+    private static Piece merge(Piece left, Piece right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private Piece extendRightmost(Piece piece, int extra) {
+        if (piece.right != null) {
+            piece.right = extendRightmost(piece.right, extra);
+        } else {
+            piece.newlines += newlinesBetween(piece.start + piece.length, piece.start + piece.length + extra);
+            piece.length += extra;
+        }
+        update(piece);
+        return piece;
+    }
+
+    private static Piece rightmost(Piece piece) {
+        while (piece != null && piece.right != null) {
+            piece = piece.right;
+        }
+        return piece;
+    }
+
+    private Piece newPiece(int start, int length) {
+        Piece piece = new Piece(start, length, newlinesBetween(start, start + length));
+        update(piece);
+        return piece;
+    }
+
+    private static void update(Piece piece) {
+        piece.totalLength = length(piece.left) + piece.length + length(piece.right);
+        piece.totalNewlines = newlines(piece.left) + piece.newlines + newlines(piece.right);
+    }
+
+    private static int length(Piece piece) {
+        return (piece != null) ? piece.totalLength : 0;
+    }
+
+    private static int newlines(Piece piece) {
+        return (piece != null) ? piece.totalNewlines : 0;
+    }
+
+    /**
+     * Count newlines in the first count characters of a tree
+     */
+    private int countNewlines(Piece piece, int count) {
+        int total = 0;
+        while (piece != null && count > 0) {
+            int leftLength = length(piece.left);
+            if (count <= leftLength) {
+                piece = piece.left;
+            } else if (count <= leftLength + piece.length) {
+                return total + newlines(piece.left) + newlinesBetween(piece.start, piece.start + count - leftLength);
+            } else {
+                total += newlines(piece.left) + piece.newlines;
+                count -= leftLength + piece.length;
+                piece = piece.right;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Copy document range [from, to) of a subtree into dest
+     * @return Next free index in dest
+     */
+    private int copy(Piece piece, int from, int to, char[] dest, int destPos) {
+        if (piece == null || from >= to) {
+            return destPos;
+        }
+        int leftLength = length(piece.left);
+        if (from < leftLength) {
+            destPos = copy(piece.left, from, Math.min(to, leftLength), dest, destPos);
+        }
+        int pieceFrom = Math.max(from, leftLength);
+        int pieceTo = Math.min(to, leftLength + piece.length);
+        if (pieceFrom < pieceTo) {
+            int count = pieceTo - pieceFrom;
+            System.arraycopy(buffer, piece.start + pieceFrom - leftLength, dest, destPos, count);
+            destPos += count;
+        }
+        int rightStart = leftLength + piece.length;
+        if (to > rightStart) {
+            destPos = copy(piece.right, Math.max(0, from - rightStart), to - rightStart, dest, destPos);
+        }
+        return destPos;
+    }
+
+    // ========== Buffer ==========
+
+    /**
+     * Append text to the buffer, indexing its newlines
+     * @return Buffer offset of the appended text
+     */
+    private int append(String str) {
+        int start = bufferLength;
+        int needed = bufferLength + str.length();
+        if (needed > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(needed, buffer.length * 2));
+        }
+        str.getChars(0, str.length(), buffer, bufferLength);
+        for (int i = 0; i < str.length(); i++) {
+            if (str.charAt(i) == '\n') {
+                if (newlineCount == newlines.length) {
+                    newlines = Arrays.copyOf(newlines, newlines.length * 2);
+                }
+                newlines[newlineCount++] = start + i;
+            }
+        }
+        bufferLength = needed;
+        return start;
+    }
+
+    /**
+     * Count buffer newlines in [from, to) by binary search
+     */
+    private int newlinesBetween(int from, int to) {
+        return firstNewlineIndex(to) - firstNewlineIndex(from);
+    }
+
+    /**
+     * Index of the first buffer newline at or after a buffer offset
+     */
+    private int firstNewlineIndex(int bufferOffset) {
+        int low = 0;
+        int high = newlineCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (newlines[mid] < bufferOffset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // ========== Positions ==========
+
+    /**
+     * Move marks at or after an insertion point, like GapContent does.
+     * Marks at offset 0 stay put. Appends only touch the few marks at the end.
+     */
+    private void shiftMarks(int where, int length) {
+        int first = (where == 0) ? upperBound(0) : upperBound(where - 1);
+        for (int i = first; i < marks.size(); i++) {
+            marks.get(i).offset += length;
+        }
+    }
+
+    /**
+     * Collapse marks inside a removed range onto its start and move the rest back
+     */
+    private void collapseMarks(int where, int length) {
+        for (int i = upperBound(where); i < marks.size(); i++) {
+            Mark mark = marks.get(i);
+            mark.offset = (mark.offset <= where + length) ? where : mark.offset - length;
+        }
+    }
+
+    /**
+     * Index of the first mark with an offset greater than the given one
+     */
+    private int upperBound(int offset) {
+        int low = 0;
+        int high = marks.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (marks.get(mid).offset <= offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Drop marks whose positions were garbage collected, once enough have piled up
+     */
+    private void purgeMarks() {
+        while (collected.poll() != null) {
+            deadMarks++;
+        }
+        if (deadMarks > 64 && deadMarks > marks.size() / 2) {
+            marks.removeIf(mark -> mark.get() == null);
+            deadMarks = 0;
+        }
+    }
+
+    private static final class Piece {
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private final int start;
+        private int length;
+        private int newlines;
+        private int totalLength;
+        private int totalNewlines;
+        private Piece left;
+        private Piece right;
+
+        private Piece(int start, int length, int newlines) {
+            this.start = start;
+            this.length = length;
+            this.newlines = newlines;
+        }
+    }
+
+    private static final class Mark extends WeakReference<StickyPosition> {
+        private int offset;
+
+        private Mark(StickyPosition position, int offset, ReferenceQueue<StickyPosition> queue) {
+            super(position, queue);
+            this.offset = offset;
+        }
+    }
+
+    private static final class StickyPosition implements Position {
+        private Mark mark;
+
+        @Override
+        public int getOffset() {
+            return mark.offset;
+        }
+
+        @Override
+        public String toString() {
+            return Integer.toString(getOffset());
+        }
+    }
+
+    private final class InsertEdit extends AbstractUndoableEdit {
+        private static final long serialVersionUID = 1L;
+
+        private final int offset;
+        private final int length;
+        private String text;
+
+        private InsertEdit(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public void undo() throws CannotUndoException {
+            super.undo();
+            try {
+                text = getString(offset, length);
+                delete(offset, length);
+                collapseMarks(offset, length);
+            } catch (BadLocationException e) {
+                throw new CannotUndoException();
+            }
+        }
+
+        @Override
+        public void redo() throws CannotRedoException {
+            super.redo();
+            insert(offset, text);
+            shiftMarks(offset, text.length());
+            text = null;
+        }
+    }
+
+    private final class RemoveEdit extends AbstractUndoableEdit {
+        private static final long serialVersionUID = 1L;
+
+        private final int offset;
+        private final String text;
+
+        private RemoveEdit(int offset, String text) {
+            this.offset = offset;
+            this.text = text;
+        }
+
+        @Override
+        public void undo() throws CannotUndoException {
+            super.undo();
+            insert(offset, text);
+            shiftMarks(offset, text.length());
+        }
+
+        @Override
+        public void redo() throws CannotRedoException {
+            super.redo();
+            delete(offset, text.length());
+            collapseMarks(offset, text.length());
+        }
+    }
+}
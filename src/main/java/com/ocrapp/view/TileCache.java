@@ -0,0 +1,92 @@
+package com.ocrapp.view;
+
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of decoded viewer tiles, bounded by bytes.
+ * The size cap defaults to 64 MB and can be set with
+ * -Docrapp.tileCache.maxMB=N.
+ */
+class TileCache {
+
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+    private static final long DEFAULT_MAX_MB = 64;
+
+    private final LinkedHashMap<Long, BufferedImage> tiles;
+    private final long maxBytes;
+    private long bytes;
+
+    /**
+     * Constructor
+     * @param maxBytes Maximum bytes of tile pixels kept
+     */
+    TileCache(long maxBytes) {
+        // access order, so iteration starts at the least recently used tile
+        this.tiles = new LinkedHashMap<>(64, 0.75f, true);
+        this.maxBytes = maxBytes;
+        this.bytes = 0;
+    }
+
+    static long defaultMaxBytes() {
+        return Long.getLong("ocrapp.tileCache.maxMB", DEFAULT_MAX_MB) * BYTES_PER_MB;
+    }
+
+    /**
+     * Look up a tile and mark it as recently used
+     * @param key Tile key
+     * @return Tile, or null if not cached
+     */
+    synchronized BufferedImage get(long key) {
+        return tiles.get(key);
+    }
+
+    /**
+     * Add a tile, evicting least recently used tiles to stay under the cap
+     * @param key Tile key
+     * @param tile Decoded tile
+     */
+    synchronized void put(long key, BufferedImage tile) {
+        BufferedImage previous = tiles.put(key, tile);
+        if (previous != null) {
+            bytes -= sizeOf(previous);
+        }
+        bytes += sizeOf(tile);
+
+        Iterator<Map.Entry<Long, BufferedImage>> eldest = tiles.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Long, BufferedImage> entry = eldest.next();
+            if (entry.getKey() == key) {
+                continue;
+            }
+            bytes -= sizeOf(entry.getValue());
+            entry.getValue().flush();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Drop all tiles
+     */
+    synchronized void clear() {
+        for (BufferedImage tile : tiles.values()) {
+            tile.flush();
+        }
+        tiles.clear();
+        bytes = 0;
+    }
+
+    synchronized long getBytes() {
+        return bytes;
+    }
+
+    synchronized int size() {
+        return tiles.size();
+    }
+
+    private static long sizeOf(BufferedImage tile) {
+        return (long) tile.getWidth() * tile.getHeight() * Integer.BYTES;
+    }
+}
@@ -0,0 +1,237 @@
+package com.ocrapp.view;
+
+import com.ocrapp.service.ImageProcessor;
+import com.ocrapp.service.ImageRegionSource;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multi-resolution tile pyramid over an ImageRegionSource.
+ * Level n holds the image at 1/2^n size, cut into TILE_SIZE tiles. Tiles are
+ * built lazily, only when painted, on a small background pool, and kept in
+ * an LRU TileCache. While a tile is loading, the best cached tile from a
+ * coarser level is stretched in its place, so zooming and panning never
+ * block the EDT and never need the full-size image in memory.
+ */
+class TilePyramid {
+
+    static final int TILE_SIZE = 256;
+
+    private static final int LOADER_THREADS = 2;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ExecutorService LOADER = Executors.newFixedThreadPool(LOADER_THREADS, r -> {
+        Thread thread = new Thread(r, "tile-loader-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private final ImageRegionSource source;
+    private final TileCache cache;
+    private final Runnable onTileLoaded;
+    private final Set<Long> pending;
+    private final int maxLevel;
+
+    // tiles requested for anything other than the last painted view are skipped
+    private volatile int[] wanted;
+    private volatile boolean disposed;
+
+    /**
+     * Constructor
+     * @param source Full-resolution image
+     * @param onTileLoaded Called from a loader thread whenever a new tile is cached
+     */
+    TilePyramid(ImageRegionSource source, Runnable onTileLoaded) {
+        this.source = source;
+        this.cache = new TileCache(TileCache.defaultMaxBytes());
+        this.onTileLoaded = onTileLoaded;
+        this.pending = ConcurrentHashMap.newKeySet();
+        this.wanted = new int[] {-1, 0, 0, -1, -1};
+        this.disposed = false;
+
+        int level = 0;
+        while (Math.max(source.getWidth(), source.getHeight()) > (TILE_SIZE << level)) {
+            level++;
+        }
+        this.maxLevel = level;
+    }
+
+    /**
+     * Pick the level whose resolution is closest above the display scale,
+     * so tiles are only ever shrunk (by at most 2x) when drawn
+     * @param scale Display pixels per source pixel
+     * @return Pyramid level
+     */
+    int levelFor(double scale) {
+        int level = 0;
+        while (level < maxLevel && (1 << (level + 1)) <= 1.0 / scale) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Paint the tiles intersecting the clip
+     * @param g2d Target graphics
+     * @param scale Display pixels per source pixel
+     * @param offsetX X position of the image origin on the component
+     * @param offsetY Y position of the image origin on the component
+     * @param clip Area to paint, in component coordinates
+     */
+    void paint(Graphics2D g2d, double scale, int offsetX, int offsetY, Rectangle clip) {
+        int level = levelFor(scale);
+        int span = TILE_SIZE << level;
+
+        int columns = (source.getWidth() + span - 1) / span;
+        int rows = (source.getHeight() + span - 1) / span;
+
+        int firstColumn = Math.max(0, (int) Math.floor((clip.x - offsetX) / scale / span));
+        int firstRow = Math.max(0, (int) Math.floor((clip.y - offsetY) / scale / span));
+        int lastColumn = Math.min(columns - 1, (int) Math.floor((clip.x + clip.width - offsetX) / scale / span));
+        int lastRow = Math.min(rows - 1, (int) Math.floor((clip.y + clip.height - offsetY) / scale / span));
+
+        wanted = new int[] {level, firstColumn, firstRow, lastColumn, lastRow};
+
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                Rectangle area = sourceArea(level, column, row);
+
+                // round the edges, not the sizes, so neighbouring tiles never leave seams
+                int dx1 = offsetX + (int) Math.round(area.x * scale);
+                int dy1 = offsetY + (int) Math.round(area.y * scale);
+                int dx2 = offsetX + (int) Math.round((area.x + area.width) * scale);
+                int dy2 = offsetY + (int) Math.round((area.y + area.height) * scale);
+
+                BufferedImage tile = cache.get(key(level, column, row));
+                if (tile != null) {
+                    g2d.drawImage(tile, dx1, dy1, dx2, dy2, 0, 0, tile.getWidth(), tile.getHeight(), null);
+                } else {
+                    requestTile(level, column, row);
+                    paintFallback(g2d, level, area, dx1, dy1, dx2, dy2);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stretch the matching part of the nearest cached coarser tile
+     */
+    private void paintFallback(Graphics2D g2d, int level, Rectangle area, int dx1, int dy1, int dx2, int dy2) {
+        for (int parentLevel = level + 1; parentLevel <= maxLevel; parentLevel++) {
+            int parentSpan = TILE_SIZE << parentLevel;
+            int parentColumn = area.x / parentSpan;
+            int parentRow = area.y / parentSpan;
+
+            BufferedImage parent = cache.get(key(parentLevel, parentColumn, parentRow));
+            if (parent == null) {
+                continue;
+            }
+
+            int factor = 1 << parentLevel;
+            int sx1 = (area.x - parentColumn * parentSpan) / factor;
+            int sy1 = (area.y - parentRow * parentSpan) / factor;
+            int sx2 = Math.min(parent.getWidth(), sx1 + Math.max(1, area.width / factor));
+            int sy2 = Math.min(parent.getHeight(), sy1 + Math.max(1, area.height / factor));
+            g2d.drawImage(parent, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, null);
+            return;
+        }
+    }
+
+    private void requestTile(int level, int column, int row) {
+        long key = key(level, column, row);
+        if (disposed || !pending.add(key)) {
+            return;
+        }
+
+        LOADER.execute(() -> {
+            if (disposed || !isWanted(level, column, row)) {
+                // stale request - allow it to be asked for again later
+                pending.remove(key);
+                return;
+            }
+
+            try {
+                BufferedImage tile = loadTile(level, column, row);
+                if (tile != null && !disposed) {
+                    cache.put(key, tile);
+                    onTileLoaded.run();
+                }
+                pending.remove(key);
+            } catch (Exception e) {
+                // leave the key pending so a broken region isn't retried on every paint
+                System.err.println("Error loading tile " + level + "/" + column + "/" + row + ": " + e.getMessage());
+            }
+        });
+    }
+
+    private boolean isWanted(int level, int column, int row) {
+        int[] view = wanted;
+        return view[0] == level
+                && column >= view[1] && column <= view[3]
+                && row >= view[2] && row <= view[4];
+    }
+
+    /**
+     * Decode one tile. Reads at twice the tile resolution and halves it
+     * smoothly, which avoids the aliasing of plain decimation.
+     */
+    private BufferedImage loadTile(int level, int column, int row) throws Exception {
+        Rectangle area = sourceArea(level, column, row);
+        int factor = 1 << level;
+        int tileWidth = Math.max(1, (area.width + factor - 1) / factor);
+        int tileHeight = Math.max(1, (area.height + factor - 1) / factor);
+
+        BufferedImage raw = source.readRegion(area, Math.max(1, factor / 2));
+        if (raw == null) {
+            return null;
+        }
+
+        // already a standalone tile of the right size and a fast type
+        if (raw.getWidth() == tileWidth && raw.getHeight() == tileHeight
+                && raw.getType() == BufferedImage.TYPE_INT_RGB
+                && raw.getRaster().getParent() == null) {
+            return raw;
+        }
+
+        return ImageProcessor.progressiveScale(raw, tileWidth, tileHeight, () -> disposed);
+    }
+
+    /**
+     * Area of the full-resolution image covered by a tile
+     */
+    private Rectangle sourceArea(int level, int column, int row) {
+        int span = TILE_SIZE << level;
+        int x = column * span;
+        int y = row * span;
+        return new Rectangle(x, y,
+                Math.min(span, source.getWidth() - x),
+                Math.min(span, source.getHeight() - y));
+    }
+
+    private static long key(int level, int column, int row) {
+        return ((long) level << 56) | ((long) column << 28) | row;
+    }
+
+    ImageRegionSource getSource() {
+        return source;
+    }
+
+    /**
+     * Stop loading and drop all cached tiles. The source is not closed.
+     */
+    void dispose() {
+        disposed = true;
+        pending.clear();
+        cache.clear();
+    }
+}
@@ -0,0 +1,196 @@
+package com.ocrapp.service;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BatchJournalTest {
+
+    private static final String RUN = "txt|eng|/out/batch.txt";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reopeningRestoresTheEntries() throws IOException {
+        Path file = journalFile();
+        try (BatchJournal journal = new BatchJournal(file, RUN)) {
+            assertEquals(0, journal.getOutputLength());
+            journal.append(page("page-0001.png", "hash-1", 120));
+            journal.append(new BatchJournal.Entry("page-0002.png", "hash-2", true, 120, new byte[0]));
+            journal.append(page("page-0003.png", "hash-3", 300));
+        }
+
+        try (BatchJournal journal = new BatchJournal(file, RUN)) {
+            List<BatchJournal.Entry> entries = journal.getEntries();
+            assertEquals(3, entries.size());
+            assertEquals(300, journal.getOutputLength());
+
+            BatchJournal.Entry first = entries.get(0);
+            assertEquals("page-0001.png", first.getInput());
+            assertEquals("hash-1", first.getContentHash());
+            assertFalse(first.isFailed());
+            assertEquals(120, first.getOutputLength());
+            assertArrayEquals(state("page-0001.png"), first.getExporterState());
+
+            assertTrue(entries.get(1).isFailed());
+            assertEquals(0, entries.get(1).getExporterState().length);
+        }
+    }
+
+    @Test
+    public void missingContentHashReadsBackAsNull() throws IOException {
+        Path file = journalFile();
+        try (BatchJournal journal = new BatchJournal(file, RUN)) {
+            journal.append(page("page-0001.png", null, 10));
+        }
+        try (BatchJournal journal = new BatchJournal(file, RUN)) {
+            assertNull(journal.getEntries().get(0).getContentHash());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsADifferentRun() throws IOException {
+        Path file = journalFile();
+        try (BatchJournal journal = new BatchJournal(file, RUN)) {
+            journal.append(page("page-0001.png", "hash-1", 10));
+        }
+        new BatchJournal(file, "pdf|eng|/out/batch.pdf");
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsFilesThatAreNotAJournal() throws IOException {
+        Path file = journalFile();
+        Files.write(file, "NOTAJOURNAL, just text".getBytes(StandardCharsets.US_ASCII));
+        new BatchJournal(file, RUN);
+    }
+
+    @Test
+    public void tornLastRecordIsTruncated() throws IOException {
+        Path file = journalFile();
+        try (BatchJournal journal = new BatchJournal(file, RUN)) {
+            journal.append(page("page-0001.png", "hash-1", 10));
+            journal.append(page("page-0002.png", "hash-2", 20));
+        }
+        long intact = Files.size(file);
+
+        // a frame header promising more payload than was written
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(intact);
+            raf.writeInt(100);
+            raf.writeInt(0);
+            raf.write(new byte[10]);
+        }
+
+        try (BatchJournal journal = new BatchJournal(file, RUN)) {
+            assertEquals(2, journal.getEntries().size());
+            assertEquals(intact, Files.size(file));
+            journal.append(page("page-0003.png", "hash-3", 30));
+        }
+        try (BatchJournal journal = new BatchJournal(file, RUN)) {
+            assertEquals(3, journal.getEntries().size());
+            assertEquals(30, journal.getOutputLength());
+        }
+    }
+
+    @Test
+    public void recordWithBadChecksumIsDropped() throws IOException {
+        Path file = journalFile();
+        try (BatchJournal journal = new BatchJournal(file, RUN)) {
+            journal.append(page("page-0001.png", "hash-1", 10));
+            journal.append(page("page-0002.png", "hash-2", 20));
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            long last = raf.length() - 1;
+            raf.seek(last);
+            int value = raf.read();
+            raf.seek(last);
+            raf.write(value ^ 0xFF);
+        }
+
+        try (BatchJournal journal = new BatchJournal(file, RUN)) {
+            assertEquals(1, journal.getEntries().size());
+            assertEquals(10, journal.getOutputLength());
+        }
+    }
+
+    @Test
+    public void lostRunRecordIsWrittenAgain() throws IOException {
+        Path file = journalFile();
+        new BatchJournal(file, RUN).close();
+        // keep only the file header, as if the run record never reached the disk
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(12);
+        }
+
+        try (BatchJournal journal = new BatchJournal(file, RUN)) {
+            assertEquals(0, journal.getEntries().size());
+            journal.append(page("page-0001.png", "hash-1", 10));
+        }
+        try (BatchJournal journal = new BatchJournal(file, RUN)) {
+            assertEquals(1, journal.getEntries().size());
+        }
+    }
+
+    @Test
+    public void truncateForgetsLaterEntries() throws IOException {
+        Path file = journalFile();
+        try (BatchJournal journal = new BatchJournal(file, RUN)) {
+            journal.append(page("page-0001.png", "hash-1", 10));
+            journal.append(page("page-0002.png", "hash-2", 20));
+            journal.append(page("page-0003.png", "hash-3", 30));
+
+            journal.truncate(1);
+            assertEquals(1, journal.getEntries().size());
+            assertEquals(10, journal.getOutputLength());
+
+            // past the end is a no-op
+            journal.truncate(5);
+            assertEquals(1, journal.getEntries().size());
+
+            journal.append(page("page-0002.png", "hash-2b", 25));
+        }
+
+        try (BatchJournal journal = new BatchJournal(file, RUN)) {
+            List<BatchJournal.Entry> entries = journal.getEntries();
+            assertEquals(2, entries.size());
+            assertEquals("hash-2b", entries.get(1).getContentHash());
+            assertEquals(25, journal.getOutputLength());
+        }
+    }
+
+    @Test
+    public void deleteRemovesTheFile() throws IOException {
+        Path file = journalFile();
+        BatchJournal journal = new BatchJournal(file, RUN);
+        journal.append(page("page-0001.png", "hash-1", 10));
+        journal.delete();
+        assertFalse(Files.exists(file));
+    }
+
+    private Path journalFile() {
+        return folder.getRoot().toPath().resolve("batch.journal");
+    }
+
+    private static BatchJournal.Entry page(String input, String hash, long outputLength) {
+        return new BatchJournal.Entry(input, hash, false, outputLength, state(input));
+    }
+
+    private static byte[] state(String input) {
+        return ("state of " + input).getBytes(StandardCharsets.UTF_8);
+    }
+}
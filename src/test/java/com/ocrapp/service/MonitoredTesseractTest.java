@@ -0,0 +1,83 @@
+package com.ocrapp.service;
+
+import com.ocrapp.model.OCRWord;
+import org.junit.Test;
+
+import java.awt.Rectangle;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MonitoredTesseractTest {
+
+    private static final String HEADER =
+            "level\tpage_num\tblock_num\tpar_num\tline_num\tword_num\tleft\ttop\twidth\theight\tconf\ttext";
+
+    @Test
+    public void parsesWordRows() {
+        String tsv = String.join("\n",
+                "1\t1\t0\t0\t0\t0\t0\t0\t800\t600\t-1\t",
+                "2\t1\t1\t0\t0\t0\t40\t30\t500\t80\t-1\t",
+                "3\t1\t1\t1\t0\t0\t40\t30\t500\t80\t-1\t",
+                "4\t1\t1\t1\t1\t0\t40\t30\t500\t40\t-1\t",
+                "5\t1\t1\t1\t1\t1\t40\t30\t120\t40\t96.25\tHello",
+                "5\t1\t2\t3\t4\t2\t180\t32\t90\t38\t88.5\tworld!");
+
+        List<OCRWord> words = MonitoredTesseract.parseTsvWords(tsv);
+        assertEquals(2, words.size());
+
+        OCRWord hello = words.get(0);
+        assertEquals("Hello", hello.getText());
+        assertEquals(new Rectangle(40, 30, 120, 40), hello.getBounds());
+        assertEquals(96.25f, hello.getConfidence(), 0.001f);
+        assertEquals(1, hello.getBlockNumber());
+        assertEquals(1, hello.getParagraphNumber());
+        assertEquals(1, hello.getLineNumber());
+
+        OCRWord world = words.get(1);
+        assertEquals("world!", world.getText());
+        assertEquals(2, world.getBlockNumber());
+        assertEquals(3, world.getParagraphNumber());
+        assertEquals(4, world.getLineNumber());
+    }
+
+    @Test
+    public void skipsTheHeaderRow() {
+        String tsv = HEADER + "\n5\t1\t1\t1\t1\t1\t0\t0\t10\t10\t90\tword";
+        List<OCRWord> words = MonitoredTesseract.parseTsvWords(tsv);
+        assertEquals(1, words.size());
+        assertEquals("word", words.get(0).getText());
+    }
+
+    @Test
+    public void skipsBlankAndMalformedRows() {
+        String tsv = String.join("\n",
+                "5\t1\t1\t1\t1\t1\t0\t0\t10\t10\t90\t   ",
+                "5\t1\t1\t1\t1\t2\t0\t0\tten\t10\t90\tbadwidth",
+                "5\t1\t1\t1\t1\t3\t0\t0\t10\t10\thigh\tbadconf",
+                "5\t1\t1\t1\t1\t4\t0\t0\t10\t10",
+                "x\t1\t1\t1\t1\t5\t0\t0\t10\t10\t90\tbadlevel",
+                "",
+                "5\t1\t1\t1\t1\t6\t0\t0\t10\t10\t90\tkept");
+
+        List<OCRWord> words = MonitoredTesseract.parseTsvWords(tsv);
+        assertEquals(1, words.size());
+        assertEquals("kept", words.get(0).getText());
+    }
+
+    @Test
+    public void keepsTabsInsideTheTextAndStripsLineEnds() {
+        String tsv = "5\t1\t1\t1\t1\t1\t0\t0\t10\t10\t90\ta\tb\r\n";
+        List<OCRWord> words = MonitoredTesseract.parseTsvWords(tsv);
+        assertEquals(1, words.size());
+        assertEquals("a\tb", words.get(0).getText());
+    }
+
+    @Test
+    public void emptyInputHasNoWords() {
+        assertTrue(MonitoredTesseract.parseTsvWords(null).isEmpty());
+        assertTrue(MonitoredTesseract.parseTsvWords("").isEmpty());
+        assertTrue(MonitoredTesseract.parseTsvWords(HEADER).isEmpty());
+    }
+}
@@ -0,0 +1,168 @@
+package com.ocrapp.service;
+
+import com.ocrapp.model.OCRResult;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ResultStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void findsResultsAfterReopening() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        new ResultStore(directory).put("hash-a", "eng", null, result("first page", 91.5f));
+
+        ResultStore reopened = new ResultStore(directory);
+        OCRResult found = reopened.find("hash-a", "eng");
+        assertNotNull(found);
+        assertEquals("first page", found.getExtractedText());
+        assertEquals(91.5f, found.getConfidenceScore(), 0.001f);
+        assertEquals("/scans/page.png", found.getSourceImagePath());
+
+        assertNull(reopened.find("hash-a", "deu"));
+        assertNull(reopened.find("hash-b", "eng"));
+        assertNull(reopened.find(null, "eng"));
+    }
+
+    @Test
+    public void newerResultSupersedesOlder() throws IOException {
+        ResultStore store = new ResultStore(folder.getRoot().toPath());
+        store.put("hash-a", "eng", null, result("old text", 50f));
+        store.put("hash-a", "eng", null, result("new text", 80f));
+        store.put("hash-a", "deu", null, result("german text", 70f));
+
+        assertEquals("new text", store.find("hash-a", "eng").getExtractedText());
+        assertEquals("german text", store.find("hash-a", "deu").getExtractedText());
+        assertEquals(0, store.search("old", 10).size());
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    public void searchMatchesAllWordsWithPrefixOnTheLast() throws IOException {
+        ResultStore store = new ResultStore(folder.getRoot().toPath());
+        store.put("a", "eng", null, result("The quick brown fox", 90f));
+        store.put("b", "eng", null, result("Quick silver", 90f));
+        store.put("c", "eng", null, result("brown bear", 90f));
+
+        List<ResultStore.Entry> quick = store.search("QUICK", 10);
+        assertEquals(2, quick.size());
+        assertEquals("b", quick.get(0).getContentHash());
+        assertEquals("a", quick.get(1).getContentHash());
+
+        assertEquals(2, store.search("qui", 10).size());
+        assertEquals(1, store.search("brown fo", 10).size());
+        assertEquals(0, store.search("bro fox", 10).size());
+        assertEquals(3, store.search("", 10).size());
+        assertEquals(1, store.search("", 1).size());
+        assertEquals("c", store.search("", 1).get(0).getContentHash());
+    }
+
+    @Test
+    public void tornLastRecordIsTruncated() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        ResultStore store = new ResultStore(directory);
+        store.put("a", "eng", null, result("one", 90f));
+        store.put("b", "eng", null, result("two", 90f));
+        Path log = directory.resolve("results.log");
+        long intact = Files.size(log);
+
+        // a frame header promising more payload than was written
+        try (RandomAccessFile file = new RandomAccessFile(log.toFile(), "rw")) {
+            file.seek(intact);
+            file.writeInt(100);
+            file.writeInt(0);
+            file.write(new byte[10]);
+        }
+
+        ResultStore reopened = new ResultStore(directory);
+        assertEquals(2, reopened.size());
+        assertEquals(intact, Files.size(log));
+
+        reopened.put("c", "eng", null, result("three", 90f));
+        assertEquals(3, new ResultStore(directory).size());
+    }
+
+    @Test
+    public void recordWithBadChecksumIsDropped() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        ResultStore store = new ResultStore(directory);
+        store.put("a", "eng", null, result("one", 90f));
+        Path log = directory.resolve("results.log");
+        long afterFirst = Files.size(log);
+        store.put("b", "eng", null, result("two", 90f));
+
+        try (RandomAccessFile file = new RandomAccessFile(log.toFile(), "rw")) {
+            long last = file.length() - 1;
+            file.seek(last);
+            int value = file.read();
+            file.seek(last);
+            file.write(value ^ 0xFF);
+        }
+
+        ResultStore reopened = new ResultStore(directory);
+        assertEquals(1, reopened.size());
+        assertNull(reopened.find("b", "eng"));
+        assertEquals(afterFirst, Files.size(log));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsFilesThatAreNotAStore() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        Files.write(directory.resolve("results.log"), "NOTASTORE, just text".getBytes(StandardCharsets.US_ASCII));
+        new ResultStore(directory);
+    }
+
+    @Test
+    public void seesRecordsAppendedByAnotherWriter() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        ResultStore first = new ResultStore(directory);
+        ResultStore second = new ResultStore(directory);
+
+        first.put("a", "eng", null, result("from the first", 90f));
+        assertEquals("from the first", second.find("a", "eng").getExtractedText());
+
+        // appends go after the other writer's record instead of over it
+        second.put("b", "eng", null, result("from the second", 90f));
+        assertEquals(1, first.search("second", 10).size());
+        assertEquals("from the first", first.find("a", "eng").getExtractedText());
+        assertEquals(2, new ResultStore(directory).size());
+    }
+
+    @Test
+    public void hashesEqualBytesEqually() throws IOException {
+        byte[] bytes = "not really an image".getBytes(StandardCharsets.US_ASCII);
+        Path one = folder.newFile("one.png").toPath();
+        Path two = folder.newFile("two.png").toPath();
+        Files.write(one, bytes);
+        Files.write(two, bytes);
+
+        String hash = ResultStore.contentHash(ImageInput.fromFile(one.toFile()));
+        assertNotNull(hash);
+        assertEquals(64, hash.length());
+        assertEquals(hash, ResultStore.contentHash(ImageInput.fromFile(two.toFile())));
+        assertEquals(hash, ResultStore.contentHash(ImageInput.fromBytes(bytes, "bytes")));
+
+        Files.write(two, "different".getBytes(StandardCharsets.US_ASCII));
+        assertNotEquals(hash, ResultStore.contentHash(ImageInput.fromFile(two.toFile())));
+        assertNull(ResultStore.contentHash(null));
+    }
+
+    private static OCRResult result(String text, float confidence) {
+        return new OCRResult(text, confidence, "/scans/page.png");
+    }
+}
@@ -0,0 +1,127 @@
+package com.ocrapp.service;
+
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class TextHeightEstimatorTest {
+
+    @Test
+    public void findsTheHeightOfDarkTextOnLight() {
+        BufferedImage page = page(800, 600, Color.WHITE, Color.BLACK, 20);
+        assertEquals(20.0, TextHeightEstimator.estimateXHeight(page), 1.0);
+    }
+
+    @Test
+    public void findsTheHeightOfLightTextOnDark() {
+        BufferedImage page = page(800, 600, Color.BLACK, Color.WHITE, 20);
+        assertEquals(20.0, TextHeightEstimator.estimateXHeight(page), 1.0);
+    }
+
+    @Test
+    public void ignoresAscendersRulesAndFrames() {
+        BufferedImage page = page(800, 600, Color.WHITE, Color.BLACK, 16);
+        Graphics2D g = page.createGraphics();
+        g.setColor(Color.BLACK);
+        // a few taller letters
+        for (int x = 40; x < 400; x += 60) {
+            g.fillRect(x, 30, 10, 24);
+        }
+        // a rule under the text and a frame around the page
+        g.fillRect(20, 560, 760, 2);
+        g.drawRect(5, 5, 789, 589);
+        g.dispose();
+
+        assertEquals(16.0, TextHeightEstimator.estimateXHeight(page), 1.0);
+    }
+
+    @Test
+    public void joinsGlyphsWhosePartsMeetLower() {
+        // "U" shapes: two strokes that only connect on their last rows
+        BufferedImage image = blank(600, 200, Color.WHITE);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.BLACK);
+        for (int x = 20; x < 560; x += 30) {
+            g.fillRect(x, 50, 4, 18);
+            g.fillRect(x + 12, 50, 4, 18);
+            g.fillRect(x, 68, 16, 4);
+        }
+        g.dispose();
+
+        assertEquals(22.0, TextHeightEstimator.estimateXHeight(image), 1.0);
+    }
+
+    @Test
+    public void decimatesLargeImages() {
+        // 12 MP is analysed at every second pixel
+        BufferedImage page = page(4000, 3000, Color.WHITE, Color.BLACK, 40);
+        assertEquals(40.0, TextHeightEstimator.estimateXHeight(page), 2.0);
+    }
+
+    @Test
+    public void blankImageHasNoText() {
+        assertEquals(0.0, TextHeightEstimator.estimateXHeight(blank(400, 300, Color.WHITE)), 0.0);
+    }
+
+    @Test
+    public void noiseHasNoText() {
+        BufferedImage image = blank(400, 300, Color.WHITE);
+        Random random = new Random(3);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                if (random.nextBoolean()) {
+                    image.setRGB(x, y, 0x000000);
+                }
+            }
+        }
+        assertEquals(0.0, TextHeightEstimator.estimateXHeight(image), 0.0);
+    }
+
+    @Test
+    public void tooFewGlyphsAreNotText() {
+        BufferedImage image = blank(400, 300, Color.WHITE);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.BLACK);
+        for (int x = 20; x < 120; x += 20) {
+            g.fillRect(x, 100, 10, 20);
+        }
+        g.dispose();
+        assertEquals(0.0, TextHeightEstimator.estimateXHeight(image), 0.0);
+    }
+
+    @Test
+    public void tinyImageHasNoText() {
+        assertEquals(0.0, TextHeightEstimator.estimateXHeight(blank(2, 50, Color.WHITE)), 0.0);
+    }
+
+    /**
+     * Lines of block "letters" of one height, spaced like running text
+     */
+    private static BufferedImage page(int width, int height, Color background, Color ink, int letterHeight) {
+        BufferedImage image = blank(width, height, background);
+        Graphics2D g = image.createGraphics();
+        g.setColor(ink);
+        int letterWidth = letterHeight * 3 / 5;
+        for (int y = letterHeight * 3; y + letterHeight < height - letterHeight * 2; y += letterHeight * 2) {
+            for (int x = letterHeight; x + letterWidth < width - letterHeight; x += letterWidth + letterHeight / 4) {
+                g.fillRect(x, y, letterWidth, letterHeight);
+            }
+        }
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage blank(int width, int height, Color background) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(background);
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        return image;
+    }
+}
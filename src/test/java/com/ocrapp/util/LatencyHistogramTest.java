@@ -0,0 +1,109 @@
+package com.ocrapp.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyHistogramReportsZeros() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(0, histogram.getMinValue());
+        assertEquals(0, histogram.getMaxValue());
+        assertEquals(0.0, histogram.getMean(), 0.0);
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.recordValue(value);
+        }
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(1, histogram.getValueAtPercentile(1));
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(90, histogram.getValueAtPercentile(90));
+        assertEquals(99, histogram.getValueAtPercentile(99));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+        assertEquals(50.5, histogram.getMean(), 1e-9);
+    }
+
+    @Test
+    public void percentilesOutOfRangeAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValue(10);
+        histogram.recordValue(20);
+        assertEquals(10, histogram.getValueAtPercentile(-5));
+        assertEquals(20, histogram.getValueAtPercentile(150));
+    }
+
+    @Test
+    public void negativeValuesCountAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValue(-7);
+        assertEquals(1, histogram.getTotalCount());
+        assertEquals(0, histogram.getMinValue());
+        assertEquals(0, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void largeValuesStayWithinTheBucketError() {
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            long value = 128 + (random.nextLong() >>> (1 + random.nextInt(62)));
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.recordValue(value);
+            // a larger second value keeps the result from being capped at the max
+            histogram.recordValue(Long.MAX_VALUE);
+
+            long reported = histogram.getValueAtPercentile(50);
+            assertTrue("reported " + reported + " below " + value, reported >= value);
+            assertTrue("reported " + reported + " too far above " + value,
+                    reported - value <= value / 64);
+        }
+    }
+
+    @Test
+    public void bucketBoundariesLandInTheirOwnBucket() {
+        for (int shift = 7; shift < 62; shift++) {
+            long power = 1L << shift;
+            for (long value : new long[] {power - 1, power, power + 1}) {
+                LatencyHistogram histogram = new LatencyHistogram();
+                histogram.recordValue(value);
+                histogram.recordValue(Long.MAX_VALUE);
+                long reported = histogram.getValueAtPercentile(50);
+                assertTrue(value + " reported as " + reported, reported >= value && reported - value <= value / 64);
+            }
+        }
+    }
+
+    @Test
+    public void percentileIsCappedAtTheMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValue(1_000_001);
+        assertEquals(1_000_001, histogram.getValueAtPercentile(99.9));
+    }
+
+    @Test
+    public void resetClearsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValue(5);
+        histogram.recordValue(5_000_000);
+        histogram.reset();
+
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getTotalValue());
+        assertEquals(0, histogram.getMaxValue());
+        assertEquals(0, histogram.getMinValue());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+
+        histogram.recordValue(3);
+        assertEquals(3, histogram.getValueAtPercentile(50));
+    }
+}
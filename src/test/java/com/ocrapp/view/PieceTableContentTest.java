@@ -0,0 +1,177 @@
+package com.ocrapp.view;
+
+import org.junit.Test;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Position;
+import javax.swing.undo.UndoableEdit;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PieceTableContentTest {
+
+    @Test
+    public void startsWithTheImpliedNewline() throws BadLocationException {
+        PieceTableContent content = new PieceTableContent();
+        assertEquals(1, content.length());
+        assertEquals("\n", content.getString(0, 1));
+        assertEquals(1, content.getLineCount());
+    }
+
+    @Test
+    public void insertsAtStartMiddleAndEnd() throws BadLocationException {
+        PieceTableContent content = new PieceTableContent();
+        content.insertString(0, "helloworld");
+        content.insertString(5, ", ");
+        content.insertString(0, ">> ");
+        content.insertString(content.length() - 1, "!");
+        assertEquals(">> hello, world!\n", text(content));
+    }
+
+    @Test
+    public void removesAcrossPieces() throws BadLocationException {
+        PieceTableContent content = new PieceTableContent();
+        content.insertString(0, "abc");
+        content.insertString(3, "def");
+        content.insertString(0, "xyz");
+        assertEquals("xyzabcdef\n", text(content));
+
+        content.remove(2, 5);
+        assertEquals("xyef\n", text(content));
+    }
+
+    @Test
+    public void removingEverythingLeavesTheNewline() throws BadLocationException {
+        PieceTableContent content = new PieceTableContent();
+        content.insertString(0, "one\ntwo");
+        content.remove(0, content.length() - 1);
+        assertEquals(1, content.length());
+        assertEquals(1, content.getLineCount());
+
+        content.insertString(0, "again");
+        assertEquals("again\n", text(content));
+    }
+
+    @Test
+    public void emptyEditsReturnNoUndo() throws BadLocationException {
+        PieceTableContent content = new PieceTableContent();
+        assertNull(content.insertString(0, ""));
+        assertNull(content.remove(0, 0));
+    }
+
+    @Test(expected = BadLocationException.class)
+    public void rejectsInsertAfterTheNewline() throws BadLocationException {
+        new PieceTableContent().insertString(1, "x");
+    }
+
+    @Test(expected = BadLocationException.class)
+    public void rejectsRemovingTheNewline() throws BadLocationException {
+        PieceTableContent content = new PieceTableContent();
+        content.insertString(0, "abc");
+        content.remove(1, 3);
+    }
+
+    @Test
+    public void mapsLinesAndOffsets() throws BadLocationException {
+        PieceTableContent content = new PieceTableContent();
+        content.insertString(0, "a\nbb\nccc");
+
+        assertEquals(3, content.getLineCount());
+        assertEquals(0, content.getLineStartOffset(0));
+        assertEquals(2, content.getLineStartOffset(1));
+        assertEquals(5, content.getLineStartOffset(2));
+
+        assertEquals(0, content.getLineOfOffset(0));
+        assertEquals(0, content.getLineOfOffset(1));
+        assertEquals(1, content.getLineOfOffset(2));
+        assertEquals(1, content.getLineOfOffset(4));
+        assertEquals(2, content.getLineOfOffset(5));
+        assertEquals(2, content.getLineOfOffset(content.length() + 10));
+    }
+
+    @Test
+    public void positionsFollowEdits() throws BadLocationException {
+        PieceTableContent content = new PieceTableContent();
+        content.insertString(0, "0123456789");
+        Position start = content.createPosition(0);
+        Position middle = content.createPosition(5);
+        Position end = content.createPosition(10);
+
+        content.insertString(5, "abc");
+        assertEquals(0, start.getOffset());
+        assertEquals(8, middle.getOffset());
+        assertEquals(13, end.getOffset());
+
+        // a removed range collapses onto its start
+        content.remove(3, 6);
+        assertEquals(0, start.getOffset());
+        assertEquals(3, middle.getOffset());
+        assertEquals(7, end.getOffset());
+    }
+
+    @Test
+    public void undoesAndRedoesEdits() throws BadLocationException {
+        PieceTableContent content = new PieceTableContent();
+        content.insertString(0, "hello world");
+        UndoableEdit insert = content.insertString(5, ",");
+        UndoableEdit remove = content.remove(0, 7);
+        assertEquals("world\n", text(content));
+
+        remove.undo();
+        assertEquals("hello, world\n", text(content));
+        insert.undo();
+        assertEquals("hello world\n", text(content));
+        insert.redo();
+        remove.redo();
+        assertEquals("world\n", text(content));
+    }
+
+    @Test
+    public void matchesAStringBuilderUnderRandomEdits() throws BadLocationException {
+        Random random = new Random(42);
+        PieceTableContent content = new PieceTableContent();
+        StringBuilder expected = new StringBuilder("\n");
+
+        for (int i = 0; i < 2000; i++) {
+            int length = expected.length();
+            if (length > 1 && random.nextInt(3) == 0) {
+                int where = random.nextInt(length - 1);
+                int count = 1 + random.nextInt(Math.min(20, length - 1 - where));
+                content.remove(where, count);
+                expected.delete(where, where + count);
+            } else {
+                int where = random.nextInt(length);
+                String str = randomText(random);
+                content.insertString(where, str);
+                expected.insert(where, str);
+            }
+        }
+
+        assertEquals(expected.toString(), text(content));
+        int line = 0;
+        for (int offset = 0; offset < expected.length(); offset++) {
+            assertEquals("line of offset " + offset, line, content.getLineOfOffset(offset));
+            if (offset == 0 || expected.charAt(offset - 1) == '\n') {
+                assertEquals("start of line " + line, offset, content.getLineStartOffset(line));
+            }
+            if (expected.charAt(offset) == '\n') {
+                line++;
+            }
+        }
+        assertEquals(line, content.getLineCount());
+    }
+
+    private static String randomText(Random random) {
+        char[] chars = new char[1 + random.nextInt(12)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (random.nextInt(6) == 0) ? '\n' : (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    private static String text(PieceTableContent content) throws BadLocationException {
+        return content.getString(0, content.length());
+    }
+}